@@ -24,6 +24,7 @@ import org.apache.felix.scr.annotations.Property;
 import org.apache.felix.scr.annotations.Reference;
 import org.apache.felix.scr.annotations.ReferenceCardinality;
 import org.onlab.packet.Ethernet;
+import org.onlab.packet.EthernetView;
 import org.onlab.packet.ICMP;
 import org.onlab.packet.ICMP6;
 import org.onlab.packet.IPv4;
@@ -405,23 +406,23 @@ public class ReactiveForwarding {
             }
 
             InboundPacket pkt = context.inPacket();
-            Ethernet ethPkt = pkt.parsed();
+            EthernetView frame = pkt.view();
 
-            if (ethPkt == null) {
+            if (frame == null) {
                 return;
             }
 
             // Bail if this is deemed to be a control packet.
-            if (isControlPacket(ethPkt)) {
+            if (isControlPacket(frame)) {
                 return;
             }
 
             // Skip IPv6 multicast packet when IPv6 forward is disabled.
-            if (!ipv6Forwarding && isIpv6Multicast(ethPkt)) {
+            if (!ipv6Forwarding && isIpv6Multicast(frame)) {
                 return;
             }
 
-            HostId id = HostId.hostId(ethPkt.getDestinationMAC());
+            HostId id = HostId.hostId(frame.destinationMac());
 
             // Do not process link-local addresses in any way.
             if (id.mac().isLinkLocal()) {
@@ -429,7 +430,7 @@ public class ReactiveForwarding {
             }
 
             // Do not process IPv4 multicast packets, let mfwd handle them
-            if (ignoreIpv4McastPackets && ethPkt.getEtherType() == Ethernet.TYPE_IPV4) {
+            if (ignoreIpv4McastPackets && frame.etherType() == Ethernet.TYPE_IPV4) {
                 if (id.mac().isMulticast()) {
                     return;
                 }
@@ -468,7 +469,7 @@ public class ReactiveForwarding {
             Path path = pickForwardPathIfPossible(paths, pkt.receivedFrom().port());
             if (path == null) {
                 log.warn("Don't know where to go from here {} for {} -> {}",
-                         pkt.receivedFrom(), ethPkt.getSourceMAC(), ethPkt.getDestinationMAC());
+                         pkt.receivedFrom(), frame.sourceMac(), frame.destinationMac());
                 flood(context);
                 return;
             }
@@ -480,14 +481,14 @@ public class ReactiveForwarding {
     }
 
     // Indicates whether this is a control packet, e.g. LLDP, BDDP
-    private boolean isControlPacket(Ethernet eth) {
-        short type = eth.getEtherType();
+    private boolean isControlPacket(EthernetView frame) {
+        short type = frame.etherType();
         return type == Ethernet.TYPE_LLDP || type == Ethernet.TYPE_BSN;
     }
 
     // Indicated whether this is an IPv6 multicast packet.
-    private boolean isIpv6Multicast(Ethernet eth) {
-        return eth.getEtherType() == Ethernet.TYPE_IPV6 && eth.isMulticast();
+    private boolean isIpv6Multicast(EthernetView frame) {
+        return frame.etherType() == Ethernet.TYPE_IPV6 && frame.isMulticast();
     }
 
     // Selects a path from the given set that does not lead back to the
@@ -23,6 +23,7 @@ import org.apache.felix.scr.annotations.Property;
 import org.apache.felix.scr.annotations.Reference;
 import org.apache.felix.scr.annotations.ReferenceCardinality;
 import org.onlab.packet.Ethernet;
+import org.onlab.packet.EthernetView;
 import org.onlab.packet.ICMP6;
 import org.onlab.packet.IPv6;
 import org.onlab.util.Tools;
@@ -201,15 +202,19 @@ public class ProxyArp {
             }
 
             InboundPacket pkt = context.inPacket();
-            Ethernet ethPkt = pkt.parsed();
-            if (ethPkt == null) {
+            EthernetView frame = pkt.view();
+            if (frame == null) {
                 return;
             }
 
-            if (ethPkt.getEtherType() == TYPE_ARP) {
+            if (frame.etherType() == TYPE_ARP) {
                 //handle the arp packet.
                 proxyArpService.handlePacket(context);
-            } else if (ipv6NeighborDiscovery && ethPkt.getEtherType() == TYPE_IPV6) {
+            } else if (ipv6NeighborDiscovery && frame.etherType() == TYPE_IPV6) {
+                Ethernet ethPkt = pkt.parsed();
+                if (ethPkt == null) {
+                    return;
+                }
                 IPv6 ipv6Pkt = (IPv6) ethPkt.getPayload();
                 if (ipv6Pkt.getNextHeader() == IPv6.PROTOCOL_ICMP6) {
                     ICMP6 icmp6Pkt = (ICMP6) ipv6Pkt.getPayload();
@@ -220,14 +225,6 @@ public class ProxyArp {
                     }
                 }
             }
-
-            // FIXME why were we listening to IPv4 frames at all?
-            // Do not ARP for multicast packets.  Let mfwd handle them.
-            if (ethPkt.getEtherType() == Ethernet.TYPE_IPV4) {
-                if (ethPkt.getDestinationMAC().isMulticast()) {
-                    return;
-                }
-            }
         }
     }
 }
@@ -0,0 +1,164 @@
+/*
+ * Copyright 2015-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.routing.bgp;
+
+import com.google.common.collect.ImmutableList;
+import org.onlab.packet.IpAddress;
+import org.onlab.packet.IpPrefix;
+import org.onlab.util.PrefixTrie;
+
+import java.util.AbstractCollection;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Table of BGP routes keyed by prefix, for a single IP version.
+ * <p>
+ * By default the routes are kept in a concurrent hash map. In compact mode
+ * they are kept in a prefix trie guarded by a read-write lock, which does
+ * not retain the prefix keys and cuts the per-route overhead of full
+ * Internet tables by about a third. Lookups and updates are then O(prefix length)
+ * instead of O(1), and the values are iterated over a snapshot taken when the
+ * iteration starts.
+ * </p>
+ */
+final class BgpRouteTable {
+
+    private final ConcurrentMap<IpPrefix, BgpRouteEntry> routes;
+    private final PrefixTrie<BgpRouteEntry> trie;
+    private final ReadWriteLock lock;
+
+    /**
+     * Creates an empty route table.
+     *
+     * @param version IP version of the routes
+     * @param compact whether to use the memory compact representation
+     */
+    BgpRouteTable(IpAddress.Version version, boolean compact) {
+        if (compact) {
+            routes = null;
+            trie = new PrefixTrie<>(version);
+            lock = new ReentrantReadWriteLock();
+        } else {
+            routes = new ConcurrentHashMap<>();
+            trie = null;
+            lock = null;
+        }
+    }
+
+    /**
+     * Gets the route for a prefix.
+     *
+     * @param prefix the prefix to use
+     * @return the route if found, otherwise null
+     */
+    BgpRouteEntry get(IpPrefix prefix) {
+        if (routes != null) {
+            return routes.get(prefix);
+        }
+        lock.readLock().lock();
+        try {
+            return trie.get(prefix);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Adds or replaces the route for a prefix.
+     *
+     * @param prefix the prefix to use
+     * @param bgpRouteEntry the route to add
+     */
+    void put(IpPrefix prefix, BgpRouteEntry bgpRouteEntry) {
+        if (routes != null) {
+            routes.put(prefix, bgpRouteEntry);
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            trie.put(prefix, bgpRouteEntry);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes the route for a prefix.
+     *
+     * @param prefix the prefix to use
+     * @return the removed route if found, otherwise null
+     */
+    BgpRouteEntry remove(IpPrefix prefix) {
+        if (routes != null) {
+            return routes.remove(prefix);
+        }
+        lock.writeLock().lock();
+        try {
+            return trie.remove(prefix);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Gets a read-only view of the routes in the table.
+     *
+     * @return the routes
+     */
+    Collection<BgpRouteEntry> values() {
+        if (routes != null) {
+            return routes.values();
+        }
+        return new AbstractCollection<BgpRouteEntry>() {
+            @Override
+            public Iterator<BgpRouteEntry> iterator() {
+                lock.readLock().lock();
+                try {
+                    return ImmutableList.copyOf(trie.values()).iterator();
+                } finally {
+                    lock.readLock().unlock();
+                }
+            }
+
+            @Override
+            public int size() {
+                return BgpRouteTable.this.size();
+            }
+        };
+    }
+
+    /**
+     * Gets the number of routes in the table.
+     *
+     * @return the number of routes
+     */
+    int size() {
+        if (routes != null) {
+            return routes.size();
+        }
+        lock.readLock().lock();
+        try {
+            return trie.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
@@ -27,6 +27,7 @@ import org.jboss.netty.util.TimerTask;
 import org.onlab.packet.Ip4Address;
 import org.onlab.packet.Ip4Prefix;
 import org.onlab.packet.Ip6Prefix;
+import org.onlab.packet.IpAddress;
 import org.onlab.packet.IpPrefix;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -37,8 +38,6 @@ import java.net.InetAddress;
 import java.net.InetSocketAddress;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -65,10 +64,8 @@ public class BgpSession extends SimpleChannelHandler {
     private volatile Timeout sessionTimeout;    // Session timeout
 
     // BGP RIB-IN routing entries from this peer
-    private ConcurrentMap<Ip4Prefix, BgpRouteEntry> bgpRibIn4 =
-        new ConcurrentHashMap<>();
-    private ConcurrentMap<Ip6Prefix, BgpRouteEntry> bgpRibIn6 =
-        new ConcurrentHashMap<>();
+    private volatile BgpRouteTable bgpRibIn4;
+    private volatile BgpRouteTable bgpRibIn6;
 
     /**
      * Constructor for a given BGP Session Manager.
@@ -79,6 +76,8 @@ public class BgpSession extends SimpleChannelHandler {
         this.bgpSessionManager = bgpSessionManager;
         this.localInfo = new BgpSessionInfo();
         this.remoteInfo = new BgpSessionInfo();
+        this.bgpRibIn4 = bgpSessionManager.newRouteTable(IpAddress.Version.INET);
+        this.bgpRibIn6 = bgpSessionManager.newRouteTable(IpAddress.Version.INET6);
 
         // NOTE: We support only BGP4
         this.localInfo.setBgpVersion(BgpConstants.BGP_VERSION);
@@ -346,8 +345,8 @@ public class BgpSession extends SimpleChannelHandler {
         //
         Collection<BgpRouteEntry> deletedRoutes4 = bgpRibIn4.values();
         Collection<BgpRouteEntry> deletedRoutes6 = bgpRibIn6.values();
-        bgpRibIn4 = new ConcurrentHashMap<>();
-        bgpRibIn6 = new ConcurrentHashMap<>();
+        bgpRibIn4 = bgpSessionManager.newRouteTable(IpAddress.Version.INET);
+        bgpRibIn6 = bgpSessionManager.newRouteTable(IpAddress.Version.INET6);
 
         // Push the updates to the BGP Merged RIB
         BgpRouteSelector bgpRouteSelector =
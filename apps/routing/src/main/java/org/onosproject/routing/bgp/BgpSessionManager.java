@@ -15,10 +15,13 @@
  */
 package org.onosproject.routing.bgp;
 
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
 import org.apache.felix.scr.annotations.Activate;
 import org.apache.felix.scr.annotations.Component;
 import org.apache.felix.scr.annotations.Deactivate;
 import org.apache.felix.scr.annotations.Modified;
+import org.apache.felix.scr.annotations.Property;
 import org.apache.felix.scr.annotations.Reference;
 import org.apache.felix.scr.annotations.ReferenceCardinality;
 import org.apache.felix.scr.annotations.Service;
@@ -33,8 +36,7 @@ import org.jboss.netty.channel.group.ChannelGroup;
 import org.jboss.netty.channel.group.DefaultChannelGroup;
 import org.jboss.netty.channel.socket.nio.NioServerSocketChannelFactory;
 import org.onlab.packet.Ip4Address;
-import org.onlab.packet.Ip4Prefix;
-import org.onlab.packet.Ip6Prefix;
+import org.onlab.packet.IpAddress;
 import org.onlab.packet.IpPrefix;
 import org.onosproject.incubator.net.routing.Route;
 import org.onosproject.incubator.net.routing.RouteAdminService;
@@ -74,17 +76,24 @@ public class BgpSessionManager implements BgpInfoService {
     private Ip4Address myBgpId;        // Same BGP ID for all peers
 
     private BgpRouteSelector bgpRouteSelector = new BgpRouteSelector(this);
-    private ConcurrentMap<Ip4Prefix, BgpRouteEntry> bgpRoutes4 =
-            new ConcurrentHashMap<>();
-    private ConcurrentMap<Ip6Prefix, BgpRouteEntry> bgpRoutes6 =
-            new ConcurrentHashMap<>();
+    private BgpRouteTable bgpRoutes4 = newRouteTable(IpAddress.Version.INET);
+    private BgpRouteTable bgpRoutes6 = newRouteTable(IpAddress.Version.INET6);
+    private final Interner<BgpRouteEntry.AsPath> asPaths = Interners.newWeakInterner();
 
     private static final int DEFAULT_BGP_PORT = 2000;
     private int bgpPort;
 
+    @Property(name = "compactRib", boolValue = false,
+            label = "Keep the RIBs in prefix tries, trading lookup speed for " +
+                    "memory on full Internet tables; changing it restarts " +
+                    "the BGP sessions")
+    private boolean compactRib;
+
     @Activate
     protected void activate(ComponentContext context) {
         readComponentConfiguration(context);
+        bgpRoutes4 = newRouteTable(IpAddress.Version.INET);
+        bgpRoutes6 = newRouteTable(IpAddress.Version.INET6);
         start();
         log.info("BgpSessionManager started");
     }
@@ -113,13 +122,47 @@ public class BgpSessionManager implements BgpInfoService {
             bgpPort = DEFAULT_BGP_PORT;
         }
         log.debug("BGP port is set to {}", bgpPort);
+
+        // Compact RIBs trade lookup speed for memory on full Internet tables
+        compactRib = Boolean.parseBoolean(String.valueOf(properties.get("compactRib")));
+        log.debug("BGP compact RIB is set to {}", compactRib);
+    }
+
+    /**
+     * Creates a BGP route table, using the configured RIB representation.
+     *
+     * @param version the IP version of the routes
+     * @return the BGP route table
+     */
+    BgpRouteTable newRouteTable(IpAddress.Version version) {
+        return new BgpRouteTable(version, compactRib);
+    }
+
+    /**
+     * Interns an AS path, so the routes sharing it also share one instance
+     * when the RIB is compact.
+     *
+     * @param asPath the AS path to intern
+     * @return the canonical AS path
+     */
+    BgpRouteEntry.AsPath internAsPath(BgpRouteEntry.AsPath asPath) {
+        return compactRib ? asPaths.intern(asPath) : asPath;
     }
 
     @Modified
     public void modified(ComponentContext context) {
-        // Blank @Modified method to catch modifications to the context.
-        // If no @Modified method exists, it seems @Activate is called again
-        // when the context is modified.
+        boolean wasCompactRib = compactRib;
+        readComponentConfiguration(context);
+        if (compactRib == wasCompactRib) {
+            return;
+        }
+
+        // The RIBs are rebuilt empty and refilled as the peers reconnect
+        log.info("BGP compact RIB changed to {}, restarting BGP sessions", compactRib);
+        stop();
+        bgpRoutes4 = newRouteTable(IpAddress.Version.INET);
+        bgpRoutes6 = newRouteTable(IpAddress.Version.INET6);
+        start();
     }
 
     /**
@@ -181,11 +224,9 @@ public class BgpSessionManager implements BgpInfoService {
      */
     void addBgpRoute(BgpRouteEntry bgpRouteEntry) {
         if (bgpRouteEntry.isIp4()) {
-            bgpRoutes4.put(bgpRouteEntry.prefix().getIp4Prefix(),       // IPv4
-                           bgpRouteEntry);
+            bgpRoutes4.put(bgpRouteEntry.prefix(), bgpRouteEntry);       // IPv4
         } else {
-            bgpRoutes6.put(bgpRouteEntry.prefix().getIp6Prefix(),       // IPv6
-                           bgpRouteEntry);
+            bgpRoutes6.put(bgpRouteEntry.prefix(), bgpRouteEntry);       // IPv6
         }
     }
 
@@ -788,7 +788,8 @@ final class BgpUpdate {
             pathSegments.add(pathSegment);
         }
 
-        return new BgpRouteEntry.AsPath(pathSegments);
+        return bgpSession.getBgpSessionManager()
+            .internAsPath(new BgpRouteEntry.AsPath(pathSegments));
     }
 
     /**
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2015-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.routing.bgp;
+
+import org.easymock.EasyMock;
+import org.junit.Before;
+import org.junit.Test;
+import org.onlab.packet.Ip4Address;
+import org.onlab.packet.Ip4Prefix;
+import org.onlab.packet.IpAddress;
+
+import java.util.ArrayList;
+import java.util.Collection;
+
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Unit tests for the BgpRouteTable class.
+ */
+public class BgpRouteTableTest {
+    private BgpSession bgpSession;
+    private BgpRouteEntry.AsPath asPath;
+
+    @Before
+    public void setUp() {
+        bgpSession = EasyMock.createMock(BgpSession.class);
+        asPath = new BgpRouteEntry.AsPath(new ArrayList<>());
+    }
+
+    private BgpRouteEntry route(String prefix, String nextHop) {
+        return new BgpRouteEntry(bgpSession, Ip4Prefix.valueOf(prefix),
+                                 Ip4Address.valueOf(nextHop),
+                                 (byte) BgpConstants.Update.Origin.IGP, asPath, 100);
+    }
+
+    private void checkTable(BgpRouteTable table) {
+        BgpRouteEntry route1 = route("10.0.0.0/8", "192.168.10.1");
+        BgpRouteEntry route2 = route("10.1.0.0/16", "192.168.10.2");
+        BgpRouteEntry route3 = route("10.1.0.0/16", "192.168.10.3");
+
+        table.put(route1.prefix(), route1);
+        table.put(route2.prefix(), route2);
+        assertThat(table.size(), is(2));
+        assertThat(table.get(Ip4Prefix.valueOf("10.1.0.0/16")), is(route2));
+        assertThat(table.get(Ip4Prefix.valueOf("10.1.0.0/24")), nullValue());
+
+        Collection<BgpRouteEntry> values = table.values();
+        table.put(route3.prefix(), route3);
+        assertThat(table.size(), is(2));
+        assertThat(values, containsInAnyOrder(route1, route3));
+
+        assertThat(table.remove(Ip4Prefix.valueOf("10.0.0.0/8")), is(route1));
+        assertThat(table.remove(Ip4Prefix.valueOf("10.0.0.0/8")), nullValue());
+        assertThat(table.size(), is(1));
+        assertThat(values, containsInAnyOrder(route3));
+        assertThat(table.get(Ip4Prefix.valueOf("10.1.0.0/16")), is(route3));
+    }
+
+    /**
+     * Tests the route table backed by a hash map.
+     */
+    @Test
+    public void testHashTable() {
+        checkTable(new BgpRouteTable(IpAddress.Version.INET, false));
+    }
+
+    /**
+     * Tests the compact route table backed by a prefix trie.
+     */
+    @Test
+    public void testCompactTable() {
+        checkTable(new BgpRouteTable(IpAddress.Version.INET, true));
+    }
+}
@@ -53,6 +53,7 @@ import static org.easymock.EasyMock.replay;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
 import static org.junit.Assert.assertThat;
 
 /**
@@ -226,10 +227,16 @@ public class BgpSessionManagerTest {
         return new BgpRouteEntryAndPeerMatcher(bgpRouteEntry);
     }
 
-    @SuppressWarnings("unchecked")
     private void getDictionaryMock(ComponentContext componentContext) {
+        getDictionaryMock(componentContext, null);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void getDictionaryMock(ComponentContext componentContext,
+                                   String compactRib) {
         Dictionary dictionary = createMock(Dictionary.class);
         expect(dictionary.get("bgpPort")).andReturn("0");
+        expect(dictionary.get("compactRib")).andReturn(compactRib);
         replay(dictionary);
         expect(componentContext.getProperties()).andReturn(dictionary);
     }
@@ -880,4 +887,29 @@ public class BgpSessionManagerTest {
         bgpRoutes = waitForBgpRoutes(0);
         assertThat(bgpRoutes, hasSize(0));
     }
+
+    /**
+     * Tests that changing the compact RIB setting rebuilds the RIBs in
+     * the compact representation and restarts listening for BGP
+     * connections.
+     *
+     * @throws TestUtilsException TestUtils error
+     */
+    @Test
+    public void testModifiedCompactRib() throws TestUtilsException {
+        BgpRouteTable bgpRoutes4 = TestUtils.getField(bgpSessionManager, "bgpRoutes4");
+        assertThat(TestUtils.getField(bgpRoutes4, "trie"), nullValue());
+
+        ComponentContext componentContext = createMock(ComponentContext.class);
+        getDictionaryMock(componentContext, "true");
+        replay(componentContext);
+        bgpSessionManager.modified(componentContext);
+
+        bgpRoutes4 = TestUtils.getField(bgpSessionManager, "bgpRoutes4");
+        BgpRouteTable bgpRoutes6 = TestUtils.getField(bgpSessionManager, "bgpRoutes6");
+        assertThat(TestUtils.getField(bgpRoutes4, "trie"), notNullValue());
+        assertThat(TestUtils.getField(bgpRoutes6, "trie"), notNullValue());
+        Channel serverChannel = TestUtils.getField(bgpSessionManager, "serverChannel");
+        assertThat(serverChannel.isBound(), is(true));
+    }
 }
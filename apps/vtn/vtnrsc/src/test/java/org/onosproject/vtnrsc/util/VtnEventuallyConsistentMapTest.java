@@ -229,6 +229,17 @@ public final class VtnEventuallyConsistentMapTest<K, V> extends VtnEventuallyCon
             return this;
         }
 
+        @Override
+        public EventuallyConsistentMapBuilder<K, V> withBucketedAntiEntropy() {
+            return this;
+        }
+
+        @Override
+        public EventuallyConsistentMapBuilder<K, V> withUpdateBatching(int maxBatchSize, long maxBatchDelay,
+                                                                       TimeUnit unit) {
+            return this;
+        }
+
         @Override
         public EventuallyConsistentMapBuilder<K, V> withPersistence() {
             return this;
@@ -15,13 +15,18 @@
  */
 package org.onosproject.net.flow;
 
+import com.google.common.collect.ImmutableList;
 import org.onosproject.event.AbstractEvent;
 
+import java.util.List;
+
 /**
  * Describes flow rule event.
  */
 public class FlowRuleEvent extends AbstractEvent<FlowRuleEvent.Type, FlowRule> {
 
+    private final List<FlowEntry> flowEntries;
+
     /**
      * Type of flow rule events.
      */
@@ -41,6 +46,13 @@ public class FlowRuleEvent extends AbstractEvent<FlowRuleEvent.Type, FlowRule> {
          */
         RULE_UPDATED,
 
+        /**
+         * Signifies that the counters of a batch of flow rules of a device
+         * have been refreshed from its statistics. The subject is the first
+         * rule of the batch; all of them are given by {@link #flowEntries()}.
+         */
+        RULES_UPDATED,
+
         // internal event between Manager <-> Store
 
         /*
@@ -62,6 +74,7 @@ public class FlowRuleEvent extends AbstractEvent<FlowRuleEvent.Type, FlowRule> {
      */
     public FlowRuleEvent(Type type, FlowRule flowRule) {
         super(type, flowRule);
+        this.flowEntries = null;
     }
 
     /**
@@ -73,6 +86,29 @@ public class FlowRuleEvent extends AbstractEvent<FlowRuleEvent.Type, FlowRule> {
      */
     public FlowRuleEvent(Type type, FlowRule flowRule, long time) {
         super(type, flowRule, time);
+        this.flowEntries = null;
+    }
+
+    /**
+     * Creates an event of a given type for a batch of flow entries of the
+     * same device and the current time.
+     *
+     * @param type        flow rule event type
+     * @param flowEntries event flow entries; must not be empty
+     */
+    public FlowRuleEvent(Type type, List<FlowEntry> flowEntries) {
+        super(type, flowEntries.get(0));
+        this.flowEntries = ImmutableList.copyOf(flowEntries);
+    }
+
+    /**
+     * Returns the flow entries of a batch event.
+     *
+     * @return flow entries of the batch, or an empty list if this event
+     * concerns a single flow rule
+     */
+    public List<FlowEntry> flowEntries() {
+        return flowEntries == null ? ImmutableList.of() : flowEntries;
     }
 
 }
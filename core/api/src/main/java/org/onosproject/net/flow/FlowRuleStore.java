@@ -15,8 +15,11 @@
  */
 package org.onosproject.net.flow;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.function.BiPredicate;
 
+import com.google.common.collect.Iterables;
 import org.onosproject.net.DeviceId;
 import org.onosproject.store.Store;
 
@@ -32,6 +35,16 @@ public interface FlowRuleStore extends Store<FlowRuleBatchEvent, FlowRuleStoreDe
      */
     int getFlowRuleCount();
 
+    /**
+     * Returns the number of flow rules of a device in the store.
+     *
+     * @param deviceId the device ID
+     * @return number of flow rules of the device
+     */
+    default int getFlowRuleCount(DeviceId deviceId) {
+        return Iterables.size(getFlowEntries(deviceId));
+    }
+
     /**
      * Returns the stored flow.
      *
@@ -90,6 +103,34 @@ public interface FlowRuleStore extends Store<FlowRuleBatchEvent, FlowRuleStoreDe
      */
     FlowRuleEvent addOrUpdateFlowRule(FlowEntry rule);
 
+    /**
+     * Applies the flow statistics reported by a device to the stored flow
+     * entries in bulk. Each reported entry is looked up once and handed to
+     * the filter along with its stored counterpart, or null if there is none;
+     * if the filter accepts the pair, the stored counters are refreshed in
+     * place. No event is generated for a plain counter refresh.
+     *
+     * @param deviceId    device identifier
+     * @param flowEntries flow entries reported by the device
+     * @param filter      decides, given the reported and the stored entry,
+     *                    whether the stored entry is to be updated
+     * @return flow_added events of the entries which got confirmed
+     */
+    default List<FlowRuleEvent> updateFlowStatistics(DeviceId deviceId,
+                                                     Iterable<FlowEntry> flowEntries,
+                                                     BiPredicate<FlowEntry, FlowEntry> filter) {
+        List<FlowRuleEvent> events = new ArrayList<>();
+        for (FlowEntry entry : flowEntries) {
+            if (filter.test(entry, getFlowEntry(entry))) {
+                FlowRuleEvent event = addOrUpdateFlowRule(entry);
+                if (event != null && event.type() == FlowRuleEvent.Type.RULE_ADDED) {
+                    events.add(event);
+                }
+            }
+        }
+        return events;
+    }
+
     /**
      * @param rule the flow entry to remove
      * @return flow_removed event, or null if nothing removed
@@ -15,9 +15,14 @@
  */
 package org.onosproject.net.packet;
 
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
 import org.onosproject.net.ConnectPoint;
+import org.onlab.packet.DeserializationException;
 import org.onlab.packet.Ethernet;
+import org.onlab.packet.EthernetView;
 
+import java.nio.BufferUnderflowException;
 import java.nio.ByteBuffer;
 import java.util.Objects;
 import java.util.Optional;
@@ -30,9 +35,11 @@ import static com.google.common.base.MoreObjects.toStringHelper;
 public final class DefaultInboundPacket implements InboundPacket {
 
     private final ConnectPoint receivedFrom;
-    private final Ethernet parsed;
     private final ByteBuffer unparsed;
     private final Optional<Long> cookie;
+    private final EthernetView view;
+    // Parsed frame, parsed when first asked for unless given
+    private final Supplier<Ethernet> parsed;
 
     /**
      * Creates an immutable inbound packet.
@@ -57,9 +64,32 @@ public final class DefaultInboundPacket implements InboundPacket {
     public DefaultInboundPacket(ConnectPoint receivedFrom, Ethernet parsed,
             ByteBuffer unparsed, Optional<Long> cookie) {
         this.receivedFrom = receivedFrom;
-        this.parsed = parsed;
+        this.parsed = Suppliers.ofInstance(parsed);
         this.unparsed = unparsed;
         this.cookie = cookie;
+        this.view = view(unparsed);
+    }
+
+    /**
+     * Creates an immutable inbound packet with cookie, parsed from the
+     * raw bytes when first asked for.
+     *
+     * @param receivedFrom connection point where received
+     * @param unparsed     unparsed raw bytes
+     * @param cookie       cookie
+     */
+    public DefaultInboundPacket(ConnectPoint receivedFrom, ByteBuffer unparsed,
+                                Optional<Long> cookie) {
+        this.receivedFrom = receivedFrom;
+        this.unparsed = unparsed;
+        this.cookie = cookie;
+        this.view = view(unparsed);
+        this.parsed = Suppliers.memoize(this::parse);
+    }
+
+    // The view is created up front, as users may move the buffer position
+    private static EthernetView view(ByteBuffer unparsed) {
+        return unparsed != null ? EthernetView.wrap(unparsed) : null;
     }
 
     @Override
@@ -69,7 +99,24 @@ public final class DefaultInboundPacket implements InboundPacket {
 
     @Override
     public Ethernet parsed() {
-        return parsed;
+        return parsed.get();
+    }
+
+    private Ethernet parse() {
+        if (view == null) {
+            return null;
+        }
+        try {
+            return view.parse();
+        } catch (BufferUnderflowException | NullPointerException |
+                DeserializationException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public EthernetView view() {
+        return view;
     }
 
     @Override
@@ -85,7 +132,7 @@ public final class DefaultInboundPacket implements InboundPacket {
 
     @Override
     public int hashCode() {
-        return Objects.hash(receivedFrom, parsed, unparsed);
+        return Objects.hash(receivedFrom, parsed(), unparsed);
     }
 
     @Override
@@ -96,7 +143,7 @@ public final class DefaultInboundPacket implements InboundPacket {
         if (obj instanceof InboundPacket) {
             final DefaultInboundPacket other = (DefaultInboundPacket) obj;
             return Objects.equals(this.receivedFrom, other.receivedFrom) &&
-                    Objects.equals(this.parsed, other.parsed) &&
+                    Objects.equals(this.parsed(), other.parsed()) &&
                     Objects.equals(this.unparsed, other.unparsed);
         }
         return false;
@@ -106,7 +153,7 @@ public final class DefaultInboundPacket implements InboundPacket {
     public String toString() {
         return toStringHelper(this)
                 .add("receivedFrom", receivedFrom)
-                .add("parsed", parsed)
+                .add("parsed", parsed())
                 .toString();
     }
 }
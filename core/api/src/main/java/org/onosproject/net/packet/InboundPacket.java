@@ -17,6 +17,7 @@ package org.onosproject.net.packet;
 
 import org.onosproject.net.ConnectPoint;
 import org.onlab.packet.Ethernet;
+import org.onlab.packet.EthernetView;
 
 import java.nio.ByteBuffer;
 import java.util.Optional;
@@ -41,6 +42,19 @@ public interface InboundPacket {
      */
     Ethernet parsed();
 
+    /**
+     * Returns a view of the packet, which decodes the headers of the
+     * packet from its raw bytes when asked for. Processors that only look
+     * at a few header fields should prefer it to the parsed form.
+     *
+     * @return Ethernet frame view; null if the packet is too short to be an
+     * Ethernet frame
+     */
+    default EthernetView view() {
+        ByteBuffer data = unparsed();
+        return data != null ? EthernetView.wrap(data) : null;
+    }
+
     /**
      * Unparsed packet data.
      *
@@ -42,7 +42,24 @@ public interface PacketService {
      */
     void addProcessor(PacketProcessor processor, int priority);
 
-    // TODO allow processors to register for particular types of packets
+    /**
+     * Adds the specified processor to the list of packet processors, to
+     * only process the packets matching the given selector. Only the
+     * ethertype, IP protocol and TCP or UDP port criteria of the selector
+     * are used to filter packets; the processor may therefore still be
+     * given packets that do not match its other criteria.
+     * <p>
+     * A processor may be added with several selectors, to process the
+     * packets matching any of them.
+     * </p>
+     *
+     * @param processor processor to be added
+     * @param priority  priority in the reverse natural order
+     * @param selector  selector of the packets to process
+     */
+    default void addProcessor(PacketProcessor processor, int priority, TrafficSelector selector) {
+        addProcessor(processor, priority);
+    }
 
     /**
      * Removes the specified processor from the processing pipeline.
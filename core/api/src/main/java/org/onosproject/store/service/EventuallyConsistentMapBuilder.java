@@ -180,6 +180,38 @@ public interface EventuallyConsistentMapBuilder<K, V> {
      */
     EventuallyConsistentMapBuilder<K, V> withFasterConvergence();
 
+    /**
+     * Configure anti-entropy to first compare hashes of buckets of entries,
+     * and to exchange entry digests only for the buckets that differ. Suited
+     * to large maps, where advertising the digest of every entry on each
+     * anti-entropy cycle is costly although replicas are mostly in sync.
+     * <p>
+     * The default behavior is to advertise the digest of every entry.
+     * </p>
+     *
+     * @return this EventuallyConsistentMapBuilder
+     */
+    EventuallyConsistentMapBuilder<K, V> withBucketedAntiEntropy();
+
+    /**
+     * Configures how updates are batched before being sent to peers. Updates
+     * to the same key within a batch are coalesced, so that only the most
+     * recent one is sent. A batch is sent once it holds updates for the
+     * given number of keys, or once the given delay has elapsed since its
+     * first update.
+     * <p>
+     * The default is batches of up to 1000 keys, delayed by up to 50
+     * milliseconds.
+     * </p>
+     *
+     * @param maxBatchSize maximum number of keys in a batch
+     * @param maxBatchDelay maximum time an update is held back
+     * @param unit time unit for the delay
+     * @return this EventuallyConsistentMapBuilder
+     */
+    EventuallyConsistentMapBuilder<K, V> withUpdateBatching(
+            int maxBatchSize, long maxBatchDelay, TimeUnit unit);
+
     /**
      * Configure the map to persist data to disk.
      * <p>
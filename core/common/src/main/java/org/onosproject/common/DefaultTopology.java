@@ -18,11 +18,15 @@ package org.onosproject.common;
 import com.google.common.base.Function;
 import com.google.common.base.Supplier;
 import com.google.common.base.Suppliers;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalNotification;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.ImmutableSetMultimap;
 import com.google.common.collect.ImmutableSetMultimap.Builder;
-import org.onlab.graph.DijkstraGraphSearch;
+import org.onlab.graph.CompactDijkstraGraphSearch;
+import org.onlab.graph.CompactGraph;
 import org.onlab.graph.DisjointPathPair;
 import org.onlab.graph.GraphPathSearch;
 import org.onlab.graph.GraphPathSearch.Result;
@@ -40,6 +44,7 @@ import org.onosproject.net.Link;
 import org.onosproject.net.Link.Type;
 import org.onosproject.net.Path;
 import org.onosproject.net.provider.ProviderId;
+import org.onosproject.net.topology.CacheableLinkWeight;
 import org.onosproject.net.topology.ClusterId;
 import org.onosproject.net.topology.DefaultTopologyCluster;
 import org.onosproject.net.topology.DefaultTopologyVertex;
@@ -54,10 +59,22 @@ import org.onosproject.net.topology.TopologyVertex;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.stream.Collectors;
 
 import static com.google.common.base.MoreObjects.toStringHelper;
@@ -76,9 +93,18 @@ public class DefaultTopology extends AbstractModel implements Topology {
 
     private static final Logger log = LoggerFactory.getLogger(DefaultTopology.class);
 
-    private static final DijkstraGraphSearch<TopologyVertex, TopologyEdge> DIJKSTRA = new DijkstraGraphSearch<>();
+    private static final CompactDijkstraGraphSearch<TopologyVertex, TopologyEdge> DIJKSTRA =
+            new CompactDijkstraGraphSearch<>();
     private static final TarjanGraphSearch<TopologyVertex, TopologyEdge> TARJAN = new TarjanGraphSearch<>();
     private static final SuurballeGraphSearch<TopologyVertex, TopologyEdge> SUURBALLE = new SuurballeGraphSearch<>();
+    private static final LinkWeight NO_INDIRECT_LINKS_WEIGHT = new NoIndirectLinksWeight();
+
+    // Bounds the number of paths cached, by device pair and link weight
+    private static final int PATH_CACHE_SIZE = 100_000;
+    // Beyond this many added edges, over all link weights, cached paths are
+    // dropped rather than checked
+    private static final int MAX_COST_SEARCHES = 32;
+    private static final double COST_TOLERANCE = 1e-9;
 
     private static LinkWeight defaultLinkWeight = null;
     private static GraphPathSearch<TopologyVertex, TopologyEdge> defaultGraphPathSearch = null;
@@ -87,16 +113,20 @@ public class DefaultTopology extends AbstractModel implements Topology {
     private final long creationTime;
     private final long computeCost;
     private final TopologyGraph graph;
+    private final Supplier<CompactGraph<TopologyVertex, TopologyEdge>> compactGraph;
 
     private final LinkWeight hopCountWeight;
 
-    private final Supplier<SccResult<TopologyVertex, TopologyEdge>> clusterResults;
+    private final Supplier<ClusterSets> clusterSets;
     private final Supplier<ImmutableMap<ClusterId, TopologyCluster>> clusters;
     private final Supplier<ImmutableSet<ConnectPoint>> infrastructurePoints;
+    private final Supplier<ImmutableMap<ClusterId, Result<TopologyVertex, TopologyEdge>>> broadcastTrees;
     private final Supplier<ImmutableSetMultimap<ClusterId, ConnectPoint>> broadcastSets;
     private final Function<ConnectPoint, Boolean> broadcastFunction;
     private final Supplier<ClusterIndexes> clusterIndexes;
 
+    private final PathCache pathCache;
+
     /**
      * Sets the default link-weight to be used when computing paths. If null is
      * specified, the builtin default link-weight measuring hop-counts will be
@@ -130,6 +160,25 @@ public class DefaultTopology extends AbstractModel implements Topology {
      */
     public DefaultTopology(ProviderId providerId, GraphDescription description,
                            Function<ConnectPoint, Boolean> broadcastFunction) {
+        this(providerId, description, broadcastFunction, null);
+    }
+
+    /**
+     * Creates a topology descriptor attributed to the specified provider,
+     * deriving what it can from the previous topology. Clusters, broadcast
+     * trees and cached paths of the previous topology that are not affected
+     * by the differences between the two graphs are carried over rather than
+     * computed anew. The previous topology is not referenced afterwards.
+     *
+     * @param providerId        identity of the provider
+     * @param description       data describing the new topology
+     * @param broadcastFunction broadcast point function
+     * @param previous          previous topology, or null to compute
+     *                          everything anew
+     */
+    public DefaultTopology(ProviderId providerId, GraphDescription description,
+                           Function<ConnectPoint, Boolean> broadcastFunction,
+                           DefaultTopology previous) {
         super(providerId);
         this.broadcastFunction = broadcastFunction;
         this.time = description.timestamp();
@@ -138,15 +187,32 @@ public class DefaultTopology extends AbstractModel implements Topology {
         // Build the graph
         this.graph = new DefaultTopologyGraph(description.vertexes(),
                                               description.edges());
+        this.compactGraph = Suppliers.memoize(() -> CompactGraph.compile(graph));
+        this.hopCountWeight = new HopCountLinkWeight(graph.getVertexes().size());
+
+        TopologyDelta delta = previous == null ? null : new TopologyDelta(previous.graph, graph);
+        ClusterSets derivedSets = delta == null || delta.vertexesChanged()
+                ? null : deriveClusterSets(previous.clusterSets.get(), delta);
 
-        this.clusterResults = Suppliers.memoize(() -> searchForClusters());
+        if (derivedSets == null) {
+            this.clusterSets = Suppliers.memoize(() -> searchForClusters());
+        } else {
+            this.clusterSets = Suppliers.ofInstance(derivedSets);
+        }
         this.clusters = Suppliers.memoize(() -> buildTopologyClusters());
 
         this.clusterIndexes = Suppliers.memoize(() -> buildIndexes());
 
-        this.hopCountWeight = new HopCountLinkWeight(graph.getVertexes().size());
+        if (derivedSets == null) {
+            this.broadcastTrees = Suppliers.memoize(() -> buildBroadcastTrees(null, null, null));
+        } else {
+            ImmutableMap<ClusterId, Result<TopologyVertex, TopologyEdge>> trees =
+                    buildBroadcastTrees(previous.broadcastTrees.get(), previous.clusterSets.get(), delta);
+            this.broadcastTrees = Suppliers.ofInstance(trees);
+        }
         this.broadcastSets = Suppliers.memoize(() -> buildBroadcastSets());
         this.infrastructurePoints = Suppliers.memoize(() -> findInfrastructurePoints());
+        this.pathCache = delta == null ? new PathCache(new PathCacheStats()) : derivePathCache(previous, delta);
         this.computeCost = Math.max(0, System.nanoTime() - time);
     }
 
@@ -330,7 +396,11 @@ public class DefaultTopology extends AbstractModel implements Topology {
 
     /**
      * Computes on-demand the set of shortest paths between source and
-     * destination devices.
+     * destination devices. Paths by the default link weight, or by a
+     * {@link CacheableLinkWeight}, are cached for the link weight instance,
+     * so that later requests using the same instance are answered without
+     * searching the graph again; paths by any other weight are searched for
+     * on every request.
      *
      * @param src    source device
      * @param dst    destination device
@@ -345,9 +415,30 @@ public class DefaultTopology extends AbstractModel implements Topology {
             // src or dst not part of the current graph
             return ImmutableSet.of();
         }
+        if (defaultGraphPathSearch != null || !isCacheable(weight)) {
+            return searchPaths(srcV, dstV, weight);
+        }
 
+        PathKey key = new PathKey(src, dst, weight);
+        CachedPaths cached = pathCache.get(key);
+        if (cached != null) {
+            return cached.paths;
+        }
+        Set<Path> paths = searchPaths(srcV, dstV, weight);
+        pathCache.put(key, new CachedPaths(paths));
+        return paths;
+    }
+
+    // Indicates whether the paths by the weight can be cached; a weight
+    // built for a single request would only fill the cache.
+    private boolean isCacheable(LinkWeight weight) {
+        return weight != null && (weight == linkWeight() || weight instanceof CacheableLinkWeight);
+    }
+
+    private Set<Path> searchPaths(TopologyVertex srcV, TopologyVertex dstV, LinkWeight weight) {
         GraphPathSearch.Result<TopologyVertex, TopologyEdge> result =
-                graphPathSearch().search(graph, srcV, dstV, weight, ALL_PATHS);
+                graphPathSearch().search(defaultGraphPathSearch == null ? compactGraph.get() : graph,
+                                         srcV, dstV, weight, ALL_PATHS);
         ImmutableSet.Builder<Path> builder = ImmutableSet.builder();
         for (org.onlab.graph.Path<TopologyVertex, TopologyEdge> path : result.paths()) {
             builder.add(networkPath(path));
@@ -355,6 +446,79 @@ public class DefaultTopology extends AbstractModel implements Topology {
         return builder.build();
     }
 
+    /**
+     * Returns the number of path requests answered from the path cache, by
+     * this topology and the topologies it was derived from.
+     *
+     * @return number of path cache hits
+     */
+    public long pathCacheHits() {
+        return pathCache.stats.hits.sum();
+    }
+
+    /**
+     * Returns the number of path requests that had to search the graph, by
+     * this topology and the topologies it was derived from.
+     *
+     * @return number of path cache misses
+     */
+    public long pathCacheMisses() {
+        return pathCache.stats.misses.sum();
+    }
+
+    /**
+     * Returns the number of device pairs whose paths are cached.
+     *
+     * @return path cache size
+     */
+    public long pathCacheSize() {
+        return pathCache.entries.size();
+    }
+
+    /**
+     * Returns a task which caches the shortest paths, using the default link
+     * weight, from the source devices whose paths were requested most often
+     * to all other devices. The search for each source forms a subtask, so
+     * that running the task on a fork-join pool searches in parallel.
+     *
+     * @param sourceCount number of source devices
+     * @return path caching task
+     */
+    public ForkJoinTask<?> prewarmPaths(int sourceCount) {
+        LinkWeight weight = linkWeight();
+        Set<TopologyVertex> vertices = graph.getVertexes();
+        List<ForkJoinTask<?>> tasks = pathCache.stats.busiestSources(sourceCount).stream()
+                .map(DefaultTopologyVertex::new)
+                .filter(vertices::contains)
+                .map(srcV -> ForkJoinTask.adapt(() -> cachePathsFrom(srcV, weight)))
+                .collect(Collectors.toList());
+        return ForkJoinTask.adapt(() -> {
+            ForkJoinTask.invokeAll(tasks);
+        });
+    }
+
+    // Searches for the shortest paths from the source to all devices at once
+    // and caches those not cached yet.
+    private void cachePathsFrom(TopologyVertex srcV, LinkWeight weight) {
+        if (defaultGraphPathSearch != null) {
+            return;
+        }
+        GraphPathSearch.Result<TopologyVertex, TopologyEdge> result =
+                DIJKSTRA.search(compactGraph.get(), srcV, null, weight, ALL_PATHS);
+        Map<TopologyVertex, ImmutableSet.Builder<Path>> paths = new HashMap<>();
+        for (org.onlab.graph.Path<TopologyVertex, TopologyEdge> path : result.paths()) {
+            if (!path.dst().equals(srcV)) {
+                paths.computeIfAbsent(path.dst(), dstV -> ImmutableSet.builder()).add(networkPath(path));
+            }
+        }
+        paths.forEach((dstV, builder) -> {
+            PathKey key = new PathKey(srcV.deviceId(), dstV.deviceId(), weight);
+            if (pathCache.entries.getIfPresent(key) == null) {
+                pathCache.put(key, new CachedPaths(builder.build()));
+            }
+        });
+    }
+
     /**
      * /**
      * Returns the set of pre-computed shortest disjoint path pairs between source and
@@ -503,26 +667,112 @@ public class DefaultTopology extends AbstractModel implements Topology {
 
     // Searches for SCC clusters in the network topology graph using Tarjan
     // algorithm.
-    private SccResult<TopologyVertex, TopologyEdge> searchForClusters() {
-        return TARJAN.search(graph, new NoIndirectLinksWeight());
+    private ClusterSets searchForClusters() {
+        SccResult<TopologyVertex, TopologyEdge> results = TARJAN.search(graph, NO_INDIRECT_LINKS_WEIGHT);
+
+        // Extract both vertexes and edges from the results; the lists form
+        // pairs along the same index.
+        Map<ClusterId, Set<TopologyVertex>> vertexes = new LinkedHashMap<>();
+        Map<ClusterId, Set<TopologyEdge>> edges = new HashMap<>();
+        for (int i = 0, n = results.clusterCount(); i < n; i++) {
+            vertexes.put(ClusterId.clusterId(i), results.clusterVertexes().get(i));
+            edges.put(ClusterId.clusterId(i), results.clusterEdges().get(i));
+        }
+        return new ClusterSets(vertexes, edges);
+    }
+
+    // Derives the clusters from those of the previous topology, which has the
+    // same vertexes. Returns null if the clusters must be searched anew.
+    private ClusterSets deriveClusterSets(ClusterSets previous, TopologyDelta delta) {
+        Set<TopologyEdge> added = delta.addedEdges().stream()
+                .filter(DefaultTopology::isTraversable)
+                .collect(Collectors.toSet());
+        Set<TopologyEdge> removed = delta.removedEdges().stream()
+                .filter(DefaultTopology::isTraversable)
+                .collect(Collectors.toSet());
+
+        // Newly traversable edges between clusters may merge them.
+        boolean merging = added.stream()
+                .filter(edge -> !removed.contains(edge))
+                .anyMatch(edge -> !previous.clusterOf(edge.src()).equals(previous.clusterOf(edge.dst())));
+        if (merging) {
+            return null;
+        }
+
+        // Clusters losing traversable edges between their own vertexes may
+        // split and need searching again; clusters gaining or losing any
+        // edges between their own vertexes need their edges collected again.
+        Set<ClusterId> splitting = new HashSet<>();
+        Set<ClusterId> changed = new HashSet<>();
+        for (TopologyEdge edge : delta.removedEdges()) {
+            ClusterId cid = previous.clusterOf(edge.src());
+            if (cid.equals(previous.clusterOf(edge.dst()))) {
+                changed.add(cid);
+                if (removed.contains(edge) && !added.contains(edge)) {
+                    splitting.add(cid);
+                }
+            }
+        }
+        for (TopologyEdge edge : delta.addedEdges()) {
+            ClusterId cid = previous.clusterOf(edge.src());
+            if (cid.equals(previous.clusterOf(edge.dst()))) {
+                changed.add(cid);
+            }
+        }
+
+        Map<ClusterId, Set<TopologyVertex>> vertexes = new LinkedHashMap<>();
+        Map<ClusterId, Set<TopologyEdge>> edges = new HashMap<>();
+        int nextId = previous.nextIndex();
+        for (Map.Entry<ClusterId, Set<TopologyVertex>> entry : previous.vertexes.entrySet()) {
+            ClusterId cid = entry.getKey();
+            Set<TopologyVertex> vertexSet = entry.getValue();
+            if (splitting.contains(cid)) {
+                // The piece holding the previous root keeps the cluster id.
+                TopologyVertex root = findRoot(vertexSet);
+                SccResult<TopologyVertex, TopologyEdge> results =
+                        TARJAN.search(new DefaultTopologyGraph(vertexSet, findClusterEdges(vertexSet)),
+                                      NO_INDIRECT_LINKS_WEIGHT);
+                for (int i = 0, n = results.clusterCount(); i < n; i++) {
+                    Set<TopologyVertex> piece = results.clusterVertexes().get(i);
+                    ClusterId pieceId = piece.contains(root) ? cid : ClusterId.clusterId(nextId++);
+                    vertexes.put(pieceId, piece);
+                    edges.put(pieceId, results.clusterEdges().get(i));
+                }
+            } else if (changed.contains(cid)) {
+                vertexes.put(cid, vertexSet);
+                edges.put(cid, findClusterEdges(vertexSet));
+            } else {
+                vertexes.put(cid, vertexSet);
+                edges.put(cid, previous.edges.get(cid));
+            }
+        }
+        return new ClusterSets(vertexes, edges);
+    }
+
+    // Collects the edges between the specified vertexes.
+    private Set<TopologyEdge> findClusterEdges(Set<TopologyVertex> vertexSet) {
+        Set<TopologyEdge> edges = new HashSet<>();
+        for (TopologyVertex vertex : vertexSet) {
+            for (TopologyEdge edge : graph.getEdgesFrom(vertex)) {
+                if (vertexSet.contains(edge.dst())) {
+                    edges.add(edge);
+                }
+            }
+        }
+        return Collections.unmodifiableSet(edges);
     }
 
     // Builds the topology clusters and returns the id-cluster bindings.
     private ImmutableMap<ClusterId, TopologyCluster> buildTopologyClusters() {
         ImmutableMap.Builder<ClusterId, TopologyCluster> clusterBuilder = ImmutableMap.builder();
-        SccResult<TopologyVertex, TopologyEdge> results = clusterResults.get();
-
-        // Extract both vertexes and edges from the results; the lists form
-        // pairs along the same index.
-        List<Set<TopologyVertex>> clusterVertexes = results.clusterVertexes();
-        List<Set<TopologyEdge>> clusterEdges = results.clusterEdges();
+        ClusterSets sets = clusterSets.get();
 
-        // Scan over the lists and create a cluster from the results.
-        for (int i = 0, n = results.clusterCount(); i < n; i++) {
-            Set<TopologyVertex> vertexSet = clusterVertexes.get(i);
-            Set<TopologyEdge> edgeSet = clusterEdges.get(i);
+        // Scan over the sets and create a cluster from each.
+        for (Map.Entry<ClusterId, Set<TopologyVertex>> entry : sets.vertexes.entrySet()) {
+            ClusterId cid = entry.getKey();
+            Set<TopologyVertex> vertexSet = entry.getValue();
+            Set<TopologyEdge> edgeSet = sets.edges.get(cid);
 
-            ClusterId cid = ClusterId.clusterId(i);
             DefaultTopologyCluster cluster = new DefaultTopologyCluster(cid,
                                                                         vertexSet.size(),
                                                                         edgeSet.size(),
@@ -545,6 +795,53 @@ public class DefaultTopology extends AbstractModel implements Topology {
         return minVertex;
     }
 
+    // Searches for the shortest paths from the root of each cluster to all
+    // other devices. The search results of the previous topology are reused
+    // for clusters with the same vertexes, unless the graph differences can
+    // change them.
+    private ImmutableMap<ClusterId, Result<TopologyVertex, TopologyEdge>>
+            buildBroadcastTrees(Map<ClusterId, Result<TopologyVertex, TopologyEdge>> previousTrees,
+                                ClusterSets previousSets, TopologyDelta delta) {
+        ImmutableMap.Builder<ClusterId, Result<TopologyVertex, TopologyEdge>> builder = ImmutableMap.builder();
+        for (TopologyCluster cluster : clusters.get().values()) {
+            Result<TopologyVertex, TopologyEdge> tree = previousTrees == null ? null : previousTrees.get(cluster.id());
+            if (tree == null || !tree.src().equals(cluster.root())
+                    || !clusterSets.get().vertexes.get(cluster.id()).equals(previousSets.vertexes.get(cluster.id()))
+                    || isAffected(tree, delta, hopCountWeight)) {
+                tree = DIJKSTRA.search(compactGraph.get(), cluster.root(), null, hopCountWeight, 1);
+            }
+            builder.put(cluster.id(), tree);
+        }
+        return builder.build();
+    }
+
+    // Indicates whether the graph differences can change the shortest paths
+    // found by a search for all destinations. Removed edges only do if they
+    // lie on those paths, and added edges only do if they lead to a vertex
+    // at least as cheaply as before, since an equally cheap edge becomes one
+    // more parent of that vertex.
+    private static boolean isAffected(Result<TopologyVertex, TopologyEdge> result,
+                                      TopologyDelta delta, LinkWeight weight) {
+        for (TopologyEdge edge : delta.removedEdges()) {
+            Set<TopologyEdge> parents = result.parents().get(edge.dst());
+            if (parents != null && parents.contains(edge)) {
+                return true;
+            }
+        }
+        for (TopologyEdge edge : delta.addedEdges()) {
+            double hopCost = weight.weight(edge);
+            Double srcCost = result.costs().get(edge.src());
+            if (hopCost < 0 || srcCost == null) {
+                continue;
+            }
+            Double dstCost = result.costs().get(edge.dst());
+            if (dstCost == null || srcCost + hopCost <= dstCost + COST_TOLERANCE) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     // Processes a map of broadcast sets for each cluster.
     private ImmutableSetMultimap<ClusterId, ConnectPoint> buildBroadcastSets() {
         Builder<ClusterId, ConnectPoint> builder = ImmutableSetMultimap.builder();
@@ -559,7 +856,7 @@ public class DefaultTopology extends AbstractModel implements Topology {
     // all other devices within the cluster.
     private void addClusterBroadcastSet(TopologyCluster cluster, Builder<ClusterId, ConnectPoint> builder) {
         // Use the graph root search results to build the broadcast set.
-        Result<TopologyVertex, TopologyEdge> result = DIJKSTRA.search(graph, cluster.root(), null, hopCountWeight, 1);
+        Result<TopologyVertex, TopologyEdge> result = broadcastTrees.get().get(cluster.id());
         for (Map.Entry<TopologyVertex, Set<TopologyEdge>> entry : result.parents().entrySet()) {
             TopologyVertex vertex = entry.getKey();
 
@@ -609,17 +906,16 @@ public class DefaultTopology extends AbstractModel implements Topology {
                 ImmutableSetMultimap.builder();
 
         // Now scan through all the clusters
+        ClusterSets sets = clusterSets.get();
         for (TopologyCluster cluster : clusters.get().values()) {
-            int i = cluster.id().index();
-
             // Scan through all the cluster vertexes.
-            for (TopologyVertex vertex : clusterResults.get().clusterVertexes().get(i)) {
+            for (TopologyVertex vertex : sets.vertexes.get(cluster.id())) {
                 devicesBuilder.put(cluster, vertex.deviceId());
                 clusterBuilder.put(vertex.deviceId(), cluster);
             }
 
             // Scan through all the cluster edges.
-            for (TopologyEdge edge : clusterResults.get().clusterEdges().get(i)) {
+            for (TopologyEdge edge : sets.edges.get(cluster.id())) {
                 linksBuilder.put(cluster, edge.link());
             }
         }
@@ -638,6 +934,99 @@ public class DefaultTopology extends AbstractModel implements Topology {
         return defaultLinkWeight != null ? defaultLinkWeight : hopCountWeight;
     }
 
+    // Carries over the paths cached by the previous topology which the graph
+    // differences cannot change. Removed edges only change the paths they
+    // lie on, which are found through the link index. An added edge only
+    // changes the paths between devices it can link at no more than the
+    // cost of those paths, which is found by searching for the costs to the
+    // edge source and from the edge destination, for each link weight.
+    private PathCache derivePathCache(DefaultTopology previous, TopologyDelta delta) {
+        PathCache previousCache = previous.pathCache;
+        PathCache cache = new PathCache(previousCache.stats);
+        if (previousCache.entries.size() == 0) {
+            return cache;
+        }
+
+        Set<PathKey> crossing = new HashSet<>();
+        delta.removedEdges().forEach(edge -> crossing.addAll(previousCache.keysCrossing(edge.link())));
+
+        // Paths by hop count carry over only as long as the hop count weight
+        // of an indirect link, based on the device count, stays the same.
+        boolean sameHopCount = previous.graph.getVertexes().size() == graph.getVertexes().size();
+        Set<TopologyVertex> vertices = graph.getVertexes();
+        Map<LinkWeight, Map<PathKey, CachedPaths>> byWeight = new IdentityHashMap<>();
+        previousCache.entries.asMap().forEach((key, cached) -> {
+            LinkWeight weight = key.weight == previous.hopCountWeight
+                    ? (sameHopCount ? hopCountWeight : null) : key.weight;
+            if (weight != null && !crossing.contains(key)
+                    && vertices.contains(new DefaultTopologyVertex(key.src))
+                    && vertices.contains(new DefaultTopologyVertex(key.dst))) {
+                byWeight.computeIfAbsent(weight, w -> new HashMap<>())
+                        .put(new PathKey(key.src, key.dst, weight), cached);
+            }
+        });
+
+        // Check the paths of the most used weights first, as long as the
+        // number of cost searches stays within bounds.
+        int searches = 0;
+        List<Map.Entry<LinkWeight, Map<PathKey, CachedPaths>>> groups = new ArrayList<>(byWeight.entrySet());
+        groups.sort(Comparator.comparingInt(group -> -group.getValue().size()));
+        for (Map.Entry<LinkWeight, Map<PathKey, CachedPaths>> group : groups) {
+            LinkWeight weight = group.getKey();
+            Map<PathKey, CachedPaths> entries = group.getValue();
+            List<TopologyEdge> added = delta.addedEdges().stream()
+                    .filter(edge -> weight.weight(edge) >= 0)
+                    .collect(Collectors.toList());
+            searches += added.size();
+            if (searches > MAX_COST_SEARCHES) {
+                break;
+            }
+            for (TopologyEdge edge : added) {
+                Map<DeviceId, Double> toSrc = costs(edge.src(), weight, true);
+                Map<DeviceId, Double> fromDst = costs(edge.dst(), weight, false);
+                double hopCost = weight.weight(edge);
+                entries.entrySet().removeIf(entry -> {
+                    Double head = toSrc.get(entry.getKey().src);
+                    Double tail = fromDst.get(entry.getKey().dst);
+                    return head != null && tail != null
+                            && head + hopCost + tail <= entry.getValue().cost + COST_TOLERANCE;
+                });
+            }
+            entries.forEach(cache::put);
+        }
+        return cache;
+    }
+
+    // Finds the costs of the shortest paths from the specified vertex to all
+    // others, or to the specified vertex from all others if reversed.
+    private Map<DeviceId, Double> costs(TopologyVertex vertex, LinkWeight weight, boolean reverse) {
+        Map<DeviceId, Double> costs = new HashMap<>();
+        PriorityQueue<Map.Entry<TopologyVertex, Double>> queue =
+                new PriorityQueue<>(Comparator.comparingDouble(Map.Entry::getValue));
+        queue.add(new SimpleImmutableEntry<>(vertex, 0.0));
+        while (!queue.isEmpty()) {
+            Map.Entry<TopologyVertex, Double> nearest = queue.poll();
+            if (costs.putIfAbsent(nearest.getKey().deviceId(), nearest.getValue()) != null) {
+                continue;
+            }
+            Set<TopologyEdge> edges = reverse ? graph.getEdgesTo(nearest.getKey())
+                    : graph.getEdgesFrom(nearest.getKey());
+            for (TopologyEdge edge : edges) {
+                double hopCost = weight.weight(edge);
+                TopologyVertex next = reverse ? edge.src() : edge.dst();
+                if (hopCost >= 0 && !costs.containsKey(next.deviceId())) {
+                    queue.add(new SimpleImmutableEntry<>(next, nearest.getValue() + hopCost));
+                }
+            }
+        }
+        return costs;
+    }
+
+    // Indicates whether the edge can be traversed by clusters.
+    private static boolean isTraversable(TopologyEdge edge) {
+        return NO_INDIRECT_LINKS_WEIGHT.weight(edge) >= 0;
+    }
+
     // Link weight for preventing traversal over indirect links.
     private static class NoIndirectLinksWeight implements LinkWeight {
         @Override
@@ -647,6 +1036,134 @@ public class DefaultTopology extends AbstractModel implements Topology {
         }
     }
 
+    // Vertexes and edges of each cluster, by cluster id.
+    static final class ClusterSets {
+        final Map<ClusterId, Set<TopologyVertex>> vertexes;
+        final Map<ClusterId, Set<TopologyEdge>> edges;
+        private final Map<TopologyVertex, ClusterId> clustersByVertex = new HashMap<>();
+
+        ClusterSets(Map<ClusterId, Set<TopologyVertex>> vertexes,
+                    Map<ClusterId, Set<TopologyEdge>> edges) {
+            this.vertexes = vertexes;
+            this.edges = edges;
+            vertexes.forEach((cid, vertexSet) -> vertexSet.forEach(v -> clustersByVertex.put(v, cid)));
+        }
+
+        // Returns the id of the cluster holding the specified vertex.
+        ClusterId clusterOf(TopologyVertex vertex) {
+            return clustersByVertex.get(vertex);
+        }
+
+        // Returns the next unused cluster index.
+        int nextIndex() {
+            return vertexes.keySet().stream().mapToInt(ClusterId::index).max().orElse(-1) + 1;
+        }
+    }
+
+    // Shortest paths by source, destination and link weight instance, with
+    // an index of the paths crossing each link.
+    private static final class PathCache {
+        private final PathCacheStats stats;
+        private final Map<Link, Map<PathKey, CachedPaths>> linkIndex = new ConcurrentHashMap<>();
+        private final Cache<PathKey, CachedPaths> entries = CacheBuilder.newBuilder()
+                .maximumSize(PATH_CACHE_SIZE)
+                .<PathKey, CachedPaths>removalListener(this::unindex)
+                .build();
+
+        private PathCache(PathCacheStats stats) {
+            this.stats = stats;
+        }
+
+        private CachedPaths get(PathKey key) {
+            CachedPaths cached = entries.getIfPresent(key);
+            stats.record(key.src, cached != null);
+            return cached;
+        }
+
+        // The paths are indexed before they are cached, so that cached paths
+        // are always found through the index.
+        private void put(PathKey key, CachedPaths cached) {
+            cached.links.forEach(link -> linkIndex.computeIfAbsent(link, l -> new ConcurrentHashMap<>())
+                    .put(key, cached));
+            entries.put(key, cached);
+        }
+
+        private void unindex(RemovalNotification<PathKey, CachedPaths> removal) {
+            for (Link link : removal.getValue().links) {
+                Map<PathKey, CachedPaths> keys = linkIndex.get(link);
+                if (keys != null) {
+                    keys.remove(removal.getKey(), removal.getValue());
+                }
+            }
+        }
+
+        private Set<PathKey> keysCrossing(Link link) {
+            Map<PathKey, CachedPaths> keys = linkIndex.get(link);
+            return keys == null ? ImmutableSet.of() : keys.keySet();
+        }
+    }
+
+    // Path cache usage, shared by the topologies derived from one another.
+    private static final class PathCacheStats {
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+        private final Map<DeviceId, LongAdder> requests = new ConcurrentHashMap<>();
+
+        private void record(DeviceId src, boolean hit) {
+            (hit ? hits : misses).increment();
+            requests.computeIfAbsent(src, id -> new LongAdder()).increment();
+        }
+
+        private List<DeviceId> busiestSources(int count) {
+            return requests.entrySet().stream()
+                    .sorted(Comparator.comparingLong(entry -> -entry.getValue().sum()))
+                    .limit(count)
+                    .map(Map.Entry::getKey)
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private static final class PathKey {
+        private final DeviceId src;
+        private final DeviceId dst;
+        private final LinkWeight weight;
+
+        private PathKey(DeviceId src, DeviceId dst, LinkWeight weight) {
+            this.src = src;
+            this.dst = dst;
+            this.weight = weight;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(src, dst, System.identityHashCode(weight));
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (obj instanceof PathKey) {
+                PathKey other = (PathKey) obj;
+                return src.equals(other.src) && dst.equals(other.dst) && weight == other.weight;
+            }
+            return false;
+        }
+    }
+
+    private static final class CachedPaths {
+        private final Set<Path> paths;
+        private final Set<Link> links;
+        private final double cost;
+
+        private CachedPaths(Set<Path> paths) {
+            this.paths = paths;
+            this.links = paths.stream().flatMap(path -> path.links().stream()).collect(Collectors.toSet());
+            this.cost = paths.isEmpty() ? Double.MAX_VALUE : paths.iterator().next().cost();
+        }
+    }
+
     static final class ClusterIndexes {
         final ImmutableMap<DeviceId, TopologyCluster> clustersByDevice;
         final ImmutableSetMultimap<TopologyCluster, DeviceId> devicesByCluster;
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2015-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.common;
+
+import com.google.common.collect.ImmutableSet;
+import org.onosproject.net.Link;
+import org.onosproject.net.topology.TopologyEdge;
+import org.onosproject.net.topology.TopologyGraph;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Differences between the graphs of two consecutive topologies. Edges whose
+ * link changed in a way that may affect its weight, i.e. its state or
+ * annotations, count as both removed and added.
+ */
+final class TopologyDelta {
+
+    private final boolean vertexesChanged;
+    private final Set<TopologyEdge> removedEdges;
+    private final Set<TopologyEdge> addedEdges;
+
+    /**
+     * Computes the differences between two topology graphs.
+     *
+     * @param previous previous topology graph
+     * @param current  current topology graph
+     */
+    TopologyDelta(TopologyGraph previous, TopologyGraph current) {
+        this.vertexesChanged = !previous.getVertexes().equals(current.getVertexes());
+
+        Map<TopologyEdge, TopologyEdge> previousEdges = new HashMap<>();
+        previous.getEdges().forEach(edge -> previousEdges.put(edge, edge));
+
+        ImmutableSet.Builder<TopologyEdge> removed = ImmutableSet.builder();
+        ImmutableSet.Builder<TopologyEdge> added = ImmutableSet.builder();
+        for (TopologyEdge edge : current.getEdges()) {
+            TopologyEdge old = previousEdges.remove(edge);
+            if (old == null) {
+                added.add(edge);
+            } else if (!sameLink(old.link(), edge.link())) {
+                removed.add(old);
+                added.add(edge);
+            }
+        }
+        removed.addAll(previousEdges.keySet());
+        this.removedEdges = removed.build();
+        this.addedEdges = added.build();
+    }
+
+    private static boolean sameLink(Link a, Link b) {
+        return a == b || (a.state() == b.state() && Objects.equals(a.annotations(), b.annotations()));
+    }
+
+    /**
+     * Indicates whether vertexes were added or removed.
+     *
+     * @return true if the vertex sets differ
+     */
+    boolean vertexesChanged() {
+        return vertexesChanged;
+    }
+
+    /**
+     * Returns the edges of the previous graph that are gone or changed.
+     *
+     * @return removed edges
+     */
+    Set<TopologyEdge> removedEdges() {
+        return removedEdges;
+    }
+
+    /**
+     * Returns the edges of the current graph that are new or changed.
+     *
+     * @return added edges
+     */
+    Set<TopologyEdge> addedEdges() {
+        return addedEdges;
+    }
+}
@@ -15,6 +15,7 @@
  */
 package org.onosproject.common;
 
+import com.google.common.collect.Sets;
 import org.junit.Before;
 import org.junit.Test;
 import org.onlab.packet.ChassisId;
@@ -27,6 +28,7 @@ import org.onosproject.net.Link;
 import org.onosproject.net.Path;
 import org.onosproject.net.PortNumber;
 import org.onosproject.net.provider.ProviderId;
+import org.onosproject.net.topology.CacheableLinkWeight;
 import org.onosproject.net.topology.ClusterId;
 import org.onosproject.net.topology.DefaultGraphDescription;
 import org.onosproject.net.topology.DefaultTopologyVertex;
@@ -36,6 +38,8 @@ import org.onosproject.net.topology.TopologyCluster;
 import org.onosproject.net.topology.TopologyVertex;
 
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
 
 import static com.google.common.collect.ImmutableSet.of;
 import static org.junit.Assert.*;
@@ -61,11 +65,13 @@ public class DefaultTopologyTest {
     public static final PortNumber P1 = portNumber(1);
     public static final PortNumber P2 = portNumber(2);
 
-    public static final LinkWeight WEIGHT = edge ->
+    public static final CacheableLinkWeight WEIGHT = edge ->
             edge.src().deviceId().equals(D4) || edge.dst().deviceId().equals(D4)
                     ? 2.0 : 1.0;
 
     private DefaultTopology dt;
+    private Set<Device> devices;
+    private Set<Link> links;
 
     public static final ClusterId C0 = ClusterId.clusterId(0);
     public static final ClusterId C1 = ClusterId.clusterId(1);
@@ -73,13 +79,13 @@ public class DefaultTopologyTest {
     @Before
     public void setUp() {
         long now = System.currentTimeMillis();
-        Set<Device> devices = of(device("1"), device("2"),
-                                 device("3"), device("4"),
-                                 device("5"));
-        Set<Link> links = of(link("1", 1, "2", 1), link("2", 1, "1", 1),
-                             link("3", 2, "2", 2), link("2", 2, "3", 2),
-                             link("1", 3, "4", 3), link("4", 3, "1", 3),
-                             link("3", 4, "4", 4), link("4", 4, "3", 4));
+        devices = of(device("1"), device("2"),
+                     device("3"), device("4"),
+                     device("5"));
+        links = of(link("1", 1, "2", 1), link("2", 1, "1", 1),
+                   link("3", 2, "2", 2), link("2", 2, "3", 2),
+                   link("1", 3, "4", 3), link("4", 3, "1", 3),
+                   link("3", 4, "4", 4), link("4", 4, "3", 4));
         GraphDescription graphDescription =
                 new DefaultGraphDescription(now, System.currentTimeMillis(), devices, links);
 
@@ -129,6 +135,124 @@ public class DefaultTopologyTest {
         assertFalse("cluster should not contain D5", devs.contains(D5));
     }
 
+    @Test
+    public void incrementalClusters() {
+        dt.getClusters();
+        Set<Link> remaining = Sets.difference(links, of(link("1", 1, "2", 1), link("2", 1, "1", 1),
+                                                        link("3", 4, "4", 4), link("4", 4, "3", 4)));
+        DefaultTopology next = next(dt, remaining);
+        DefaultTopology full = new DefaultTopology(PID, description(remaining));
+
+        assertEquals("incorrect cluster count", 3, next.clusterCount());
+        assertEquals("incorrect clusters", clusterDevices(full), clusterDevices(next));
+        assertEquals("root cluster should keep its id", C0, next.getCluster(D1).id());
+        assertEquals("incorrect new cluster id", ClusterId.clusterId(2), next.getCluster(D2).id());
+        assertEquals("incorrect cluster link count", 2, next.getCluster(D1).linkCount());
+        assertEquals("incorrect broadcast set size", full.broadcastSetSize(full.getCluster(D2).id()),
+                     next.broadcastSetSize(next.getCluster(D2).id()));
+    }
+
+    @Test
+    public void equalCostBroadcast() {
+        // Equal-cost links listed first, so that a full search picks them
+        Set<Link> parallel = Sets.union(of(link("1", 7, "2", 7), link("2", 7, "1", 7)), links);
+        DefaultTopology next = new DefaultTopology(PID, description(parallel), null, dt);
+        DefaultTopology full = new DefaultTopology(PID, description(parallel));
+
+        assertEquals("incorrect broadcast set size", full.broadcastSetSize(C0), next.broadcastSetSize(C0));
+        ConnectPoint added = new ConnectPoint(D2, portNumber(7));
+        assertEquals("incorrect broadcast point", full.isBroadcastPoint(added), next.isBroadcastPoint(added));
+    }
+
+    @Test
+    public void mergingClusters() {
+        dt.getClusters();
+        Set<Link> more = Sets.union(links, of(link("4", 5, "5", 5), link("5", 5, "4", 5)));
+        DefaultTopology next = next(dt, more);
+
+        assertEquals("incorrect cluster count", 1, next.clusterCount());
+        assertEquals("incorrect cluster device count", 5, next.getCluster(D5).deviceCount());
+    }
+
+    @Test
+    public void incrementalPaths() {
+        Set<Path> paths12 = dt.getPaths(D1, D2);
+        Set<Path> paths13 = dt.getPaths(D1, D3);
+
+        // Links off the cached paths do not invalidate them
+        Set<Link> remaining = Sets.difference(links, of(link("3", 4, "4", 4), link("4", 4, "3", 4)));
+        DefaultTopology next = next(dt, remaining);
+        assertSame("path should be cached", paths12, next.getPaths(D1, D2));
+        assertNotSame("path should be recomputed", paths13, next.getPaths(D1, D3));
+        assertEquals("incorrect path count", 1, next.getPaths(D1, D3).size());
+
+        // Shortcuts invalidate only the paths they improve upon
+        paths12 = next.getPaths(D1, D2);
+        paths13 = next.getPaths(D1, D3);
+        DefaultTopology shortcut = next(next, Sets.union(remaining, of(link("1", 6, "3", 6))));
+        assertSame("path should be cached", paths12, shortcut.getPaths(D1, D2));
+        assertNotSame("path should be recomputed", paths13, shortcut.getPaths(D1, D3));
+        assertEquals("incorrect path cost", 1.0, shortcut.getPaths(D1, D3).iterator().next().cost(), 0.0);
+        assertTrue("no paths expected", shortcut.getPaths(D1, D5).isEmpty());
+    }
+
+    @Test
+    public void weightedPaths() {
+        Set<Path> paths = dt.getPaths(D1, D3, WEIGHT);
+        assertSame("path should be cached", paths, dt.getPaths(D1, D3, WEIGHT));
+        CacheableLinkWeight other = edge -> WEIGHT.weight(edge);
+        assertNotSame("path should be cached by weight", paths, dt.getPaths(D1, D3, other));
+        assertEquals("incorrect hit count", 1, dt.pathCacheHits());
+        assertEquals("incorrect miss count", 2, dt.pathCacheMisses());
+
+        // Paths by weights not opting in are not cached
+        LinkWeight adHoc = edge -> WEIGHT.weight(edge);
+        assertNotSame("path should not be cached", dt.getPaths(D1, D3, adHoc), dt.getPaths(D1, D3, adHoc));
+        assertEquals("incorrect cache size", 2, dt.pathCacheSize());
+        assertEquals("incorrect miss count", 2, dt.pathCacheMisses());
+
+        // Links on the path evict it for its weight only
+        Set<Link> remaining = Sets.difference(links, of(link("1", 1, "2", 1), link("2", 1, "1", 1)));
+        Set<Path> paths14 = dt.getPaths(D1, D4, WEIGHT);
+        DefaultTopology next = next(dt, remaining);
+        assertSame("path should be cached", paths14, next.getPaths(D1, D4, WEIGHT));
+        assertEquals("incorrect path count", 1, next.getPaths(D1, D3, WEIGHT).size());
+        assertEquals("incorrect path cost", 4.0, next.getPaths(D1, D3, WEIGHT).iterator().next().cost(), 0.0);
+        assertEquals("incorrect hit count", 3, next.pathCacheHits());
+    }
+
+    @Test
+    public void prewarmedPaths() {
+        dt.getPaths(D2, D1);
+        dt.getPaths(D2, D3);
+        dt.getPaths(D1, D2);
+        DefaultTopology next = next(dt, links);
+        assertEquals("incorrect cache size", 3, next.pathCacheSize());
+
+        ForkJoinPool pool = new ForkJoinPool(2);
+        pool.invoke(next.prewarmPaths(1));
+        pool.shutdown();
+        assertEquals("incorrect cache size", 4, next.pathCacheSize());
+        long misses = next.pathCacheMisses();
+        assertEquals("incorrect path count", 2, next.getPaths(D2, D4).size());
+        assertEquals("prewarmed path should be cached", misses, next.pathCacheMisses());
+    }
+
+    private DefaultTopology next(DefaultTopology previous, Set<Link> links) {
+        return new DefaultTopology(PID, description(links), cp -> false, previous);
+    }
+
+    private GraphDescription description(Set<Link> links) {
+        long now = System.currentTimeMillis();
+        return new DefaultGraphDescription(now, now, devices, links);
+    }
+
+    private static Set<Set<DeviceId>> clusterDevices(DefaultTopology topology) {
+        return topology.getClusters().stream()
+                .map(topology::getClusterDevices)
+                .collect(Collectors.toSet());
+    }
+
     // Short-hand for creating a link.
     public static Link link(String src, int sp, String dst, int dp) {
         return DefaultLink.builder().providerId(PID)
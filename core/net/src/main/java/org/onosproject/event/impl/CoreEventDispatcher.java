@@ -15,22 +15,38 @@
  */
 package org.onosproject.event.impl;
 
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Timer;
 import org.apache.felix.scr.annotations.Activate;
 import org.apache.felix.scr.annotations.Component;
 import org.apache.felix.scr.annotations.Deactivate;
+import org.apache.felix.scr.annotations.Modified;
+import org.apache.felix.scr.annotations.Property;
+import org.apache.felix.scr.annotations.Reference;
+import org.apache.felix.scr.annotations.ReferenceCardinality;
 import org.apache.felix.scr.annotations.Service;
+import org.onlab.metrics.MetricsComponent;
+import org.onlab.metrics.MetricsFeature;
+import org.onlab.metrics.MetricsService;
 import org.onlab.util.SharedExecutors;
+import org.onlab.util.Tools;
 import org.onosproject.event.AbstractEvent;
 import org.onosproject.event.DefaultEventSinkRegistry;
 import org.onosproject.event.Event;
 import org.onosproject.event.EventDeliveryService;
 import org.onosproject.event.EventSink;
+import org.osgi.service.component.ComponentContext;
 import org.slf4j.Logger;
 
-import com.google.common.base.Stopwatch;
-
+import java.util.ArrayList;
+import java.util.Dictionary;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.TimerTask;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 import java.util.concurrent.LinkedBlockingQueue;
@@ -45,6 +61,12 @@ import static org.onosproject.security.AppPermission.Type.EVENT_WRITE;
 import static org.slf4j.LoggerFactory.getLogger;
 /**
  * Simple implementation of an event dispatching service.
+ * <p>
+ * By default all events are dispatched in order by a single dispatch lane.
+ * In parallel mode every event class gets its own ordered lane, optionally
+ * partitioned further by event subject, so a slow sink only delays the
+ * events of its own class.
+ * </p>
  */
 @Component(immediate = true)
 @Service
@@ -53,57 +75,133 @@ public class CoreEventDispatcher extends DefaultEventSinkRegistry
 
     private final Logger log = getLogger(getClass());
 
-    private boolean executionTimeLimit = false;
-
     // Default number of millis a sink can take to process an event.
     private static final long DEFAULT_EXECUTE_MS = 5_000; // ms
     private static final long WATCHDOG_MS = 250; // ms
 
-    private final BlockingQueue<Event> events = new LinkedBlockingQueue<>();
+    private static final boolean DEFAULT_PARALLEL_DISPATCH = false;
+    private static final int DEFAULT_SUBJECT_LANES = 1;
+
+    private static final String METRICS_COMPONENT = "CoreEventDispatcher";
+    private static final String QUEUE_DEPTH = "queueDepth";
+    private static final String LATENCY = "latency";
 
-    private final ExecutorService executor =
-            newSingleThreadExecutor(groupedThreads("onos/event", "dispatch-%d", log));
+    @Property(name = "parallelDispatch", boolValue = DEFAULT_PARALLEL_DISPATCH,
+            label = "Dispatch each event class on its own ordered lane; " +
+                    "takes effect when the dispatcher is restarted")
+    private boolean parallelDispatch = DEFAULT_PARALLEL_DISPATCH;
+
+    @Property(name = "subjectLanes", intValue = DEFAULT_SUBJECT_LANES,
+            label = "Number of lanes per event class in parallel mode, " +
+                    "partitioned by event subject; sinks then see events " +
+                    "of different subjects concurrently")
+    private int subjectLanes = DEFAULT_SUBJECT_LANES;
+
+    @Reference(cardinality = ReferenceCardinality.OPTIONAL_UNARY)
+    protected MetricsService metricsService;
 
     @SuppressWarnings("unchecked")
     private static final Event KILL_PILL = new AbstractEvent(null, 0) {
     };
 
-    private volatile DispatchLoop dispatchLoop;
+    // Started lanes, watched over by the watchdog
+    private final List<Lane> lanes = new CopyOnWriteArrayList<>();
+    // Single lane used for all events unless dispatching in parallel; it
+    // also holds the events posted while the dispatcher is not active
+    private final Lane defaultLane = new Lane("all", "dispatch-%d");
+    private final Map<Class<?>, Lane[]> classLanes = new ConcurrentHashMap<>();
+    private volatile boolean parallel;
+    private volatile int lanesPerClass;
+
     private long maxProcessMillis = DEFAULT_EXECUTE_MS;
 
     // Means to detect long-running sinks
     private TimerTask watchdog;
-    private volatile EventSink lastSink;
-    private final Stopwatch stopwatch = Stopwatch.createUnstarted();
-    private volatile Future<?> dispatchFuture;
+
+    private MetricsComponent metricsComponent;
 
     @Override
     public void post(Event event) {
-        if (!events.add(event)) {
+        Lane lane = parallel ? lane(event) : defaultLane;
+        if (!lane.events.add(event)) {
             log.error("Unable to post event {}", event);
         }
     }
 
     @Activate
-    public void activate() {
-        dispatchLoop = new DispatchLoop();
-        dispatchFuture = executor.submit(dispatchLoop);
+    public void activate(ComponentContext context) {
+        modified(context);
+        lanesPerClass = subjectLanes;
+        if (metricsService != null) {
+            metricsComponent = metricsService.registerComponent(METRICS_COMPONENT);
+        }
+
+        parallel = parallelDispatch;
+        if (parallel) {
+            // Hands the events posted so far over to their class lanes
+            List<Event> pending = new ArrayList<>();
+            defaultLane.events.drainTo(pending);
+            pending.forEach(this::post);
+        }
+        // In parallel mode, dispatches the events posted while switching over
+        defaultLane.start();
 
         if (maxProcessMillis != 0) {
             startWatchdog();
         }
 
-        log.info("Started");
+        log.info("Started{}", parallel ? " with " + lanesPerClass + " lane(s) per event class" : "");
     }
 
     @Deactivate
     public void deactivate() {
-        dispatchLoop.stop();
         stopWatchdog();
-        post(KILL_PILL);
+        // Events posted from now on are held until the next activation
+        parallel = false;
+        defaultLane.stop();
+        classLanes.values().forEach(candidates -> {
+            for (Lane lane : candidates) {
+                lane.stop();
+                lane.executor.shutdown();
+                lane.events.drainTo(defaultLane.events);
+            }
+        });
+        classLanes.clear();
         log.info("Stopped");
     }
 
+    @Modified
+    public void modified(ComponentContext context) {
+        if (context == null) {
+            return;
+        }
+        Dictionary<?, ?> properties = context.getProperties();
+
+        // Lanes are laid out when the dispatcher starts, so changes made
+        // while running are picked up on the next activation.
+        parallelDispatch = Tools.isPropertyEnabled(properties, "parallelDispatch",
+                                                   DEFAULT_PARALLEL_DISPATCH);
+        int lanesValue = Tools.getIntegerProperty(properties, "subjectLanes",
+                                                  DEFAULT_SUBJECT_LANES);
+        subjectLanes = lanesValue > 0 ? lanesValue : DEFAULT_SUBJECT_LANES;
+        log.info("Configured. Parallel dispatch is {} with {} subject lane(s)",
+                 parallelDispatch ? "enabled" : "disabled", subjectLanes);
+    }
+
+    // Locates, creating if needed, the lane for the event class and subject.
+    private Lane lane(Event event) {
+        Lane[] candidates = classLanes.computeIfAbsent(event.getClass(), eventClass -> {
+            Lane[] created = new Lane[lanesPerClass];
+            for (int i = 0; i < created.length; i++) {
+                String name = eventClass.getSimpleName() + "-" + i;
+                created[i] = new Lane(name, "dispatch-" + name);
+                created[i].start();
+            }
+            return created;
+        });
+        return candidates[Math.floorMod(Objects.hashCode(event.subject()), candidates.length)];
+    }
+
     private void startWatchdog() {
         log.info("Starting watchdog task");
         watchdog = new Watchdog();
@@ -138,18 +236,87 @@ public class CoreEventDispatcher extends DefaultEventSinkRegistry
         return maxProcessMillis;
     }
 
-    // Auxiliary event dispatching loop that feeds off the events queue.
+    // Ordered dispatch lane with its own event queue and dispatch loop.
+    // Events posted to the lane are queued until its dispatch loop starts.
+    private final class Lane {
+        private final BlockingQueue<Event> events = new LinkedBlockingQueue<>();
+        private final String name;
+        private final ExecutorService executor;
+        private volatile Timer latency = new Timer();
+        private MetricsFeature feature;
+
+        private volatile DispatchLoop dispatchLoop;
+        private volatile Future<?> dispatchFuture;
+        private volatile EventSink lastSink;
+        // Start of the current sink invocation, or 0 when idle
+        private volatile long processingSince;
+
+        Lane(String name, String threadName) {
+            this.name = name;
+            this.executor = newSingleThreadExecutor(groupedThreads("onos/event", threadName, log));
+        }
+
+        void start() {
+            if (metricsComponent != null) {
+                feature = metricsComponent.registerFeature(name);
+                latency = metricsService.createTimer(metricsComponent, feature, LATENCY);
+                metricsService.registerMetric(metricsComponent, feature, QUEUE_DEPTH,
+                                              (Gauge<Integer>) events::size);
+            }
+            // Drops the kill-pills left over by dispatch loops that stopped
+            // before taking them
+            events.removeIf(event -> event == KILL_PILL);
+            lanes.add(this);
+            submit();
+        }
+
+        private void submit() {
+            dispatchLoop = new DispatchLoop(this);
+            dispatchFuture = executor.submit(dispatchLoop);
+        }
+
+        // Cancels the current dispatch loop and submits a new one.
+        void restart() {
+            dispatchLoop.stop();
+            dispatchFuture.cancel(true);
+            submit();
+        }
+
+        // Stops the dispatch loop; events posted from now on are held.
+        void stop() {
+            lanes.remove(this);
+            dispatchLoop.stop();
+            events.add(KILL_PILL);
+            if (feature != null) {
+                metricsService.removeMetric(metricsComponent, feature, LATENCY);
+                metricsService.removeMetric(metricsComponent, feature, QUEUE_DEPTH);
+                feature = null;
+            }
+        }
+
+        long elapsedMillis() {
+            long since = processingSince;
+            return since == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - since);
+        }
+    }
+
+    // Auxiliary event dispatching loop that feeds off the events queue of a lane.
     private class DispatchLoop implements Runnable {
+        private final Lane lane;
         private volatile boolean stopped;
 
+        DispatchLoop(Lane lane) {
+            this.lane = lane;
+        }
+
         @Override
         public void run() {
             stopped = false;
-            log.info("Dispatch loop initiated");
+            log.info("Dispatch loop initiated for lane {}", lane.name);
             while (!stopped) {
                 try {
                     // Fetch the next event and if it is the kill-pill, bail
-                    Event event = events.take();
+                    Event event = lane.events.take();
                     if (event == KILL_PILL) {
                         break;
                     }
@@ -160,7 +327,7 @@ public class CoreEventDispatcher extends DefaultEventSinkRegistry
                     log.warn("Error encountered while dispatching event:", e);
                 }
             }
-            log.info("Dispatch loop terminated");
+            log.info("Dispatch loop terminated for lane {}", lane.name);
         }
 
         // Locate the sink for the event class and use it to process the event
@@ -168,10 +335,18 @@ public class CoreEventDispatcher extends DefaultEventSinkRegistry
         private void process(Event event) {
             EventSink sink = getSink(event.getClass());
             if (sink != null) {
-                lastSink = sink;
-                stopwatch.start();
-                sink.process(event);
-                stopwatch.reset();
+                lane.lastSink = sink;
+                long start = System.nanoTime();
+                lane.processingSince = start;
+                try {
+                    sink.process(event);
+                } finally {
+                    lane.latency.update(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                    // Leave the marker alone if the watchdog already gave up on us
+                    if (lane.processingSince == start) {
+                        lane.processingSince = 0;
+                    }
+                }
             } else {
                 log.warn("No sink registered for event class {}",
                          event.getClass().getName());
@@ -187,20 +362,20 @@ public class CoreEventDispatcher extends DefaultEventSinkRegistry
     private class Watchdog extends TimerTask {
         @Override
         public void run() {
-            long elapsedTimeMillis = stopwatch.elapsed(TimeUnit.MILLISECONDS);
-            if (elapsedTimeMillis > maxProcessMillis) {
-                stopwatch.reset();
-                log.warn("Event sink {} exceeded execution time limit: {} ms; spawning new dispatch loop",
-                          lastSink.getClass().getName(), elapsedTimeMillis);
-
-                // Notify the sink that it has exceeded its time limit.
-                lastSink.onProcessLimit();
-
-                // Cancel the old dispatch loop and submit a new one.
-                dispatchLoop.stop();
-                dispatchLoop = new DispatchLoop();
-                dispatchFuture.cancel(true);
-                dispatchFuture = executor.submit(dispatchLoop);
+            for (Lane lane : lanes) {
+                long elapsedTimeMillis = lane.elapsedMillis();
+                if (elapsedTimeMillis > maxProcessMillis) {
+                    lane.processingSince = 0;
+                    log.warn("Event sink {} exceeded execution time limit: {} ms; " +
+                                     "spawning new dispatch loop for lane {}",
+                             lane.lastSink.getClass().getName(), elapsedTimeMillis, lane.name);
+
+                    // Notify the sink that it has exceeded its time limit.
+                    lane.lastSink.onProcessLimit();
+
+                    // Cancel the old dispatch loop and submit a new one.
+                    lane.restart();
+                }
             }
         }
     }
@@ -64,6 +64,7 @@ import org.onosproject.net.provider.AbstractProviderService;
 import org.osgi.service.component.ComponentContext;
 import org.slf4j.Logger;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Dictionary;
 import java.util.HashSet;
@@ -80,6 +81,7 @@ import static org.onlab.util.Tools.get;
 import static org.onlab.util.Tools.groupedThreads;
 import static org.onosproject.net.flow.FlowRuleEvent.Type.RULE_ADD_REQUESTED;
 import static org.onosproject.net.flow.FlowRuleEvent.Type.RULE_REMOVE_REQUESTED;
+import static org.onosproject.net.flow.FlowRuleEvent.Type.RULES_UPDATED;
 import static org.onosproject.security.AppGuard.checkPermission;
 import static org.onosproject.security.AppPermission.Type.FLOWRULE_READ;
 import static org.onosproject.security.AppPermission.Type.FLOWRULE_WRITE;
@@ -398,24 +400,6 @@ public class FlowRuleManager
             log.debug("Flow {} is on switch but not in store.", flowRule);
         }
 
-        private void flowAdded(FlowEntry flowEntry) {
-            checkNotNull(flowEntry, FLOW_RULE_NULL);
-            checkValidity();
-
-            if (checkRuleLiveness(flowEntry, store.getFlowEntry(flowEntry))) {
-                FlowRuleEvent event = store.addOrUpdateFlowRule(flowEntry);
-                if (event == null) {
-                    log.debug("No flow store event generated.");
-                } else {
-                    log.trace("Flow {} {}", flowEntry, event.type());
-                    post(event);
-                }
-            } else {
-                log.debug("Removing flow rules....");
-                removeFlowRules(flowEntry);
-            }
-        }
-
         private boolean checkRuleLiveness(FlowEntry swRule, FlowEntry storedRule) {
             if (storedRule == null) {
                 return false;
@@ -469,45 +453,81 @@ public class FlowRuleManager
 
         private void pushFlowMetricsInternal(DeviceId deviceId, Iterable<FlowEntry> flowEntries,
                                              boolean useMissingFlow) {
-            Map<FlowEntry, FlowEntry> storedRules = Maps.newHashMap();
-            store.getFlowEntries(deviceId).forEach(f -> storedRules.put(f, f));
+            checkValidity();
+            // Counters are refreshed in place by the store; the outcome of
+            // each entry is collected and acted upon once the store is done.
+            List<FlowEntry> updated = new ArrayList<>();
+            List<FlowEntry> expired = new ArrayList<>();
+            List<FlowEntry> extraneous = new ArrayList<>();
+            List<FlowEntry> missing = new ArrayList<>();
+            int[] matched = new int[1];
+
+            List<FlowRuleEvent> events = store.updateFlowStatistics(deviceId, flowEntries, (rule, storedRule) -> {
+                if (storedRule == null) {
+                    // the device has a rule the store does not have
+                    if (!allowExtraneousRules) {
+                        extraneous.add(rule);
+                    }
+                    return false;
+                }
+                matched[0]++;
+                if (!storedRule.exactMatch(rule)) {
+                    // the two rules are not an exact match - remove the
+                    // switch's rule and install our rule
+                    extraneous.add(rule);
+                    missing.add(storedRule);
+                    return false;
+                }
+                if (!checkRuleLiveness(rule, storedRule)) {
+                    expired.add(rule);
+                    return false;
+                }
+                // we both have the rule, let's update some info then;
+                // pending rules get confirmed with an event of their own
+                if (storedRule.state() != FlowEntry.FlowEntryState.PENDING_ADD) {
+                    updated.add(rule);
+                }
+                return true;
+            });
+
+            events.forEach(event -> {
+                log.trace("Flow {} {}", event.subject(), event.type());
+                post(event);
+            });
+            if (!updated.isEmpty()) {
+                post(new FlowRuleEvent(RULES_UPDATED, updated));
+            }
 
-            for (FlowEntry rule : flowEntries) {
+            expired.forEach(rule -> {
+                log.debug("Removing flow rules....");
+                removeFlowRules(rule);
+            });
+            for (FlowEntry rule : extraneous) {
                 try {
-                    FlowEntry storedRule = storedRules.remove(rule);
-                    if (storedRule != null) {
-                        if (storedRule.exactMatch(rule)) {
-                            // we both have the rule, let's update some info then.
-                            flowAdded(rule);
-                        } else {
-                            // the two rules are not an exact match - remove the
-                            // switch's rule and install our rule
-                            extraneousFlow(rule);
-                            flowMissing(storedRule);
-                        }
-                    } else {
-                        // the device has a rule the store does not have
-                        if (!allowExtraneousRules) {
-                            extraneousFlow(rule);
-                        }
-                    }
+                    extraneousFlow(rule);
                 } catch (Exception e) {
-                    log.debug("Can't process added or extra rule {}", e.getMessage());
+                    log.debug("Can't process extra rule {}", e.getMessage());
                 }
             }
-
-            // DO NOT reinstall
-            if (useMissingFlow) {
-                for (FlowEntry rule : storedRules.keySet()) {
-                    try {
+            // Scanning the store is only needed when some of its rules were
+            // not reported by the device
+            if (useMissingFlow && matched[0] < store.getFlowRuleCount(deviceId)) {
+                Set<FlowEntry> reported = Sets.newHashSet(flowEntries);
+                for (FlowEntry rule : store.getFlowEntries(deviceId)) {
+                    if (!reported.contains(rule)) {
                         // there are rules in the store that aren't on the switch
                         log.debug("Adding rule in store, but not on switch {}", rule);
-                        flowMissing(rule);
-                    } catch (Exception e) {
-                        log.debug("Can't add missing flow rule:", e);
+                        missing.add(rule);
                     }
                 }
             }
+            for (FlowEntry rule : missing) {
+                try {
+                    flowMissing(rule);
+                } catch (Exception e) {
+                    log.debug("Can't add missing flow rule:", e);
+                }
+            }
         }
 
         @Override
@@ -61,11 +61,13 @@ import java.util.Objects;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinPool.ForkJoinWorkerThreadFactory;
+import java.util.concurrent.ForkJoinWorkerThread;
 import java.util.stream.Collectors;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Strings.isNullOrEmpty;
-import static java.util.concurrent.Executors.newFixedThreadPool;
 import static java.util.concurrent.Executors.newSingleThreadExecutor;
 import static org.onlab.util.Tools.groupedThreads;
 import static org.onosproject.net.intent.IntentState.*;
@@ -104,7 +106,7 @@ public class IntentManager
     private static final int DEFAULT_NUM_THREADS = 12;
     @Property(name = "numThreads",
             intValue = DEFAULT_NUM_THREADS,
-            label = "Number of worker threads")
+            label = "Number of worker threads; at least one per core is used")
     private int numThreads = DEFAULT_NUM_THREADS;
 
     @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
@@ -158,7 +160,7 @@ public class IntentManager
         trackerService.setDelegate(topoDelegate);
         eventDispatcher.addSink(IntentEvent.class, listenerRegistry);
         batchExecutor = newSingleThreadExecutor(groupedThreads("onos/intent", "batch", log));
-        workerExecutor = newFixedThreadPool(numThreads, groupedThreads("onos/intent", "worker-%d", log));
+        workerExecutor = newWorkerPool(numThreads);
         idGenerator = coreService.getIdGenerator("intent-ids");
         Intent.bindIdGenerator(idGenerator);
         log.info("Started");
@@ -208,7 +210,7 @@ public class IntentManager
         if (newNumThreads != numThreads) {
             numThreads = newNumThreads;
             ExecutorService oldWorkerExecutor = workerExecutor;
-            workerExecutor = newFixedThreadPool(numThreads, groupedThreads("onos/intent", "worker-%d", log));
+            workerExecutor = newWorkerPool(numThreads);
             if (oldWorkerExecutor != null) {
                 oldWorkerExecutor.shutdown();
             }
@@ -216,6 +218,18 @@ public class IntentManager
         }
     }
 
+    // Intents are processed on a work-stealing pool, so that the compilation
+    // of a large batch, e.g. after a topology change, keeps all cores busy.
+    private ExecutorService newWorkerPool(int threads) {
+        ForkJoinWorkerThreadFactory factory = pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("onos-intent-worker-" + thread.getPoolIndex());
+            return thread;
+        };
+        return new ForkJoinPool(Math.max(threads, Runtime.getRuntime().availableProcessors()), factory,
+                                (t, e) -> log.error("Uncaught exception on " + t.getName(), e), true);
+    }
+
     private void logConfig(String prefix) {
         log.info("{} with skipReleaseResourcesOnWithdrawal = {}", prefix, skipReleaseResourcesOnWithdrawal);
     }
@@ -15,9 +15,6 @@
  */
 package org.onosproject.net.intent.impl;
 
-import com.google.common.collect.HashMultimap;
-import com.google.common.collect.ImmutableSet;
-import com.google.common.collect.SetMultimap;
 import org.apache.felix.scr.annotations.Activate;
 import org.apache.felix.scr.annotations.Component;
 import org.apache.felix.scr.annotations.Deactivate;
@@ -26,10 +23,10 @@ import org.apache.felix.scr.annotations.ReferenceCardinality;
 import org.apache.felix.scr.annotations.ReferencePolicy;
 import org.apache.felix.scr.annotations.Service;
 import org.onosproject.event.Event;
+import org.onosproject.net.ConnectPoint;
 import org.onosproject.net.DeviceId;
 import org.onosproject.net.ElementId;
 import org.onosproject.net.HostId;
-import org.onosproject.net.Link;
 import org.onosproject.net.LinkKey;
 import org.onosproject.net.NetworkResource;
 import org.onosproject.net.PortNumber;
@@ -58,8 +55,10 @@ import org.slf4j.Logger;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
@@ -67,7 +66,6 @@ import java.util.concurrent.atomic.AtomicBoolean;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
-import static com.google.common.collect.Multimaps.synchronizedSetMultimap;
 import static java.util.concurrent.Executors.newScheduledThreadPool;
 import static java.util.concurrent.Executors.newSingleThreadExecutor;
 import static org.onlab.util.Tools.groupedThreads;
@@ -89,12 +87,12 @@ public class ObjectiveTracker implements ObjectiveTrackerService {
 
     private final Logger log = getLogger(getClass());
 
-    private final SetMultimap<LinkKey, Key> intentsByLink =
-            //TODO this could be slow as a point of synchronization
-            synchronizedSetMultimap(HashMultimap.<LinkKey, Key>create());
+    private final ResourceIntentIndex index = new ResourceIntentIndex();
 
-    private final SetMultimap<ElementId, Key> intentsByDevice =
-            synchronizedSetMultimap(HashMultimap.<ElementId, Key>create());
+    // Intents to recompile, accumulated across events until the next recompilation
+    private final Set<Key> pendingKeys = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean pendingCompileAllFailed = new AtomicBoolean(false);
+    private final AtomicBoolean recompileScheduled = new AtomicBoolean(false);
 
     @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
     protected TopologyService topologyService;
@@ -178,25 +176,13 @@ public class ObjectiveTracker implements ObjectiveTrackerService {
     @Override
     public void addTrackedResources(Key intentKey,
                                     Collection<NetworkResource> resources) {
-        for (NetworkResource resource : resources) {
-            if (resource instanceof Link) {
-                intentsByLink.put(linkKey((Link) resource), intentKey);
-            } else if (resource instanceof ElementId) {
-                intentsByDevice.put((ElementId) resource, intentKey);
-            }
-        }
+        index.add(intentKey, resources);
     }
 
     @Override
     public void removeTrackedResources(Key intentKey,
                                        Collection<NetworkResource> resources) {
-        for (NetworkResource resource : resources) {
-            if (resource instanceof Link) {
-                intentsByLink.remove(linkKey((Link) resource), intentKey);
-            } else if (resource instanceof ElementId) {
-                intentsByDevice.remove(resource, intentKey);
-            }
-        }
+        index.remove(intentKey, resources);
     }
 
     @Override
@@ -215,7 +201,7 @@ public class ObjectiveTracker implements ObjectiveTrackerService {
         if (log.isTraceEnabled()) {
             log.trace("intent {}, old: {}, new: {}, installableCount: {}, resourceCount: {}",
                       key,
-                      intentsByDevice.values().contains(key),
+                      index.usesElements(key),
                       isLocal && isInstalled,
                       installables.size(),
                       intent.resources().size() +
@@ -243,6 +229,38 @@ public class ObjectiveTracker implements ObjectiveTrackerService {
         }
     }
 
+    /**
+     * Plans the recompilation of the given intents. Intents planned for
+     * recompilation by several events before the delegate gets to them are
+     * only recompiled once.
+     *
+     * @param intentKeys       keys of the intents to recompile
+     * @param compileAllFailed true if all failed intents are to be recompiled
+     */
+    private void planRecompile(Collection<Key> intentKeys, boolean compileAllFailed) {
+        pendingKeys.addAll(intentKeys);
+        if (compileAllFailed) {
+            pendingCompileAllFailed.set(true);
+        }
+        if (recompileScheduled.compareAndSet(false, true)) {
+            executorService.execute(this::triggerRecompile);
+        }
+    }
+
+    private void triggerRecompile() {
+        recompileScheduled.set(false);
+        boolean compileAllFailed = pendingCompileAllFailed.getAndSet(false);
+        Set<Key> intentKeys = new HashSet<>();
+        for (Iterator<Key> it = pendingKeys.iterator(); it.hasNext();) {
+            intentKeys.add(it.next());
+            it.remove();
+        }
+        // If there is no delegate, why bother? Just bail.
+        if (delegate != null) {
+            delegate.triggerCompile(intentKeys, compileAllFailed);
+        }
+    }
+
     // Internal re-actor to topology change events.
     private class InternalTopologyListener implements TopologyListener {
         @Override
@@ -268,7 +286,7 @@ public class ObjectiveTracker implements ObjectiveTrackerService {
             }
 
             if (event.reasons() == null || event.reasons().isEmpty()) {
-                delegate.triggerCompile(Collections.emptySet(), true);
+                planRecompile(Collections.emptySet(), true);
 
             } else {
                 Set<Key> intentsToRecompile = new HashSet<>();
@@ -280,19 +298,17 @@ public class ObjectiveTracker implements ObjectiveTrackerService {
                     if (reason instanceof LinkEvent) {
                         LinkEvent linkEvent = (LinkEvent) reason;
                         final LinkKey linkKey = linkKey(linkEvent.subject());
-                        synchronized (intentsByLink) {
-                            Set<Key> intentKeys = intentsByLink.get(linkKey);
-                            log.debug("recompile triggered by LinkEvent {} ({}) for {}",
-                                    linkKey, linkEvent.type(), intentKeys);
-                            intentsToRecompile.addAll(intentKeys);
-                        }
+                        Set<Key> intentKeys = index.intentsOnLink(linkKey);
+                        log.debug("recompile triggered by LinkEvent {} ({}) for {}",
+                                linkKey, linkEvent.type(), intentKeys);
+                        intentsToRecompile.addAll(intentKeys);
                         dontRecompileAllFailedIntents = dontRecompileAllFailedIntents &&
                                 (linkEvent.type() == LINK_REMOVED ||
                                 (linkEvent.type() == LINK_UPDATED &&
                                 linkEvent.subject().isDurable()));
                     }
                 }
-                delegate.triggerCompile(intentsToRecompile, !dontRecompileAllFailedIntents);
+                planRecompile(intentsToRecompile, !dontRecompileAllFailedIntents);
             }
         }
     }
@@ -301,13 +317,7 @@ public class ObjectiveTracker implements ObjectiveTrackerService {
         @Override
         public void event(ResourceEvent event) {
             if (event.subject().isSubTypeOf(PortNumber.class)) {
-                executorService.execute(() -> {
-                    if (delegate == null) {
-                        return;
-                    }
-
-                    delegate.triggerCompile(Collections.emptySet(), true);
-                });
+                planRecompile(Collections.emptySet(), true);
             }
         }
     }
@@ -336,11 +346,7 @@ public class ObjectiveTracker implements ObjectiveTrackerService {
 
             // TODO should we recompile on available==true?
 
-            final ImmutableSet<Key> snapshot;
-            synchronized (intentsByDevice) {
-                snapshot = ImmutableSet.copyOf(intentsByDevice.get(id));
-            }
-            delegate.triggerCompile(snapshot, available);
+            planRecompile(index.intentsOnElement(id), available);
         }
     }
 
@@ -362,12 +368,24 @@ public class ObjectiveTracker implements ObjectiveTrackerService {
                         type == DeviceEvent.Type.DEVICE_UPDATED);
                 executorService.execute(new DeviceAvailabilityHandler(id, available));
                 break;
-            case PORT_ADDED:
             case PORT_REMOVED:
             case PORT_UPDATED:
+                // Only the intents through the port that went down are affected
+                if (type == DeviceEvent.Type.PORT_REMOVED || !event.port().isEnabled()) {
+                    ConnectPoint port = new ConnectPoint(event.subject().id(), event.port().number());
+                    executorService.execute(() -> {
+                        Set<Key> intentKeys = index.intentsOnPort(port);
+                        if (delegate != null && !intentKeys.isEmpty()) {
+                            log.debug("recompile triggered by port {} down for {}", port, intentKeys);
+                            planRecompile(intentKeys, false);
+                        }
+                    });
+                }
+                break;
+            case PORT_ADDED:
             case PORT_STATS_UPDATED:
             default:
-                // Don't handle port events for now
+                // Don't handle other port events for now
                 break;
             }
         }
@@ -0,0 +1,166 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.net.intent.impl;
+
+import com.google.common.collect.ImmutableSet;
+import org.onosproject.net.ConnectPoint;
+import org.onosproject.net.ElementId;
+import org.onosproject.net.Link;
+import org.onosproject.net.LinkKey;
+import org.onosproject.net.NetworkResource;
+import org.onosproject.net.intent.Key;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.onosproject.net.LinkKey.linkKey;
+
+/**
+ * Index of the intents that use each tracked network resource: links,
+ * the ports at either end of these links, and elements.
+ * <p>
+ * Updates of a given entry are atomic, and reads do not lock.
+ * </p>
+ */
+final class ResourceIntentIndex {
+
+    private final Map<LinkKey, Set<Key>> intentsByLink = new ConcurrentHashMap<>();
+    private final Map<ElementId, Set<Key>> intentsByElement = new ConcurrentHashMap<>();
+    // Links used by at least one intent, by the ports at either end
+    private final Map<ConnectPoint, Set<LinkKey>> linksByPort = new ConcurrentHashMap<>();
+
+    /**
+     * Records that an intent uses the given resources.
+     *
+     * @param key       intent key
+     * @param resources network resources
+     */
+    void add(Key key, Collection<NetworkResource> resources) {
+        for (NetworkResource resource : resources) {
+            if (resource instanceof Link) {
+                LinkKey link = linkKey((Link) resource);
+                intentsByLink.compute(link, (k, keys) -> {
+                    if (keys == null) {
+                        add(linksByPort, link.src(), link);
+                        add(linksByPort, link.dst(), link);
+                        keys = ConcurrentHashMap.newKeySet();
+                    }
+                    keys.add(key);
+                    return keys;
+                });
+            } else if (resource instanceof ElementId) {
+                add(intentsByElement, (ElementId) resource, key);
+            }
+        }
+    }
+
+    /**
+     * Records that an intent no longer uses the given resources.
+     *
+     * @param key       intent key
+     * @param resources network resources
+     */
+    void remove(Key key, Collection<NetworkResource> resources) {
+        for (NetworkResource resource : resources) {
+            if (resource instanceof Link) {
+                LinkKey link = linkKey((Link) resource);
+                intentsByLink.computeIfPresent(link, (k, keys) -> {
+                    keys.remove(key);
+                    if (!keys.isEmpty()) {
+                        return keys;
+                    }
+                    remove(linksByPort, link.src(), link);
+                    remove(linksByPort, link.dst(), link);
+                    return null;
+                });
+            } else if (resource instanceof ElementId) {
+                remove(intentsByElement, (ElementId) resource, key);
+            }
+        }
+    }
+
+    /**
+     * Returns the intents that use the given link.
+     *
+     * @param link link key
+     * @return set of intent keys
+     */
+    Set<Key> intentsOnLink(LinkKey link) {
+        return copy(intentsByLink.get(link));
+    }
+
+    /**
+     * Returns the intents that use a link through the given port.
+     *
+     * @param port connect point
+     * @return set of intent keys
+     */
+    Set<Key> intentsOnPort(ConnectPoint port) {
+        Set<LinkKey> links = linksByPort.get(port);
+        if (links == null) {
+            return ImmutableSet.of();
+        }
+        ImmutableSet.Builder<Key> builder = ImmutableSet.builder();
+        for (LinkKey link : links) {
+            Set<Key> keys = intentsByLink.get(link);
+            if (keys != null) {
+                builder.addAll(keys);
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Returns the intents that use the given element.
+     *
+     * @param id element identifier
+     * @return set of intent keys
+     */
+    Set<Key> intentsOnElement(ElementId id) {
+        return copy(intentsByElement.get(id));
+    }
+
+    /**
+     * Indicates whether an intent uses any tracked element.
+     *
+     * @param key intent key
+     * @return true if the intent uses a tracked element
+     */
+    boolean usesElements(Key key) {
+        return intentsByElement.values().stream().anyMatch(keys -> keys.contains(key));
+    }
+
+    private static <K, V> void add(Map<K, Set<V>> index, K key, V value) {
+        index.compute(key, (k, values) -> {
+            Set<V> result = values != null ? values : ConcurrentHashMap.newKeySet();
+            result.add(value);
+            return result;
+        });
+    }
+
+    private static <K, V> void remove(Map<K, Set<V>> index, K key, V value) {
+        index.computeIfPresent(key, (k, values) -> {
+            values.remove(value);
+            return values.isEmpty() ? null : values;
+        });
+    }
+
+    private static Set<Key> copy(Set<Key> keys) {
+        return keys != null ? ImmutableSet.copyOf(keys) : ImmutableSet.of();
+    }
+}
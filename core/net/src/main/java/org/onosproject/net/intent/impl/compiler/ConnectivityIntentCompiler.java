@@ -15,13 +15,13 @@
  */
 package org.onosproject.net.intent.impl.compiler;
 
-import com.google.common.collect.FluentIterable;
 import com.google.common.collect.ImmutableList;
 import org.apache.felix.scr.annotations.Component;
 import org.apache.felix.scr.annotations.Reference;
 import org.apache.felix.scr.annotations.ReferenceCardinality;
 import org.onosproject.net.DisjointPath;
 import org.onosproject.net.ElementId;
+import org.onosproject.net.HostId;
 import org.onosproject.net.Path;
 import org.onosproject.net.intent.ConnectivityIntent;
 import org.onosproject.net.intent.Constraint;
@@ -32,12 +32,20 @@ import org.onosproject.net.resource.ResourceQueryService;
 import org.onosproject.net.provider.ProviderId;
 import org.onosproject.net.topology.LinkWeight;
 import org.onosproject.net.topology.PathService;
+import org.onosproject.net.topology.Topology;
 import org.onosproject.net.topology.TopologyEdge;
+import org.onosproject.net.topology.TopologyService;
 
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
 
 /**
  * Base class for compilers of various
@@ -58,6 +66,12 @@ public abstract class ConnectivityIntentCompiler<T extends ConnectivityIntent>
     @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
     protected ResourceQueryService resourceService;
 
+    // Used to tell topology versions apart; candidate paths are not shared without it
+    @Reference(cardinality = ReferenceCardinality.OPTIONAL_UNARY)
+    protected TopologyService topologyService;
+
+    private final AtomicReference<TopologyPaths> topologyPaths = new AtomicReference<>();
+
     /**
      * Returns an edge-weight capable of evaluating links on the basis of the
      * specified constraints.
@@ -96,16 +110,8 @@ public abstract class ConnectivityIntentCompiler<T extends ConnectivityIntent>
      */
     protected Path getPath(ConnectivityIntent intent,
                            ElementId one, ElementId two) {
-        Set<Path> paths = pathService.getPaths(one, two, weight(intent.constraints()));
-        final List<Constraint> constraints = intent.constraints();
-        ImmutableList<Path> filtered = FluentIterable.from(paths)
-                .filter(path -> checkPath(path, constraints))
-                .toList();
-        if (filtered.isEmpty()) {
-            throw new PathNotFoundException(one, two);
-        }
-        // TODO: let's be more intelligent about this eventually
-        return filtered.iterator().next();
+        return selectPath(new PathKey(one, two, intent.constraints(), false), intent.constraints(),
+                          weight -> pathService.getPaths(one, two, weight));
     }
 
     /**
@@ -119,16 +125,111 @@ public abstract class ConnectivityIntentCompiler<T extends ConnectivityIntent>
      */
     protected DisjointPath getDisjointPath(ConnectivityIntent intent,
                            ElementId one, ElementId two) {
-        Set<DisjointPath> paths = pathService.getDisjointPaths(one, two, weight(intent.constraints()));
-        final List<Constraint> constraints = intent.constraints();
-        ImmutableList<DisjointPath> filtered = FluentIterable.from(paths)
-                .filter(path -> checkPath(path, constraints))
-                .toList();
-        if (filtered.isEmpty()) {
-            throw new PathNotFoundException(one, two);
+        return selectPath(new PathKey(one, two, intent.constraints(), true), intent.constraints(),
+                          weight -> pathService.getDisjointPaths(one, two, weight));
+    }
+
+    /**
+     * Selects the first of the candidate paths between two elements that
+     * passes the given constraints. Candidate paths are computed once per
+     * topology version for all intents that share the same end points and
+     * constraints; they are only computed again if none of them passes the
+     * constraints any more, as resources are allocated. Paths to or from
+     * hosts are not shared, since hosts move without the topology changing.
+     *
+     * @param key         end points and constraints of the paths
+     * @param constraints path constraints
+     * @param search      computes the candidate paths using a link weight
+     * @param <P>         type of path
+     * @return selected path
+     * @throws PathNotFoundException if no path passes the constraints
+     */
+    private <P extends Path> P selectPath(PathKey key, List<Constraint> constraints,
+                                          Function<LinkWeight, Set<P>> search) {
+        boolean shared = !(key.one instanceof HostId) && !(key.two instanceof HostId);
+        Topology topology = topologyService != null && shared ? topologyService.currentTopology() : null;
+        TopologyPaths cached = topology != null ? topologyPaths(topology) : null;
+        if (cached != null) {
+            @SuppressWarnings("unchecked")
+            Set<P> paths = (Set<P>) cached.paths.get(key);
+            Optional<P> path = firstValid(paths, constraints);
+            if (path.isPresent()) {
+                return path.get();
+            }
+        }
+
+        Set<P> paths = search.apply(weight(constraints));
+        // Paths computed while the topology changed are not shared
+        if (cached != null && topologyService.currentTopology() == topology) {
+            cached.paths.put(key, paths);
         }
         // TODO: let's be more intelligent about this eventually
-        return filtered.iterator().next();
+        return firstValid(paths, constraints)
+                .orElseThrow(() -> new PathNotFoundException(key.one, key.two));
+    }
+
+    private <P extends Path> Optional<P> firstValid(Set<P> paths, List<Constraint> constraints) {
+        if (paths == null) {
+            return Optional.empty();
+        }
+        return paths.stream().filter(path -> checkPath(path, constraints)).findFirst();
+    }
+
+    // Returns the candidate paths of the given topology, discarding those of
+    // any previous topology.
+    private TopologyPaths topologyPaths(Topology topology) {
+        TopologyPaths current = topologyPaths.get();
+        while (current == null || current.topology != topology) {
+            TopologyPaths next = new TopologyPaths(topology);
+            if (topologyPaths.compareAndSet(current, next)) {
+                return next;
+            }
+            current = topologyPaths.get();
+        }
+        return current;
+    }
+
+    // Candidate paths computed on one topology version.
+    private static final class TopologyPaths {
+        private final Topology topology;
+        private final Map<PathKey, Set<? extends Path>> paths = new ConcurrentHashMap<>();
+
+        private TopologyPaths(Topology topology) {
+            this.topology = topology;
+        }
+    }
+
+    // End points and constraints shared by the intents whose candidate paths are the same.
+    private static final class PathKey {
+        private final ElementId one;
+        private final ElementId two;
+        private final List<Constraint> constraints;
+        private final boolean disjoint;
+
+        private PathKey(ElementId one, ElementId two, List<Constraint> constraints, boolean disjoint) {
+            this.one = one;
+            this.two = two;
+            this.constraints = constraints;
+            this.disjoint = disjoint;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(one, two, constraints, disjoint);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof PathKey)) {
+                return false;
+            }
+            PathKey that = (PathKey) obj;
+            return disjoint == that.disjoint && Objects.equals(one, that.one) &&
+                    Objects.equals(two, that.two) && Objects.equals(constraints, that.constraints);
+        }
     }
 
     /**
@@ -17,12 +17,14 @@ package org.onosproject.net.packet.impl;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
 import org.apache.felix.scr.annotations.Activate;
 import org.apache.felix.scr.annotations.Component;
 import org.apache.felix.scr.annotations.Deactivate;
 import org.apache.felix.scr.annotations.Reference;
 import org.apache.felix.scr.annotations.ReferenceCardinality;
 import org.apache.felix.scr.annotations.Service;
+import org.onlab.packet.EthernetView;
 import org.onosproject.cluster.ClusterService;
 import org.onosproject.cluster.NodeId;
 import org.onosproject.core.ApplicationId;
@@ -41,6 +43,7 @@ import org.onosproject.net.flowobjective.Objective;
 import org.onosproject.net.flowobjective.ObjectiveContext;
 import org.onosproject.net.flowobjective.ObjectiveError;
 import org.onosproject.net.packet.DefaultPacketRequest;
+import org.onosproject.net.packet.InboundPacket;
 import org.onosproject.net.packet.OutboundPacket;
 import org.onosproject.net.packet.PacketContext;
 import org.onosproject.net.packet.PacketEvent;
@@ -58,10 +61,13 @@ import org.onosproject.net.provider.AbstractProviderRegistry;
 import org.onosproject.net.provider.AbstractProviderService;
 import org.slf4j.Logger;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 import static org.onlab.util.Tools.groupedThreads;
@@ -110,6 +116,9 @@ public class PacketManager
 
     private final List<ProcessorEntry> processors = Lists.newCopyOnWriteArrayList();
 
+    // Processors by ethertype, compiled from the processors above
+    private volatile DispatchTable dispatchTable = new DispatchTable(ImmutableList.of());
+
     private final  PacketDriverProvider defaultProvider = new PacketDriverProvider();
 
     private ApplicationId appId;
@@ -145,30 +154,37 @@ public class PacketManager
     public void addProcessor(PacketProcessor processor, int priority) {
         checkPermission(PACKET_EVENT);
         checkNotNull(processor, ERROR_NULL_PROCESSOR);
-        ProcessorEntry entry = new ProcessorEntry(processor, priority);
+        addProcessor(new ProcessorEntry(processor, priority, PacketMatch.ALL));
+    }
+
+    @Override
+    public void addProcessor(PacketProcessor processor, int priority, TrafficSelector selector) {
+        checkPermission(PACKET_EVENT);
+        checkNotNull(processor, ERROR_NULL_PROCESSOR);
+        checkNotNull(selector, ERROR_NULL_SELECTOR);
+        addProcessor(new ProcessorEntry(processor, priority, PacketMatch.of(selector)));
+    }
 
+    private synchronized void addProcessor(ProcessorEntry entry) {
         // Insert the new processor according to its priority.
         int i = 0;
         for (; i < processors.size(); i++) {
-            if (priority < processors.get(i).priority()) {
+            if (entry.priority() < processors.get(i).priority()) {
                 break;
             }
         }
         processors.add(i, entry);
+        dispatchTable = new DispatchTable(processors);
     }
 
     @Override
-    public void removeProcessor(PacketProcessor processor) {
+    public synchronized void removeProcessor(PacketProcessor processor) {
         checkPermission(PACKET_EVENT);
         checkNotNull(processor, ERROR_NULL_PROCESSOR);
 
-        // Remove the processor entry.
-        for (int i = 0; i < processors.size(); i++) {
-            if (processors.get(i).processor() == processor) {
-                processors.remove(i);
-                break;
-            }
-        }
+        // Remove the processor entries, one per selector it was added with.
+        processors.removeIf(entry -> entry.processor() == processor);
+        dispatchTable = new DispatchTable(processors);
     }
 
     @Override
@@ -366,8 +382,17 @@ public class PacketManager
 
         @Override
         public void processPacket(PacketContext context) {
-            // TODO filter packets sent to processors based on registrations
-            for (ProcessorEntry entry : processors) {
+            InboundPacket packet = context.inPacket();
+            ProcessorEntry[] entries = dispatchTable.processors(packet.view());
+            // A processor added with overlapping selectors runs only once,
+            // for its first entry matching the packet
+            Set<PacketProcessor> invoked = dispatchTable.hasRepeats(entries)
+                    ? Sets.newIdentityHashSet() : null;
+            for (ProcessorEntry entry : entries) {
+                if (!entry.match().matchesPayload(packet)
+                        || (invoked != null && !invoked.add(entry.processor()))) {
+                    continue;
+                }
                 try {
                     long start = System.nanoTime();
                     entry.processor().process(context);
@@ -439,18 +464,73 @@ public class PacketManager
         }
     }
 
+    /**
+     * Processors to give packets to, in priority order, by ethertype. The
+     * processors of a given ethertype include those registered for any
+     * ethertype.
+     */
+    private static final class DispatchTable {
+        // Sorted ethertypes some processor registered for
+        private final int[] ethTypes;
+        private final ProcessorEntry[][] byEthType;
+        private final ProcessorEntry[] anyEthType;
+        // Entry lists holding more than one entry of some processor
+        private final Set<ProcessorEntry[]> repeats = Sets.newIdentityHashSet();
+
+        DispatchTable(List<ProcessorEntry> processors) {
+            ethTypes = processors.stream()
+                    .mapToInt(entry -> entry.match().ethType())
+                    .filter(ethType -> ethType != PacketMatch.ANY)
+                    .distinct().sorted().toArray();
+            byEthType = new ProcessorEntry[ethTypes.length][];
+            for (int i = 0; i < ethTypes.length; i++) {
+                byEthType[i] = select(processors, ethTypes[i]);
+            }
+            anyEthType = select(processors, PacketMatch.ANY);
+        }
+
+        private ProcessorEntry[] select(List<ProcessorEntry> processors, int ethType) {
+            ProcessorEntry[] entries = processors.stream()
+                    .filter(entry -> entry.match().ethType() == PacketMatch.ANY ||
+                            entry.match().ethType() == ethType)
+                    .toArray(ProcessorEntry[]::new);
+            Set<PacketProcessor> seen = Sets.newIdentityHashSet();
+            for (ProcessorEntry entry : entries) {
+                if (!seen.add(entry.processor())) {
+                    repeats.add(entries);
+                    break;
+                }
+            }
+            return entries;
+        }
+
+        boolean hasRepeats(ProcessorEntry[] entries) {
+            return !repeats.isEmpty() && repeats.contains(entries);
+        }
+
+        ProcessorEntry[] processors(EthernetView frame) {
+            if (frame == null) {
+                return anyEthType;
+            }
+            int i = Arrays.binarySearch(ethTypes, frame.etherType() & 0xffff);
+            return i >= 0 ? byEthType[i] : anyEthType;
+        }
+    }
+
     /**
      * Entity for tracking stats for a packet processor.
      */
     private class ProcessorEntry implements PacketProcessorEntry {
         private final PacketProcessor processor;
         private final int priority;
-        private long invocations = 0;
-        private long nanos = 0;
+        private final PacketMatch match;
+        private final LongAdder invocations = new LongAdder();
+        private final LongAdder nanos = new LongAdder();
 
-        public ProcessorEntry(PacketProcessor processor, int priority) {
+        public ProcessorEntry(PacketProcessor processor, int priority, PacketMatch match) {
             this.processor = processor;
             this.priority = priority;
+            this.match = match;
         }
 
         @Override
@@ -463,24 +543,29 @@ public class PacketManager
             return priority;
         }
 
+        PacketMatch match() {
+            return match;
+        }
+
         @Override
         public long invocations() {
-            return invocations;
+            return invocations.sum();
         }
 
         @Override
         public long totalNanos() {
-            return nanos;
+            return nanos.sum();
         }
 
         @Override
         public long averageNanos() {
-            return invocations > 0 ? nanos / invocations : 0;
+            long count = invocations();
+            return count > 0 ? totalNanos() / count : 0;
         }
 
         void addNanos(long nanos) {
-            this.nanos += nanos;
-            this.invocations++;
+            this.nanos.add(nanos);
+            this.invocations.increment();
         }
     }
 }
@@ -0,0 +1,196 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.net.packet.impl;
+
+import com.google.common.base.MoreObjects;
+import org.onlab.packet.Ethernet;
+import org.onlab.packet.EthernetView;
+import org.onlab.packet.IPv4;
+import org.onlab.packet.IPv4View;
+import org.onlab.packet.IPv6;
+import org.onlab.packet.IPacket;
+import org.onlab.packet.TCP;
+import org.onlab.packet.TransportView;
+import org.onlab.packet.UDP;
+import org.onosproject.net.flow.TrafficSelector;
+import org.onosproject.net.flow.criteria.Criterion;
+import org.onosproject.net.flow.criteria.EthTypeCriterion;
+import org.onosproject.net.flow.criteria.IPProtocolCriterion;
+import org.onosproject.net.flow.criteria.TcpPortCriterion;
+import org.onosproject.net.flow.criteria.UdpPortCriterion;
+import org.onosproject.net.packet.InboundPacket;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Packets a processor registered for: an ethertype, an IP protocol and
+ * transport ports, each of which may be left unspecified.
+ */
+final class PacketMatch {
+
+    /**
+     * Value of the fields left unspecified.
+     */
+    static final int ANY = -1;
+
+    /**
+     * Match of all packets.
+     */
+    static final PacketMatch ALL = new PacketMatch(ANY, ANY, ANY, ANY);
+
+    private final int ethType;
+    private final int ipProto;
+    private final int srcPort;
+    private final int dstPort;
+
+    private PacketMatch(int ethType, int ipProto, int srcPort, int dstPort) {
+        this.ethType = ethType;
+        this.ipProto = ipProto;
+        this.srcPort = srcPort;
+        this.dstPort = dstPort;
+    }
+
+    /**
+     * Creates the match of the ethertype, IP protocol and TCP or UDP ports
+     * criteria of the given selector. Other criteria are ignored.
+     *
+     * @param selector traffic selector
+     * @return packet match
+     * @throws IllegalArgumentException if the criteria are inconsistent
+     */
+    static PacketMatch of(TrafficSelector selector) {
+        int ethType = ANY;
+        int ipProto = ANY;
+        int srcPort = ANY;
+        int dstPort = ANY;
+        int portProto = ANY;
+        for (Criterion criterion : selector.criteria()) {
+            switch (criterion.type()) {
+                case ETH_TYPE:
+                    ethType = ((EthTypeCriterion) criterion).ethType().toShort() & 0xffff;
+                    break;
+                case IP_PROTO:
+                    ipProto = ((IPProtocolCriterion) criterion).protocol();
+                    break;
+                case TCP_SRC:
+                    srcPort = ((TcpPortCriterion) criterion).tcpPort().toInt();
+                    portProto = proto(portProto, IPv4.PROTOCOL_TCP);
+                    break;
+                case TCP_DST:
+                    dstPort = ((TcpPortCriterion) criterion).tcpPort().toInt();
+                    portProto = proto(portProto, IPv4.PROTOCOL_TCP);
+                    break;
+                case UDP_SRC:
+                    srcPort = ((UdpPortCriterion) criterion).udpPort().toInt();
+                    portProto = proto(portProto, IPv4.PROTOCOL_UDP);
+                    break;
+                case UDP_DST:
+                    dstPort = ((UdpPortCriterion) criterion).udpPort().toInt();
+                    portProto = proto(portProto, IPv4.PROTOCOL_UDP);
+                    break;
+                default:
+                    break;
+            }
+        }
+        if (portProto != ANY) {
+            checkArgument(ipProto == ANY || ipProto == portProto,
+                          "Ports do not match IP protocol %s", ipProto);
+            ipProto = portProto;
+        }
+        return new PacketMatch(ethType, ipProto, srcPort, dstPort);
+    }
+
+    private static int proto(int current, byte proto) {
+        checkArgument(current == ANY || current == proto, "Both TCP and UDP ports given");
+        return proto;
+    }
+
+    /**
+     * Returns the ethertype of the matched packets.
+     *
+     * @return ethertype, or {@link #ANY}
+     */
+    int ethType() {
+        return ethType;
+    }
+
+    /**
+     * Indicates whether the given packet matches. The packet is assumed to
+     * have the ethertype of this match, which is not checked again.
+     *
+     * @param packet inbound packet
+     * @return true if the packet matches
+     */
+    boolean matchesPayload(InboundPacket packet) {
+        if (ipProto == ANY) {
+            return true;
+        }
+        EthernetView frame = packet.view();
+        if (frame == null) {
+            return false;
+        }
+        IPv4View ipv4 = frame.ipv4();
+        if (ipv4 != null) {
+            if ((ipv4.protocol() & 0xff) != ipProto) {
+                return false;
+            }
+            if (srcPort == ANY && dstPort == ANY) {
+                return true;
+            }
+            TransportView segment = ipProto == IPv4.PROTOCOL_TCP ? ipv4.tcp() : ipv4.udp();
+            return segment != null && matchesPorts(segment.sourcePort(), segment.destinationPort());
+        }
+        if (frame.etherType() == Ethernet.TYPE_IPV6) {
+            // There is no view of IPv6 packets, hence the parsed form
+            return matchesIpv6(packet.parsed());
+        }
+        return false;
+    }
+
+    private boolean matchesIpv6(Ethernet frame) {
+        if (frame == null || !(frame.getPayload() instanceof IPv6)) {
+            return false;
+        }
+        IPv6 ipv6 = (IPv6) frame.getPayload();
+        if ((ipv6.getNextHeader() & 0xff) != ipProto) {
+            return false;
+        }
+        if (srcPort == ANY && dstPort == ANY) {
+            return true;
+        }
+        IPacket segment = ipv6.getPayload();
+        if (segment instanceof TCP) {
+            return matchesPorts(((TCP) segment).getSourcePort(), ((TCP) segment).getDestinationPort());
+        } else if (segment instanceof UDP) {
+            return matchesPorts(((UDP) segment).getSourcePort(), ((UDP) segment).getDestinationPort());
+        }
+        return false;
+    }
+
+    private boolean matchesPorts(int src, int dst) {
+        return (srcPort == ANY || srcPort == src) && (dstPort == ANY || dstPort == dst);
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(getClass())
+                .add("ethType", ethType)
+                .add("ipProto", ipProto)
+                .add("srcPort", srcPort)
+                .add("dstPort", dstPort)
+                .toString();
+    }
+}
@@ -648,6 +648,9 @@ public class FlowStatisticManager implements FlowStatisticService {
                 case RULE_UPDATED:
                     flowStatisticStore.updateFlowStatistic((FlowEntry) rule);
                     break;
+                case RULES_UPDATED:
+                    event.flowEntries().forEach(flowStatisticStore::updateFlowStatistic);
+                    break;
                 case RULE_ADD_REQUESTED:
                     break;
                 case RULE_REMOVE_REQUESTED:
@@ -261,6 +261,9 @@ public class StatisticManager implements StatisticService {
                         statisticStore.addOrUpdateStatistic((FlowEntry) rule);
                     }
                     break;
+                case RULES_UPDATED:
+                    event.flowEntries().forEach(statisticStore::addOrUpdateStatistic);
+                    break;
                 case RULE_ADD_REQUESTED:
                     statisticStore.prepareForStatistics(rule);
                     break;
@@ -15,12 +15,20 @@
  */
 package org.onosproject.net.topology.impl;
 
+import com.codahale.metrics.Gauge;
 import org.apache.felix.scr.annotations.Activate;
 import org.apache.felix.scr.annotations.Component;
 import org.apache.felix.scr.annotations.Deactivate;
+import org.apache.felix.scr.annotations.Modified;
+import org.apache.felix.scr.annotations.Property;
 import org.apache.felix.scr.annotations.Reference;
 import org.apache.felix.scr.annotations.ReferenceCardinality;
 import org.apache.felix.scr.annotations.Service;
+import org.onlab.metrics.MetricsComponent;
+import org.onlab.metrics.MetricsFeature;
+import org.onlab.metrics.MetricsService;
+import org.onosproject.cfg.ComponentConfigService;
+import org.onosproject.common.DefaultTopology;
 import org.onosproject.net.DisjointPath;
 import org.onosproject.net.ElementId;
 import org.onosproject.net.Link;
@@ -28,14 +36,23 @@ import org.onosproject.net.Path;
 import org.onosproject.net.host.HostService;
 import org.onosproject.net.topology.LinkWeight;
 import org.onosproject.net.topology.PathService;
+import org.onosproject.net.topology.Topology;
+import org.onosproject.net.topology.TopologyEvent;
+import org.onosproject.net.topology.TopologyListener;
 import org.onosproject.net.topology.TopologyService;
 import org.onosproject.net.topology.AbstractPathService;
+import org.osgi.service.component.ComponentContext;
 import org.slf4j.Logger;
 
+import java.util.Dictionary;
 import java.util.Set;
 import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.ToLongFunction;
 
 
+import static com.google.common.base.Strings.isNullOrEmpty;
+import static org.onlab.util.Tools.get;
 import static org.slf4j.LoggerFactory.getLogger;
 import static org.onosproject.security.AppGuard.checkPermission;
 import static org.onosproject.security.AppPermission.Type.*;
@@ -51,25 +68,92 @@ public class PathManager extends AbstractPathService implements PathService {
 
     private final Logger log = getLogger(getClass());
 
+    private static final String COMPONENT_NAME = "PathManager";
+    private static final String FEATURE_NAME = "pathCache";
+    private static final String[] METRIC_NAMES = {"hits", "misses", "hitRatioPercent", "size"};
+
+    private static final int DEFAULT_PREWARM_SOURCES = 0;
+    @Property(name = "prewarmSources", intValue = DEFAULT_PREWARM_SOURCES,
+            label = "Number of most requested source devices whose paths are " +
+                    "computed in advance on each topology change; 0 disables it")
+    private int prewarmSources = DEFAULT_PREWARM_SOURCES;
+
     @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
     protected TopologyService topologyService;
 
     @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
     protected HostService hostService;
 
+    @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
+    protected MetricsService metricsService;
+
+    @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
+    protected ComponentConfigService cfgService;
+
+    private final TopologyListener topologyListener = new InternalTopologyListener();
+    private ForkJoinPool prewarmPool;
+    private MetricsComponent metricsComponent;
+    private MetricsFeature metricsFeature;
+
     @Activate
-    public void activate() {
+    public void activate(ComponentContext context) {
         // initialize AbstractPathService
         super.topologyService = this.topologyService;
         super.hostService = this.hostService;
+        cfgService.registerProperties(getClass());
+        modified(context);
+        prewarmPool = new ForkJoinPool();
+        registerMetrics();
+        topologyService.addListener(topologyListener);
         log.info("Started");
     }
 
     @Deactivate
     public void deactivate() {
+        topologyService.removeListener(topologyListener);
+        for (String name : METRIC_NAMES) {
+            metricsService.removeMetric(metricsComponent, metricsFeature, name);
+        }
+        prewarmPool.shutdownNow();
+        cfgService.unregisterProperties(getClass(), false);
         log.info("Stopped");
     }
 
+    @Modified
+    public void modified(ComponentContext context) {
+        if (context == null) {
+            return;
+        }
+        Dictionary<?, ?> properties = context.getProperties();
+        String s = get(properties, "prewarmSources");
+        try {
+            prewarmSources = isNullOrEmpty(s) ? DEFAULT_PREWARM_SOURCES : Integer.parseInt(s.trim());
+        } catch (NumberFormatException e) {
+            prewarmSources = DEFAULT_PREWARM_SOURCES;
+        }
+        log.info("Configured. Paths are computed in advance for {} source devices", prewarmSources);
+    }
+
+    // Publishes the path cache usage of the current topology.
+    private void registerMetrics() {
+        metricsComponent = metricsService.registerComponent(COMPONENT_NAME);
+        metricsFeature = metricsComponent.registerFeature(FEATURE_NAME);
+        registerGauge(METRIC_NAMES[0], DefaultTopology::pathCacheHits);
+        registerGauge(METRIC_NAMES[1], DefaultTopology::pathCacheMisses);
+        registerGauge(METRIC_NAMES[2], topology -> {
+            long requests = topology.pathCacheHits() + topology.pathCacheMisses();
+            return requests == 0 ? 0 : topology.pathCacheHits() * 100 / requests;
+        });
+        registerGauge(METRIC_NAMES[3], DefaultTopology::pathCacheSize);
+    }
+
+    private void registerGauge(String name, ToLongFunction<DefaultTopology> value) {
+        metricsService.registerMetric(metricsComponent, metricsFeature, name, (Gauge<Long>) () -> {
+            Topology topology = topologyService.currentTopology();
+            return topology instanceof DefaultTopology ? value.applyAsLong((DefaultTopology) topology) : 0L;
+        });
+    }
+
     @Override
     public Set<Path> getPaths(ElementId src, ElementId dst) {
         checkPermission(TOPOLOGY_READ);
@@ -110,4 +194,15 @@ public class PathManager extends AbstractPathService implements PathService {
         return super.getDisjointPaths(src, dst, weight, riskProfile);
     }
 
+    // Computes in advance the paths most likely to be requested from each
+    // new topology.
+    private class InternalTopologyListener implements TopologyListener {
+        @Override
+        public void event(TopologyEvent event) {
+            int sources = prewarmSources;
+            if (sources > 0 && event.subject() instanceof DefaultTopology) {
+                prewarmPool.execute(((DefaultTopology) event.subject()).prewarmPaths(sources));
+            }
+        }
+    }
 }
@@ -18,15 +18,20 @@ package org.onosproject.event.impl;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
+import org.onlab.osgi.ComponentContextAdapter;
 import org.onosproject.event.AbstractEvent;
 import org.onosproject.event.EventSink;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Dictionary;
+import java.util.Hashtable;
 import java.util.List;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 /**
  * Test of the event dispatcher mechanism.
@@ -39,7 +44,7 @@ public class CoreEventDispatcherTest {
 
     @Before
     public void setUp() {
-        dispatcher.activate();
+        dispatcher.activate(null);
         dispatcher.addSink(Prickle.class, prickleSink);
         dispatcher.addSink(Goo.class, gooSink);
     }
@@ -76,6 +81,76 @@ public class CoreEventDispatcherTest {
         validate(prickleSink);
     }
 
+    @Test
+    public void parallelLanes() throws Exception {
+        CoreEventDispatcher parallel = new CoreEventDispatcher();
+        parallel.activate(new ComponentContextAdapter() {
+            @Override
+            public Dictionary getProperties() {
+                Hashtable<String, String> props = new Hashtable<>();
+                props.put("parallelDispatch", "true");
+                props.put("subjectLanes", "4");
+                return props;
+            }
+        });
+        CountDownLatch blocked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        parallel.addSink(Goo.class, event -> {
+            blocked.countDown();
+            try {
+                release.await(1, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        OrderSink orderSink = new OrderSink();
+        orderSink.latch = new CountDownLatch(200);
+        parallel.addSink(Numbered.class, orderSink);
+
+        try {
+            // A blocked Goo sink must not hold back Prickle events
+            parallel.post(new Goo("stuck"));
+            assertTrue("goo not dispatched", blocked.await(1, TimeUnit.SECONDS));
+            for (int i = 0; i < 100; i++) {
+                parallel.post(new Numbered("a", i));
+                parallel.post(new Numbered("b", i));
+            }
+            assertTrue("events blocked", orderSink.latch.await(1, TimeUnit.SECONDS));
+
+            // Events of one subject are delivered in posting order
+            List<Integer> expected = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                expected.add(i);
+            }
+            assertEquals("incorrect order", expected, orderSink.sequence("a"));
+            assertEquals("incorrect order", expected, orderSink.sequence("b"));
+        } finally {
+            release.countDown();
+            parallel.deactivate();
+        }
+    }
+
+    @Test
+    public void postWhileInactive() throws Exception {
+        CoreEventDispatcher inactive = new CoreEventDispatcher();
+        PrickleSink sink = new PrickleSink();
+        sink.latch = new CountDownLatch(2);
+        inactive.addSink(Prickle.class, sink);
+
+        // Events posted before activation or after deactivation are held
+        inactive.post(new Prickle("early"));
+        inactive.activate(null);
+        inactive.deactivate();
+        inactive.post(new Prickle("late"));
+        inactive.activate(null);
+        try {
+            assertTrue("events not dispatched", sink.latch.await(1, TimeUnit.SECONDS));
+            validate(sink, "early", "late");
+        } finally {
+            inactive.deactivate();
+        }
+    }
+
     private void validate(Sink sink, String... strings) {
         int i = 0;
         assertEquals("incorrect event count", strings.length, sink.subjects.size());
@@ -121,6 +196,35 @@ public class CoreEventDispatcherTest {
         }
     }
 
+    private static class Numbered extends Thing {
+        final int seq;
+
+        protected Numbered(String subject, int seq) {
+            super(subject);
+            this.seq = seq;
+        }
+    }
+
+    private static class OrderSink implements EventSink<Numbered> {
+        final List<Numbered> events = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch latch;
+
+        @Override
+        public void process(Numbered event) {
+            events.add(event);
+            latch.countDown();
+        }
+
+        List<Integer> sequence(String subject) {
+            List<Integer> result = new ArrayList<>();
+            synchronized (events) {
+                events.stream().filter(e -> e.subject().equals(subject))
+                        .forEach(e -> result.add(e.seq));
+            }
+            return result;
+        }
+    }
+
     private static class GooSink extends Sink implements EventSink<Goo> {
         @Override
         public void process(Goo event) {
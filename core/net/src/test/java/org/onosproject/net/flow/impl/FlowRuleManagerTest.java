@@ -226,7 +226,7 @@ public class FlowRuleManagerTest {
         assertEquals("should still be 2 rules", 2, flowCount());
 
         providerService.pushFlowMetrics(DID, ImmutableList.of(fe1));
-        validateEvents(RULE_UPDATED, RULE_UPDATED);
+        validateEvents(RULES_UPDATED, RULE_UPDATED);
     }
 
     private boolean validateState(Map<FlowRule, FlowEntryState> expected) {
@@ -359,6 +359,11 @@ public class FlowRuleManagerTest {
 
         validateEvents(RULE_ADD_REQUESTED, RULE_ADD_REQUESTED, RULE_ADD_REQUESTED,
                        RULE_ADDED, RULE_ADDED);
+
+        // counter refreshes are reported once per device
+        providerService.pushFlowMetrics(DID, Lists.newArrayList(fe1, fe2));
+        assertEquals("updated entries", ImmutableList.of(fe1, fe2), listener.events.get(0).flowEntries());
+        validateEvents(RULES_UPDATED);
     }
 
     @Test
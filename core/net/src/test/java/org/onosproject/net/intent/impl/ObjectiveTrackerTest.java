@@ -15,23 +15,32 @@
  */
 package org.onosproject.net.intent.impl;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Random;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.junit.After;
 import org.junit.Before;
+import org.junit.Ignore;
 import org.junit.Test;
 import org.onlab.junit.TestUtils;
 import org.onlab.junit.TestUtils.TestUtilsException;
 import org.onosproject.core.IdGenerator;
 import org.onosproject.event.Event;
+import org.onosproject.net.DefaultPort;
 import org.onosproject.net.Device;
 import org.onosproject.net.DeviceId;
 import org.onosproject.net.Link;
 import org.onosproject.net.NetworkResource;
+import org.onosproject.net.Port;
 import org.onosproject.net.PortNumber;
 import org.onosproject.net.device.DeviceEvent;
 import org.onosproject.net.device.DeviceListener;
@@ -46,6 +55,7 @@ import org.onosproject.net.topology.Topology;
 import org.onosproject.net.topology.TopologyEvent;
 import org.onosproject.net.topology.TopologyListener;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Lists;
 
@@ -324,5 +334,144 @@ public class ObjectiveTrackerTest {
         assertThat(delegate.compileAllFailedFromEvent, is(true));
     }
 
+    /**
+     * Tests that a port going down only triggers the recompilation of the
+     * intents through that port.
+     *
+     * @throws InterruptedException if the latch wait fails.
+     */
+    @Test
+    public void testEventPortDownMatch() throws Exception {
+        final Link link = link("src", 1, "dst", 2);
+        final Link other = link("src", 2, "dst", 3);
+        final Key key = Key.of(0x333L, APP_ID);
+        tracker.addTrackedResources(key, ImmutableSet.of(link));
+        tracker.addTrackedResources(Key.of(0x444L, APP_ID), ImmutableSet.of(other));
+
+        final Device device = device("src");
+        final Port port = new DefaultPort(device, link.src().port(), false);
+        deviceListener.event(new DeviceEvent(DeviceEvent.Type.PORT_UPDATED, device, port));
+        assertThat(
+                delegate.latch.await(WAIT_TIMEOUT_SECONDS, TimeUnit.SECONDS),
+                is(true));
+
+        assertThat(delegate.intentIdsFromEvent, hasSize(1));
+        assertThat(delegate.compileAllFailedFromEvent, is(false));
+        assertThat(delegate.intentIdsFromEvent.get(0).toString(),
+                   equalTo("0x333"));
+    }
+
+    /**
+     * Tests that intents affected by several events are only recompiled once
+     * if the events arrive before the previous recompilation is done.
+     *
+     * @throws InterruptedException if the latch wait fails.
+     */
+    @Test
+    public void testRecompileCoalesced() throws Exception {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(2);
+        final List<List<Key>> compiled = Collections.synchronizedList(new ArrayList<>());
+        final TopologyChangeDelegate blocking = (intentKeys, compileAllFailed) -> {
+            compiled.add(Lists.newArrayList(intentKeys));
+            started.countDown();
+            try {
+                release.await(WAIT_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            done.countDown();
+        };
+        tracker.unsetDelegate(delegate);
+        tracker.setDelegate(blocking);
+
+        final Link link = link("src", 1, "dst", 2);
+        final Key key = Key.of(0x333L, APP_ID);
+        tracker.addTrackedResources(key, ImmutableSet.of(link));
+        final LinkEvent linkEvent = new LinkEvent(LinkEvent.Type.LINK_REMOVED, link);
+
+        try {
+            listener.event(new TopologyEvent(TopologyEvent.Type.TOPOLOGY_CHANGED, topology, null));
+            assertThat(started.await(WAIT_TIMEOUT_SECONDS, TimeUnit.SECONDS), is(true));
+            listener.event(new TopologyEvent(TopologyEvent.Type.TOPOLOGY_CHANGED, topology,
+                                             ImmutableList.of(linkEvent)));
+            listener.event(new TopologyEvent(TopologyEvent.Type.TOPOLOGY_CHANGED, topology,
+                                             ImmutableList.of(linkEvent)));
+            release.countDown();
+            assertThat(done.await(WAIT_TIMEOUT_SECONDS, TimeUnit.SECONDS), is(true));
+
+            assertThat(compiled, hasSize(2));
+            assertThat(compiled.get(1), hasSize(1));
+            assertThat(compiled.get(1).get(0), is(key));
+        } finally {
+            tracker.unsetDelegate(blocking);
+            tracker.setDelegate(delegate);
+        }
+    }
+
+    /**
+     * Measures how fast link failures are turned into recompilations, with
+     * 100k intents over a fabric of 32 spines and 256 leaves.
+     *
+     * @throws InterruptedException if the latch wait fails.
+     */
+    @Test
+    @Ignore("Benchmark")
+    public void benchmarkRollingLinkFailures() throws Exception {
+        final int spines = 32;
+        final int leaves = 256;
+        final int intents = 100_000;
+        final int failures = 2_000;
+
+        final Link[][] uplinks = new Link[leaves][spines];
+        final Link[][] downlinks = new Link[leaves][spines];
+        for (int l = 0; l < leaves; l++) {
+            for (int s = 0; s < spines; s++) {
+                uplinks[l][s] = link("leaf" + l, s + 1, "spine" + s, l + 1);
+                downlinks[l][s] = link("spine" + s, l + 1, "leaf" + l, s + 1);
+            }
+        }
 
+        final Random random = new Random(42);
+        long start = System.nanoTime();
+        for (int i = 0; i < intents; i++) {
+            int src = random.nextInt(leaves);
+            int dst = random.nextInt(leaves);
+            int spine = random.nextInt(spines);
+            tracker.addTrackedResources(Key.of(i, APP_ID),
+                                        ImmutableSet.of(uplinks[src][spine], downlinks[dst][spine]));
+        }
+        long indexed = System.nanoTime() - start;
+
+        final AtomicLong recompiled = new AtomicLong();
+        final AtomicInteger rounds = new AtomicInteger();
+        final TopologyChangeDelegate counting = (intentKeys, compileAllFailed) -> {
+            intentKeys.forEach(k -> recompiled.incrementAndGet());
+            rounds.incrementAndGet();
+        };
+        tracker.unsetDelegate(delegate);
+        tracker.setDelegate(counting);
+
+        start = System.nanoTime();
+        for (int i = 0; i < failures; i++) {
+            Link failed = uplinks[random.nextInt(leaves)][random.nextInt(spines)];
+            listener.event(new TopologyEvent(TopologyEvent.Type.TOPOLOGY_CHANGED, topology,
+                    ImmutableList.of(new LinkEvent(LinkEvent.Type.LINK_REMOVED, failed))));
+        }
+        final CountDownLatch drained = new CountDownLatch(1);
+        listener.event(new TopologyEvent(TopologyEvent.Type.TOPOLOGY_CHANGED, topology, null));
+        ExecutorService executor = TestUtils.getField(tracker, "executorService");
+        // The last recompilation is queued before the second of these tasks
+        executor.execute(() -> executor.execute(drained::countDown));
+        assertThat(drained.await(30, TimeUnit.SECONDS), is(true));
+        long planned = System.nanoTime() - start;
+
+        System.out.println(String.format("Indexed %d intents in %d ms; %d link failures planned " +
+                                                 "%d recompilations in %d rounds in %d ms",
+                                         intents, indexed / 1_000_000, failures, recompiled.get(),
+                                         rounds.get(), planned / 1_000_000));
+        tracker.unsetDelegate(counting);
+        tracker.setDelegate(delegate);
+    }
 }
@@ -21,7 +21,9 @@ import org.junit.Test;
 import org.onosproject.core.ApplicationId;
 import org.onosproject.TestApplicationId;
 import org.onosproject.net.Host;
+import org.onosproject.net.ElementId;
 import org.onosproject.net.HostId;
+import org.onosproject.net.Path;
 import org.onosproject.net.flow.TrafficSelector;
 import org.onosproject.net.flow.TrafficTreatment;
 import org.onosproject.net.host.HostService;
@@ -31,10 +33,16 @@ import org.onosproject.net.intent.Intent;
 import org.onosproject.net.intent.IntentTestsMocks;
 import org.onosproject.net.intent.PathIntent;
 import org.onosproject.net.resource.MockResourceService;
+import org.onosproject.net.topology.LinkWeight;
+import org.onosproject.net.topology.PathServiceAdapter;
+import org.onosproject.net.topology.Topology;
+import org.onosproject.net.topology.TopologyServiceAdapter;
 import org.onlab.packet.MacAddress;
 import org.onlab.packet.VlanId;
 
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.easymock.EasyMock.*;
 import static org.hamcrest.CoreMatchers.notNullValue;
@@ -166,4 +174,38 @@ public class HostToHostIntentCompilerTest extends AbstractIntentTest {
             assertThat(reversePathIntent.path().links(), linksHasPath(HOST_TWO, "h8"));
         }
     }
+
+    /**
+     * Tests that a host moving under an unchanged topology is reached at its
+     * new location.
+     */
+    @Test
+    public void testHostMoved() {
+        HostToHostIntent intent = makeIntent(HOST_ONE, HOST_TWO);
+        AtomicReference<PathServiceAdapter> locations = new AtomicReference<>(
+                new IntentTestsMocks.MockPathService(new String[]{HOST_ONE, "h1", "h2", HOST_TWO}));
+        HostToHostIntentCompiler compiler = makeCompiler(new String[]{HOST_ONE, HOST_TWO});
+        compiler.pathService = new PathServiceAdapter() {
+            @Override
+            public Set<Path> getPaths(ElementId src, ElementId dst, LinkWeight weight) {
+                return locations.get().getPaths(src, dst, weight);
+            }
+        };
+        Topology topology = createMock(Topology.class);
+        compiler.topologyService = new TopologyServiceAdapter() {
+            @Override
+            public Topology currentTopology() {
+                return topology;
+            }
+        };
+
+        List<Intent> result = compiler.compile(intent, null);
+        assertThat(((PathIntent) result.get(0)).path().links(), linksHasPath(HOST_ONE, "h1"));
+
+        // Host one moves from h1 to h3
+        locations.set(new IntentTestsMocks.MockPathService(new String[]{HOST_ONE, "h3", "h2", HOST_TWO}));
+        result = compiler.compile(intent, null);
+        assertThat(((PathIntent) result.get(0)).path().links(), linksHasPath(HOST_ONE, "h3"));
+        assertThat(((PathIntent) result.get(1)).path().links(), linksHasPath("h3", HOST_ONE));
+    }
 }
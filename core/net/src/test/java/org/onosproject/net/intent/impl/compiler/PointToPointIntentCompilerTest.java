@@ -21,6 +21,7 @@ import org.onlab.util.Bandwidth;
 import org.onosproject.TestApplicationId;
 import org.onosproject.core.ApplicationId;
 import org.onosproject.net.ConnectPoint;
+import org.onosproject.net.ElementId;
 import org.onosproject.net.Link;
 import org.onosproject.net.Path;
 import org.onosproject.net.flow.TrafficSelector;
@@ -34,9 +35,17 @@ import org.onosproject.net.intent.PointToPointIntent;
 import org.onosproject.net.intent.constraint.BandwidthConstraint;
 import org.onosproject.net.intent.impl.PathNotFoundException;
 import org.onosproject.net.resource.ResourceService;
+import org.onosproject.net.topology.LinkWeight;
+import org.onosproject.net.topology.Topology;
+import org.onosproject.net.topology.TopologyServiceAdapter;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.easymock.EasyMock.createMock;
 
 import static org.hamcrest.CoreMatchers.instanceOf;
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -264,4 +273,40 @@ public class PointToPointIntentCompilerTest extends AbstractIntentTest {
             assertThat(noPath.getMessage(), containsString("No path"));
         }
     }
+
+    /**
+     * Tests that intents with the same end points share their candidate
+     * paths on a given topology version.
+     */
+    @Test
+    public void testPathsSharedPerTopology() {
+        String[] hops = {"d1", "d2", "d3"};
+        AtomicInteger searches = new AtomicInteger();
+        AtomicReference<Topology> topology = new AtomicReference<>(createMock(Topology.class));
+        PointToPointIntentCompiler compiler = new PointToPointIntentCompiler();
+        compiler.pathService = new IntentTestsMocks.MockPathService(hops) {
+            @Override
+            public Set<Path> getPaths(ElementId src, ElementId dst, LinkWeight weight) {
+                searches.incrementAndGet();
+                return super.getPaths(src, dst, weight);
+            }
+        };
+        compiler.topologyService = new TopologyServiceAdapter() {
+            @Override
+            public Topology currentTopology() {
+                return topology.get();
+            }
+        };
+
+        compiler.compile(makeIntent("d1", "d3"), null);
+        compiler.compile(makeIntent("d1", "d3"), null);
+        assertThat(searches.get(), is(1));
+
+        compiler.compile(makeIntent("d3", "d1"), null);
+        assertThat(searches.get(), is(2));
+
+        topology.set(createMock(Topology.class));
+        compiler.compile(makeIntent("d1", "d3"), null);
+        assertThat(searches.get(), is(3));
+    }
 }
@@ -25,25 +25,46 @@ import org.onosproject.common.event.impl.TestEventDispatcher;
 import org.onosproject.core.CoreServiceAdapter;
 import org.onosproject.core.IdGenerator;
 import org.onosproject.event.TestListener;
+import org.onlab.packet.Data;
+import org.onlab.packet.Ethernet;
+import org.onlab.packet.IPacket;
+import org.onlab.packet.IPv4;
+import org.onlab.packet.MacAddress;
+import org.onlab.packet.TpPort;
+import org.onlab.packet.UDP;
 import org.onosproject.net.AnnotationKeys;
+import org.onosproject.net.ConnectPoint;
 import org.onosproject.net.DefaultAnnotations;
 import org.onosproject.net.DefaultDevice;
 import org.onosproject.net.Device;
 import org.onosproject.net.DeviceId;
+import org.onosproject.net.PortNumber;
 import org.onosproject.net.device.DeviceServiceAdapter;
 import org.onosproject.net.driver.AbstractHandlerBehaviour;
 import org.onosproject.net.driver.DefaultDriver;
 import org.onosproject.net.driver.impl.DriverManager;
+import org.onosproject.net.flow.DefaultTrafficSelector;
 import org.onosproject.net.flow.DefaultTrafficTreatment;
+import org.onosproject.net.packet.DefaultInboundPacket;
 import org.onosproject.net.packet.DefaultOutboundPacket;
+import org.onosproject.net.packet.DefaultPacketContext;
+import org.onosproject.net.packet.InboundPacket;
 import org.onosproject.net.packet.OutboundPacket;
+import org.onosproject.net.packet.PacketContext;
+import org.onosproject.net.packet.PacketProcessor;
 import org.onosproject.net.packet.PacketProgrammable;
+import org.onosproject.net.packet.PacketProvider;
 import org.onosproject.net.packet.PacketProviderRegistry;
+import org.onosproject.net.packet.PacketProviderService;
+import org.onosproject.net.provider.AbstractProvider;
 import org.onosproject.net.provider.ProviderId;
 import org.onosproject.net.provider.TestProvider;
 import org.onosproject.store.trivial.SimplePacketStore;
 
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
 import java.util.concurrent.atomic.AtomicLong;
 
 import static org.junit.Assert.assertEquals;
@@ -102,6 +123,113 @@ public class PacketManagerTest {
         assertEquals("Packet not emitted correctly", packet, emittedPacket);
     }
 
+    /**
+     * Tests that packets are only given to the processors registered for
+     * them, in priority order.
+     */
+    @Test
+    public void packetDispatch() {
+        List<String> processed = new ArrayList<>();
+        mgr.addProcessor(context -> processed.add("all"), PacketProcessor.advisor(0));
+        mgr.addProcessor(context -> processed.add("arp"), PacketProcessor.director(1),
+                         DefaultTrafficSelector.builder().matchEthType(Ethernet.TYPE_ARP).build());
+        PacketProcessor dhcp = context -> processed.add("dhcp");
+        mgr.addProcessor(dhcp, PacketProcessor.director(0),
+                         DefaultTrafficSelector.builder()
+                                 .matchEthType(Ethernet.TYPE_IPV4)
+                                 .matchUdpDst(TpPort.tpPort(UDP.DHCP_SERVER_PORT))
+                                 .build());
+        mgr.addProcessor(dhcp, PacketProcessor.director(0),
+                         DefaultTrafficSelector.builder().matchEthType(Ethernet.TYPE_LLDP).build());
+
+        PacketProviderService providerService = providerRegistry.register(new TestPacketProvider());
+
+        providerService.processPacket(context(frame(Ethernet.TYPE_ARP, new Data(new byte[28]))));
+        assertEquals(ImmutableList.of("all", "arp"), processed);
+
+        processed.clear();
+        providerService.processPacket(context(udpFrame(UDP.DHCP_SERVER_PORT)));
+        assertEquals(ImmutableList.of("all", "dhcp"), processed);
+
+        processed.clear();
+        providerService.processPacket(context(udpFrame(UDP.DHCP_CLIENT_PORT)));
+        assertEquals(ImmutableList.of("all"), processed);
+
+        processed.clear();
+        providerService.processPacket(context(frame(Ethernet.TYPE_LLDP, null)));
+        assertEquals(ImmutableList.of("all", "dhcp"), processed);
+
+        processed.clear();
+        mgr.removeProcessor(dhcp);
+        providerService.processPacket(context(udpFrame(UDP.DHCP_SERVER_PORT)));
+        providerService.processPacket(context(frame(Ethernet.TYPE_LLDP, null)));
+        assertEquals(ImmutableList.of("all", "all"), processed);
+        assertEquals(2, mgr.getProcessors().size());
+        assertEquals(6, mgr.getProcessors().get(0).invocations());
+        assertEquals(1, mgr.getProcessors().get(1).invocations());
+    }
+
+    /**
+     * Tests that a processor added with overlapping selectors is given a
+     * packet only once.
+     */
+    @Test
+    public void overlappingSelectors() {
+        List<String> processed = new ArrayList<>();
+        PacketProcessor ip = context -> processed.add("ip");
+        mgr.addProcessor(ip, PacketProcessor.director(0),
+                         DefaultTrafficSelector.builder().matchEthType(Ethernet.TYPE_IPV4).build());
+        mgr.addProcessor(ip, PacketProcessor.director(1),
+                         DefaultTrafficSelector.builder()
+                                 .matchEthType(Ethernet.TYPE_IPV4)
+                                 .matchIPProtocol(IPv4.PROTOCOL_UDP)
+                                 .build());
+
+        PacketProviderService providerService = providerRegistry.register(new TestPacketProvider());
+        providerService.processPacket(context(udpFrame(UDP.DHCP_SERVER_PORT)));
+        assertEquals(ImmutableList.of("ip"), processed);
+        assertEquals(1, mgr.getProcessors().get(0).invocations());
+        assertEquals(0, mgr.getProcessors().get(1).invocations());
+    }
+
+    private static Ethernet udpFrame(int dstPort) {
+        UDP udp = new UDP();
+        udp.setDestinationPort(dstPort);
+        IPv4 ipv4 = new IPv4();
+        ipv4.setProtocol(IPv4.PROTOCOL_UDP);
+        ipv4.setPayload(udp);
+        return frame(Ethernet.TYPE_IPV4, ipv4);
+    }
+
+    private static Ethernet frame(short ethType, IPacket payload) {
+        Ethernet frame = new Ethernet();
+        frame.setSourceMACAddress(MacAddress.ZERO);
+        frame.setDestinationMACAddress(MacAddress.BROADCAST);
+        frame.setEtherType(ethType);
+        frame.setPayload(payload);
+        return frame;
+    }
+
+    private static PacketContext context(Ethernet frame) {
+        InboundPacket inPacket = new DefaultInboundPacket(new ConnectPoint(FOO_DID, PortNumber.portNumber(1)),
+                                                          ByteBuffer.wrap(frame.serialize()), Optional.empty());
+        return new DefaultPacketContext(0, inPacket, null, false) {
+            @Override
+            public void send() {
+            }
+        };
+    }
+
+    private static class TestPacketProvider extends AbstractProvider implements PacketProvider {
+        TestPacketProvider() {
+            super(FOO_PID);
+        }
+
+        @Override
+        public void emit(OutboundPacket packet) {
+        }
+    }
+
     private static class TestDeviceService extends DeviceServiceAdapter {
         @Override
         public int getDeviceCount() {
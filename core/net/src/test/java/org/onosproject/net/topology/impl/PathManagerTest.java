@@ -15,10 +15,13 @@
  */
 package org.onosproject.net.topology.impl;
 
+import com.codahale.metrics.Gauge;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.onlab.junit.TestUtils;
+import org.onlab.metrics.MetricsManager;
+import org.onosproject.cfg.ComponentConfigAdapter;
 import org.onosproject.net.DeviceId;
 import org.onosproject.net.ElementId;
 import org.onosproject.net.Host;
@@ -59,7 +62,9 @@ public class PathManagerTest {
         service = mgr;
         TestUtils.setField(mgr, "topologyService", fakeTopoMgr);
         TestUtils.setField(mgr, "hostService", fakeHostMgr);
-        mgr.activate();
+        mgr.metricsService = new MetricsManager();
+        mgr.cfgService = new ComponentConfigAdapter();
+        mgr.activate(null);
     }
 
     @After
@@ -124,6 +129,15 @@ public class PathManagerTest {
         assertTrue("there should be no paths", paths.isEmpty());
     }
 
+    @Test
+    public void pathCacheMetrics() {
+        Map<String, Gauge> gauges = mgr.metricsService.getGauges((name, metric) -> name.contains("pathCache"));
+        assertEquals("incorrect metric count", 4, gauges.size());
+        mgr.deactivate();
+        assertTrue("metrics should be removed", mgr.metricsService.getGauges((name, metric) -> true).isEmpty());
+        mgr.activate(null);
+    }
+
     // Makes sure the set of paths meets basic expectations.
     private void validatePaths(Set<Path> paths, int count, int length,
                                ElementId src, ElementId dst) {
@@ -38,6 +38,12 @@ public class MessageEncoder extends MessageToByteEncoder<Object> {
 
     private final Logger log = LoggerFactory.getLogger(getClass());
 
+    // Fixed size fields: preamble, time, message id, sender address version,
+    // sender port, message type length, status and payload length
+    private static final int FIXED_LENGTH = 4 + 8 + 8 + 8 + 1 + 4 + 4 + 4 + 4;
+    // Upper bound of the UTF-8 encoding of a char
+    private static final int MAX_BYTES_PER_CHAR = 3;
+
     private final int preamble;
 
     public MessageEncoder(int preamble) {
@@ -46,6 +52,23 @@ public class MessageEncoder extends MessageToByteEncoder<Object> {
     }
 
 
+    // Sizes the buffer for the whole message up front, so that large
+    // payloads are not copied over and over as the buffer grows
+    @Override
+    protected ByteBuf allocateBuffer(ChannelHandlerContext context,
+                                     Object rawMessage,
+                                     boolean preferDirect) throws Exception {
+        InternalMessage message = (InternalMessage) rawMessage;
+        int length = FIXED_LENGTH
+                + IpAddress.byteLength(message.sender().host().version())
+                + message.type().length() * MAX_BYTES_PER_CHAR
+                + message.payload().length;
+        if (preferDirect) {
+            return context.alloc().ioBuffer(length);
+        }
+        return context.alloc().heapBuffer(length);
+    }
+
     @Override
     protected void encode(
             ChannelHandlerContext context,
@@ -140,6 +140,10 @@ public class GossipDeviceStore
     private static final String DEVICE_NOT_FOUND = "Device with ID %s not found";
     // Timeout in milliseconds to process device or ports on remote master node
     private static final int REMOTE_MASTER_TIMEOUT = 1000;
+    // Port statistics are polled every few seconds, so they can be held back
+    // longer than other updates to be sent in fewer, larger batches
+    private static final int STATS_BATCH_SIZE = 1000;
+    private static final long STATS_BATCH_DELAY_MS = 500;
 
     // innerMap is used to lock a Device, thus instance should never be replaced.
     // collection of Description given from various providers
@@ -235,6 +239,7 @@ public class GossipDeviceStore
                 .withName("port-stats")
                 .withSerializer(deviceDataSerializer)
                 .withAntiEntropyPeriod(5, TimeUnit.SECONDS)
+                .withUpdateBatching(STATS_BATCH_SIZE, STATS_BATCH_DELAY_MS, TimeUnit.MILLISECONDS)
                 .withTimestampProvider((k, v) -> new WallClockTimestamp())
                 .withTombstonesDisabled()
                 .build();
@@ -243,6 +248,7 @@ public class GossipDeviceStore
                 .withName("port-stats-delta")
                 .withSerializer(deviceDataSerializer)
                 .withAntiEntropyPeriod(5, TimeUnit.SECONDS)
+                .withUpdateBatching(STATS_BATCH_SIZE, STATS_BATCH_DELAY_MS, TimeUnit.MILLISECONDS)
                 .withTimestampProvider((k, v) -> new WallClockTimestamp())
                 .withTombstonesDisabled()
                 .build();
@@ -0,0 +1,265 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.flow.impl;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import org.onlab.util.ExtendedSet;
+import org.onosproject.net.flow.FlowEntry;
+import org.onosproject.net.flow.FlowRule;
+import org.onosproject.net.flow.StoredFlowEntry;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.function.BiPredicate;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Flow table of a single device, compact enough for millions of flows.
+ * <p>
+ * Flow entries are kept in an open addressing hash table keyed by the
+ * primitive flow ID, using linear probing and backward shift deletion.
+ * A slot holds the flow entry itself, or in the rare case of distinct rules
+ * sharing a flow ID, an {@link ExtendedSet} of them. Compared to a map of
+ * maps, no boxed flow IDs, map nodes or per flow inner maps are allocated.
+ * </p>
+ * <p>
+ * All operations are synchronized on the table.
+ * </p>
+ */
+final class CompactFlowTable {
+
+    private static final int INITIAL_CAPACITY = 16;
+    private static final long GOLDEN_RATIO = 0x9E3779B97F4A7C15L;
+
+    private long[] keys = new long[INITIAL_CAPACITY];
+    private Object[] slots = new Object[INITIAL_CAPACITY];
+    private int usedSlots;
+    private int size;
+
+    /**
+     * Returns the stored flow entry matching a flow rule.
+     *
+     * @param rule flow rule
+     * @return stored flow entry, or null if there is none
+     */
+    synchronized StoredFlowEntry get(FlowRule rule) {
+        int index = find(rule.id().value());
+        if (index < 0) {
+            return null;
+        }
+        Object slot = slots[index];
+        if (slot instanceof ExtendedSet) {
+            return entries(slot).get(rule);
+        }
+        return rule.equals(slot) ? (StoredFlowEntry) slot : null;
+    }
+
+    /**
+     * Adds a flow entry, replacing any stored entry for the same rule.
+     *
+     * @param entry flow entry
+     */
+    synchronized void add(StoredFlowEntry entry) {
+        checkNotNull(entry);
+        long key = entry.id().value();
+        int index = find(key);
+        if (index < 0) {
+            insert(key, entry);
+            size++;
+            return;
+        }
+
+        Object slot = slots[index];
+        if (slot instanceof ExtendedSet) {
+            ExtendedSet<StoredFlowEntry> entries = entries(slot);
+            int before = entries.size();
+            entries.insertOrReplace(entry, stored -> true);
+            size += entries.size() - before;
+        } else if (entry.equals(slot)) {
+            slots[index] = entry;
+        } else {
+            ExtendedSet<StoredFlowEntry> entries = new ExtendedSet<>(Maps.newHashMap());
+            entries.add((StoredFlowEntry) slot);
+            entries.add(entry);
+            slots[index] = entries;
+            size++;
+        }
+    }
+
+    /**
+     * Removes the stored flow entry matching a flow entry, unless the
+     * given test vetoes its removal.
+     *
+     * @param entry flow entry to remove
+     * @param keep test of the entry to remove and the stored entry, which
+     *             returns true if the stored entry must be kept
+     * @return removed entry, or null if nothing was removed
+     */
+    synchronized StoredFlowEntry remove(FlowEntry entry,
+                                        BiPredicate<FlowEntry, StoredFlowEntry> keep) {
+        int index = find(entry.id().value());
+        if (index < 0) {
+            return null;
+        }
+
+        Object slot = slots[index];
+        if (!(slot instanceof ExtendedSet)) {
+            StoredFlowEntry stored = (StoredFlowEntry) slot;
+            if (!entry.equals(stored) || keep.test(entry, stored)) {
+                return null;
+            }
+            delete(index);
+            size--;
+            if (slots.length > INITIAL_CAPACITY && usedSlots * 8 < slots.length) {
+                resize(slots.length >> 1);
+            }
+            return stored;
+        }
+
+        ExtendedSet<StoredFlowEntry> entries = entries(slot);
+        StoredFlowEntry stored = entries.get(entry);
+        if (stored == null || keep.test(entry, stored)) {
+            return null;
+        }
+        entries.remove(stored);
+        size--;
+        if (entries.size() == 1) {
+            slots[index] = entries.iterator().next();
+        }
+        return stored;
+    }
+
+    /**
+     * Returns the number of flow entries.
+     *
+     * @return number of flow entries
+     */
+    synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Returns a copy of the flow entries.
+     *
+     * @return flow entries
+     */
+    synchronized Set<FlowEntry> getFlowEntries() {
+        return Sets.newHashSet(getStoredFlowEntries());
+    }
+
+    /**
+     * Returns a copy of the stored flow entries.
+     *
+     * @return stored flow entries
+     */
+    synchronized List<StoredFlowEntry> getStoredFlowEntries() {
+        List<StoredFlowEntry> result = Lists.newArrayListWithCapacity(size);
+        for (Object slot : slots) {
+            if (slot instanceof ExtendedSet) {
+                result.addAll(entries(slot));
+            } else if (slot != null) {
+                result.add((StoredFlowEntry) slot);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Replaces the content of the table.
+     *
+     * @param entries stored flow entries
+     */
+    synchronized void replaceAll(Collection<StoredFlowEntry> entries) {
+        int capacity = INITIAL_CAPACITY;
+        while (entries.size() * 4 > capacity * 3) {
+            capacity <<= 1;
+        }
+        keys = new long[capacity];
+        slots = new Object[capacity];
+        usedSlots = 0;
+        size = 0;
+        entries.forEach(this::add);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ExtendedSet<StoredFlowEntry> entries(Object slot) {
+        return (ExtendedSet<StoredFlowEntry>) slot;
+    }
+
+    private int home(long key) {
+        long hash = key * GOLDEN_RATIO;
+        return (int) (hash ^ (hash >>> 32)) & (slots.length - 1);
+    }
+
+    private int find(long key) {
+        int mask = slots.length - 1;
+        for (int i = home(key); slots[i] != null; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void insert(long key, Object slot) {
+        if ((usedSlots + 1) * 4 > slots.length * 3) {
+            resize(slots.length << 1);
+        }
+        int mask = slots.length - 1;
+        int i = home(key);
+        while (slots[i] != null) {
+            i = (i + 1) & mask;
+        }
+        keys[i] = key;
+        slots[i] = slot;
+        usedSlots++;
+    }
+
+    private void resize(int capacity) {
+        long[] oldKeys = keys;
+        Object[] oldSlots = slots;
+        keys = new long[capacity];
+        slots = new Object[capacity];
+        usedSlots = 0;
+        for (int i = 0; i < oldSlots.length; i++) {
+            if (oldSlots[i] != null) {
+                insert(oldKeys[i], oldSlots[i]);
+            }
+        }
+    }
+
+    // Backward shift deletion keeps probe sequences intact without tombstones
+    private void delete(int index) {
+        int mask = slots.length - 1;
+        int hole = index;
+        for (int i = (hole + 1) & mask; slots[i] != null; i = (i + 1) & mask) {
+            int home = home(keys[i]);
+            // Move the entry into the hole unless its home lies in (hole, i]
+            if (((i - home) & mask) >= ((i - hole) & mask)) {
+                keys[hole] = keys[i];
+                slots[hole] = slots[i];
+                hole = i;
+            }
+        }
+        keys[hole] = 0;
+        slots[hole] = null;
+        usedSlots--;
+    }
+}
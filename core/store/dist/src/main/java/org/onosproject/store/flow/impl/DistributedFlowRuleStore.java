@@ -15,6 +15,7 @@
  */
 package org.onosproject.store.flow.impl;
 
+ import java.util.ArrayList;
  import java.util.Collections;
  import java.util.Dictionary;
  import java.util.HashSet;
@@ -29,6 +30,7 @@ package org.onosproject.store.flow.impl;
  import java.util.concurrent.TimeUnit;
  import java.util.concurrent.atomic.AtomicInteger;
  import java.util.concurrent.atomic.AtomicReference;
+ import java.util.function.BiPredicate;
  import java.util.stream.Collectors;
 
  import org.apache.felix.scr.annotations.Activate;
@@ -88,6 +90,7 @@ package org.onosproject.store.flow.impl;
 
  import com.google.common.collect.ImmutableList;
  import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
  import com.google.common.collect.Maps;
  import com.google.common.collect.Sets;
  import com.google.common.util.concurrent.Futures;
@@ -122,8 +125,10 @@ public class DistributedFlowRuleStore
     private static final boolean DEFAULT_PERSISTENCE_ENABLED = false;
     private static final int DEFAULT_BACKUP_PERIOD_MILLIS = 2000;
     private static final long FLOW_RULE_STORE_TIMEOUT_MILLIS = 5000;
-    // number of devices whose flow entries will be backed up in one communication round
-    private static final int FLOW_TABLE_BACKUP_BATCH_SIZE = 1;
+    // number of flow entries past which no further devices are added to a backup message
+    private static final int FLOW_TABLE_BACKUP_BATCH_SIZE = 10_000;
+    // number of flow table changes logged per device for delta backups
+    private static final int FLOW_TABLE_LOG_SIZE = 10_000;
 
     @Property(name = "msgHandlerPoolSize", intValue = MESSAGE_HANDLER_THREAD_POOL_SIZE,
             label = "Number of threads in the message handler pool")
@@ -185,7 +190,7 @@ public class DistributedFlowRuleStore
     @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
     protected StorageService storageService;
 
-    protected final Serializer serializer = Serializer.using(KryoNamespaces.API);
+    protected final Serializer serializer = Serializer.using(KryoNamespaces.API, FlowTableBackup.class);
 
     protected final KryoNamespace.Builder serializerBuilder = KryoNamespace.newBuilder()
             .register(KryoNamespaces.API)
@@ -366,6 +371,14 @@ public class DistributedFlowRuleStore
         return sum.get();
     }
 
+    @Override
+    public int getFlowRuleCount(DeviceId deviceId) {
+        if (mastershipService.isLocalMaster(deviceId)) {
+            return flowTable.getFlowRuleCount(deviceId);
+        }
+        return FlowRuleStore.super.getFlowRuleCount(deviceId);
+    }
+
     @Override
     public FlowEntry getFlowEntry(FlowRule rule) {
         NodeId master = mastershipService.getMasterFor(rule.deviceId());
@@ -511,6 +524,7 @@ public class DistributedFlowRuleStore
                             if (entry != null) {
                                 //FIXME modification of "stored" flow entry outside of flow table
                                 entry.setState(FlowEntryState.PENDING_REMOVE);
+                                flowTable.updated(entry);
                                 log.debug("Setting state of rule to pending remove: {}", entry);
                                 return op;
                             }
@@ -543,6 +557,7 @@ public class DistributedFlowRuleStore
             if (stored != null &&
                     stored.state() != FlowEntryState.PENDING_ADD) {
                 stored.setState(FlowEntryState.PENDING_ADD);
+                flowTable.updated(stored);
                 return new FlowRuleEvent(Type.RULE_UPDATED, rule);
             }
         }
@@ -561,17 +576,29 @@ public class DistributedFlowRuleStore
         return null;
     }
 
+    @Override
+    public List<FlowRuleEvent> updateFlowStatistics(DeviceId deviceId,
+                                                    Iterable<FlowEntry> flowEntries,
+                                                    BiPredicate<FlowEntry, FlowEntry> filter) {
+        if (!mastershipService.isLocalMaster(deviceId)) {
+            return FlowRuleStore.super.updateFlowStatistics(deviceId, flowEntries, filter);
+        }
+
+        List<FlowRuleEvent> events = new ArrayList<>();
+        for (FlowEntry rule : flowEntries) {
+            StoredFlowEntry stored = flowTable.getFlowEntry(rule);
+            if (filter.test(rule, stored) && stored != null && updateCounters(stored, rule)) {
+                events.add(new FlowRuleEvent(Type.RULE_ADDED, rule));
+            }
+        }
+        return events;
+    }
+
     private FlowRuleEvent addOrUpdateFlowRuleInternal(FlowEntry rule) {
         // check if this new rule is an update to an existing entry
         StoredFlowEntry stored = flowTable.getFlowEntry(rule);
         if (stored != null) {
-            //FIXME modification of "stored" flow entry outside of flow table
-            stored.setBytes(rule.bytes());
-            stored.setLife(rule.life(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS);
-            stored.setPackets(rule.packets());
-            stored.setLastSeen();
-            if (stored.state() == FlowEntryState.PENDING_ADD) {
-                stored.setState(FlowEntryState.ADDED);
+            if (updateCounters(stored, rule)) {
                 return new FlowRuleEvent(Type.RULE_ADDED, rule);
             }
             return new FlowRuleEvent(Type.RULE_UPDATED, rule);
@@ -583,6 +610,23 @@ public class DistributedFlowRuleStore
         return null;
     }
 
+    // Refreshes the counters of a stored entry in place; returns true if this
+    // confirmed the installation of the entry
+    private boolean updateCounters(StoredFlowEntry stored, FlowEntry rule) {
+        //FIXME modification of "stored" flow entry outside of flow table
+        stored.setBytes(rule.bytes());
+        stored.setLife(rule.life(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS);
+        stored.setPackets(rule.packets());
+        stored.setLastSeen();
+        if (stored.state() == FlowEntryState.PENDING_ADD) {
+            stored.setState(FlowEntryState.ADDED);
+            // Counters are not backed up, but state transitions are
+            flowTable.updated(stored);
+            return true;
+        }
+        return false;
+    }
+
     @Override
     public FlowRuleEvent removeFlowRule(FlowEntry rule) {
         final DeviceId deviceId = rule.deviceId();
@@ -697,12 +741,16 @@ public class DistributedFlowRuleStore
 
     private class InternalFlowTable implements ReplicaInfoEventListener {
 
-        //TODO replace the Map<V,V> with ExtendedSet
+        // Persistent flow tables; in memory flow tables are kept compact
         private final Map<DeviceId, Map<FlowId, Map<StoredFlowEntry, StoredFlowEntry>>>
                 flowEntries = Maps.newConcurrentMap();
+        private final Map<DeviceId, CompactFlowTable> compactFlowTables = Maps.newConcurrentMap();
 
-        private final Map<BackupOperation, Long> lastBackupTimes = Maps.newConcurrentMap();
-        private final Map<DeviceId, Long> lastUpdateTimes = Maps.newConcurrentMap();
+        // Versions of the flow tables, and of their copies on the backup nodes
+        private final Map<DeviceId, FlowTableLog> flowTableLogs = Maps.newConcurrentMap();
+        private final Map<BackupOperation, Long> backedUpVersions = Maps.newConcurrentMap();
+        // Backups sent and not yet acknowledged, which are not sent again meanwhile
+        private final Set<BackupOperation> pendingBackups = Sets.newConcurrentHashSet();
 
         @Override
         public void event(ReplicaInfoEvent event) {
@@ -715,47 +763,90 @@ public class DistributedFlowRuleStore
                 return;
             }
             if (event.type() == MASTER_CHANGED) {
-                lastUpdateTimes.put(deviceId, System.currentTimeMillis());
+                // Backup nodes resynchronize with the full table of the new master
+                FlowTableLog changeLog = getFlowTableLog(deviceId);
+                synchronized (changeLog) {
+                    changeLog.newEpoch();
+                    backedUpVersions.keySet().removeIf(op -> op.deviceId.equals(deviceId));
+                }
             }
             backupSenderExecutor.schedule(this::backup, 0, TimeUnit.SECONDS);
         }
 
         private void sendBackups(NodeId nodeId, Set<DeviceId> deviceIds) {
-            // split up the devices into smaller batches and send them separately.
-            Iterables.partition(deviceIds, FLOW_TABLE_BACKUP_BATCH_SIZE)
-                     .forEach(ids -> backupFlowEntries(nodeId, Sets.newHashSet(ids)));
+            // batch the backups of several devices per message, within a bounded size
+            List<FlowTableBackup> batch = Lists.newArrayList();
+            int batchSize = 0;
+            for (DeviceId deviceId : deviceIds) {
+                FlowTableBackup backup = getBackup(nodeId, deviceId);
+                batch.add(backup);
+                batchSize += backup.size();
+                if (batchSize >= FLOW_TABLE_BACKUP_BATCH_SIZE) {
+                    backupFlowEntries(nodeId, batch);
+                    batch = Lists.newArrayList();
+                    batchSize = 0;
+                }
+            }
+            if (!batch.isEmpty()) {
+                backupFlowEntries(nodeId, batch);
+            }
         }
 
-        private void backupFlowEntries(NodeId nodeId, Set<DeviceId> deviceIds) {
-            if (deviceIds.isEmpty()) {
-                return;
+        /**
+         * Returns the backup bringing the copy of a flow table held by a
+         * backup node up to date: the changes since the version it is known
+         * to hold, or the full table if those are no longer logged.
+         *
+         * @param nodeId backup node identifier
+         * @param deviceId device identifier
+         * @return flow table backup
+         */
+        private FlowTableBackup getBackup(NodeId nodeId, DeviceId deviceId) {
+            FlowTableLog changeLog = getFlowTableLog(deviceId);
+            synchronized (changeLog) {
+                Long backedUpVersion = backedUpVersions.get(new BackupOperation(nodeId, deviceId));
+                if (backedUpVersion != null) {
+                    FlowTableBackup delta = changeLog.delta(deviceId, backedUpVersion);
+                    if (delta != null) {
+                        return delta;
+                    }
+                }
+                return FlowTableBackup.full(deviceId, changeLog.epoch(), changeLog.version(),
+                                            getStoredFlowEntries(deviceId));
             }
-            log.debug("Sending flowEntries for devices {} to {} for backup.", deviceIds, nodeId);
-            Map<DeviceId, Map<FlowId, Map<StoredFlowEntry, StoredFlowEntry>>>
-                    deviceFlowEntries = Maps.newConcurrentMap();
-            deviceIds.forEach(id -> deviceFlowEntries.put(id, getFlowTableCopy(id)));
-            clusterCommunicator.<Map<DeviceId,
-                                 Map<FlowId, Map<StoredFlowEntry, StoredFlowEntry>>>,
-                                 Set<DeviceId>>
-                    sendAndReceive(deviceFlowEntries,
+        }
+
+        private void backupFlowEntries(NodeId nodeId, List<FlowTableBackup> backups) {
+            log.debug("Sending flow table backups {} to {}.", backups, nodeId);
+            clusterCommunicator.<List<FlowTableBackup>, Set<DeviceId>>
+                    sendAndReceive(backups,
                                    FLOW_TABLE_BACKUP,
                                    serializer::encode,
                                    serializer::decode,
                                    nodeId)
                     .whenComplete((backedupDevices, error) -> {
-                        Set<DeviceId> devicesNotBackedup = error != null ?
-                            deviceFlowEntries.keySet() :
-                            Sets.difference(deviceFlowEntries.keySet(), backedupDevices);
+                        Set<DeviceId> devicesNotBackedup = Sets.newHashSet();
+                        for (FlowTableBackup backup : backups) {
+                            BackupOperation operation = new BackupOperation(nodeId, backup.deviceId());
+                            pendingBackups.remove(operation);
+                            FlowTableLog changeLog = getFlowTableLog(backup.deviceId());
+                            synchronized (changeLog) {
+                                if (backedupDevices != null && backedupDevices.contains(backup.deviceId())) {
+                                    if (changeLog.epoch() == backup.epoch()) {
+                                        backedUpVersions.put(operation, backup.version());
+                                    }
+                                } else {
+                                    // the backup node gets the full table next time
+                                    backedUpVersions.remove(operation);
+                                    devicesNotBackedup.add(backup.deviceId());
+                                }
+                            }
+                        }
                         if (devicesNotBackedup.size() > 0) {
                             log.warn("Failed to backup devices: {}. Reason: {}, Node: {}",
                                      devicesNotBackedup, error != null ? error.getMessage() : "none",
                                      nodeId);
                         }
-                        if (backedupDevices != null) {
-                            backedupDevices.forEach(id -> {
-                                lastBackupTimes.put(new BackupOperation(nodeId, id), System.currentTimeMillis());
-                            });
-                        }
                     });
         }
 
@@ -787,30 +878,25 @@ public class DistributedFlowRuleStore
             }
         }
 
-        private Map<FlowId, Map<StoredFlowEntry, StoredFlowEntry>> getFlowTableCopy(DeviceId deviceId) {
-            Map<FlowId, Map<StoredFlowEntry, StoredFlowEntry>> copy = Maps.newHashMap();
-            if (persistenceEnabled) {
-                return flowEntries.computeIfAbsent(deviceId, id -> persistenceService
-                        .<FlowId, Map<StoredFlowEntry, StoredFlowEntry>>persistentMapBuilder()
-                        .withName("FlowTable:" + deviceId.toString())
-                        .withSerializer(new Serializer() {
-                            @Override
-                            public <T> byte[] encode(T object) {
-                                return serializer.encode(object);
-                            }
+        private CompactFlowTable getCompactFlowTable(DeviceId deviceId) {
+            return compactFlowTables.computeIfAbsent(deviceId, id -> new CompactFlowTable());
+        }
 
-                            @Override
-                            public <T> T decode(byte[] bytes) {
-                                return serializer.decode(bytes);
-                            }
-                        })
-                        .build());
-            } else {
-                flowEntries.computeIfAbsent(deviceId, id -> Maps.newConcurrentMap()).forEach((k, v) -> {
-                    copy.put(k, Maps.newHashMap(v));
-                });
-                return copy;
+        private Set<DeviceId> getDeviceIds() {
+            return persistenceEnabled ? flowEntries.keySet() : compactFlowTables.keySet();
+        }
+
+        private FlowTableLog getFlowTableLog(DeviceId deviceId) {
+            return flowTableLogs.computeIfAbsent(deviceId, id -> new FlowTableLog(FLOW_TABLE_LOG_SIZE));
+        }
+
+        private List<StoredFlowEntry> getStoredFlowEntries(DeviceId deviceId) {
+            if (!persistenceEnabled) {
+                return getCompactFlowTable(deviceId).getStoredFlowEntries();
             }
+            return getFlowTable(deviceId).values().stream()
+                        .flatMap(m -> m.values().stream())
+                        .collect(Collectors.toList());
         }
 
         private Map<StoredFlowEntry, StoredFlowEntry> getFlowEntriesInternal(DeviceId deviceId, FlowId flowId) {
@@ -818,10 +904,16 @@ public class DistributedFlowRuleStore
         }
 
         private StoredFlowEntry getFlowEntryInternal(FlowRule rule) {
+            if (!persistenceEnabled) {
+                return getCompactFlowTable(rule.deviceId()).get(rule);
+            }
             return getFlowEntriesInternal(rule.deviceId(), rule.id()).get(rule);
         }
 
         private Set<FlowEntry> getFlowEntriesInternal(DeviceId deviceId) {
+            if (!persistenceEnabled) {
+                return getCompactFlowTable(deviceId).getFlowEntries();
+            }
             return getFlowTable(deviceId).values().stream()
                         .flatMap(m -> m.values().stream())
                         .collect(Collectors.toSet());
@@ -835,50 +927,109 @@ public class DistributedFlowRuleStore
             return getFlowEntriesInternal(deviceId);
         }
 
+        public int getFlowRuleCount(DeviceId deviceId) {
+            if (!persistenceEnabled) {
+                return getCompactFlowTable(deviceId).size();
+            }
+            return getFlowTable(deviceId).values().stream().mapToInt(Map::size).sum();
+        }
+
         public void add(FlowEntry rule) {
+            FlowTableLog changeLog = getFlowTableLog(rule.deviceId());
+            synchronized (changeLog) {
+                addInternal(rule);
+                changeLog.updated((StoredFlowEntry) rule);
+            }
+        }
+
+        /**
+         * Records an update made in place to a stored flow entry, so that it
+         * reaches the backup nodes.
+         *
+         * @param entry stored flow entry
+         */
+        public void updated(StoredFlowEntry entry) {
+            getFlowTableLog(entry.deviceId()).updated(entry);
+        }
+
+        public FlowEntry remove(DeviceId deviceId, FlowEntry rule) {
+            FlowTableLog changeLog = getFlowTableLog(rule.deviceId());
+            synchronized (changeLog) {
+                StoredFlowEntry removed = removeInternal(rule);
+                if (removed != null) {
+                    changeLog.removed(removed);
+                }
+                return removed;
+            }
+        }
+
+        private void addInternal(FlowEntry rule) {
+            if (!persistenceEnabled) {
+                getCompactFlowTable(rule.deviceId()).add((StoredFlowEntry) rule);
+                return;
+            }
             getFlowEntriesInternal(rule.deviceId(), rule.id())
                     .compute((StoredFlowEntry) rule, (k, stored) -> {
                         //TODO compare stored and rule timestamps
                         //TODO the key is not updated
                         return (StoredFlowEntry) rule;
                     });
-            lastUpdateTimes.put(rule.deviceId(), System.currentTimeMillis());
         }
 
-        public FlowEntry remove(DeviceId deviceId, FlowEntry rule) {
-            final AtomicReference<FlowEntry> removedRule = new AtomicReference<>();
+        private StoredFlowEntry removeInternal(FlowEntry rule) {
+            if (!persistenceEnabled) {
+                return getCompactFlowTable(rule.deviceId()).remove(rule, this::isMoreRecent);
+            }
+            final AtomicReference<StoredFlowEntry> removedRule = new AtomicReference<>();
             getFlowEntriesInternal(rule.deviceId(), rule.id())
                 .computeIfPresent((StoredFlowEntry) rule, (k, stored) -> {
-                    if (rule instanceof DefaultFlowEntry) {
-                        DefaultFlowEntry toRemove = (DefaultFlowEntry) rule;
-                        if (stored instanceof DefaultFlowEntry) {
-                            DefaultFlowEntry storedEntry = (DefaultFlowEntry) stored;
-                            if (toRemove.created() < storedEntry.created()) {
-                                log.debug("Trying to remove more recent flow entry {} (stored: {})",
-                                          toRemove, stored);
-                                // the key is not updated, removedRule remains null
-                                return stored;
-                            }
-                        }
+                    if (isMoreRecent(rule, stored)) {
+                        // the key is not updated, removedRule remains null
+                        return stored;
                     }
                     removedRule.set(stored);
                     return null;
                 });
+            return removedRule.get();
+        }
 
-            if (removedRule.get() != null) {
-                lastUpdateTimes.put(deviceId, System.currentTimeMillis());
-                return removedRule.get();
-            } else {
-                return null;
+        private void replaceAllInternal(DeviceId deviceId, List<StoredFlowEntry> entries) {
+            if (!persistenceEnabled) {
+                getCompactFlowTable(deviceId).replaceAll(entries);
+                return;
             }
+            getFlowTable(deviceId).clear();
+            entries.forEach(this::addInternal);
+        }
+
+        // Checks whether the stored entry is more recent than the one to remove
+        private boolean isMoreRecent(FlowEntry rule, StoredFlowEntry stored) {
+            if (rule instanceof DefaultFlowEntry && stored instanceof DefaultFlowEntry) {
+                DefaultFlowEntry toRemove = (DefaultFlowEntry) rule;
+                DefaultFlowEntry storedEntry = (DefaultFlowEntry) stored;
+                if (toRemove.created() < storedEntry.created()) {
+                    log.debug("Trying to remove more recent flow entry {} (stored: {})",
+                              toRemove, stored);
+                    return true;
+                }
+            }
+            return false;
         }
 
         public void purgeFlowRule(DeviceId deviceId) {
             flowEntries.remove(deviceId);
+            compactFlowTables.remove(deviceId);
+            flowTableLogs.remove(deviceId);
+            backedUpVersions.keySet().removeIf(op -> op.deviceId.equals(deviceId));
+            pendingBackups.removeIf(op -> op.deviceId.equals(deviceId));
         }
 
         public void purgeFlowRules() {
             flowEntries.clear();
+            compactFlowTables.clear();
+            flowTableLogs.clear();
+            backedUpVersions.clear();
+            pendingBackups.clear();
         }
 
         private List<NodeId> getBackupNodes(DeviceId deviceId) {
@@ -895,38 +1046,61 @@ public class DistributedFlowRuleStore
             try {
                 // compute a mapping from node to the set of devices whose flow entries it should backup
                 Map<NodeId, Set<DeviceId>> devicesToBackupByNode = Maps.newHashMap();
-                flowEntries.keySet().forEach(deviceId -> {
-                    List<NodeId> backupNodes = getBackupNodes(deviceId);
-                    backupNodes.forEach(backupNode -> {
-                            if (lastBackupTimes.getOrDefault(new BackupOperation(backupNode, deviceId), 0L)
-                                    < lastUpdateTimes.getOrDefault(deviceId, 0L)) {
-                                devicesToBackupByNode.computeIfAbsent(backupNode,
-                                                                      nodeId -> Sets.newHashSet()).add(deviceId);
-                            }
-                    });
+                getDeviceIds().stream().filter(mastershipService::isLocalMaster).forEach(deviceId -> {
+                    FlowTableLog changeLog = getFlowTableLog(deviceId);
+                    long version = changeLog.version();
+                    long oldestBackedUpVersion = version;
+                    for (NodeId backupNode : getBackupNodes(deviceId)) {
+                        BackupOperation operation = new BackupOperation(backupNode, deviceId);
+                        Long backedUpVersion = backedUpVersions.get(operation);
+                        if ((backedUpVersion == null || backedUpVersion != version)
+                                && pendingBackups.add(operation)) {
+                            devicesToBackupByNode.computeIfAbsent(backupNode,
+                                                                  nodeId -> Sets.newHashSet()).add(deviceId);
+                        }
+                        oldestBackedUpVersion = Math.min(oldestBackedUpVersion,
+                                                         backedUpVersion == null ? -1 : backedUpVersion);
+                    }
+                    // changes held by every backup node are no longer needed
+                    changeLog.trim(oldestBackedUpVersion);
                 });
                 // send the device flow entries to their respective backup nodes
                 devicesToBackupByNode.forEach(this::sendBackups);
             } catch (Exception e) {
                 log.error("Backup failed.", e);
+                // at worst, resends a backup still in flight
+                pendingBackups.clear();
             }
         }
 
-        private Set<DeviceId> onBackupReceipt(Map<DeviceId,
-                Map<FlowId, Map<StoredFlowEntry, StoredFlowEntry>>> flowTables) {
-            log.debug("Received flowEntries for {} to backup", flowTables.keySet());
+        private Set<DeviceId> onBackupReceipt(List<FlowTableBackup> backups) {
+            log.debug("Received flow table backups {}", backups);
             Set<DeviceId> backedupDevices = Sets.newHashSet();
             try {
-                flowTables.forEach((deviceId, deviceFlowTable) -> {
+                for (FlowTableBackup backup : backups) {
+                    DeviceId deviceId = backup.deviceId();
                     // Only process those devices are that not managed by the local node.
-                    if (!Objects.equals(local, mastershipService.getMasterFor(deviceId))) {
-                        Map<FlowId, Map<StoredFlowEntry, StoredFlowEntry>> backupFlowTable =
-                                getFlowTable(deviceId);
-                        backupFlowTable.clear();
-                        backupFlowTable.putAll(deviceFlowTable);
-                        backedupDevices.add(deviceId);
+                    if (Objects.equals(local, mastershipService.getMasterFor(deviceId))) {
+                        continue;
                     }
-                });
+                    FlowTableLog changeLog = getFlowTableLog(deviceId);
+                    synchronized (changeLog) {
+                        if (backup.isFull()) {
+                            replaceAllInternal(deviceId, backup.updated());
+                        } else if (changeLog.epoch() == backup.epoch() &&
+                                changeLog.version() == backup.baseVersion()) {
+                            backup.removed().forEach(this::removeInternal);
+                            backup.updated().forEach(this::addInternal);
+                        } else {
+                            // version gap; the master resends the full table
+                            log.debug("Ignoring backup {} of flow table at {}:{}",
+                                      backup, changeLog.epoch(), changeLog.version());
+                            continue;
+                        }
+                        changeLog.sync(backup.epoch(), backup.version());
+                    }
+                    backedupDevices.add(deviceId);
+                }
             } catch (Exception e) {
                 log.warn("Failure processing backup request", e);
             }
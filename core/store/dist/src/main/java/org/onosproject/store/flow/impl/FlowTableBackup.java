@@ -0,0 +1,134 @@
+ /*
+ * Copyright 2014-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.flow.impl;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableList;
+import org.onosproject.net.DeviceId;
+import org.onosproject.net.flow.StoredFlowEntry;
+
+import java.util.List;
+
+/**
+ * Backup of the flow table of a device, sent by the master of the device
+ * to its backup nodes. Either a full copy of the table, or the changes
+ * made since a version the backup node is known to hold.
+ */
+final class FlowTableBackup {
+
+    /**
+     * Base version of a full backup.
+     */
+    static final long FULL = -1;
+
+    private final DeviceId deviceId;
+    private final long epoch;
+    private final long baseVersion;
+    private final long version;
+    private final List<StoredFlowEntry> updated;
+    private final List<StoredFlowEntry> removed;
+
+    private FlowTableBackup(DeviceId deviceId, long epoch, long baseVersion, long version,
+                            List<StoredFlowEntry> updated, List<StoredFlowEntry> removed) {
+        this.deviceId = deviceId;
+        this.epoch = epoch;
+        this.baseVersion = baseVersion;
+        this.version = version;
+        this.updated = updated;
+        this.removed = removed;
+    }
+
+    /**
+     * Creates a full backup of a flow table.
+     *
+     * @param deviceId device identifier
+     * @param epoch epoch of the flow table versions
+     * @param version version of the flow table
+     * @param entries all flow entries of the table
+     * @return flow table backup
+     */
+    static FlowTableBackup full(DeviceId deviceId, long epoch, long version,
+                                List<StoredFlowEntry> entries) {
+        return new FlowTableBackup(deviceId, epoch, FULL, version,
+                                   ImmutableList.copyOf(entries), ImmutableList.of());
+    }
+
+    /**
+     * Creates a backup of the changes made to a flow table since a version.
+     *
+     * @param deviceId device identifier
+     * @param epoch epoch of the flow table versions
+     * @param baseVersion version the changes apply to
+     * @param version version of the flow table once the changes are applied
+     * @param updated flow entries added or updated since the base version
+     * @param removed flow entries removed since the base version
+     * @return flow table backup
+     */
+    static FlowTableBackup delta(DeviceId deviceId, long epoch, long baseVersion, long version,
+                                 List<StoredFlowEntry> updated, List<StoredFlowEntry> removed) {
+        return new FlowTableBackup(deviceId, epoch, baseVersion, version,
+                                   ImmutableList.copyOf(updated), ImmutableList.copyOf(removed));
+    }
+
+    DeviceId deviceId() {
+        return deviceId;
+    }
+
+    long epoch() {
+        return epoch;
+    }
+
+    long baseVersion() {
+        return baseVersion;
+    }
+
+    long version() {
+        return version;
+    }
+
+    boolean isFull() {
+        return baseVersion == FULL;
+    }
+
+    List<StoredFlowEntry> updated() {
+        return updated;
+    }
+
+    List<StoredFlowEntry> removed() {
+        return removed;
+    }
+
+    /**
+     * Returns the number of flow entries carried by the backup.
+     *
+     * @return number of flow entries
+     */
+    int size() {
+        return updated.size() + removed.size();
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(getClass())
+                .add("deviceId", deviceId)
+                .add("epoch", epoch)
+                .add("baseVersion", baseVersion)
+                .add("version", version)
+                .add("updated", updated.size())
+                .add("removed", removed.size())
+                .toString();
+    }
+}
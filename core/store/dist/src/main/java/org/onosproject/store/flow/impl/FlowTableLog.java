@@ -0,0 +1,175 @@
+ /*
+ * Copyright 2014-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.flow.impl;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import org.onosproject.net.DeviceId;
+import org.onosproject.net.flow.FlowId;
+import org.onosproject.net.flow.StoredFlowEntry;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Versioned log of the changes made to the flow table of a device.
+ * <p>
+ * Every recorded change bumps the version of the table. Versions are only
+ * comparable within an epoch, and a new epoch starts whenever the local
+ * node becomes master of the device. The most recent changes are kept, so
+ * a backup node known to hold a recent version can be sent a delta rather
+ * than the full table.
+ * </p>
+ * <p>
+ * Flow table updates that must be logged should be made while holding the
+ * lock of the log, so the log order matches the table order.
+ * </p>
+ */
+final class FlowTableLog {
+
+    private final int maxChanges;
+    private final Deque<Change> changes = new ArrayDeque<>();
+    private long epoch = newEpochId();
+    private long version;
+
+    /**
+     * Creates a change log.
+     *
+     * @param maxChanges maximum number of changes kept
+     */
+    FlowTableLog(int maxChanges) {
+        this.maxChanges = maxChanges;
+    }
+
+    synchronized long epoch() {
+        return epoch;
+    }
+
+    synchronized long version() {
+        return version;
+    }
+
+    /**
+     * Starts a new epoch, so peers resynchronize with the full table.
+     */
+    synchronized void newEpoch() {
+        epoch = newEpochId();
+        version = 0;
+        changes.clear();
+    }
+
+    /**
+     * Records the epoch and version of a flow table received from the
+     * master of the device.
+     *
+     * @param epoch epoch of the flow table
+     * @param version version of the flow table
+     */
+    synchronized void sync(long epoch, long version) {
+        this.epoch = epoch;
+        this.version = version;
+        changes.clear();
+    }
+
+    /**
+     * Records the addition or update of a flow entry.
+     *
+     * @param entry flow entry
+     */
+    synchronized void updated(StoredFlowEntry entry) {
+        record(entry, false);
+    }
+
+    /**
+     * Records the removal of a flow entry.
+     *
+     * @param entry flow entry
+     */
+    synchronized void removed(StoredFlowEntry entry) {
+        record(entry, true);
+    }
+
+    private void record(StoredFlowEntry entry, boolean removal) {
+        changes.addLast(new Change(++version, entry, removal));
+        if (changes.size() > maxChanges) {
+            changes.removeFirst();
+        }
+    }
+
+    /**
+     * Discards the changes up to a version, once no longer needed.
+     *
+     * @param upToVersion last version to discard
+     */
+    synchronized void trim(long upToVersion) {
+        while (!changes.isEmpty() && changes.peekFirst().version <= upToVersion) {
+            changes.removeFirst();
+        }
+    }
+
+    /**
+     * Returns the changes made since a version of the current epoch. Only
+     * the last change of each flow entry is kept.
+     *
+     * @param deviceId device identifier
+     * @param baseVersion version the changes must apply to
+     * @return flow table backup holding the changes, or null if some of
+     * them are no longer logged
+     */
+    synchronized FlowTableBackup delta(DeviceId deviceId, long baseVersion) {
+        if (baseVersion > version || version - baseVersion > changes.size()) {
+            return null;
+        }
+
+        // Distinct flow IDs may hold equal rules, so changes are keyed by both
+        Map<Map.Entry<FlowId, StoredFlowEntry>, Change> latest = Maps.newLinkedHashMap();
+        Iterator<Change> iterator = changes.descendingIterator();
+        while (iterator.hasNext()) {
+            Change change = iterator.next();
+            if (change.version <= baseVersion) {
+                break;
+            }
+            latest.putIfAbsent(Maps.immutableEntry(change.entry.id(), change.entry), change);
+        }
+
+        List<StoredFlowEntry> updated = Lists.newArrayList();
+        List<StoredFlowEntry> removed = Lists.newArrayList();
+        // Restore the order the changes were made in
+        Lists.reverse(Lists.newArrayList(latest.values()))
+                .forEach(change -> (change.removal ? removed : updated).add(change.entry));
+        return FlowTableBackup.delta(deviceId, epoch, baseVersion, version, updated, removed);
+    }
+
+    private static long newEpochId() {
+        return ThreadLocalRandom.current().nextLong();
+    }
+
+    private static final class Change {
+        private final long version;
+        private final StoredFlowEntry entry;
+        private final boolean removal;
+
+        private Change(long version, StoredFlowEntry entry, boolean removal) {
+            this.version = version;
+            this.entry = entry;
+            this.removal = removal;
+        }
+    }
+}
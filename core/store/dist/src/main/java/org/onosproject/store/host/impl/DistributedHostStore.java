@@ -15,6 +15,8 @@
  */
 package org.onosproject.store.host.impl;
 
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Timer;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Sets;
 
@@ -24,6 +26,9 @@ import org.apache.felix.scr.annotations.Deactivate;
 import org.apache.felix.scr.annotations.Reference;
 import org.apache.felix.scr.annotations.ReferenceCardinality;
 import org.apache.felix.scr.annotations.Service;
+import org.onlab.metrics.MetricsComponent;
+import org.onlab.metrics.MetricsFeature;
+import org.onlab.metrics.MetricsService;
 import org.onlab.packet.IpAddress;
 import org.onlab.packet.MacAddress;
 import org.onlab.packet.VlanId;
@@ -48,18 +53,18 @@ import org.onosproject.store.service.MapEvent;
 import org.onosproject.store.service.MapEventListener;
 import org.onosproject.store.service.Serializer;
 import org.onosproject.store.service.StorageService;
+import org.onosproject.store.service.Versioned;
 import org.slf4j.Logger;
 
-import java.util.Collection;
 import java.util.HashSet;
-import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
-import java.util.function.Predicate;
-import java.util.stream.Collectors;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Preconditions.checkState;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static org.onosproject.net.DefaultAnnotations.merge;
 import static org.onosproject.net.host.HostEvent.Type.*;
 import static org.slf4j.LoggerFactory.getLogger;
@@ -75,11 +80,29 @@ public class DistributedHostStore
 
     private final Logger log = getLogger(getClass());
 
+    private static final String COMPONENT_NAME = "DistributedHostStore";
+    private static final String FEATURE_NAME = "hostCache";
+    private static final String EVENT_LAG = "eventLag";
+    private static final String[] GAUGE_NAMES =
+            {"hits", "misses", "hitRatioPercent", "readThroughs", "staleEvents", "size"};
+
     @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
     protected StorageService storageService;
 
+    @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
+    protected MetricsService metricsService;
+
     private ConsistentMap<HostId, DefaultHost> hostsConsistentMap;
-    private Map<HostId, DefaultHost> hosts;
+    // Local view of the hosts, which serves all reads
+    private final HostIndex index = new HostIndex();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder readThroughs = new LongAdder();
+    private final LongAdder staleEvents = new LongAdder();
+    private MetricsComponent metricsComponent;
+    private MetricsFeature metricsFeature;
+    private Timer eventLag;
 
     private MapEventListener<HostId, DefaultHost> hostLocationTracker =
             new HostLocationTracker();
@@ -95,10 +118,9 @@ public class DistributedHostStore
                 .withSerializer(Serializer.using(hostSerializer.build()))
                 .build();
 
-        hosts = hostsConsistentMap.asJavaMap();
-
-
+        registerMetrics();
         hostsConsistentMap.addListener(hostLocationTracker);
+        hostsConsistentMap.entrySet().forEach(e -> index.update(e.getKey(), e.getValue()));
 
         log.info("Started");
     }
@@ -106,10 +128,35 @@ public class DistributedHostStore
     @Deactivate
     public void deactivate() {
         hostsConsistentMap.removeListener(hostLocationTracker);
+        for (String name : GAUGE_NAMES) {
+            metricsService.removeMetric(metricsComponent, metricsFeature, name);
+        }
+        metricsService.removeMetric(metricsComponent, metricsFeature, EVENT_LAG);
 
         log.info("Stopped");
     }
 
+    // Publishes the usage and staleness of the local view of the hosts.
+    private void registerMetrics() {
+        metricsComponent = metricsService.registerComponent(COMPONENT_NAME);
+        metricsFeature = metricsComponent.registerFeature(FEATURE_NAME);
+        registerGauge(GAUGE_NAMES[0], hits::sum);
+        registerGauge(GAUGE_NAMES[1], misses::sum);
+        registerGauge(GAUGE_NAMES[2], () -> {
+            long requests = hits.sum() + misses.sum();
+            return requests == 0 ? 0 : hits.sum() * 100 / requests;
+        });
+        registerGauge(GAUGE_NAMES[3], readThroughs::sum);
+        registerGauge(GAUGE_NAMES[4], staleEvents::sum);
+        registerGauge(GAUGE_NAMES[5], index::size);
+        eventLag = metricsService.createTimer(metricsComponent, metricsFeature, EVENT_LAG);
+    }
+
+    private void registerGauge(String name, LongSupplier value) {
+        metricsService.registerMetric(metricsComponent, metricsFeature, name,
+                                      (Gauge<Long>) value::getAsLong);
+    }
+
     private boolean shouldUpdate(DefaultHost existingHost,
                                  ProviderId providerId,
                                  HostId hostId,
@@ -152,7 +199,7 @@ public class DistributedHostStore
                                         HostId hostId,
                                         HostDescription hostDescription,
                                         boolean replaceIPs) {
-        hostsConsistentMap.computeIf(hostId,
+        Versioned<DefaultHost> host = hostsConsistentMap.computeIf(hostId,
                        existingHost -> shouldUpdate(existingHost, providerId, hostId,
                                                     hostDescription, replaceIPs),
                        (id, existingHost) -> {
@@ -182,96 +229,114 @@ public class DistributedHostStore
                                                   addresses,
                                                   annotations);
                        });
+        if (host != null) {
+            index.update(hostId, host);
+        }
         return null;
     }
 
     // TODO No longer need to return HostEvent
     @Override
     public HostEvent removeHost(HostId hostId) {
-        hosts.remove(hostId);
+        Versioned<DefaultHost> host = hostsConsistentMap.remove(hostId);
+        if (host != null) {
+            index.remove(hostId, host.version());
+        }
         return null;
     }
 
     // TODO No longer need to return HostEvent
     @Override
     public HostEvent removeIp(HostId hostId, IpAddress ipAddress) {
-        hosts.compute(hostId, (id, existingHost) -> {
-            if (existingHost != null) {
-                checkState(Objects.equals(hostId.mac(), existingHost.mac()),
-                        "Existing and new MAC addresses differ.");
-                checkState(Objects.equals(hostId.vlanId(), existingHost.vlan()),
-                        "Existing and new VLANs differ.");
-
-                Set<IpAddress> addresses = existingHost.ipAddresses();
-                if (addresses != null && addresses.contains(ipAddress)) {
-                    addresses = new HashSet<>(existingHost.ipAddresses());
-                    addresses.remove(ipAddress);
-                    return new DefaultHost(existingHost.providerId(),
-                            hostId,
-                            existingHost.mac(),
-                            existingHost.vlan(),
-                            existingHost.location(),
-                            ImmutableSet.copyOf(addresses),
-                            existingHost.annotations());
-                } else {
-                    return existingHost;
-                }
+        Versioned<DefaultHost> host = hostsConsistentMap.computeIfPresent(hostId, (id, existingHost) -> {
+            checkState(Objects.equals(hostId.mac(), existingHost.mac()),
+                    "Existing and new MAC addresses differ.");
+            checkState(Objects.equals(hostId.vlanId(), existingHost.vlan()),
+                    "Existing and new VLANs differ.");
+
+            Set<IpAddress> addresses = existingHost.ipAddresses();
+            if (addresses != null && addresses.contains(ipAddress)) {
+                addresses = new HashSet<>(existingHost.ipAddresses());
+                addresses.remove(ipAddress);
+                return new DefaultHost(existingHost.providerId(),
+                        hostId,
+                        existingHost.mac(),
+                        existingHost.vlan(),
+                        existingHost.location(),
+                        ImmutableSet.copyOf(addresses),
+                        existingHost.annotations());
+            } else {
+                return existingHost;
             }
-            return null;
         });
+        if (host != null) {
+            index.update(hostId, host);
+        }
         return null;
     }
 
     @Override
     public int getHostCount() {
-        return hosts.size();
+        return index.size();
     }
 
     @Override
     public Iterable<Host> getHosts() {
-        return ImmutableSet.copyOf(hosts.values());
+        return index.hosts();
     }
 
     @Override
     public Host getHost(HostId hostId) {
-        return hosts.get(hostId);
+        Versioned<DefaultHost> host = index.get(hostId);
+        if (host != null) {
+            hits.increment();
+            return host.value();
+        }
+        // Reads through to the map, in case its event has yet to be applied
+        misses.increment();
+        host = hostsConsistentMap.get(hostId);
+        if (host == null) {
+            return null;
+        }
+        readThroughs.increment();
+        // The host may have been removed since it was read
+        index.update(hostId, host);
+        host = index.get(hostId);
+        return host == null ? null : host.value();
     }
 
     @Override
     public Set<Host> getHosts(VlanId vlanId) {
-        return filter(hosts.values(), host -> Objects.equals(host.vlan(), vlanId));
+        return index.byVlan(vlanId);
     }
 
     @Override
     public Set<Host> getHosts(MacAddress mac) {
-        return filter(hosts.values(), host -> Objects.equals(host.mac(), mac));
+        return index.byMac(mac);
     }
 
     @Override
     public Set<Host> getHosts(IpAddress ip) {
-        return filter(hosts.values(), host -> host.ipAddresses().contains(ip));
+        return index.byIp(ip);
     }
 
     @Override
     public Set<Host> getConnectedHosts(ConnectPoint connectPoint) {
-        Set<Host> filtered = hosts.entrySet().stream()
-                .filter(entry -> entry.getValue().location().equals(connectPoint))
-                .map(Map.Entry::getValue)
-                .collect(Collectors.toSet());
-        return ImmutableSet.copyOf(filtered);
+        return index.byLocation(connectPoint);
     }
 
     @Override
     public Set<Host> getConnectedHosts(DeviceId deviceId) {
-        Set<Host> filtered = hosts.entrySet().stream()
-                .filter(entry -> entry.getValue().location().deviceId().equals(deviceId))
-                .map(Map.Entry::getValue)
-                .collect(Collectors.toSet());
-        return ImmutableSet.copyOf(filtered);
+        return index.byDevice(deviceId);
     }
 
-    private Set<Host> filter(Collection<DefaultHost> collection, Predicate<DefaultHost> predicate) {
-        return collection.stream().filter(predicate).collect(Collectors.toSet());
+    // Applies the given version of a host to the local view, and records how
+    // long it took to reach this instance since it was written.
+    private void apply(HostId hostId, Versioned<DefaultHost> host) {
+        eventLag.update(Math.max(0, System.currentTimeMillis() - host.creationTime()), MILLISECONDS);
+        if (!index.update(hostId, host)) {
+            staleEvents.increment();
+        }
     }
 
     private class HostLocationTracker implements MapEventListener<HostId, DefaultHost> {
@@ -281,11 +346,13 @@ public class DistributedHostStore
             switch (event.type()) {
                 case INSERT:
                     host = checkNotNull(event.newValue().value());
+                    apply(event.key(), event.newValue());
                     notifyDelegate(new HostEvent(HOST_ADDED, host));
                     break;
                 case UPDATE:
                     host = checkNotNull(event.newValue().value());
                     Host prevHost = checkNotNull(event.oldValue().value());
+                    apply(event.key(), event.newValue());
                     if (!Objects.equals(prevHost.location(), host.location())) {
                         notifyDelegate(new HostEvent(HOST_MOVED, host, prevHost));
                     } else if (!Objects.equals(prevHost, host)) {
@@ -294,6 +361,7 @@ public class DistributedHostStore
                     break;
                 case REMOVE:
                     host = checkNotNull(event.oldValue().value());
+                    index.remove(event.key(), event.oldValue().version());
                     notifyDelegate(new HostEvent(HOST_REMOVED, host));
                     break;
                 default:
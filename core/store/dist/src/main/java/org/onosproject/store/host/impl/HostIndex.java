@@ -0,0 +1,241 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.host.impl;
+
+import com.google.common.collect.ImmutableSet;
+import org.onlab.packet.IpAddress;
+import org.onlab.packet.MacAddress;
+import org.onlab.packet.VlanId;
+import org.onosproject.net.ConnectPoint;
+import org.onosproject.net.DefaultHost;
+import org.onosproject.net.DeviceId;
+import org.onosproject.net.Host;
+import org.onosproject.net.HostId;
+import org.onosproject.store.service.Versioned;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Local view of the hosts of the distributed host map, along with secondary
+ * indexes by IP address, MAC address, VLAN, connect point and device.
+ * <p>
+ * The indexes are fed with the versioned values of map events and of local
+ * writes, and with the values read through from the map, in whichever order
+ * these arrive. A host is only ever indexed by its most recent version, and
+ * the version at which a host was removed is remembered, so that neither a
+ * stale event nor a read that raced with the removal brings the host back.
+ * </p>
+ */
+final class HostIndex {
+
+    // Most recent version of each indexed host
+    private final Map<HostId, Versioned<DefaultHost>> hosts = new ConcurrentHashMap<>();
+    // Number of removal versions beyond which the oldest half is forgotten
+    private static final int MAX_REMOVALS = 10_000;
+
+    // Version at which each host not indexed since was removed
+    private final Map<HostId, Long> removals = new ConcurrentHashMap<>();
+
+    private final Map<IpAddress, Set<Host>> byIp = new ConcurrentHashMap<>();
+    private final Map<MacAddress, Set<Host>> byMac = new ConcurrentHashMap<>();
+    private final Map<VlanId, Set<Host>> byVlan = new ConcurrentHashMap<>();
+    private final Map<ConnectPoint, Set<Host>> byLocation = new ConcurrentHashMap<>();
+    private final Map<DeviceId, Set<Host>> byDevice = new ConcurrentHashMap<>();
+
+    /**
+     * Indexes the given version of a host, unless the same or a more recent
+     * version of the host has already been indexed or removed.
+     *
+     * @param hostId host identifier
+     * @param host   versioned host
+     * @return false if the given version is older than the indexed or
+     *         removed one
+     */
+    boolean update(HostId hostId, Versioned<DefaultHost> host) {
+        AtomicBoolean stale = new AtomicBoolean();
+        hosts.compute(hostId, (id, current) -> {
+            Long removed = removals.get(id);
+            if ((current != null && current.version() >= host.version()) ||
+                    (removed != null && removed >= host.version())) {
+                stale.set((current != null && current.version() > host.version()) ||
+                                  (removed != null && removed > host.version()));
+                return current;
+            }
+            removals.remove(id);
+            if (current != null) {
+                unindex(current.value());
+            }
+            index(host.value());
+            return host;
+        });
+        return !stale.get();
+    }
+
+    /**
+     * Removes a host from the indexes, unless a more recent version of the
+     * host has been indexed since the given version was removed, and
+     * remembers the removal so that the given or older versions of the host
+     * are no longer indexed.
+     *
+     * @param hostId  host identifier
+     * @param version version of the removed host
+     */
+    void remove(HostId hostId, long version) {
+        hosts.compute(hostId, (id, current) -> {
+            if (current != null && current.version() > version) {
+                return current;
+            }
+            removals.merge(id, version, Math::max);
+            if (current != null) {
+                unindex(current.value());
+            }
+            return null;
+        });
+        if (removals.size() > MAX_REMOVALS) {
+            pruneRemovals();
+        }
+    }
+
+    // Forgets the oldest half of the removals, whose versions are long past
+    // any read still in flight.
+    private synchronized void pruneRemovals() {
+        if (removals.size() <= MAX_REMOVALS) {
+            return;
+        }
+        long[] versions = removals.values().stream().mapToLong(Long::longValue).sorted().toArray();
+        long oldest = versions[versions.length / 2];
+        removals.values().removeIf(version -> version < oldest);
+    }
+
+    /**
+     * Returns the indexed version of a host.
+     *
+     * @param hostId host identifier
+     * @return versioned host, or null if the host is not indexed
+     */
+    Versioned<DefaultHost> get(HostId hostId) {
+        return hosts.get(hostId);
+    }
+
+    /**
+     * Returns all indexed hosts.
+     *
+     * @return set of hosts
+     */
+    Set<Host> hosts() {
+        ImmutableSet.Builder<Host> builder = ImmutableSet.builder();
+        hosts.values().forEach(host -> builder.add(host.value()));
+        return builder.build();
+    }
+
+    /**
+     * Returns the number of indexed hosts.
+     *
+     * @return number of hosts
+     */
+    int size() {
+        return hosts.size();
+    }
+
+    /**
+     * Returns the hosts with the given IP address.
+     *
+     * @param ip IP address
+     * @return set of hosts
+     */
+    Set<Host> byIp(IpAddress ip) {
+        return lookup(byIp, ip);
+    }
+
+    /**
+     * Returns the hosts with the given MAC address.
+     *
+     * @param mac MAC address
+     * @return set of hosts
+     */
+    Set<Host> byMac(MacAddress mac) {
+        return lookup(byMac, mac);
+    }
+
+    /**
+     * Returns the hosts in the given VLAN.
+     *
+     * @param vlanId VLAN identifier
+     * @return set of hosts
+     */
+    Set<Host> byVlan(VlanId vlanId) {
+        return lookup(byVlan, vlanId);
+    }
+
+    /**
+     * Returns the hosts located at the given connect point.
+     *
+     * @param connectPoint connect point
+     * @return set of hosts
+     */
+    Set<Host> byLocation(ConnectPoint connectPoint) {
+        return lookup(byLocation, connectPoint);
+    }
+
+    /**
+     * Returns the hosts located on the given device.
+     *
+     * @param deviceId device identifier
+     * @return set of hosts
+     */
+    Set<Host> byDevice(DeviceId deviceId) {
+        return lookup(byDevice, deviceId);
+    }
+
+    private void index(Host host) {
+        host.ipAddresses().forEach(ip -> add(byIp, ip, host));
+        add(byMac, host.mac(), host);
+        add(byVlan, host.vlan(), host);
+        add(byLocation, host.location(), host);
+        add(byDevice, host.location().deviceId(), host);
+    }
+
+    private void unindex(Host host) {
+        host.ipAddresses().forEach(ip -> remove(byIp, ip, host));
+        remove(byMac, host.mac(), host);
+        remove(byVlan, host.vlan(), host);
+        remove(byLocation, host.location(), host);
+        remove(byDevice, host.location().deviceId(), host);
+    }
+
+    private static <K> void add(Map<K, Set<Host>> index, K key, Host host) {
+        index.compute(key, (k, set) -> {
+            Set<Host> result = set != null ? set : ConcurrentHashMap.newKeySet();
+            result.add(host);
+            return result;
+        });
+    }
+
+    private static <K> void remove(Map<K, Set<Host>> index, K key, Host host) {
+        index.computeIfPresent(key, (k, set) -> {
+            set.remove(host);
+            return set.isEmpty() ? null : set;
+        });
+    }
+
+    private static <K> Set<Host> lookup(Map<K, Set<Host>> index, K key) {
+        Set<Host> set = index.get(key);
+        return set != null ? ImmutableSet.copyOf(set) : ImmutableSet.of();
+    }
+}
@@ -16,6 +16,8 @@
 package org.onosproject.store.intent.impl;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
 import org.apache.commons.lang.math.RandomUtils;
 import org.apache.felix.scr.annotations.Activate;
 import org.apache.felix.scr.annotations.Component;
@@ -38,6 +40,9 @@ import org.onosproject.net.intent.IntentStore;
 import org.onosproject.net.intent.IntentStoreDelegate;
 import org.onosproject.net.intent.Key;
 import org.onosproject.store.AbstractStore;
+import org.onosproject.store.Timestamp;
+import org.onosproject.store.intent.impl.IntentRecord.Content;
+import org.onosproject.store.intent.impl.IntentRecord.ContentId;
 import org.onosproject.store.serializers.KryoNamespaces;
 import org.onosproject.store.service.EventuallyConsistentMap;
 import org.onosproject.store.service.EventuallyConsistentMapEvent;
@@ -47,11 +52,16 @@ import org.onosproject.store.service.StorageService;
 import org.onosproject.store.service.WallClockTimestamp;
 import org.slf4j.Logger;
 
+import java.nio.ByteBuffer;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 import static org.onosproject.net.intent.IntentState.PURGE_REQ;
@@ -72,10 +82,17 @@ public class GossipIntentStore
     private final Logger log = getLogger(getClass());
 
     // Map of intent key => current intent state
-    private EventuallyConsistentMap<Key, IntentData> currentMap;
+    private EventuallyConsistentMap<Key, IntentRecord> currentMap;
 
     // Map of intent key => pending intent operation
-    private EventuallyConsistentMap<Key, IntentData> pendingMap;
+    private EventuallyConsistentMap<Key, IntentRecord> pendingMap;
+
+    // Map of content id => intent, as a single element list, or installables
+    private EventuallyConsistentMap<ContentId, Content> contentMap;
+
+    // Records received ahead of their content, by intent key
+    private final Map<Key, IntentRecord> deferredCurrent = new ConcurrentHashMap<>();
+    private final Map<Key, IntentRecord> deferredPending = new ConcurrentHashMap<>();
 
     @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
     protected ClusterService clusterService;
@@ -88,39 +105,55 @@ public class GossipIntentStore
 
     private final AtomicLong sequenceNumber = new AtomicLong(0);
 
-    private EventuallyConsistentMapListener<Key, IntentData>
+    private EventuallyConsistentMapListener<Key, IntentRecord>
             mapCurrentListener = new InternalCurrentListener();
 
-    private EventuallyConsistentMapListener<Key, IntentData>
+    private EventuallyConsistentMapListener<Key, IntentRecord>
             mapPendingListener = new InternalPendingListener();
 
+    private EventuallyConsistentMapListener<ContentId, Content>
+            mapContentListener = new InternalContentListener();
+
     @Activate
     public void activate() {
         KryoNamespace.Builder intentSerializer = KryoNamespace.newBuilder()
                 .register(KryoNamespaces.API)
                 .register(IntentData.class)
+                .register(IntentRecord.class)
+                .register(ContentId.class)
+                .register(Content.class)
                 .register(VirtualNetworkIntent.class)
                 .register(NetworkId.class)
                 .register(MultiValuedTimestamp.class);
 
-        currentMap = storageService.<Key, IntentData>eventuallyConsistentMapBuilder()
+        currentMap = storageService.<Key, IntentRecord>eventuallyConsistentMapBuilder()
                 .withName("intent-current")
                 .withSerializer(intentSerializer)
-                .withTimestampProvider((key, intentData) ->
-                                               new MultiValuedTimestamp<>(intentData.version(),
+                .withTimestampProvider((key, record) ->
+                                               new MultiValuedTimestamp<>(record.version(),
                                                                           sequenceNumber.getAndIncrement()))
-                .withPeerUpdateFunction((key, intentData) -> getPeerNodes(key, intentData))
+                .withPeerUpdateFunction((key, record) -> getPeerNodes(key, record))
                 .build();
 
-        pendingMap = storageService.<Key, IntentData>eventuallyConsistentMapBuilder()
+        pendingMap = storageService.<Key, IntentRecord>eventuallyConsistentMapBuilder()
                 .withName("intent-pending")
                 .withSerializer(intentSerializer)
-                .withTimestampProvider((key, intentData) -> intentData == null ?
+                .withTimestampProvider((key, record) -> record == null ?
                         new MultiValuedTimestamp<>(new WallClockTimestamp(), System.nanoTime()) :
-                        new MultiValuedTimestamp<>(intentData.version(), System.nanoTime()))
-                .withPeerUpdateFunction((key, intentData) -> getPeerNodes(key, intentData))
+                        new MultiValuedTimestamp<>(record.version(), System.nanoTime()))
+                .withPeerUpdateFunction((key, record) -> getPeerNodes(key, record))
                 .build();
 
+        // Content is written and removed at the version of the intent data
+        // doing so, so that it is ordered along with that data
+        contentMap = storageService.<ContentId, Content>eventuallyConsistentMapBuilder()
+                .withName("intent-content")
+                .withSerializer(intentSerializer)
+                .withTimestampProvider((id, content) ->
+                        new MultiValuedTimestamp<>(content.version(), sequenceNumber.getAndIncrement()))
+                .build();
+
+        contentMap.addListener(mapContentListener);
         currentMap.addListener(mapCurrentListener);
         pendingMap.addListener(mapPendingListener);
 
@@ -131,8 +164,10 @@ public class GossipIntentStore
     public void deactivate() {
         currentMap.removeListener(mapCurrentListener);
         pendingMap.removeListener(mapPendingListener);
+        contentMap.removeListener(mapContentListener);
         currentMap.destroy();
         pendingMap.destroy();
+        contentMap.destroy();
 
         log.info("Stopped");
     }
@@ -145,7 +180,9 @@ public class GossipIntentStore
     @Override
     public Iterable<Intent> getIntents() {
         return currentMap.values().stream()
-                .map(IntentData::intent)
+                .map(record -> content(record.intent()))
+                .filter(Objects::nonNull)
+                .map(content -> content.get(0))
                 .collect(Collectors.toList());
     }
 
@@ -154,28 +191,30 @@ public class GossipIntentStore
         if (localOnly || olderThan > 0) {
             long now = System.currentTimeMillis();
             final WallClockTimestamp time = new WallClockTimestamp(now - olderThan);
-            return currentMap.values().stream()
-                    .filter(data -> data.version().isOlderThan(time) &&
-                            (!localOnly || isMaster(data.key())))
-                    .collect(Collectors.toList());
+            return intentData(currentMap.values().stream()
+                    .filter(record -> record.version().isOlderThan(time) &&
+                            (!localOnly || isMaster(record.key()))));
         }
-        return currentMap.values();
+        return intentData(currentMap.values().stream());
     }
 
     @Override
     public IntentState getIntentState(Key intentKey) {
-        IntentData data = currentMap.get(intentKey);
-        if (data != null) {
-            return data.state();
+        IntentRecord record = currentMap.get(intentKey);
+        if (record != null) {
+            return record.state();
         }
         return null;
     }
 
     @Override
     public List<Intent> getInstallableIntents(Key intentKey) {
-        IntentData data = currentMap.get(intentKey);
-        if (data != null) {
-            return data.installables();
+        IntentRecord record = currentMap.get(intentKey);
+        if (record != null && record.installables() != null) {
+            List<Intent> installables = content(record.installables());
+            if (installables != null) {
+                return installables;
+            }
         }
         return ImmutableList.of();
     }
@@ -184,33 +223,120 @@ public class GossipIntentStore
     public void write(IntentData newData) {
         checkNotNull(newData);
 
-        IntentData currentData = currentMap.get(newData.key());
+        IntentRecord currentRecord = currentMap.get(newData.key());
+        // Acceptance only depends on the version and state of the current data
+        IntentData currentData = currentRecord == null ? null :
+                currentRecord.toIntentData(newData.intent(), null);
         if (IntentData.isUpdateAcceptable(currentData, newData)) {
             // Only the master is modifying the current state. Therefore assume
             // this always succeeds
+            IntentRecord newRecord = null;
             if (newData.state() == PURGE_REQ) {
-                if (currentData != null) {
-                    currentMap.remove(newData.key(), currentData);
+                if (currentRecord != null) {
+                    currentMap.remove(newData.key(), currentRecord);
                 } else {
                     log.info("Gratuitous purge request for intent: {}", newData.key());
                 }
             } else {
-                currentMap.put(newData.key(), new IntentData(newData));
+                newRecord = record(newData);
+                currentMap.put(newData.key(), newRecord);
             }
 
             // Remove the intent data from the pending map if the newData is more
             // recent or equal to the existing entry.
-            pendingMap.compute(newData.key(), (key, existingValue) -> {
+            IntentRecord pendingRecord = pendingMap.compute(newData.key(), (key, existingValue) -> {
                 if (existingValue == null || !existingValue.version().isNewerThan(newData.version())) {
                     return null;
                 } else {
                     return existingValue;
                 }
             });
+
+            if (currentRecord != null) {
+                removeUnusedContent(currentRecord, newRecord, pendingRecord, newData.version());
+            }
+        }
+    }
+
+    // Records the content of the given intent data, and returns its compact form.
+    private IntentRecord record(IntentData data) {
+        ContentId intent = writeContent(ImmutableList.of(data.intent()), data.version());
+        ContentId installables = data.installables().isEmpty() ? null :
+                writeContent(data.installables(), data.version());
+        return new IntentRecord(data, intent, installables);
+    }
+
+    // Writes content at the given version, and returns its id. Intents are
+    // immutable and their ids are unique across the cluster, so content is
+    // identified by the ids of its intents. State transitions keep the
+    // version of the intent data, so content is only written when unknown
+    // or known at an older version; the latter makes it newer than a
+    // concurrent removal on behalf of an older version of the intent data.
+    private ContentId writeContent(List<Intent> content, Timestamp version) {
+        Hasher hasher = Hashing.murmur3_128().newHasher();
+        content.forEach(intent -> hasher.putLong(intent.id().fingerprint()));
+        ByteBuffer hash = ByteBuffer.wrap(hasher.hash().asBytes());
+        ContentId id = new ContentId(hash.getLong(), hash.getLong());
+        Content existing = contentMap.get(id);
+        if (existing == null || version.isNewerThan(existing.version())) {
+            contentMap.put(id, new Content(content, version));
+        }
+        return id;
+    }
+
+    // Removes, at the version of the replacing intent data, the content of a
+    // replaced record that no other record of the same intent refers to.
+    // Content is only shared by the records of a given intent, since
+    // installables and intents carry the intent key; content written since
+    // by a more recent record is newer than the removal and survives it.
+    private void removeUnusedContent(IntentRecord replaced, IntentRecord current, IntentRecord pending,
+                                     Timestamp version) {
+        ContentId intent = replaced.intent();
+        if (!refersTo(current, intent) && !refersTo(pending, intent)) {
+            removeContent(intent, version);
+        }
+        ContentId installables = replaced.installables();
+        if (installables != null && !refersTo(current, installables)) {
+            removeContent(installables, version);
+        }
+    }
+
+    // Removes content at the given version, unless it was written since on
+    // behalf of more recent intent data.
+    private void removeContent(ContentId id, Timestamp version) {
+        Content content = contentMap.get(id);
+        if (content != null && !content.version().isNewerThan(version)) {
+            contentMap.remove(id, new Content(content.intents(), version));
+        }
+    }
+
+    private boolean refersTo(IntentRecord record, ContentId id) {
+        return record != null && (id.equals(record.intent()) || id.equals(record.installables()));
+    }
+
+    private List<Intent> content(ContentId id) {
+        Content content = contentMap.get(id);
+        return content != null ? content.intents() : null;
+    }
+
+    // Rebuilds the intent data of a record, or returns null if its content
+    // has not been received yet.
+    private IntentData intentData(IntentRecord record) {
+        List<Intent> intent = content(record.intent());
+        List<Intent> installables = record.installables() == null ? null : content(record.installables());
+        if (intent == null || (record.installables() != null && installables == null)) {
+            return null;
         }
+        return record.toIntentData(intent.get(0), installables);
     }
 
-    private Collection<NodeId> getPeerNodes(Key key, IntentData data) {
+    private List<IntentData> intentData(Stream<IntentRecord> records) {
+        return records.map(this::intentData)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    private Collection<NodeId> getPeerNodes(Key key, IntentRecord data) {
         NodeId master = partitionService.getLeader(key, Key::hash);
         NodeId origin = (data != null) ? data.origin() : null;
         if (data != null && (master == null || origin == null)) {
@@ -252,20 +378,21 @@ public class GossipIntentStore
 
     @Override
     public Intent getIntent(Key key) {
-        IntentData data = currentMap.get(key);
-        if (data != null) {
-            return data.intent();
+        IntentRecord record = currentMap.get(key);
+        if (record != null) {
+            List<Intent> intent = content(record.intent());
+            return intent != null ? intent.get(0) : null;
         }
         return null;
     }
 
     @Override
     public IntentData getIntentData(Key key) {
-        IntentData current = currentMap.get(key);
+        IntentRecord current = currentMap.get(key);
         if (current == null) {
             return null;
         }
-        return new IntentData(current);
+        return intentData(current);
     }
 
     @Override
@@ -273,11 +400,12 @@ public class GossipIntentStore
         checkNotNull(data);
 
         if (data.version() == null) {
-            pendingMap.put(data.key(), new IntentData(data.intent(), data.state(),
-                                                      new WallClockTimestamp(), clusterService.getLocalNode().id()));
+            pendingMap.put(data.key(), record(new IntentData(data.intent(), data.state(),
+                                                             new WallClockTimestamp(),
+                                                             clusterService.getLocalNode().id())));
         } else {
-            pendingMap.put(data.key(), new IntentData(data.intent(), data.state(),
-                                                      data.version(), clusterService.getLocalNode().id()));
+            pendingMap.put(data.key(), record(new IntentData(data.intent(), data.state(),
+                                                             data.version(), clusterService.getLocalNode().id())));
         }
     }
 
@@ -288,63 +416,103 @@ public class GossipIntentStore
 
     @Override
     public Iterable<Intent> getPending() {
-        return pendingMap.values().stream()
+        return intentData(pendingMap.values().stream()).stream()
                 .map(IntentData::intent)
                 .collect(Collectors.toList());
     }
 
     @Override
     public Iterable<IntentData> getPendingData() {
-        return pendingMap.values();
+        return intentData(pendingMap.values().stream());
     }
 
     @Override
     public Iterable<IntentData> getPendingData(boolean localOnly, long olderThan) {
         long now = System.currentTimeMillis();
         final WallClockTimestamp time = new WallClockTimestamp(now - olderThan);
-        return pendingMap.values().stream()
-                .filter(data -> data.version().isOlderThan(time) &&
-                        (!localOnly || isMaster(data.key())))
-                .collect(Collectors.toList());
+        return intentData(pendingMap.values().stream()
+                .filter(record -> record.version().isOlderThan(time) &&
+                        (!localOnly || isMaster(record.key()))));
+    }
+
+    // Handles an update of the current state of an intent, unless its
+    // content has yet to be received.
+    private void currentUpdated(IntentRecord record) {
+        IntentData intentData = intentData(record);
+        if (intentData == null) {
+            deferredCurrent.put(record.key(), record);
+            return;
+        }
+        // The current intents map has been updated. If we are master for
+        // this intent's partition, notify the Manager that it should
+        // emit notifications about updated tracked resources.
+        if (delegate != null && isMaster(record.key())) {
+            delegate.onUpdate(intentData);
+        }
+        IntentEvent.getEvent(intentData).ifPresent(e -> notifyDelegate(e));
+    }
+
+    // Handles an update of the pending operation of an intent, unless its
+    // content has yet to be received.
+    private void pendingUpdated(IntentRecord record) {
+        IntentData intentData = intentData(record);
+        if (intentData == null) {
+            deferredPending.put(record.key(), record);
+            return;
+        }
+        // The pending intents map has been updated. If we are master for
+        // this intent's partition, notify the Manager that it should do
+        // some work.
+        if (isMaster(record.key())) {
+            if (delegate != null) {
+                delegate.process(intentData);
+            }
+        }
+
+        IntentEvent.getEvent(intentData).ifPresent(e -> notifyDelegate(e));
+    }
+
+    // Handles the deferred records whose content has been received.
+    private void resolveDeferred(Map<Key, IntentRecord> deferred, Consumer<IntentRecord> handler) {
+        deferred.forEach((key, record) -> {
+            if (intentData(record) != null && deferred.remove(key, record)) {
+                handler.accept(record);
+            }
+        });
     }
 
     private final class InternalCurrentListener implements
-            EventuallyConsistentMapListener<Key, IntentData> {
+            EventuallyConsistentMapListener<Key, IntentRecord> {
         @Override
-        public void event(EventuallyConsistentMapEvent<Key, IntentData> event) {
-            IntentData intentData = event.value();
-
+        public void event(EventuallyConsistentMapEvent<Key, IntentRecord> event) {
+            deferredCurrent.remove(event.key());
             if (event.type() == EventuallyConsistentMapEvent.Type.PUT) {
-                // The current intents map has been updated. If we are master for
-                // this intent's partition, notify the Manager that it should
-                // emit notifications about updated tracked resources.
-                if (delegate != null && isMaster(event.value().intent().key())) {
-                    delegate.onUpdate(new IntentData(intentData)); // copy for safety, likely unnecessary
-                }
-                IntentEvent.getEvent(intentData).ifPresent(e -> notifyDelegate(e));
+                currentUpdated(event.value());
             }
         }
     }
 
     private final class InternalPendingListener implements
-            EventuallyConsistentMapListener<Key, IntentData> {
+            EventuallyConsistentMapListener<Key, IntentRecord> {
         @Override
         public void event(
-                EventuallyConsistentMapEvent<Key, IntentData> event) {
+                EventuallyConsistentMapEvent<Key, IntentRecord> event) {
+            deferredPending.remove(event.key());
             if (event.type() == EventuallyConsistentMapEvent.Type.PUT) {
-                // The pending intents map has been updated. If we are master for
-                // this intent's partition, notify the Manager that it should do
-                // some work.
-                if (isMaster(event.value().intent().key())) {
-                    if (delegate != null) {
-                        delegate.process(new IntentData(event.value()));
-                    }
-                }
+                pendingUpdated(event.value());
+            }
+        }
+    }
 
-                IntentEvent.getEvent(event.value()).ifPresent(e -> notifyDelegate(e));
+    private final class InternalContentListener implements
+            EventuallyConsistentMapListener<ContentId, Content> {
+        @Override
+        public void event(EventuallyConsistentMapEvent<ContentId, Content> event) {
+            if (event.type() == EventuallyConsistentMapEvent.Type.PUT) {
+                resolveDeferred(deferredCurrent, GossipIntentStore.this::currentUpdated);
+                resolveDeferred(deferredPending, GossipIntentStore.this::pendingUpdated);
             }
         }
     }
 
 }
-
@@ -0,0 +1,255 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.intent.impl;
+
+import com.google.common.base.MoreObjects;
+import org.onosproject.cluster.NodeId;
+import org.onosproject.net.intent.Intent;
+import org.onosproject.net.intent.IntentData;
+import org.onosproject.net.intent.IntentState;
+import org.onosproject.net.intent.Key;
+import org.onosproject.store.Timestamp;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Compact form of {@link IntentData} gossiped between instances. The intent
+ * and its installables are replaced by the identifiers of their content,
+ * which is gossiped separately, once per distinct content; a state
+ * transition of an intent therefore only carries its key, version, state
+ * and bookkeeping.
+ */
+final class IntentRecord {
+
+    private final Key key;
+    private final IntentState request;
+    private final IntentState state;
+    private final Timestamp version;
+    private final NodeId origin;
+    private final int errorCount;
+    private final ContentId intent;
+    private final ContentId installables;
+
+    /**
+     * Creates the record of the given intent data.
+     *
+     * @param data         intent data
+     * @param intent       identifier of the content of the intent
+     * @param installables identifier of the content of the installables,
+     *                     or null if there are none
+     */
+    IntentRecord(IntentData data, ContentId intent, ContentId installables) {
+        this.key = data.key();
+        this.request = data.request();
+        this.state = data.state();
+        this.version = data.version();
+        this.origin = data.origin();
+        this.errorCount = data.errorCount();
+        this.intent = intent;
+        this.installables = installables;
+    }
+
+    /**
+     * Returns the intent key.
+     *
+     * @return intent key
+     */
+    Key key() {
+        return key;
+    }
+
+    /**
+     * Returns the state of the intent.
+     *
+     * @return intent state
+     */
+    IntentState state() {
+        return state;
+    }
+
+    /**
+     * Returns the node where the intent data was originally created.
+     *
+     * @return node identifier
+     */
+    NodeId origin() {
+        return origin;
+    }
+
+    /**
+     * Returns the version of the intent data.
+     *
+     * @return version
+     */
+    Timestamp version() {
+        return version;
+    }
+
+    /**
+     * Returns the identifier of the content of the intent.
+     *
+     * @return content identifier
+     */
+    ContentId intent() {
+        return intent;
+    }
+
+    /**
+     * Returns the identifier of the content of the installables.
+     *
+     * @return content identifier, or null if there are no installables
+     */
+    ContentId installables() {
+        return installables;
+    }
+
+    /**
+     * Rebuilds the intent data from this record and its content.
+     *
+     * @param intent       intent
+     * @param installables installables, or null if there are none
+     * @return intent data
+     */
+    IntentData toIntentData(Intent intent, List<Intent> installables) {
+        IntentData data = origin == null ? new IntentData(intent, request, version) :
+                new IntentData(intent, request, version, origin);
+        data.setState(state);
+        data.setErrorCount(errorCount);
+        return installables == null ? data : new IntentData(data, installables);
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(getClass())
+                .add("key", key)
+                .add("state", state)
+                .add("version", version)
+                .add("intent", intent)
+                .add("installables", installables)
+                .toString();
+    }
+
+    /**
+     * Gossiped content, along with the version of the intent data which last
+     * wrote it. The version orders the writes and removals of the content
+     * along with the intent data referring to it, so that a removal does not
+     * undo a write on behalf of more recent intent data. Content is equal to
+     * other content holding the same intents, whatever their versions.
+     */
+    static final class Content {
+
+        private final List<Intent> intents;
+        private final Timestamp version;
+
+        /**
+         * Creates content.
+         *
+         * @param intents intent, as a single element list, or installables
+         * @param version version of the intent data writing or removing
+         *                the content
+         */
+        Content(List<Intent> intents, Timestamp version) {
+            this.intents = intents;
+            this.version = version;
+        }
+
+        /**
+         * Returns the intents held.
+         *
+         * @return intents
+         */
+        List<Intent> intents() {
+            return intents;
+        }
+
+        /**
+         * Returns the version of the intent data which wrote the content.
+         *
+         * @return version
+         */
+        Timestamp version() {
+            return version;
+        }
+
+        @Override
+        public int hashCode() {
+            return intents.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Content)) {
+                return false;
+            }
+            return intents.equals(((Content) obj).intents);
+        }
+
+        @Override
+        public String toString() {
+            return MoreObjects.toStringHelper(getClass())
+                    .add("intents", intents)
+                    .add("version", version)
+                    .toString();
+        }
+    }
+
+    /**
+     * Identifier of gossiped content, derived from a 128-bit hash of the
+     * identifiers of the intents it holds.
+     */
+    static final class ContentId {
+
+        private final long high;
+        private final long low;
+
+        /**
+         * Creates a content identifier.
+         *
+         * @param high upper 64 bits of the hash
+         * @param low  lower 64 bits of the hash
+         */
+        ContentId(long high, long low) {
+            this.high = high;
+            this.low = low;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(high, low);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof ContentId)) {
+                return false;
+            }
+            ContentId that = (ContentId) obj;
+            return high == that.high && low == that.low;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%016x%016x", high, low);
+        }
+    }
+}
@@ -0,0 +1,208 @@
+/*
+ * Copyright 2014-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.flow.impl;
+
+import com.google.common.collect.Maps;
+import org.junit.Ignore;
+import org.junit.Test;
+import org.onosproject.net.DeviceId;
+import org.onosproject.net.flow.DefaultFlowEntry;
+import org.onosproject.net.flow.DefaultFlowRule;
+import org.onosproject.net.flow.DefaultTrafficSelector;
+import org.onosproject.net.flow.FlowEntry;
+import org.onosproject.net.flow.FlowId;
+import org.onosproject.net.flow.FlowRule;
+import org.onosproject.net.flow.StoredFlowEntry;
+import org.onosproject.net.flow.TrafficSelector;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+
+/**
+ * Test of the compact flow table.
+ */
+public class CompactFlowTableTest {
+
+    private static final DeviceId DID = DeviceId.deviceId("of:1");
+    private static final TrafficSelector SELECTOR = DefaultTrafficSelector.builder().build();
+
+    private static StoredFlowEntry entry(DeviceId deviceId, long cookie, int priority) {
+        FlowRule rule = DefaultFlowRule.builder()
+                .forDevice(deviceId)
+                .withSelector(SELECTOR)
+                .withPriority(priority)
+                .withCookie(cookie)
+                .makePermanent()
+                .build();
+        return new DefaultFlowEntry(rule);
+    }
+
+    /**
+     * Checks adding, replacing, looking up and removing flow entries.
+     */
+    @Test
+    public void basics() {
+        CompactFlowTable table = new CompactFlowTable();
+        StoredFlowEntry e1 = entry(DID, 1, 10);
+        StoredFlowEntry e2 = entry(DID, 2, 20);
+
+        table.add(e1);
+        table.add(e2);
+        assertThat(table.size(), is(2));
+        assertThat(table.get(entry(DID, 1, 10)), sameInstance(e1));
+        assertThat(table.get(entry(DID, 3, 10)), nullValue());
+
+        StoredFlowEntry e1b = entry(DID, 1, 10);
+        table.add(e1b);
+        assertThat(table.size(), is(2));
+        assertThat(table.get(e1), sameInstance(e1b));
+
+        assertThat(table.remove(e1, (rule, stored) -> true), nullValue());
+        assertThat(table.remove(e1, (rule, stored) -> false), sameInstance(e1b));
+        assertThat(table.remove(e1, (rule, stored) -> false), nullValue());
+        assertThat(table.getFlowEntries(), containsInAnyOrder((FlowEntry) e2));
+    }
+
+    /**
+     * Checks distinct rules sharing a flow ID.
+     */
+    @Test
+    public void sharedFlowId() {
+        CompactFlowTable table = new CompactFlowTable();
+        StoredFlowEntry e1 = entry(DID, 7, 10);
+        StoredFlowEntry e2 = entry(DID, 7, 20);
+        StoredFlowEntry e3 = entry(DID, 7, 30);
+
+        table.add(e1);
+        table.add(e2);
+        table.add(e3);
+        assertThat(table.size(), is(3));
+        assertThat(table.get(e2), sameInstance(e2));
+        assertThat(table.getStoredFlowEntries().size(), is(3));
+
+        assertThat(table.remove(e2, (rule, stored) -> false), sameInstance(e2));
+        assertThat(table.remove(e3, (rule, stored) -> false), sameInstance(e3));
+        assertThat(table.size(), is(1));
+        assertThat(table.get(e1), sameInstance(e1));
+        assertThat(table.get(e3), nullValue());
+    }
+
+    /**
+     * Checks the table against a hash map under random operations, which
+     * exercises growing, shrinking and backward shift deletion.
+     */
+    @Test
+    public void randomized() {
+        CompactFlowTable table = new CompactFlowTable();
+        Map<Long, StoredFlowEntry> expected = new HashMap<>();
+        Random random = new Random(42);
+
+        for (int i = 0; i < 50_000; i++) {
+            long cookie = random.nextInt(2_000);
+            StoredFlowEntry entry = entry(DID, cookie, 100);
+            if (random.nextInt(3) == 0) {
+                assertThat(table.remove(entry, (rule, stored) -> false),
+                           sameInstance(expected.remove(cookie)));
+            } else {
+                table.add(entry);
+                expected.put(cookie, entry);
+            }
+            assertThat(table.size(), is(expected.size()));
+        }
+        expected.forEach((cookie, entry) -> assertThat(table.get(entry), sameInstance(entry)));
+
+        CompactFlowTable restored = new CompactFlowTable();
+        restored.replaceAll(table.getStoredFlowEntries());
+        assertThat(restored.getFlowEntries(), is(table.getFlowEntries()));
+    }
+
+    /**
+     * Compares the memory used by compact flow tables with the map of maps
+     * flow tables they replace.
+     */
+    @Test
+    @Ignore("Benchmark")
+    public void memoryFootprint() {
+        footprint(1_000_000, 1_000);
+        footprint(5_000_000, 1_000);
+    }
+
+    private void footprint(int flows, int devices) {
+        int perDevice = flows / devices;
+        StoredFlowEntry[][] entries = new StoredFlowEntry[devices][perDevice];
+        Random random = new Random(1);
+        for (int d = 0; d < devices; d++) {
+            DeviceId deviceId = DeviceId.deviceId("of:" + d);
+            for (int f = 0; f < perDevice; f++) {
+                entries[d][f] = entry(deviceId, random.nextLong(), f % FlowRule.MAX_PRIORITY);
+            }
+        }
+
+        long base = usedMemory();
+        long start = System.nanoTime();
+        CompactFlowTable[] compact = new CompactFlowTable[devices];
+        for (int d = 0; d < devices; d++) {
+            compact[d] = new CompactFlowTable();
+            for (StoredFlowEntry entry : entries[d]) {
+                compact[d].add(entry);
+            }
+        }
+        long compactNanos = System.nanoTime() - start;
+        long compactBytes = usedMemory() - base;
+        // Keeps the tables reachable until measured
+        int compactFlows = 0;
+        for (CompactFlowTable table : compact) {
+            compactFlows += table.size();
+        }
+        assertThat(compactFlows, is(devices * perDevice));
+        compact = null;
+
+        base = usedMemory();
+        start = System.nanoTime();
+        Map<DeviceId, Map<FlowId, Map<StoredFlowEntry, StoredFlowEntry>>> maps = Maps.newConcurrentMap();
+        for (int d = 0; d < devices; d++) {
+            for (StoredFlowEntry entry : entries[d]) {
+                maps.computeIfAbsent(entry.deviceId(), id -> Maps.newConcurrentMap())
+                        .computeIfAbsent(entry.id(), id -> Maps.newConcurrentMap())
+                        .put(entry, entry);
+            }
+        }
+        long mapNanos = System.nanoTime() - start;
+        long mapBytes = usedMemory() - base;
+
+        System.out.println(String.format("%,d flows on %,d devices: compact %.1f bytes/flow in %d ms, " +
+                                                 "map of maps %.1f bytes/flow in %d ms",
+                                         flows, devices,
+                                         (double) compactBytes / flows, compactNanos / 1_000_000,
+                                         (double) mapBytes / flows, mapNanos / 1_000_000));
+        assertThat(maps.size(), is(devices));
+    }
+
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
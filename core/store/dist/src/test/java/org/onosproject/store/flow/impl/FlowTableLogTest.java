@@ -0,0 +1,136 @@
+/*
+ * Copyright 2014-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.flow.impl;
+
+import com.google.common.collect.Lists;
+import org.junit.Test;
+import org.onosproject.net.DeviceId;
+import org.onosproject.net.flow.DefaultFlowEntry;
+import org.onosproject.net.flow.DefaultFlowRule;
+import org.onosproject.net.flow.DefaultTrafficSelector;
+import org.onosproject.net.flow.StoredFlowEntry;
+import org.onosproject.store.serializers.KryoNamespaces;
+import org.onosproject.store.service.Serializer;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+
+/**
+ * Test of the flow table change log used for delta backups.
+ */
+public class FlowTableLogTest {
+
+    private static final DeviceId DID = DeviceId.deviceId("of:1");
+
+    private static StoredFlowEntry entry(long cookie) {
+        return new DefaultFlowEntry(DefaultFlowRule.builder()
+                                            .forDevice(DID)
+                                            .withSelector(DefaultTrafficSelector.builder().build())
+                                            .withPriority((int) cookie)
+                                            .withCookie(cookie)
+                                            .makePermanent()
+                                            .build());
+    }
+
+    /**
+     * Checks that deltas hold the last change of each entry since a version.
+     */
+    @Test
+    public void delta() {
+        FlowTableLog log = new FlowTableLog(10);
+        StoredFlowEntry e1 = entry(1);
+        StoredFlowEntry e2 = entry(2);
+
+        log.updated(e1);
+        log.updated(e2);
+        log.removed(e1);
+        assertThat(log.version(), is(3L));
+
+        FlowTableBackup delta = log.delta(DID, 1);
+        assertThat(delta.isFull(), is(false));
+        assertThat(delta.baseVersion(), is(1L));
+        assertThat(delta.version(), is(3L));
+        assertThat(delta.updated(), contains(e2));
+        assertThat(delta.removed(), contains(e1));
+
+        FlowTableBackup all = log.delta(DID, 0);
+        assertThat(all.updated(), contains(e2));
+        assertThat(all.removed(), contains(e1));
+
+        assertThat(log.delta(DID, 3).size(), is(0));
+        assertThat(log.delta(DID, 4), nullValue());
+    }
+
+    /**
+     * Checks that no delta is produced once the changes are no longer logged.
+     */
+    @Test
+    public void gap() {
+        FlowTableLog log = new FlowTableLog(2);
+        for (long i = 1; i <= 5; i++) {
+            log.updated(entry(i));
+        }
+        assertThat(log.delta(DID, 2), nullValue());
+        assertThat(log.delta(DID, 3).updated(), contains(entry(4), entry(5)));
+
+        log.trim(4);
+        assertThat(log.delta(DID, 3), nullValue());
+        assertThat(log.delta(DID, 4).updated(), contains(entry(5)));
+    }
+
+    /**
+     * Checks that a new epoch discards the log.
+     */
+    @Test
+    public void epochs() {
+        FlowTableLog log = new FlowTableLog(10);
+        long epoch = log.epoch();
+        log.updated(entry(1));
+
+        log.newEpoch();
+        assertThat(log.epoch(), not(epoch));
+        assertThat(log.version(), is(0L));
+
+        log.sync(epoch, 7);
+        assertThat(log.epoch(), is(epoch));
+        assertThat(log.version(), is(7L));
+        assertThat(log.delta(DID, 7).updated(), empty());
+    }
+
+    /**
+     * Checks that backups survive serialization.
+     */
+    @Test
+    public void serialization() {
+        Serializer serializer = Serializer.using(KryoNamespaces.API, FlowTableBackup.class);
+        FlowTableBackup backup = FlowTableBackup.full(DID, 42, 3, Collections.singletonList(entry(1)));
+
+        List<FlowTableBackup> backups = Lists.newArrayList(backup);
+        FlowTableBackup decoded = serializer.<List<FlowTableBackup>>decode(serializer.encode(backups)).get(0);
+        assertThat(decoded.deviceId(), is(DID));
+        assertThat(decoded.epoch(), is(42L));
+        assertThat(decoded.isFull(), is(true));
+        assertThat(decoded.version(), is(3L));
+        assertThat(decoded.updated(), contains(entry(1)));
+    }
+}
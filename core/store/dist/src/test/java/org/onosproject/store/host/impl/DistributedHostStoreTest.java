@@ -15,23 +15,33 @@
  */
 package org.onosproject.store.host.impl;
 
+import com.google.common.collect.ImmutableSet;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
+import org.onlab.metrics.MetricsManager;
+import org.onlab.metrics.MetricsService;
 import org.onlab.packet.IpAddress;
 import org.onlab.packet.MacAddress;
+import org.onlab.packet.VlanId;
+import org.onosproject.net.ConnectPoint;
+import org.onosproject.net.DefaultHost;
+import org.onosproject.net.DeviceId;
 import org.onosproject.net.Host;
 import org.onosproject.net.HostId;
 import org.onosproject.net.HostLocation;
+import org.onosproject.net.PortNumber;
 import org.onosproject.net.host.DefaultHostDescription;
 import org.onosproject.net.host.HostDescription;
 import org.onosproject.net.provider.ProviderId;
 import org.onosproject.store.service.TestStorageService;
+import org.onosproject.store.service.Versioned;
 
 import java.util.HashSet;
 import java.util.Set;
 
 import static junit.framework.TestCase.assertTrue;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 
 /**
@@ -46,6 +56,14 @@ public class DistributedHostStoreTest {
     private static final IpAddress IP1 = IpAddress.valueOf("10.2.0.2");
     private static final IpAddress IP2 = IpAddress.valueOf("10.2.0.3");
 
+    private static final HostId HOSTID2 = HostId.hostId(MacAddress.valueOf("2b:2b:2b:2b:2b:2b"),
+                                                        VlanId.vlanId((short) 10));
+
+    private static final DeviceId DID1 = DeviceId.deviceId("of:1");
+    private static final DeviceId DID2 = DeviceId.deviceId("of:2");
+    private static final HostLocation LOC1 = new HostLocation(DID1, PortNumber.portNumber(1), 0);
+    private static final HostLocation LOC2 = new HostLocation(DID2, PortNumber.portNumber(2), 0);
+
     private static final ProviderId PID = new ProviderId("of", "foo");
 
     @Before
@@ -53,6 +71,7 @@ public class DistributedHostStoreTest {
         ecXHostStore = new DistributedHostStore();
 
         ecXHostStore.storageService = new TestStorageService();
+        ecXHostStore.metricsService = new MetricsManager();
         ecXHostStore.activate();
     }
 
@@ -82,4 +101,125 @@ public class DistributedHostStoreTest {
         assertTrue(host.ipAddresses().contains(IP2));
     }
 
+    /**
+     * Tests the lookups of hosts by address, VLAN and location.
+     */
+    @Test
+    public void testLookups() {
+        ecXHostStore.createOrUpdateHost(PID, HOSTID, description(HOSTID, LOC1, IP1), false);
+        ecXHostStore.createOrUpdateHost(PID, HOSTID2, description(HOSTID2, LOC1, IP1, IP2), false);
+        Host host1 = ecXHostStore.getHost(HOSTID);
+        Host host2 = ecXHostStore.getHost(HOSTID2);
+
+        assertEquals(ImmutableSet.of(host1, host2), ecXHostStore.getHosts(IP1));
+        assertEquals(ImmutableSet.of(host2), ecXHostStore.getHosts(IP2));
+        assertEquals(ImmutableSet.of(host1), ecXHostStore.getHosts(HOSTID.mac()));
+        assertEquals(ImmutableSet.of(host1), ecXHostStore.getHosts(VlanId.NONE));
+        assertEquals(ImmutableSet.of(host2), ecXHostStore.getHosts(VlanId.vlanId((short) 10)));
+        assertEquals(ImmutableSet.of(host1, host2),
+                     ecXHostStore.getConnectedHosts(new ConnectPoint(DID1, PortNumber.portNumber(1))));
+        assertEquals(ImmutableSet.of(host1, host2), ecXHostStore.getConnectedHosts(DID1));
+        assertTrue(ecXHostStore.getConnectedHosts(DID2).isEmpty());
+    }
+
+    /**
+     * Tests that lookups follow moves and removals of hosts.
+     */
+    @Test
+    public void testLookupsAfterChanges() {
+        ecXHostStore.createOrUpdateHost(PID, HOSTID, description(HOSTID, LOC1, IP1, IP2), false);
+        ecXHostStore.createOrUpdateHost(PID, HOSTID, description(HOSTID, LOC2, IP1), false);
+        Host host = ecXHostStore.getHost(HOSTID);
+
+        assertTrue(ecXHostStore.getConnectedHosts(DID1).isEmpty());
+        assertEquals(ImmutableSet.of(host), ecXHostStore.getConnectedHosts(LOC2));
+        assertEquals(ImmutableSet.of(host), ecXHostStore.getHosts(IP2));
+
+        ecXHostStore.removeIp(HOSTID, IP2);
+        assertTrue(ecXHostStore.getHosts(IP2).isEmpty());
+        assertEquals(ImmutableSet.of(ecXHostStore.getHost(HOSTID)), ecXHostStore.getHosts(IP1));
+
+        ecXHostStore.removeHost(HOSTID);
+        assertTrue(ecXHostStore.getHosts(IP1).isEmpty());
+        assertTrue(ecXHostStore.getHosts(HOSTID.mac()).isEmpty());
+        assertTrue(ecXHostStore.getConnectedHosts(DID2).isEmpty());
+
+        ecXHostStore.createOrUpdateHost(PID, HOSTID, description(HOSTID, LOC1, IP1), false);
+        assertEquals(ImmutableSet.of(ecXHostStore.getHost(HOSTID)), ecXHostStore.getConnectedHosts(DID1));
+    }
+
+    /**
+     * Tests that the host index ignores stale versions of hosts.
+     */
+    @Test
+    public void testStaleIndexUpdates() {
+        HostIndex index = new HostIndex();
+        DefaultHost old = new DefaultHost(PID, HOSTID, HOSTID.mac(), HOSTID.vlanId(), LOC1, ImmutableSet.of(IP1));
+        DefaultHost moved = new DefaultHost(PID, HOSTID, HOSTID.mac(), HOSTID.vlanId(), LOC2, ImmutableSet.of(IP1));
+
+        index.update(HOSTID, new Versioned<>(moved, 2));
+        index.update(HOSTID, new Versioned<>(old, 1));
+        assertEquals(ImmutableSet.of(moved), index.byDevice(DID2));
+        assertTrue(index.byDevice(DID1).isEmpty());
+
+        index.remove(HOSTID, 2);
+        index.update(HOSTID, new Versioned<>(moved, 2));
+        assertTrue(index.byIp(IP1).isEmpty());
+
+        index.update(HOSTID, new Versioned<>(old, 3));
+        assertEquals(ImmutableSet.of(old), index.byIp(IP1));
+    }
+
+    /**
+     * Tests that a version read before a remote removal is not indexed once
+     * the removal has been applied.
+     */
+    @Test
+    public void testReadRacingRemoval() {
+        HostIndex index = new HostIndex();
+        DefaultHost host = new DefaultHost(PID, HOSTID, HOSTID.mac(), HOSTID.vlanId(), LOC1, ImmutableSet.of(IP1));
+
+        // Removal event of a host this instance never indexed
+        index.remove(HOSTID, 5);
+        // Read through which returned the host just before its removal
+        index.update(HOSTID, new Versioned<>(host, 5));
+        assertEquals(null, index.get(HOSTID));
+        assertTrue(index.byIp(IP1).isEmpty());
+
+        index.update(HOSTID, new Versioned<>(host, 6));
+        assertEquals(host, index.get(HOSTID).value());
+    }
+
+    /**
+     * Tests the metrics of the local view of the hosts.
+     */
+    @Test
+    public void testCacheMetrics() {
+        ecXHostStore.createOrUpdateHost(PID, HOSTID, description(HOSTID, LOC1, IP1), false);
+        assertEquals(HOSTID, ecXHostStore.getHost(HOSTID).id());
+        assertEquals(HOSTID, ecXHostStore.getHost(HOSTID).id());
+        assertEquals(null, ecXHostStore.getHost(HOSTID2));
+
+        MetricsService metrics = ecXHostStore.metricsService;
+        assertEquals(2L, gauge(metrics, "hits"));
+        assertEquals(1L, gauge(metrics, "misses"));
+        assertEquals(66L, gauge(metrics, "hitRatioPercent"));
+        assertEquals(0L, gauge(metrics, "readThroughs"));
+        assertEquals(1L, gauge(metrics, "size"));
+        assertEquals(1L, metrics.getTimers((name, metric) -> name.endsWith(".eventLag"))
+                .values().iterator().next().getCount());
+
+        ecXHostStore.deactivate();
+        assertTrue(metrics.getMetrics().isEmpty());
+        ecXHostStore.activate();
+    }
+
+    private long gauge(MetricsService metrics, String name) {
+        return (Long) metrics.getGauges((n, metric) -> n.endsWith("." + name))
+                .values().iterator().next().getValue();
+    }
+
+    private HostDescription description(HostId hostId, HostLocation location, IpAddress... ips) {
+        return new DefaultHostDescription(hostId.mac(), hostId.vlanId(), location, ImmutableSet.copyOf(ips));
+    }
 }
@@ -17,11 +17,14 @@ package org.onosproject.store.intent.impl;
 
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.IntStream;
 
+import com.google.common.collect.ImmutableList;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
+import org.onlab.junit.TestUtils.TestUtilsException;
 import org.onosproject.cluster.ClusterServiceAdapter;
 import org.onosproject.core.IdGenerator;
 import org.onosproject.net.intent.HostToHostIntent;
@@ -31,11 +34,15 @@ import org.onosproject.net.intent.IntentState;
 import org.onosproject.net.intent.IntentTestsMocks;
 import org.onosproject.net.intent.MockIdGenerator;
 import org.onosproject.net.intent.WorkPartitionServiceAdapter;
+import org.onosproject.store.service.EventuallyConsistentMap;
+import org.onosproject.store.service.EventuallyConsistentMapEvent;
 import org.onosproject.store.service.TestStorageService;
 
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.nullValue;
 import static org.junit.Assert.assertThat;
+import static org.onlab.junit.TestUtils.getField;
 import static org.onosproject.net.NetTestTools.APP_ID;
 import static org.onosproject.net.NetTestTools.hid;
 
@@ -231,4 +238,78 @@ public class GossipIntentStoreTest {
                 data -> assertThat(data, is(installed))
         );
     }
+
+    /**
+     * Tests that state transitions share the content of the intent and of
+     * its installables, and that purging the intent removes its content.
+     */
+    @Test
+    public void testContentShared() throws TestUtilsException {
+        EventuallyConsistentMap<?, ?> contentMap = getField(intentStore, "contentMap");
+        Intent intent = builder1.build();
+        Intent installable = builder1.key(intent.key()).priority(7).build();
+        List<Intent> installables = ImmutableList.of(installable);
+
+        intentStore.write(new IntentData(intent, IntentState.INSTALL_REQ,
+                                         new IntentTestsMocks.MockTimestamp(1)));
+        assertThat(contentMap.size(), is(1));
+
+        IntentData installing = new IntentData(intent, IntentState.INSTALLING,
+                                               new IntentTestsMocks.MockTimestamp(2));
+        intentStore.write(new IntentData(installing, installables));
+        assertThat(contentMap.size(), is(2));
+
+        IntentData installed = new IntentData(intent, IntentState.INSTALLED,
+                                              new IntentTestsMocks.MockTimestamp(3));
+        intentStore.write(new IntentData(installed, installables));
+        assertThat(contentMap.size(), is(2));
+
+        assertThat(intentStore.getIntentState(intent.key()), is(IntentState.INSTALLED));
+        assertThat(intentStore.getInstallableIntents(intent.key()), contains(installable));
+        assertThat(intentStore.getIntentData(intent.key()).installables(), contains(installable));
+
+        intentStore.write(new IntentData(intent, IntentState.PURGE_REQ,
+                                         new IntentTestsMocks.MockTimestamp(4)));
+        assertThat(intentStore.getIntentCount(), is(0L));
+        assertThat(contentMap.size(), is(0));
+    }
+
+    /**
+     * Tests that state transitions at the same version do not write the
+     * content again, while a new version of the intent data does.
+     */
+    @Test
+    public void testStateTransitionKeepsContent() throws TestUtilsException {
+        EventuallyConsistentMap<Object, Object> contentMap = getField(intentStore, "contentMap");
+        AtomicInteger puts = new AtomicInteger();
+        contentMap.addListener(event -> {
+            if (event.type() == EventuallyConsistentMapEvent.Type.PUT) {
+                puts.incrementAndGet();
+            }
+        });
+        Intent intent = builder1.build();
+        Intent installable = builder1.key(intent.key()).priority(7).build();
+
+        IntentData data = new IntentData(intent, IntentState.INSTALL_REQ,
+                                         new IntentTestsMocks.MockTimestamp(1));
+        intentStore.addPending(data);
+        intentStore.write(data);
+        assertThat(puts.get(), is(1));
+
+        IntentData installing = new IntentData(data, ImmutableList.of(installable));
+        installing.setState(IntentState.INSTALLING);
+        intentStore.write(installing);
+        assertThat(puts.get(), is(2));
+
+        IntentData installed = new IntentData(installing);
+        installed.setState(IntentState.INSTALLED);
+        intentStore.write(installed);
+        assertThat(puts.get(), is(2));
+        assertThat(intentStore.getIntentData(intent.key()).installables(), contains(installable));
+
+        intentStore.write(new IntentData(intent, IntentState.INSTALL_REQ,
+                                         new IntentTestsMocks.MockTimestamp(2)));
+        assertThat(puts.get(), is(3));
+        assertThat(contentMap.size(), is(1));
+    }
 }
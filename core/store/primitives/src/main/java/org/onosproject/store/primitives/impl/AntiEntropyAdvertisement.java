@@ -31,6 +31,7 @@ public class AntiEntropyAdvertisement<K> {
 
     private final NodeId sender;
     private final Map<K, MapValue.Digest> digest;
+    private final int[] buckets;
 
     /**
      * Creates a new anti entropy advertisement message.
@@ -40,8 +41,23 @@ public class AntiEntropyAdvertisement<K> {
      */
     public AntiEntropyAdvertisement(NodeId sender,
                                     Map<K, MapValue.Digest> digest) {
+        this(sender, digest, null);
+    }
+
+    /**
+     * Creates a new anti entropy advertisement message covering only the
+     * entries of some digest buckets.
+     *
+     * @param sender the sender's node ID
+     * @param digest for map entries
+     * @param buckets digest buckets covered, or null for all entries
+     */
+    public AntiEntropyAdvertisement(NodeId sender,
+                                    Map<K, MapValue.Digest> digest,
+                                    int[] buckets) {
         this.sender = checkNotNull(sender);
         this.digest = ImmutableMap.copyOf(checkNotNull(digest));
+        this.buckets = buckets;
     }
 
     /**
@@ -62,11 +78,21 @@ public class AntiEntropyAdvertisement<K> {
         return digest;
     }
 
+    /**
+     * Returns the digest buckets covered by this advertisement.
+     *
+     * @return indices of the digest buckets, or null if all entries are covered
+     */
+    public int[] buckets() {
+        return buckets;
+    }
+
     @Override
     public String toString() {
         return MoreObjects.toStringHelper(getClass())
                 .add("sender", sender)
                 .add("totalEntries", digest.size())
+                .add("buckets", buckets == null ? null : buckets.length)
                 .toString();
     }
 }
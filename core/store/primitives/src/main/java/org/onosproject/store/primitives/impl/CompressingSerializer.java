@@ -0,0 +1,128 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.primitives.impl;
+
+import org.onlab.util.KryoNamespace;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Serializer that deflates the encoded form of objects large enough to
+ * benefit from it. The first byte of the encoded form tells whether the
+ * remainder is deflated, in which case it is preceded by its inflated length.
+ */
+final class CompressingSerializer {
+
+    /**
+     * Encoded size from which objects are deflated.
+     */
+    static final int COMPRESSION_THRESHOLD = 1024;
+
+    private static final byte PLAIN = 0;
+    private static final byte DEFLATED = 1;
+    private static final int DEFLATED_HEADER = 1 + Integer.BYTES;
+
+    private static final ThreadLocal<Deflater> DEFLATERS =
+            ThreadLocal.withInitial(() -> new Deflater(Deflater.BEST_SPEED));
+    private static final ThreadLocal<Inflater> INFLATERS = ThreadLocal.withInitial(Inflater::new);
+
+    private final KryoNamespace namespace;
+
+    /**
+     * Creates a serializer.
+     *
+     * @param namespace namespace of the serialized objects
+     */
+    CompressingSerializer(KryoNamespace namespace) {
+        this.namespace = namespace;
+    }
+
+    /**
+     * Serializes an object, deflating it if large enough.
+     *
+     * @param object object to serialize
+     * @return encoded object
+     */
+    byte[] encode(Object object) {
+        byte[][] encoded = new byte[1][];
+        namespace.serialize(object, (buffer, length) -> encoded[0] = length < COMPRESSION_THRESHOLD
+                ? plain(buffer, length) : deflate(buffer, length));
+        return encoded[0];
+    }
+
+    /**
+     * Deserializes an object encoded by {@link #encode(Object)}.
+     *
+     * @param bytes encoded object
+     * @param <T> object type
+     * @return deserialized object
+     */
+    <T> T decode(byte[] bytes) {
+        checkArgument(bytes.length > 0, "Empty encoding");
+        if (bytes[0] == PLAIN) {
+            return namespace.deserialize(ByteBuffer.wrap(bytes, 1, bytes.length - 1).slice());
+        }
+        checkArgument(bytes[0] == DEFLATED && bytes.length > DEFLATED_HEADER, "Unknown encoding");
+        return namespace.deserialize(inflate(bytes));
+    }
+
+    private static byte[] plain(byte[] buffer, int length) {
+        byte[] bytes = new byte[length + 1];
+        bytes[0] = PLAIN;
+        System.arraycopy(buffer, 0, bytes, 1, length);
+        return bytes;
+    }
+
+    private static byte[] deflate(byte[] buffer, int length) {
+        Deflater deflater = DEFLATERS.get();
+        try {
+            deflater.setInput(buffer, 0, length);
+            deflater.finish();
+            // Only worth it if the deflated form is smaller than the plain one
+            byte[] bytes = new byte[length];
+            int deflated = deflater.deflate(bytes, DEFLATED_HEADER, length - DEFLATED_HEADER);
+            if (!deflater.finished()) {
+                return plain(buffer, length);
+            }
+            ByteBuffer.wrap(bytes).put(DEFLATED).putInt(length);
+            return Arrays.copyOf(bytes, DEFLATED_HEADER + deflated);
+        } finally {
+            deflater.reset();
+        }
+    }
+
+    private static byte[] inflate(byte[] bytes) {
+        int length = ByteBuffer.wrap(bytes, 1, Integer.BYTES).getInt();
+        byte[] inflated = new byte[length];
+        Inflater inflater = INFLATERS.get();
+        try {
+            inflater.setInput(bytes, DEFLATED_HEADER, bytes.length - DEFLATED_HEADER);
+            int read = inflater.inflate(inflated);
+            checkArgument(read == length && inflater.finished(), "Truncated encoding");
+            return inflated;
+        } catch (DataFormatException e) {
+            throw new IllegalArgumentException("Corrupt encoding", e);
+        } finally {
+            inflater.reset();
+        }
+    }
+}
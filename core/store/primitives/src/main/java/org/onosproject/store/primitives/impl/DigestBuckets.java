@@ -0,0 +1,145 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.primitives.impl;
+
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import org.onlab.util.KryoNamespace;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Hashes of the entries of an eventually consistent map, summed into a fixed
+ * number of buckets by key. The sums are kept up to date as entries change,
+ * so that two replicas can tell which buckets they differ in by exchanging
+ * the bucket hashes alone, rather than the digest of every entry.
+ * <p>
+ * Hashes are computed over the serialized form of keys and timestamps, so
+ * that they agree across instances.
+ */
+final class DigestBuckets {
+
+    /**
+     * Number of buckets the entries are spread across.
+     */
+    static final int BUCKETS = 1024;
+
+    private static final HashFunction HASH = Hashing.murmur3_128();
+    private static final long GOLDEN_RATIO = 0x9E3779B97F4A7C15L;
+
+    private final KryoNamespace serializer;
+    private final AtomicLongArray hashes = new AtomicLongArray(BUCKETS);
+
+    /**
+     * Creates empty digest buckets.
+     *
+     * @param serializer serializer of the keys and timestamps of the map
+     */
+    DigestBuckets(KryoNamespace serializer) {
+        this.serializer = serializer;
+    }
+
+    /**
+     * Returns the hash of a key, which also determines its bucket.
+     *
+     * @param key map key
+     * @return key hash
+     */
+    long keyHash(Object key) {
+        return hash(key);
+    }
+
+    /**
+     * Returns the bucket of the key with the given hash.
+     *
+     * @param keyHash key hash
+     * @return bucket index
+     */
+    static int bucket(long keyHash) {
+        return (int) Math.floorMod(keyHash, (long) BUCKETS);
+    }
+
+    /**
+     * Accounts for the value of a key being replaced.
+     *
+     * @param keyHash  key hash
+     * @param oldValue previous value or null if there was none
+     * @param newValue new value or null if the key was removed
+     */
+    void update(long keyHash, MapValue<?> oldValue, MapValue<?> newValue) {
+        long delta = 0;
+        if (oldValue != null) {
+            delta -= entryHash(keyHash, oldValue);
+        }
+        if (newValue != null) {
+            delta += entryHash(keyHash, newValue);
+        }
+        if (delta != 0) {
+            hashes.addAndGet(bucket(keyHash), delta);
+        }
+    }
+
+    /**
+     * Returns a snapshot of the bucket hashes.
+     *
+     * @return bucket hashes
+     */
+    long[] hashes() {
+        long[] snapshot = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = hashes.get(i);
+        }
+        return snapshot;
+    }
+
+    /**
+     * Returns the buckets whose hash differs from the given ones.
+     *
+     * @param remote bucket hashes of another replica
+     * @return indices of the differing buckets, in increasing order
+     */
+    int[] differingBuckets(long[] remote) {
+        if (remote.length != BUCKETS) {
+            // not comparable, everything needs to be checked
+            int[] all = new int[BUCKETS];
+            Arrays.setAll(all, i -> i);
+            return all;
+        }
+        int[] differing = new int[BUCKETS];
+        int count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            if (hashes.get(i) != remote[i]) {
+                differing[count++] = i;
+            }
+        }
+        return Arrays.copyOf(differing, count);
+    }
+
+    private long entryHash(long keyHash, MapValue<?> value) {
+        long timestampHash = hash(value.timestamp());
+        if (value.isTombstone()) {
+            timestampHash = ~timestampHash;
+        }
+        return keyHash ^ (timestampHash * GOLDEN_RATIO);
+    }
+
+    private long hash(Object object) {
+        long[] hash = new long[1];
+        serializer.serialize(object, (bytes, length) -> hash[0] = HASH.hashBytes(bytes, 0, length).asLong());
+        return hash[0];
+    }
+}
@@ -53,6 +53,9 @@ public class EventuallyConsistentMapBuilderImpl<K, V>
     private long antiEntropyPeriod = 5;
     private TimeUnit antiEntropyTimeUnit = TimeUnit.SECONDS;
     private boolean convergeFaster = false;
+    private boolean bucketedAntiEntropy = false;
+    private int maxBatchSize = 1000;
+    private long maxBatchDelayMillis = 50;
     private boolean persistent = false;
     private boolean persistentMap = false;
     private final PersistenceService persistenceService;
@@ -144,6 +147,22 @@ public class EventuallyConsistentMapBuilderImpl<K, V>
         return this;
     }
 
+    @Override
+    public EventuallyConsistentMapBuilder<K, V> withBucketedAntiEntropy() {
+        bucketedAntiEntropy = true;
+        return this;
+    }
+
+    @Override
+    public EventuallyConsistentMapBuilder<K, V> withUpdateBatching(int maxBatchSize, long maxBatchDelay,
+                                                                   TimeUnit unit) {
+        checkArgument(maxBatchSize > 1, "batch size must be greater than 1");
+        checkArgument(maxBatchDelay > 0, "batch delay must be greater than 0");
+        this.maxBatchSize = maxBatchSize;
+        this.maxBatchDelayMillis = Math.max(checkNotNull(unit).toMillis(maxBatchDelay), 1);
+        return this;
+    }
+
     @Override
     public EventuallyConsistentMapBuilder<K, V> withPersistence() {
         checkNotNull(this.persistenceService);
@@ -173,7 +192,9 @@ public class EventuallyConsistentMapBuilderImpl<K, V>
                                                  antiEntropyPeriod,
                                                  antiEntropyTimeUnit,
                                                  convergeFaster,
-                                                 persistent,
-                                                 persistenceService);
+                                                 bucketedAntiEntropy,
+                                                 maxBatchSize,
+                                                 maxBatchDelayMillis,
+                                                 persistent ? persistenceService : null);
     }
 }
@@ -22,7 +22,6 @@ import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 import org.apache.commons.lang3.tuple.Pair;
-import org.onlab.util.AbstractAccumulator;
 import org.onlab.util.KryoNamespace;
 import org.onlab.util.SlidingWindowCounter;
 import org.onosproject.cluster.ClusterService;
@@ -42,6 +41,7 @@ import org.onosproject.store.service.WallClockTimestamp;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
@@ -51,6 +51,7 @@ import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.Timer;
+import java.util.TimerTask;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -83,13 +84,16 @@ public class EventuallyConsistentMapImpl<K, V>
     private final ClusterService clusterService;
     private final ClusterCommunicationService clusterCommunicator;
     private final StoreSerializer serializer;
+    private final CompressingSerializer updateSerializer;
     private final NodeId localNodeId;
     private final PersistenceService persistenceService;
 
     private final BiFunction<K, V, Timestamp> timestampProvider;
 
     private final MessageSubject updateMessageSubject;
+    private final MessageSubject acknowledgedUpdateSubject;
     private final MessageSubject antiEntropyAdvertisementSubject;
+    private final MessageSubject antiEntropyBucketsSubject;
     private final MessageSubject updateRequestSubject;
 
     private final Set<EventuallyConsistentMapListener<K, V>> listeners
@@ -101,9 +105,12 @@ public class EventuallyConsistentMapImpl<K, V>
 
     private final ExecutorService communicationExecutor;
     private final Map<NodeId, EventAccumulator> senderPending;
+    private final int maxBatchSize;
+    private final long maxBatchMillis;
 
     private long previousTombstonePurgeTime;
     private final Map<NodeId, Long> antiEntropyTimes = Maps.newConcurrentMap();
+    private final Map<K, TombstoneAcks> tombstoneAcks = Maps.newConcurrentMap();
 
     private final String mapName;
 
@@ -117,6 +124,7 @@ public class EventuallyConsistentMapImpl<K, V>
     private final long initialDelaySec = 5;
     private final boolean lightweightAntiEntropy;
     private final boolean tombstonesDisabled;
+    private final DigestBuckets digestBuckets;
 
     private static final int WINDOW_SIZE = 5;
     private static final int HIGH_LOAD_THRESHOLD = 2;
@@ -153,9 +161,16 @@ public class EventuallyConsistentMapImpl<K, V>
      * @param antiEntropyPeriod     period that the anti-entropy task should run
      * @param antiEntropyTimeUnit   time unit for anti-entropy period
      * @param convergeFaster        make anti-entropy try to converge faster
-     * @param persistent            persist data to disk
-     * @param persistenceService    persistence service
+     * @param bucketedAntiEntropy   compare digest buckets before entry digests
+     *                              during anti-entropy
+     * @param maxBatchSize          maximum number of keys in a batch of updates
+     *                              sent to a peer
+     * @param maxBatchMillis        maximum time in millis an update is held
+     *                              back to be batched
+     * @param persistenceService    persistence service to persist data to
+     *                              disk with, or null
      */
+    // CHECKSTYLE IGNORE ParameterNumber FOR NEXT 1 LINES
     EventuallyConsistentMapImpl(String mapName,
                                 ClusterService clusterService,
                                 ClusterCommunicationService clusterCommunicator,
@@ -169,14 +184,17 @@ public class EventuallyConsistentMapImpl<K, V>
                                 long antiEntropyPeriod,
                                 TimeUnit antiEntropyTimeUnit,
                                 boolean convergeFaster,
-                                boolean persistent,
+                                boolean bucketedAntiEntropy,
+                                int maxBatchSize,
+                                long maxBatchMillis,
                                 PersistenceService persistenceService) {
         this.mapName = mapName;
-        this.serializer = createSerializer(ns);
+        KryoNamespace namespace = createNamespace(ns);
+        this.serializer = StoreSerializer.using(namespace);
+        this.updateSerializer = new CompressingSerializer(namespace);
         this.persistenceService = persistenceService;
-        this.persistent =
-                persistent;
-        if (persistent) {
+        this.persistent = persistenceService != null;
+        if (this.persistent) {
             items = this.persistenceService.<K, MapValue<V>>persistentMapBuilder()
                     .withName(PERSISTENT_LOCAL_MAP_NAME)
                     .withSerializer(this.serializer)
@@ -184,7 +202,15 @@ public class EventuallyConsistentMapImpl<K, V>
         } else {
             items = Maps.newConcurrentMap();
         }
+        if (bucketedAntiEntropy) {
+            digestBuckets = new DigestBuckets(namespace);
+            items.forEach((key, value) -> updateDigest(keyHash(key), null, value));
+        } else {
+            digestBuckets = null;
+        }
         senderPending = Maps.newConcurrentMap();
+        this.maxBatchSize = maxBatchSize;
+        this.maxBatchMillis = maxBatchMillis;
         destroyedMessage = mapName + ERROR_DESTROYED;
 
         this.clusterService = clusterService;
@@ -234,10 +260,17 @@ public class EventuallyConsistentMapImpl<K, V>
 
         updateMessageSubject = new MessageSubject("ecm-" + mapName + "-update");
         clusterCommunicator.addSubscriber(updateMessageSubject,
-                                          serializer::decode,
+                                          updateSerializer::decode,
                                           this::processUpdates,
                                           this.executor);
 
+        acknowledgedUpdateSubject = new MessageSubject("ecm-" + mapName + "-acknowledged-update");
+        clusterCommunicator.addSubscriber(acknowledgedUpdateSubject,
+                                          updateSerializer::decode,
+                                          this::acknowledgeUpdates,
+                                          serializer::encode,
+                                          this.executor);
+
         antiEntropyAdvertisementSubject = new MessageSubject("ecm-" + mapName + "-anti-entropy");
         clusterCommunicator.addSubscriber(antiEntropyAdvertisementSubject,
                                           serializer::decode,
@@ -245,6 +278,15 @@ public class EventuallyConsistentMapImpl<K, V>
                                           serializer::encode,
                                           this.backgroundExecutor);
 
+        antiEntropyBucketsSubject = new MessageSubject("ecm-" + mapName + "-anti-entropy-buckets");
+        if (digestBuckets != null) {
+            clusterCommunicator.addSubscriber(antiEntropyBucketsSubject,
+                                              serializer::decode,
+                                              this::handleBucketAdvertisement,
+                                              serializer::encode,
+                                              this.backgroundExecutor);
+        }
+
         updateRequestSubject = new MessageSubject("ecm-" + mapName + "-update-request");
         clusterCommunicator.addSubscriber(updateRequestSubject,
                                           serializer::decode,
@@ -266,8 +308,8 @@ public class EventuallyConsistentMapImpl<K, V>
         this.bootstrap();
     }
 
-    private StoreSerializer createSerializer(KryoNamespace ns) {
-        return StoreSerializer.using(KryoNamespace.newBuilder()
+    private KryoNamespace createNamespace(KryoNamespace ns) {
+        return KryoNamespace.newBuilder()
                          .register(ns)
                          // not so robust way to avoid collision with other
                          // user supplied registrations
@@ -281,7 +323,8 @@ public class EventuallyConsistentMapImpl<K, V>
                          .register(MapValue.class)
                          .register(MapValue.Digest.class)
                          .register(UpdateRequest.class)
-                         .build(name() + "-ecmap"));
+                         .register(AntiEntropyBucketAdvertisement.class)
+                         .build(name() + "-ecmap");
     }
 
     @Override
@@ -378,6 +421,8 @@ public class EventuallyConsistentMapImpl<K, V>
         tombstone.ifPresent(v -> checkState(v.isTombstone()));
 
         counter.incrementCount();
+        long keyHash = keyHash(key);
+        tombstone.ifPresent(v -> v.keyHash(keyHash));
         AtomicBoolean updated = new AtomicBoolean(false);
         AtomicReference<MapValue<V>> previousValue = new AtomicReference<>();
         items.compute(key, (k, existing) -> {
@@ -402,6 +447,9 @@ public class EventuallyConsistentMapImpl<K, V>
                 return existing;
             }
         });
+        if (updated.get()) {
+            updateDigest(keyHash, previousValue.get(), tombstone.orElse(null));
+        }
         return previousValue.get();
     }
 
@@ -411,6 +459,7 @@ public class EventuallyConsistentMapImpl<K, V>
         checkNotNull(key, ERROR_NULL_KEY);
         checkNotNull(recomputeFunction, "Recompute function cannot be null");
 
+        long keyHash = keyHash(key);
         AtomicBoolean updated = new AtomicBoolean(false);
         AtomicReference<MapValue<V>> previousValue = new AtomicReference<>();
         MapValue<V> computedValue = items.compute(serializer.copy(key), (k, mv) -> {
@@ -425,12 +474,13 @@ public class EventuallyConsistentMapImpl<K, V>
                 updated.set(true);
                 // We return a copy to ensure updates to peers can be serialized.
                 // This prevents replica divergence due to serialization failures.
-                return serializer.copy(newValue);
+                return serializer.copy(newValue).keyHash(keyHash);
             } else {
                 return mv;
             }
         });
         if (updated.get()) {
+            updateDigest(keyHash, previousValue.get(), computedValue);
             notifyPeers(new UpdateEntry<>(key, computedValue), peerUpdateFunction.apply(key, computedValue.get()));
             EventuallyConsistentMapEvent.Type updateType = computedValue.isTombstone() ? REMOVE : PUT;
             V value = computedValue.isTombstone()
@@ -492,17 +542,42 @@ public class EventuallyConsistentMapImpl<K, V>
         checkNotNull(newValue, ERROR_NULL_VALUE);
         checkState(newValue.isAlive());
         counter.incrementCount();
+        long keyHash = keyHash(key);
+        newValue.keyHash(keyHash);
         AtomicBoolean updated = new AtomicBoolean(false);
+        AtomicReference<MapValue<V>> previousValue = new AtomicReference<>();
         items.compute(key, (k, existing) -> {
             if (existing == null || newValue.isNewerThan(existing)) {
                 updated.set(true);
+                previousValue.set(existing);
                 return newValue;
             }
             return existing;
         });
+        if (updated.get()) {
+            updateDigest(keyHash, previousValue.get(), newValue);
+        }
         return updated.get();
     }
 
+    // Returns the hash of a key, if the map maintains digest buckets
+    private long keyHash(K key) {
+        return digestBuckets == null ? 0 : digestBuckets.keyHash(key);
+    }
+
+    // Returns the hash of the key of a stored value; values read back from
+    // a persistent map do not carry it
+    private long keyHash(K key, MapValue<V> value) {
+        return value.keyHash() != 0 ? value.keyHash() : keyHash(key);
+    }
+
+    // Accounts for a change of the value of a key in the digest buckets
+    private void updateDigest(long keyHash, MapValue<V> oldValue, MapValue<V> newValue) {
+        if (digestBuckets != null) {
+            digestBuckets.update(keyHash, oldValue, newValue);
+        }
+    }
+
     @Override
     public void addListener(EventuallyConsistentMapListener<K, V> listener) {
         checkState(!destroyed, destroyedMessage);
@@ -528,8 +603,12 @@ public class EventuallyConsistentMapImpl<K, V>
         listeners.clear();
 
         clusterCommunicator.removeSubscriber(updateMessageSubject);
+        clusterCommunicator.removeSubscriber(acknowledgedUpdateSubject);
         clusterCommunicator.removeSubscriber(updateRequestSubject);
         clusterCommunicator.removeSubscriber(antiEntropyAdvertisementSubject);
+        if (digestBuckets != null) {
+            clusterCommunicator.removeSubscriber(antiEntropyBucketsSubject);
+        }
         return CompletableFuture.completedFuture(null);
     }
 
@@ -580,7 +659,40 @@ public class EventuallyConsistentMapImpl<K, V>
 
     private void sendAdvertisementToPeer(NodeId peer) {
         long adCreationTime = System.currentTimeMillis();
-        AntiEntropyAdvertisement<K> ad = createAdvertisement();
+        if (digestBuckets != null) {
+            sendBucketAdvertisementToPeer(peer, adCreationTime);
+        } else {
+            sendAdvertisementToPeer(peer, createAdvertisement(), adCreationTime);
+        }
+    }
+
+    /**
+     * Sends the digest bucket hashes to a peer, followed by the entry digests
+     * of the buckets the peer reports to differ in, if any.
+     */
+    private void sendBucketAdvertisementToPeer(NodeId peer, long adCreationTime) {
+        AntiEntropyBucketAdvertisement ad = new AntiEntropyBucketAdvertisement(localNodeId, digestBuckets.hashes());
+        clusterCommunicator.<AntiEntropyBucketAdvertisement, int[]>sendAndReceive(ad,
+                antiEntropyBucketsSubject,
+                serializer::encode,
+                serializer::decode,
+                peer)
+                .whenCompleteAsync((buckets, error) -> {
+                    if (error != null) {
+                        log.debug("Failed to send anti-entropy bucket advertisement to {}: {}",
+                                peer, error.getMessage());
+                    } else if (buckets == null) {
+                        log.trace("Anti-entropy bucket advertisement ignored by {}", peer);
+                    } else if (buckets.length == 0) {
+                        // replicas are in sync
+                        antiEntropyTimes.put(peer, adCreationTime);
+                    } else {
+                        sendAdvertisementToPeer(peer, createAdvertisement(buckets), adCreationTime);
+                    }
+                }, backgroundExecutor);
+    }
+
+    private void sendAdvertisementToPeer(NodeId peer, AntiEntropyAdvertisement<K> ad, long adCreationTime) {
         clusterCommunicator.sendAndReceive(ad,
                 antiEntropyAdvertisementSubject,
                 serializer::encode,
@@ -615,6 +727,32 @@ public class EventuallyConsistentMapImpl<K, V>
                 ImmutableMap.copyOf(Maps.transformValues(items, MapValue::digest)));
     }
 
+    private AntiEntropyAdvertisement<K> createAdvertisement(int[] buckets) {
+        BitSet selected = bitSet(buckets);
+        Map<K, MapValue.Digest> digest = Maps.newHashMap();
+        items.forEach((key, value) -> {
+            if (selected.get(DigestBuckets.bucket(keyHash(key, value)))) {
+                digest.put(key, value.digest());
+            }
+        });
+        return new AntiEntropyAdvertisement<>(localNodeId, digest, buckets);
+    }
+
+    private static BitSet bitSet(int[] buckets) {
+        BitSet bitSet = new BitSet(DigestBuckets.BUCKETS);
+        for (int bucket : buckets) {
+            bitSet.set(bucket);
+        }
+        return bitSet;
+    }
+
+    private int[] handleBucketAdvertisement(AntiEntropyBucketAdvertisement ad) {
+        if (destroyed || underHighLoad()) {
+            return null;
+        }
+        return digestBuckets.differingBuckets(ad.hashes());
+    }
+
     private AntiEntropyResponse handleAntiEntropyAdvertisement(AntiEntropyAdvertisement<K> ad) {
         if (destroyed || underHighLoad()) {
             return AntiEntropyResponse.IGNORED;
@@ -645,8 +783,13 @@ public class EventuallyConsistentMapImpl<K, V>
         final List<NodeId> peers = ImmutableList.of(sender);
         Set<K> staleOrMissing = new HashSet<>();
         Set<K> locallyUnknown = new HashSet<>(ad.digest().keySet());
+        // only the entries of the advertised buckets are compared
+        BitSet buckets = ad.buckets() == null || digestBuckets == null ? null : bitSet(ad.buckets());
 
         items.forEach((key, localValue) -> {
+            if (buckets != null && !buckets.get(DigestBuckets.bucket(keyHash(key, localValue)))) {
+                return;
+            }
             locallyUnknown.remove(key);
             MapValue.Digest remoteValueDigest = ad.digest().get(key);
             if (remoteValueDigest == null || localValue.isNewerThan(remoteValueDigest.timestamp())) {
@@ -686,6 +829,7 @@ public class EventuallyConsistentMapImpl<K, V>
     }
 
     private void purgeTombstones() {
+        purgeAcknowledgedTombstones();
         /*
          * In order to mitigate the resource exhaustion that can ensue due to an ever-growing set
          * of tombstones we employ the following heuristic to purge old tombstones periodically.
@@ -709,7 +853,56 @@ public class EventuallyConsistentMapImpl<K, V>
                                           .filter(e -> e.getValue().creationTime() <= currentSafeTombstonePurgeTime)
                                           .collect(Collectors.toList());
         previousTombstonePurgeTime = currentSafeTombstonePurgeTime;
-        tombStonesToDelete.forEach(entry -> items.remove(entry.getKey(), entry.getValue()));
+        tombStonesToDelete.forEach(entry -> {
+            if (items.remove(entry.getKey(), entry.getValue())) {
+                updateDigest(keyHash(entry.getKey(), entry.getValue()), entry.getValue(), null);
+            }
+        });
+    }
+
+    private void purgeAcknowledgedTombstones() {
+        /*
+         * Tombstones this instance sent are purged as soon as every peer has acknowledged them,
+         * without waiting for anti-entropy with all peers to have succeeded since they were created.
+         */
+        Set<NodeId> peers = clusterService.getNodes()
+                                          .stream()
+                                          .map(ControllerNode::id)
+                                          .filter(id -> !id.equals(localNodeId))
+                                          .collect(Collectors.toSet());
+        tombstoneAcks.forEach((key, acks) -> {
+            MapValue<V> value = items.get(key);
+            if (value == null || !value.isTombstone() || !value.timestamp().equals(acks.timestamp)) {
+                tombstoneAcks.remove(key, acks);
+            } else if (acks.peers.containsAll(peers)) {
+                if (items.remove(key, value)) {
+                    updateDigest(keyHash(key, value), value, null);
+                }
+                tombstoneAcks.remove(key, acks);
+            }
+        });
+    }
+
+    private void tombstonesAcknowledged(NodeId peer, Collection<UpdateEntry<K, V>> updates) {
+        updates.stream()
+               .filter(update -> update.value() != null && update.value().isTombstone())
+               .forEach(update -> tombstoneAcks.compute(update.key(), (key, acks) -> {
+                   MapValue<V> value = items.get(key);
+                   Timestamp timestamp = update.value().timestamp();
+                   if (value == null || !value.isTombstone() || !value.timestamp().equals(timestamp)) {
+                       return acks;
+                   }
+                   if (acks == null || !acks.timestamp.equals(timestamp)) {
+                       acks = new TombstoneAcks(timestamp);
+                   }
+                   acks.peers.add(peer);
+                   return acks;
+               }));
+    }
+
+    private Void acknowledgeUpdates(Collection<UpdateEntry<K, V>> updates) {
+        processUpdates(updates);
+        return null;
     }
 
     private void processUpdates(Collection<UpdateEntry<K, V>> updates) {
@@ -759,37 +952,101 @@ public class EventuallyConsistentMapImpl<K, V>
         }
     }
 
-    // TODO pull this into the class if this gets pulled out...
-    private static final int DEFAULT_MAX_EVENTS = 1000;
-    private static final int DEFAULT_MAX_IDLE_MS = 10;
-    private static final int DEFAULT_MAX_BATCH_MS = 50;
     private static final Timer TIMER = new Timer("onos-ecm-sender-events");
 
-    private final class EventAccumulator extends AbstractAccumulator<UpdateEntry<K, V>> {
+    /**
+     * Peers that acknowledged receiving the tombstone of a key.
+     */
+    private static final class TombstoneAcks {
+        private final Timestamp timestamp;
+        private final Set<NodeId> peers = Sets.newConcurrentHashSet();
+
+        private TombstoneAcks(Timestamp timestamp) {
+            this.timestamp = timestamp;
+        }
+    }
+
+    /**
+     * Buffer of the updates pending for a peer. Only the most recent update
+     * of each key is kept, and the buffer is flushed once it holds updates
+     * for the maximum number of keys, once the maximum batch delay has
+     * elapsed since its first update, or once no update came for a fifth
+     * of that delay.
+     */
+    private final class EventAccumulator {
 
         private final NodeId peer;
+        private final long maxIdleMillis = Math.max(maxBatchMillis / 5, 1);
+
+        private Map<K, UpdateEntry<K, V>> pending = Maps.newLinkedHashMap();
+        private long batchDeadline;
+        private TimerTask flushTask;
 
         private EventAccumulator(NodeId peer) {
-            super(TIMER, DEFAULT_MAX_EVENTS, DEFAULT_MAX_BATCH_MS, DEFAULT_MAX_IDLE_MS);
             this.peer = peer;
         }
 
-        @Override
-        public void processItems(List<UpdateEntry<K, V>> items) {
-            Map<K, UpdateEntry<K, V>> map = Maps.newHashMap();
-            items.forEach(item -> map.compute(item.key(), (key, existing) ->
-                    item.isNewerThan(existing) ? item : existing));
-            communicationExecutor.execute(() -> {
-                clusterCommunicator.unicast(ImmutableList.copyOf(map.values()),
-                                            updateMessageSubject,
-                                            serializer::encode,
-                                            peer)
+        private synchronized void add(UpdateEntry<K, V> update) {
+            long now = System.currentTimeMillis();
+            if (pending.isEmpty()) {
+                batchDeadline = now + maxBatchMillis;
+            }
+            pending.merge(update.key(), update, (existing, item) -> item.isNewerThan(existing) ? item : existing);
+            if (flushTask != null) {
+                flushTask.cancel();
+            }
+            if (pending.size() >= maxBatchSize) {
+                flush();
+            } else {
+                flushTask = new FlushTask();
+                TIMER.schedule(flushTask, Math.max(Math.min(maxIdleMillis, batchDeadline - now), 0));
+            }
+        }
+
+        private synchronized void flush() {
+            List<UpdateEntry<K, V>> batch = ImmutableList.copyOf(pending.values());
+            pending = Maps.newLinkedHashMap();
+            flushTask = null;
+            if (!batch.isEmpty()) {
+                communicationExecutor.execute(() -> send(batch));
+            }
+        }
+
+        private void send(List<UpdateEntry<K, V>> batch) {
+            boolean tombstones = batch.stream().anyMatch(u -> u.value() != null && u.value().isTombstone());
+            if (!tombstones) {
+                clusterCommunicator.unicast(batch, updateMessageSubject, updateSerializer::encode, peer)
                                    .whenComplete((result, error) -> {
                                        if (error != null) {
                                            log.debug("Failed to send to {}", peer, error);
                                        }
                                    });
-            });
+                return;
+            }
+            // Acknowledged so that the tombstones can be purged once all peers have them
+            clusterCommunicator.<List<UpdateEntry<K, V>>, Void>sendAndReceive(batch,
+                                                                             acknowledgedUpdateSubject,
+                                                                             updateSerializer::encode,
+                                                                             serializer::decode,
+                                                                             peer)
+                               .whenComplete((result, error) -> {
+                                   if (error != null) {
+                                       log.debug("Failed to send to {}", peer, error);
+                                   } else {
+                                       tombstonesAcknowledged(peer, batch);
+                                   }
+                               });
+        }
+
+        private final class FlushTask extends TimerTask {
+            @Override
+            public void run() {
+                synchronized (EventAccumulator.this) {
+                    if (flushTask == this) {
+                        flush();
+                    }
+                }
+            }
         }
     }
 }
@@ -31,6 +31,8 @@ public class MapValue<V> implements Comparable<MapValue<V>> {
     private final Timestamp timestamp;
     private final V value;
     private long creationTime;
+    // Hash of the key, when the map maintains digest buckets
+    private transient long keyHash;
 
     /**
      * Creates a tombstone value with the specified timestamp.
@@ -123,6 +125,26 @@ public class MapValue<V> implements Comparable<MapValue<V>> {
         return creationTime;
     }
 
+    /**
+     * Returns the hash of the key this value is stored under.
+     *
+     * @return key hash, only set if the map maintains digest buckets
+     */
+    long keyHash() {
+        return keyHash;
+    }
+
+    /**
+     * Sets the hash of the key this value is stored under.
+     *
+     * @param keyHash key hash
+     * @return this value
+     */
+    MapValue<V> keyHash(long keyHash) {
+        this.keyHash = keyHash;
+        return this;
+    }
+
     /**
      * Tests if this value is newer than the specified MapValue.
      *
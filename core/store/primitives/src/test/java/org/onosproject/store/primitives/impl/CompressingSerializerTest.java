@@ -0,0 +1,68 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.primitives.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.Test;
+import org.onlab.util.KryoNamespace;
+import org.onosproject.store.serializers.KryoNamespaces;
+
+/**
+ * Unit tests for CompressingSerializer.
+ */
+public class CompressingSerializerTest {
+
+    private static final KryoNamespace NAMESPACE = KryoNamespace.newBuilder()
+            .register(KryoNamespaces.BASIC)
+            .build();
+
+    private final CompressingSerializer serializer = new CompressingSerializer(NAMESPACE);
+
+    @Test
+    public void testSmallObject() {
+        byte[] plain = NAMESPACE.serialize("value");
+        byte[] encoded = serializer.encode("value");
+
+        assertEquals(plain.length + 1, encoded.length);
+        assertEquals("value", serializer.decode(encoded));
+    }
+
+    @Test
+    public void testLargeObject() {
+        List<String> values = IntStream.range(0, 1000)
+                .mapToObj(i -> "value-" + (i % 10))
+                .collect(Collectors.toList());
+        byte[] plain = NAMESPACE.serialize(values);
+        byte[] encoded = serializer.encode(values);
+
+        assertTrue(plain.length >= CompressingSerializer.COMPRESSION_THRESHOLD);
+        assertTrue(encoded.length < plain.length / 4);
+        assertEquals(values, serializer.decode(encoded));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownEncoding() {
+        byte[] encoded = serializer.encode("value");
+        encoded[0] = 7;
+        serializer.decode(encoded);
+    }
+}
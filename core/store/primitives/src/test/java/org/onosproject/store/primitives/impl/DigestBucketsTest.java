@@ -0,0 +1,91 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.primitives.impl;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+import org.onlab.util.KryoNamespace;
+import org.onosproject.store.LogicalTimestamp;
+import org.onosproject.store.serializers.KryoNamespaces;
+
+/**
+ * Unit tests for DigestBuckets.
+ */
+public class DigestBucketsTest {
+
+    private static final KryoNamespace SERIALIZER = KryoNamespace.newBuilder()
+            .register(KryoNamespaces.BASIC)
+            .register(LogicalTimestamp.class)
+            .build();
+
+    private final DigestBuckets local = new DigestBuckets(SERIALIZER);
+    private final DigestBuckets remote = new DigestBuckets(SERIALIZER);
+
+    private static MapValue<String> value(String value, long timestamp) {
+        return new MapValue<>(value, new LogicalTimestamp(timestamp));
+    }
+
+    private static void put(DigestBuckets buckets, String key, MapValue<String> oldValue,
+                            MapValue<String> newValue) {
+        buckets.update(buckets.keyHash(key), oldValue, newValue);
+    }
+
+    @Test
+    public void testSameEntries() {
+        for (int i = 0; i < 100; i++) {
+            put(local, "key" + i, null, value("v" + i, i));
+        }
+        for (int i = 99; i >= 0; i--) {
+            put(remote, "key" + i, null, value("v" + i, i));
+        }
+        assertArrayEquals(local.hashes(), remote.hashes());
+        assertEquals(0, local.differingBuckets(remote.hashes()).length);
+    }
+
+    @Test
+    public void testDifferingEntry() {
+        put(local, "foo", null, value("a", 1));
+        put(remote, "foo", null, value("a", 1));
+        put(local, "bar", null, value("b", 1));
+        put(remote, "bar", null, value("b", 2));
+
+        int[] differing = local.differingBuckets(remote.hashes());
+        assertArrayEquals(new int[] {DigestBuckets.bucket(local.keyHash("bar"))}, differing);
+
+        // replacing the value restores the bucket
+        put(local, "bar", value("b", 1), value("b", 2));
+        assertEquals(0, local.differingBuckets(remote.hashes()).length);
+
+        // a tombstone with the same timestamp as a live value still differs
+        put(local, "bar", value("b", 2), MapValue.tombstone(new LogicalTimestamp(2)));
+        assertEquals(1, local.differingBuckets(remote.hashes()).length);
+
+        // removing the entries on both sides empties the buckets
+        put(local, "bar", MapValue.tombstone(new LogicalTimestamp(2)), null);
+        put(remote, "bar", value("b", 2), null);
+        put(local, "foo", value("a", 1), null);
+        put(remote, "foo", value("a", 1), null);
+        assertArrayEquals(new long[DigestBuckets.BUCKETS], local.hashes());
+        assertArrayEquals(new long[DigestBuckets.BUCKETS], remote.hashes());
+    }
+
+    @Test
+    public void testIncomparable() {
+        assertEquals(DigestBuckets.BUCKETS, local.differingBuckets(new long[1]).length);
+    }
+}
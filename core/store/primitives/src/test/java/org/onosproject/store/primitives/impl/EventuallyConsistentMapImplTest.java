@@ -29,6 +29,7 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
+import static org.onlab.junit.TestTools.assertAfter;
 
 import java.util.ArrayList;
 import java.util.Collection;
@@ -41,6 +42,8 @@ import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
@@ -49,6 +52,7 @@ import java.util.function.Function;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
+import org.onlab.junit.TestUtils;
 import org.onlab.packet.IpAddress;
 import org.onlab.util.KryoNamespace;
 import org.onosproject.cluster.ClusterService;
@@ -90,6 +94,10 @@ public class EventuallyConsistentMapImplTest {
             = new MessageSubject("ecm-" + MAP_NAME + "-anti-entropy");
     private static final MessageSubject UPDATE_REQUEST_SUBJECT
             = new MessageSubject("ecm-" + MAP_NAME + "-update-request");
+    private static final MessageSubject ACKNOWLEDGED_UPDATE_SUBJECT
+            = new MessageSubject("ecm-" + MAP_NAME + "-acknowledged-update");
+    private static final MessageSubject ANTI_ENTROPY_BUCKETS_SUBJECT
+            = new MessageSubject("ecm-" + MAP_NAME + "-anti-entropy-buckets");
 
     private static final String KEY1 = "one";
     private static final String KEY2 = "two";
@@ -125,7 +133,7 @@ public class EventuallyConsistentMapImplTest {
                                                           anyObject(Function.class),
                                                           anyObject(Function.class),
                                                           anyObject(Executor.class));
-        expectLastCall().andDelegateTo(new TestClusterCommunicationService()).times(1);
+        expectLastCall().andDelegateTo(new TestClusterCommunicationService()).times(2);
         clusterCommunicator.<Object>addSubscriber(anyObject(MessageSubject.class),
                 anyObject(Function.class), anyObject(Consumer.class), anyObject(Executor.class));
         expectLastCall().andDelegateTo(new TestClusterCommunicationService()).times(1);
@@ -630,9 +638,119 @@ public class EventuallyConsistentMapImplTest {
         return true;
     }
 
+    @Test
+    public void testUpdateBatching() throws Exception {
+        NodeId peer = new NodeId("peer");
+        ClusterService peerClusterService = createMock(ClusterService.class);
+        expect(peerClusterService.getLocalNode()).andReturn(self).anyTimes();
+        expect(peerClusterService.getNodes())
+                .andReturn(ImmutableSet.of(self, new DefaultControllerNode(peer, IpAddress.valueOf(2))))
+                .anyTimes();
+        expect(peerClusterService.getState(peer)).andReturn(ControllerNode.State.INACTIVE).anyTimes();
+        replay(peerClusterService);
+        BatchRecorder recorder = new BatchRecorder();
+
+        EventuallyConsistentMap<String, String> batchedMap = new EventuallyConsistentMapBuilderImpl<String, String>(
+                        peerClusterService, recorder, persistenceService)
+                .withName(MAP_NAME)
+                .withSerializer(KryoNamespace.newBuilder().register(KryoNamespaces.API).register(TestTimestamp.class))
+                .withTimestampProvider((k, v) -> clockService.getTimestamp(k, v))
+                .withCommunicationExecutor(MoreExecutors.newDirectExecutorService())
+                .withUpdateBatching(2, 1, TimeUnit.MINUTES)
+                .build();
+
+        // Updates of the same key are coalesced until the batch is full
+        batchedMap.put(KEY1, VALUE1);
+        batchedMap.put(KEY1, VALUE2);
+        batchedMap.put(KEY1, VALUE1);
+        assertTrue(recorder.batches.isEmpty());
+        batchedMap.put(KEY2, VALUE2);
+
+        assertEquals(1, recorder.batches.size());
+        assertEquals(UPDATE_MESSAGE_SUBJECT, recorder.subjects.get(0));
+        List<UpdateEntry<String, String>> batch = recorder.batches.get(0);
+        assertEquals(2, batch.size());
+        assertEquals(KEY1, batch.get(0).key());
+        assertEquals(VALUE1, batch.get(0).value().get());
+        assertEquals(KEY2, batch.get(1).key());
+
+        // Batches with tombstones are sent for acknowledgement
+        batchedMap.remove(KEY1);
+        batchedMap.remove(KEY2);
+
+        assertEquals(2, recorder.batches.size());
+        assertEquals(ACKNOWLEDGED_UPDATE_SUBJECT, recorder.subjects.get(1));
+        assertTrue(recorder.batches.get(1).get(0).value().isTombstone());
+
+        batchedMap.destroy();
+    }
+
+    @Test
+    public void testBucketedAntiEntropy() throws Exception {
+        ControllerNode peer = new DefaultControllerNode(new NodeId("peer"), IpAddress.valueOf(2));
+        LinkedCommunicationService localCommunicator = new LinkedCommunicationService();
+        LinkedCommunicationService peerCommunicator = new LinkedCommunicationService();
+        localCommunicator.peer = peerCommunicator;
+        peerCommunicator.peer = localCommunicator;
+        ScheduledExecutorService backgroundExecutor = Executors.newSingleThreadScheduledExecutor();
+
+        EventuallyConsistentMap<String, String> localMap =
+                bucketedMap(self, peer, localCommunicator, backgroundExecutor);
+        EventuallyConsistentMap<String, String> peerMap =
+                bucketedMap(peer, self, peerCommunicator, backgroundExecutor);
+
+        // Updates are not replicated, so the maps diverge
+        localMap.put(KEY1, VALUE1);
+        peerMap.put(KEY2, VALUE2);
+        assertNull(peerMap.get(KEY1));
+
+        // Differing buckets are followed by the digests of their entries
+        TestUtils.callMethod(localMap, "sendAdvertisementToPeer", NodeId.class, peer.id());
+        backgroundExecutor.submit(() -> { }).get();
+        assertTrue(localCommunicator.sent.contains(ANTI_ENTROPY_MESSAGE_SUBJECT));
+        assertAfter(500, () -> {
+            assertEquals(VALUE1, peerMap.get(KEY1));
+            assertEquals(VALUE2, localMap.get(KEY2));
+        });
+
+        // Matching buckets skip them
+        localCommunicator.sent.clear();
+        TestUtils.callMethod(localMap, "sendAdvertisementToPeer", NodeId.class, peer.id());
+        backgroundExecutor.submit(() -> { }).get();
+        assertEquals(ImmutableList.of(ANTI_ENTROPY_BUCKETS_SUBJECT), localCommunicator.sent);
+
+        localMap.destroy();
+        peerMap.destroy();
+        backgroundExecutor.shutdown();
+    }
+
+    private EventuallyConsistentMap<String, String> bucketedMap(ControllerNode local, ControllerNode peer,
+                                                                ClusterCommunicationService communicator,
+                                                                ScheduledExecutorService backgroundExecutor) {
+        // The peer is reported inactive so that anti-entropy only runs when a test asks for it
+        ClusterService nodeClusterService = createMock(ClusterService.class);
+        expect(nodeClusterService.getLocalNode()).andReturn(local).anyTimes();
+        expect(nodeClusterService.getNodes()).andReturn(ImmutableSet.of(local, peer)).anyTimes();
+        expect(nodeClusterService.getState(peer.id())).andReturn(ControllerNode.State.INACTIVE).anyTimes();
+        replay(nodeClusterService);
+
+        return new EventuallyConsistentMapBuilderImpl<String, String>(
+                        nodeClusterService, communicator, persistenceService)
+                .withName(MAP_NAME)
+                .withSerializer(KryoNamespace.newBuilder().register(KryoNamespaces.API).register(TestTimestamp.class))
+                .withTimestampProvider((k, v) -> clockService.getTimestamp(k, v))
+                .withPeerUpdateFunction((k, v) -> ImmutableList.of())
+                .withCommunicationExecutor(MoreExecutors.newDirectExecutorService())
+                .withBackgroundExecutor(backgroundExecutor)
+                .withBucketedAntiEntropy()
+                .withUpdateBatching(2, 1, TimeUnit.MILLISECONDS)
+                .build();
+    }
+
     @Test
     public void testDestroy() throws Exception {
         clusterCommunicator.removeSubscriber(UPDATE_MESSAGE_SUBJECT);
+        clusterCommunicator.removeSubscriber(ACKNOWLEDGED_UPDATE_SUBJECT);
         clusterCommunicator.removeSubscriber(UPDATE_REQUEST_SUBJECT);
         clusterCommunicator.removeSubscriber(ANTI_ENTROPY_MESSAGE_SUBJECT);
 
@@ -793,12 +911,98 @@ public class EventuallyConsistentMapImplTest {
                 Function<byte[], M> decoder, Function<M, R> handler, Function<R, byte[]> encoder, Executor executor) {
             if (subject.equals(ANTI_ENTROPY_MESSAGE_SUBJECT)) {
                 antiEntropyHandler = (Function<AntiEntropyAdvertisement<String>, AntiEntropyResponse>) handler;
-            } else {
+            } else if (!subject.equals(ACKNOWLEDGED_UPDATE_SUBJECT)) {
                 throw new RuntimeException("Unexpected message subject " + subject.toString());
             }
         }
     }
 
+    /**
+     * ClusterCommunicationService implementation that records the batches of
+     * updates sent to peers after decoding them.
+     */
+    private static final class BatchRecorder extends ClusterCommunicationServiceAdapter {
+
+        private final List<MessageSubject> subjects = new ArrayList<>();
+        private final List<List<UpdateEntry<String, String>>> batches = new ArrayList<>();
+        private Function<byte[], List<UpdateEntry<String, String>>> decoder;
+
+        @Override
+        public <M> void addSubscriber(MessageSubject subject,
+                Function<byte[], M> decoder, Consumer<M> handler,
+                Executor executor) {
+            if (subject.equals(UPDATE_MESSAGE_SUBJECT)) {
+                this.decoder = (Function<byte[], List<UpdateEntry<String, String>>>) decoder;
+            }
+        }
+
+        @Override
+        public <M> CompletableFuture<Void> unicast(M message, MessageSubject subject,
+                Function<M, byte[]> encoder, NodeId toNodeId) {
+            record(subject, encoder.apply(message));
+            return CompletableFuture.completedFuture(null);
+        }
+
+        @Override
+        public <M, R> CompletableFuture<R> sendAndReceive(M message, MessageSubject subject,
+                Function<M, byte[]> encoder, Function<byte[], R> decoder, NodeId toNodeId) {
+            record(subject, encoder.apply(message));
+            return CompletableFuture.completedFuture(null);
+        }
+
+        private void record(MessageSubject subject, byte[] payload) {
+            subjects.add(subject);
+            batches.add(decoder.apply(payload));
+        }
+    }
+
+    /**
+     * ClusterCommunicationService implementation that delivers the messages
+     * directly to the subscribers of a linked peer, and records the subjects
+     * of the messages sent.
+     */
+    private static final class LinkedCommunicationService extends ClusterCommunicationServiceAdapter {
+
+        private final Map<MessageSubject, Function<byte[], byte[]>> subscribers = new HashMap<>();
+        private final List<MessageSubject> sent = new ArrayList<>();
+        private LinkedCommunicationService peer;
+
+        @Override
+        public <M> void addSubscriber(MessageSubject subject,
+                Function<byte[], M> decoder, Consumer<M> handler,
+                Executor executor) {
+            subscribers.put(subject, payload -> {
+                handler.accept(decoder.apply(payload));
+                return null;
+            });
+        }
+
+        @Override
+        public <M, R> void addSubscriber(MessageSubject subject,
+                Function<byte[], M> decoder, Function<M, R> handler, Function<R, byte[]> encoder, Executor executor) {
+            subscribers.put(subject, payload -> encoder.apply(handler.apply(decoder.apply(payload))));
+        }
+
+        @Override
+        public <M> CompletableFuture<Void> unicast(M message, MessageSubject subject,
+                Function<M, byte[]> encoder, NodeId toNodeId) {
+            deliver(subject, encoder.apply(message));
+            return CompletableFuture.completedFuture(null);
+        }
+
+        @Override
+        public <M, R> CompletableFuture<R> sendAndReceive(M message, MessageSubject subject,
+                Function<M, byte[]> encoder, Function<byte[], R> decoder, NodeId toNodeId) {
+            byte[] reply = deliver(subject, encoder.apply(message));
+            return CompletableFuture.completedFuture(reply == null ? null : decoder.apply(reply));
+        }
+
+        private byte[] deliver(MessageSubject subject, byte[] payload) {
+            sent.add(subject);
+            return peer.subscribers.get(subject).apply(payload);
+        }
+    }
+
     /**
      * ClockService implementation that gives out timestamps based on a
      * sequential counter. This clock service enables more control over the
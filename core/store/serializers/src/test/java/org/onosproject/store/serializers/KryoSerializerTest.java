@@ -23,14 +23,17 @@ import com.google.common.testing.EqualsTester;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.BeforeClass;
+import org.junit.Ignore;
 import org.junit.Test;
 import org.onlab.packet.VlanId;
 import org.onlab.util.Bandwidth;
 import org.onlab.util.Frequency;
+import org.onlab.util.KryoNamespace;
 import org.onosproject.cluster.NodeId;
 import org.onosproject.cluster.RoleInfo;
 import org.onosproject.core.DefaultApplicationId;
 import org.onosproject.core.DefaultGroupId;
+import org.onosproject.core.IdGenerator;
 import org.onosproject.mastership.MastershipTerm;
 import org.onosproject.net.Annotations;
 import org.onosproject.net.ChannelSpacing;
@@ -61,7 +64,9 @@ import org.onosproject.net.flow.DefaultTrafficTreatment;
 import org.onosproject.net.flow.FlowId;
 import org.onosproject.net.flow.FlowRule;
 import org.onosproject.net.flow.FlowRuleBatchEntry;
+import org.onosproject.net.intent.Intent;
 import org.onosproject.net.intent.IntentId;
+import org.onosproject.net.intent.PointToPointIntent;
 import org.onosproject.net.resource.ResourceAllocation;
 import org.onosproject.net.resource.ResourceConsumerId;
 import org.onosproject.net.resource.Resources;
@@ -81,10 +86,15 @@ import org.onlab.packet.Ip4Prefix;
 import org.onlab.packet.Ip6Prefix;
 import org.onlab.packet.MacAddress;
 
+import java.lang.management.ManagementFactory;
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 
 import static java.util.Arrays.asList;
 import static org.junit.Assert.*;
@@ -426,6 +436,92 @@ public class KryoSerializerTest {
         assertAnnotationsEquals(copiedA12, A1_2);
     }
 
+    @Test
+    public void testPooledBuffers() {
+        KryoNamespace ns = KryoNamespaces.API;
+        List<ConnectPoint> large = new ArrayList<>();
+        for (int i = 0; i < 200_000; i++) {
+            large.add(new ConnectPoint(deviceId("of:" + i), portNumber(i)));
+        }
+
+        // larger than the pooled buffers, twice to go through the size estimate
+        for (int i = 0; i < 2; i++) {
+            byte[] bytes = ns.serialize(large);
+            assertTrue(bytes.length > KryoNamespace.MAX_POOLED_BUFFER_SIZE);
+            assertEquals(large, ns.deserialize(bytes));
+        }
+
+        ConnectPoint small = new ConnectPoint(DID1, P1);
+        assertEquals(small, ns.deserialize(ns.serialize(small)));
+
+        byte[][] copy = new byte[1][];
+        ns.serialize(small, (bytes, length) -> copy[0] = Arrays.copyOf(bytes, length));
+        assertArrayEquals(ns.serialize(small), copy[0]);
+        assertEquals(small, ns.deserialize(copy[0]));
+    }
+
+    /**
+     * Compares serialization to freshly allocated and to pooled buffers.
+     */
+    @Test
+    @Ignore("Benchmark")
+    public void serializationBenchmark() {
+        IdGenerator idGenerator = new AtomicLong()::incrementAndGet;
+        Intent.bindIdGenerator(idGenerator);
+        try {
+            Intent intent = PointToPointIntent.builder()
+                    .appId(new DefaultApplicationId(1, "foo"))
+                    .selector(DefaultTrafficSelector.emptySelector())
+                    .treatment(DefaultTrafficTreatment.emptyTreatment())
+                    .ingressPoint(CP1)
+                    .egressPoint(CP2)
+                    .build();
+            FlowRule flowRule = DefaultFlowRule.builder()
+                    .forDevice(DID1)
+                    .withSelector(DefaultTrafficSelector.builder().matchInPort(P1).build())
+                    .withTreatment(DefaultTrafficTreatment.builder().setOutput(P2).build())
+                    .withPriority(10)
+                    .fromApp(new DefaultApplicationId(1, "foo"))
+                    .makePermanent()
+                    .build();
+            Link link = DefaultLink.builder()
+                    .providerId(PID)
+                    .src(CP1)
+                    .dst(CP2)
+                    .type(Link.Type.DIRECT)
+                    .build();
+
+            for (Object sample : new Object[] {flowRule, DEV1, link, intent}) {
+                KryoNamespace ns = KryoNamespaces.API;
+                benchmark(sample, "fresh", obj -> ns.serialize(obj, KryoNamespace.DEFAULT_BUFFER_SIZE));
+                benchmark(sample, "pooled", ns::serialize);
+                benchmark(sample, "zero-copy", obj -> ns.serialize(obj, (bytes, length) -> { }));
+            }
+        } finally {
+            Intent.unbindIdGenerator(idGenerator);
+        }
+    }
+
+    private static void benchmark(Object sample, String mode, Consumer<Object> serialize) {
+        final int iterations = 1_000_000;
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+
+        for (int i = 0; i < iterations; i++) {
+            serialize.accept(sample);
+        }
+        long allocated = threads.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            serialize.accept(sample);
+        }
+        long elapsed = System.nanoTime() - start;
+        allocated = threads.getThreadAllocatedBytes(threadId) - allocated;
+        System.out.println(String.format("%s %s: %d ns/op, %d bytes/op", sample.getClass().getSimpleName(),
+                                         mode, elapsed / iterations, allocated / iterations));
+    }
+
     // code clone
     private static void assertAnnotationsEquals(Annotations actual, SparseAnnotations... annotations) {
         SparseAnnotations expected = DefaultAnnotations.builder().build();
@@ -20,16 +20,12 @@ import com.google.common.collect.HashMultimap;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Multimap;
 import com.google.common.collect.Multimaps;
-import com.googlecode.concurrenttrees.common.KeyValuePair;
-import com.googlecode.concurrenttrees.radix.node.concrete.DefaultByteArrayNodeFactory;
-import com.googlecode.concurrenttrees.radixinverted.ConcurrentInvertedRadixTree;
-import com.googlecode.concurrenttrees.radixinverted.InvertedRadixTree;
 import org.apache.felix.scr.annotations.Activate;
 import org.apache.felix.scr.annotations.Component;
 import org.apache.felix.scr.annotations.Service;
 import org.onlab.packet.IpAddress;
-import org.onlab.packet.IpPrefix;
 import org.onlab.packet.MacAddress;
+import org.onlab.util.PrefixTrie;
 import org.onosproject.incubator.net.routing.ResolvedRoute;
 import org.onosproject.incubator.net.routing.Route;
 import org.onosproject.incubator.net.routing.RouteEvent;
@@ -42,12 +38,11 @@ import org.slf4j.LoggerFactory;
 
 import java.util.Collection;
 import java.util.Collections;
-import java.util.Iterator;
-import java.util.LinkedList;
-import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 /**
  * Route store based on in-memory storage.
@@ -69,8 +64,8 @@ public class LocalRouteStore extends AbstractStore<RouteEvent, RouteStoreDelegat
     public void activate() {
         routeTables = new ConcurrentHashMap<>();
 
-        routeTables.put(IPV4, new RouteTable());
-        routeTables.put(IPV6, new RouteTable());
+        routeTables.put(IPV4, new RouteTable(IpAddress.Version.INET));
+        routeTables.put(IPV6, new RouteTable(IpAddress.Version.INET6));
     }
 
     @Override
@@ -162,38 +157,24 @@ public class LocalRouteStore extends AbstractStore<RouteEvent, RouteStoreDelegat
         return routeTables.get(routeTableId);
     }
 
-    private static String createBinaryString(IpPrefix ipPrefix) {
-        byte[] octets = ipPrefix.address().toOctets();
-        StringBuilder result = new StringBuilder(ipPrefix.prefixLength());
-        result.append("0");
-        for (int i = 0; i < ipPrefix.prefixLength(); i++) {
-            int byteOffset = i / Byte.SIZE;
-            int bitOffset = i % Byte.SIZE;
-            int mask = 1 << (Byte.SIZE - 1 - bitOffset);
-            byte value = octets[byteOffset];
-            boolean isSet = ((value & mask) != 0);
-            result.append(isSet ? "1" : "0");
-        }
-
-        return result.toString();
-    }
-
     /**
-     * Route table into which routes can be placed.
+     * Route table into which routes can be placed. A single prefix trie
+     * serves both exact and longest prefix match lookups.
      */
     private class RouteTable {
-        private final InvertedRadixTree<Route> routeTable;
+        private final PrefixTrie<Route> routeTable;
+        private final ReadWriteLock lock = new ReentrantReadWriteLock();
 
-        private final Map<IpPrefix, Route> routes = new ConcurrentHashMap<>();
         private final Multimap<IpAddress, Route> reverseIndex =
                 Multimaps.synchronizedMultimap(HashMultimap.create());
 
         /**
          * Creates a new route table.
+         *
+         * @param version IP version of the routes
          */
-        public RouteTable() {
-            routeTable = new ConcurrentInvertedRadixTree<>(
-                    new DefaultByteArrayNodeFactory());
+        public RouteTable(IpAddress.Version version) {
+            routeTable = new PrefixTrie<>(version);
         }
 
         /**
@@ -203,8 +184,13 @@ public class LocalRouteStore extends AbstractStore<RouteEvent, RouteStoreDelegat
          */
         public void update(Route route) {
             synchronized (this) {
-                Route oldRoute = routes.put(route.prefix(), route);
-                routeTable.put(createBinaryString(route.prefix()), route);
+                Route oldRoute;
+                lock.writeLock().lock();
+                try {
+                    oldRoute = routeTable.put(route.prefix(), route);
+                } finally {
+                    lock.writeLock().unlock();
+                }
 
                 // TODO manage routes from multiple providers
 
@@ -253,8 +239,13 @@ public class LocalRouteStore extends AbstractStore<RouteEvent, RouteStoreDelegat
          */
         public void remove(Route route) {
             synchronized (this) {
-                Route removed = routes.remove(route.prefix());
-                routeTable.remove(createBinaryString(route.prefix()));
+                Route removed;
+                lock.writeLock().lock();
+                try {
+                    removed = routeTable.remove(route.prefix());
+                } finally {
+                    lock.writeLock().unlock();
+                }
 
                 if (removed != null) {
                     reverseIndex.remove(removed.nextHop(), removed);
@@ -280,17 +271,12 @@ public class LocalRouteStore extends AbstractStore<RouteEvent, RouteStoreDelegat
          * @return all routes
          */
         public Collection<Route> getRoutes() {
-            Iterator<KeyValuePair<Route>> it =
-                    routeTable.getKeyValuePairsForKeysStartingWith("").iterator();
-
-            List<Route> routes = new LinkedList<>();
-
-            while (it.hasNext()) {
-                KeyValuePair<Route> entry = it.next();
-                routes.add(entry.getValue());
+            lock.readLock().lock();
+            try {
+                return routeTable.values();
+            } finally {
+                lock.readLock().unlock();
             }
-
-            return routes;
         }
 
         /**
@@ -300,17 +286,12 @@ public class LocalRouteStore extends AbstractStore<RouteEvent, RouteStoreDelegat
          * @return most specific prefix containing the given
          */
         public Route longestPrefixMatch(IpAddress ip) {
-            Iterable<Route> prefixes =
-                    routeTable.getValuesForKeysPrefixing(createBinaryString(ip.toIpPrefix()));
-
-            Iterator<Route> it = prefixes.iterator();
-
-            Route route = null;
-            while (it.hasNext()) {
-                route = it.next();
+            lock.readLock().lock();
+            try {
+                return routeTable.longestPrefixMatch(ip);
+            } finally {
+                lock.readLock().unlock();
             }
-
-            return route;
         }
     }
 
@@ -360,6 +360,20 @@ public interface BgpCfg {
      */
     void setEvpnCapability(boolean evpnCapability);
 
+    /**
+     * Gets the IPv6 unicast capability.
+     *
+     * @return IPv6 unicast capability
+     */
+    boolean ipv6UnicastCapability();
+
+    /**
+     * Sets the IPv6 unicast capability.
+     *
+     * @param ipv6UnicastCapability IPv6 unicast capability
+     */
+    void setIpv6UnicastCapability(boolean ipv6UnicastCapability);
+
     /**
      * Returns the flow specification route policy distribution capability.
      *
@@ -19,6 +19,7 @@ package org.onosproject.bgp.controller;
 import org.onosproject.bgpio.exceptions.BgpParseException;
 import org.onosproject.bgpio.protocol.BgpMessage;
 
+import java.util.Collection;
 import java.util.Map;
 import java.util.Set;
 
@@ -171,4 +172,33 @@ public interface BgpController {
      */
     Set<BgpRouteListener> routeListener();
 
+    /**
+     * Registers a listener for IPv4 and IPv6 unicast best path changes. The
+     * listener is first told about the current best paths.
+     *
+     * @param listener the listener to notify
+     */
+    void addUnicastRouteListener(BgpUnicastRouteListener listener);
+
+    /**
+     * Unregisters a listener for unicast best path changes.
+     *
+     * @param listener the listener to unregister
+     */
+    void removeUnicastRouteListener(BgpUnicastRouteListener listener);
+
+    /**
+     * Returns the instrumentation of all peers seen by this controller.
+     *
+     * @return peer metrics
+     */
+    Collection<BgpPeerMetrics> peerMetrics();
+
+    /**
+     * Returns the instrumentation of the given peer.
+     *
+     * @param peerAddr peer address
+     * @return peer metrics, or null if the peer was never seen
+     */
+    BgpPeerMetrics peerMetrics(String peerAddr);
 }
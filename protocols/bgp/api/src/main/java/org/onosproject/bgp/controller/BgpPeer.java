@@ -16,6 +16,8 @@
 package org.onosproject.bgp.controller;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import org.jboss.netty.channel.Channel;
 import org.onlab.packet.Ip4Address;
 import org.onosproject.bgp.controller.BgpPeer.OperationType;
@@ -147,6 +149,23 @@ public interface BgpPeer {
     void updateFlowSpec(OperationType operType, BgpFlowSpecRouteKey routeKey,
                         BgpFlowSpecNlri flowSpec, WideCommunity wideCommunity);
 
+    /**
+     * Updates a batch of flow specification rules. Rules are advertised in
+     * RFC 5575 precedence order, and rules sharing the same actions are
+     * packed into as few UPDATE messages as possible. Rules repeating the
+     * match of a rule already advertised to the peer under another key, or
+     * all rules if the peer does not support flow specification, are not
+     * advertised.
+     *
+     * @param operType operation type add or delete or update
+     * @param flowSpecs flow specification components keyed by flow route key
+     * @param wideCommunity for route policy
+     * @return route keys of the rules not advertised
+     */
+    Set<BgpFlowSpecRouteKey> updateFlowSpec(OperationType operType,
+                                            Map<BgpFlowSpecRouteKey, BgpFlowSpecNlri> flowSpecs,
+                                            WideCommunity wideCommunity);
+
     /**
      * Updates evpn rule.
      *
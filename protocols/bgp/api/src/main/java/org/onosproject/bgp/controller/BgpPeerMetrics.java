@@ -0,0 +1,69 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.bgp.controller;
+
+import com.codahale.metrics.Timer;
+
+import java.util.Map;
+
+/**
+ * Abstraction of the instrumentation kept for a configured BGP peer. The
+ * metrics outlive a single session, so session flaps can be counted.
+ */
+public interface BgpPeerMetrics {
+
+    /**
+     * Returns the address of the peer.
+     *
+     * @return peer address
+     */
+    String peerAddress();
+
+    /**
+     * Returns the time spent decoding UPDATE messages received from the peer.
+     *
+     * @return UPDATE decode latency timer
+     */
+    Timer updateDecodeLatency();
+
+    /**
+     * Returns the time spent applying received UPDATE messages to the RIB.
+     *
+     * @return RIB commit latency timer
+     */
+    Timer ribCommitLatency();
+
+    /**
+     * Returns the number of routes held for the peer, keyed by "afi/safi".
+     *
+     * @return prefix counts per address family
+     */
+    Map<String, Long> prefixCounts();
+
+    /**
+     * Returns the number of messages written to the peer but not yet flushed.
+     *
+     * @return outbound queue depth
+     */
+    long outboundQueueDepth();
+
+    /**
+     * Returns the number of times an established session with the peer went down.
+     *
+     * @return flap count
+     */
+    long flapCount();
+}
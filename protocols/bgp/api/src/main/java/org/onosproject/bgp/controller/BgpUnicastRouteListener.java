@@ -0,0 +1,43 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.bgp.controller;
+
+import org.onlab.packet.IpAddress;
+import org.onlab.packet.IpPrefix;
+
+import java.util.Map;
+
+/**
+ * Allows for providers interested in IPv4 and IPv6 unicast best paths to be
+ * notified. Notifications are delivered in order from the BGP I/O threads,
+ * so implementations must not block.
+ */
+public interface BgpUnicastRouteListener {
+
+    /**
+     * Notifies that prefixes were learnt or that their best path changed.
+     *
+     * @param routes prefixes mapped to the next hop of their best path
+     */
+    void routesUpdated(Map<IpPrefix, IpAddress> routes);
+
+    /**
+     * Notifies that prefixes are no longer reachable through any peer.
+     *
+     * @param routes prefixes mapped to the next hop of their previous best path
+     */
+    void routesWithdrawn(Map<IpPrefix, IpAddress> routes);
+}
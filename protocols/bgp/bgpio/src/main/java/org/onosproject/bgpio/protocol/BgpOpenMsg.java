@@ -167,6 +167,16 @@ public interface BgpOpenMsg extends BgpMessage {
          */
         Builder setEvpnCapabilityTlv(boolean isEvpnCapabilitySet);
 
+        /**
+         * Sets IPv6 unicast capability and return its builder.
+         *
+         * @param isIpv6UnicastCapabilitySet boolean value to know whether IPv6
+         *            unicast capability is set or not
+         *
+         * @return builder by setting capabilities
+         */
+        Builder setIpv6UnicastCapabilityTlv(boolean isIpv6UnicastCapabilitySet);
+
         @Override
         Builder setHeader(BgpHeader bgpMsgHeader);
     }
@@ -220,6 +220,36 @@ public class BgpFlowSpecNlri {
         return;
     }
 
+    /**
+     * Writes flow specification components to channel buffer, selecting the
+     * encoding according to whether all flow types are identical.
+     *
+     * @param cb channel buffer
+     * @param bgpFlowSpecNlri flow specification
+     */
+    public static void updateBuffer(ChannelBuffer cb, BgpFlowSpecNlri bgpFlowSpecNlri) {
+        ListIterator<BgpValueType> listIterator = bgpFlowSpecNlri.flowSpecComponents().listIterator();
+        boolean isAllFlowTypesIdentical = true;
+
+        BgpValueType tlv1 = null;
+        if (listIterator.hasNext()) {
+            tlv1 = listIterator.next();
+        }
+        while (listIterator.hasNext()) {
+            BgpValueType tlv = listIterator.next();
+            if (tlv.getType() != tlv1.getType()) {
+                isAllFlowTypesIdentical = false;
+                break;
+            }
+        }
+
+        if (isAllFlowTypesIdentical) {
+            updateBufferIdenticalFlowTypes(cb, bgpFlowSpecNlri);
+        } else {
+            updateBufferNonIdenticalFlowTypes(cb, bgpFlowSpecNlri);
+        }
+    }
+
     /**
      * Update buffer with identical flow types.
      *
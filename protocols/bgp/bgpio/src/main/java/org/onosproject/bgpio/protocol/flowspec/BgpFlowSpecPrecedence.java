@@ -0,0 +1,265 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.bgpio.protocol.flowspec;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import org.jboss.netty.buffer.ChannelBuffer;
+import org.jboss.netty.buffer.ChannelBuffers;
+import org.onlab.packet.IpPrefix;
+import org.onosproject.bgpio.types.BgpFsDestinationPrefix;
+import org.onosproject.bgpio.types.BgpFsSourcePrefix;
+import org.onosproject.bgpio.types.BgpValueType;
+import org.onosproject.bgpio.util.Constants;
+
+import com.google.common.base.MoreObjects;
+
+/**
+ * Pre-encoded view of a flow specification used to order rules as per
+ * RFC 5575 section 5.1 and to detect rules whose match spaces overlap.
+ */
+public final class BgpFlowSpecPrecedence implements Comparable<BgpFlowSpecPrecedence> {
+
+    /**
+     * Orders flow specifications from highest to lowest precedence.
+     */
+    public static final Comparator<BgpFlowSpecNlri> COMPARATOR =
+            (a, b) -> of(a).compareTo(of(b));
+
+    private static final byte OPERATOR_AND_MASK = 0x40;
+    private static final byte OPERATOR_COMPARE_MASK = 0x07;
+    private static final byte OPERATOR_EQUAL = 0x01;
+
+    private final List<Component> components;
+
+    private BgpFlowSpecPrecedence(List<Component> components) {
+        this.components = components;
+    }
+
+    /**
+     * Returns the precedence view of the given flow specification.
+     *
+     * @param flowSpec flow specification
+     * @return precedence view
+     */
+    public static BgpFlowSpecPrecedence of(BgpFlowSpecNlri flowSpec) {
+        List<Component> components = new ArrayList<>(flowSpec.flowSpecComponents().size());
+        for (BgpValueType tlv : flowSpec.flowSpecComponents()) {
+            components.add(new Component(tlv));
+        }
+        components.sort((a, b) -> Integer.compare(a.type, b.type));
+        return new BgpFlowSpecPrecedence(components);
+    }
+
+    /**
+     * Compares two flow specifications as per RFC 5575 section 5.1. A negative
+     * value means this flow specification takes precedence over the other.
+     *
+     * @param other other flow specification
+     * @return comparison result
+     */
+    @Override
+    public int compareTo(BgpFlowSpecPrecedence other) {
+        int count = Math.min(components.size(), other.components.size());
+        for (int i = 0; i < count; i++) {
+            Component a = components.get(i);
+            Component b = other.components.get(i);
+
+            // The rule carrying the lower component type takes precedence
+            if (a.type != b.type) {
+                return a.type < b.type ? -1 : 1;
+            }
+
+            int result = a.prefix != null && b.prefix != null
+                    ? comparePrefix(a.prefix, b.prefix) : compareValue(a.value, b.value);
+            if (result != 0) {
+                return result;
+            }
+        }
+
+        // All common components are equal, the rule with more components wins
+        return Integer.compare(other.components.size(), components.size());
+    }
+
+    /**
+     * Returns whether a packet may match both flow specifications. Prefix
+     * components are compared exactly; numeric operator lists are compared
+     * exactly only when both are plain equality lists, anything else is
+     * conservatively treated as overlapping.
+     *
+     * @param other other flow specification
+     * @return true if the match spaces overlap
+     */
+    public boolean overlaps(BgpFlowSpecPrecedence other) {
+        int i = 0;
+        int j = 0;
+        while (i < components.size() && j < other.components.size()) {
+            Component a = components.get(i);
+            Component b = other.components.get(j);
+            if (a.type < b.type) {
+                i++;
+            } else if (a.type > b.type) {
+                j++;
+            } else {
+                if (!a.overlaps(b)) {
+                    return false;
+                }
+                i++;
+                j++;
+            }
+        }
+        return true;
+    }
+
+    // More specific prefix first when prefixes overlap, otherwise lowest address first.
+    private static int comparePrefix(IpPrefix a, IpPrefix b) {
+        if (a.contains(b) || b.contains(a)) {
+            return Integer.compare(b.prefixLength(), a.prefixLength());
+        }
+        return a.address().compareTo(b.address());
+    }
+
+    // Lowest value by memcmp first; on a common prefix the longest string wins.
+    private static int compareValue(byte[] a, byte[] b) {
+        int count = Math.min(a.length, b.length);
+        for (int i = 0; i < count; i++) {
+            int result = Integer.compare(a[i] & 0xff, b[i] & 0xff);
+            if (result != 0) {
+                return result;
+            }
+        }
+        return Integer.compare(b.length, a.length);
+    }
+
+    @Override
+    public int hashCode() {
+        return components.hashCode();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj instanceof BgpFlowSpecPrecedence) {
+            return components.equals(((BgpFlowSpecPrecedence) obj).components);
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(getClass())
+                .add("components", components.size())
+                .toString();
+    }
+
+    /**
+     * Single flow specification component with its encoded value.
+     */
+    private static final class Component {
+        private final short type;
+        private final IpPrefix prefix;
+        private final byte[] value;
+
+        Component(BgpValueType tlv) {
+            this.type = tlv.getType();
+            if (tlv instanceof BgpFsDestinationPrefix) {
+                this.prefix = ((BgpFsDestinationPrefix) tlv).ipPrefix();
+            } else if (tlv instanceof BgpFsSourcePrefix) {
+                this.prefix = ((BgpFsSourcePrefix) tlv).ipPrefix();
+            } else {
+                this.prefix = null;
+            }
+
+            ChannelBuffer cb = ChannelBuffers.dynamicBuffer();
+            BgpFlowSpecNlri.writeFlowType(tlv, cb);
+            // Skip the component type, it is kept separately
+            cb.skipBytes(Math.min(1, cb.readableBytes()));
+            this.value = new byte[cb.readableBytes()];
+            cb.readBytes(value);
+        }
+
+        boolean overlaps(Component other) {
+            if (prefix != null && other.prefix != null) {
+                return prefix.contains(other.prefix) || other.prefix.contains(prefix);
+            }
+            if (isNumeric() && isEqualityList() && other.isEqualityList()) {
+                List<Long> values = values();
+                return other.values().stream().anyMatch(values::contains);
+            }
+            return true;
+        }
+
+        boolean isNumeric() {
+            return type != Constants.BGP_FLOWSPEC_TCP_FLAGS && type != Constants.BGP_FLOWSPEC_FRAGMENT;
+        }
+
+        // Returns whether the operator list is a plain disjunction of equality matches.
+        boolean isEqualityList() {
+            if (value.length == 0) {
+                return false;
+            }
+            int index = 0;
+            while (index < value.length) {
+                byte option = value[index];
+                if ((option & OPERATOR_AND_MASK) != 0
+                        || (option & OPERATOR_COMPARE_MASK) != OPERATOR_EQUAL) {
+                    return false;
+                }
+                index += 1 + (1 << ((option & Constants.BGP_FLOW_SPEC_LEN_MASK) >> 4));
+            }
+            return index == value.length;
+        }
+
+        List<Long> values() {
+            List<Long> values = new ArrayList<>();
+            int index = 0;
+            while (index < value.length) {
+                int len = 1 << ((value[index] & Constants.BGP_FLOW_SPEC_LEN_MASK) >> 4);
+                long number = 0;
+                for (int i = 1; i <= len; i++) {
+                    number = (number << 8) | (value[index + i] & 0xff);
+                }
+                values.add(number);
+                index += 1 + len;
+            }
+            return values;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * type + (prefix != null ? prefix.hashCode() : Arrays.hashCode(value));
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (obj instanceof Component) {
+                Component other = (Component) obj;
+                return type == other.type
+                        && (prefix != null ? prefix.equals(other.prefix)
+                                           : Arrays.equals(value, other.value));
+            }
+            return false;
+        }
+    }
+}
@@ -319,6 +319,7 @@ public class BgpOpenMsgVer4 implements BgpOpenMsg {
         private boolean isFlowSpecRpdCapabilityTlvSet = false;
         private boolean isVpnv4CapabilityTlvSet = false;
         private boolean isEvpnCapabilityTlvSet = false;
+        private boolean isIpv6UnicastCapabilityTlvSet = false;
 
         LinkedList<BgpValueType> capabilityTlv = new LinkedList<>();
 
@@ -342,6 +343,13 @@ public class BgpOpenMsgVer4 implements BgpOpenMsg {
                 this.capabilityTlv.add(tlv);
             }
 
+            if (this.isIpv6UnicastCapabilityTlvSet) {
+                BgpValueType tlv;
+                tlv = new MultiProtocolExtnCapabilityTlv(Constants.AFI_IPV6_UNICAST, RES,
+                                                         Constants.SAFI_IPV6_UNICAST);
+                this.capabilityTlv.add(tlv);
+            }
+
             if (this.isLargeAsCapabilityTlvSet) {
                 BgpValueType tlv;
                 int value = this.asNumber;
@@ -468,6 +476,12 @@ public class BgpOpenMsgVer4 implements BgpOpenMsg {
             this.isEvpnCapabilityTlvSet = isEvpnCapabilitySet;
             return this;
         }
+
+        @Override
+        public Builder setIpv6UnicastCapabilityTlv(boolean isIpv6UnicastCapabilitySet) {
+            this.isIpv6UnicastCapabilityTlvSet = isIpv6UnicastCapabilitySet;
+            return this;
+        }
     }
 
     @Override
@@ -83,7 +83,8 @@ public class BgpFsSourcePrefix implements BgpValueType {
         int iLenStartIndex = cb.writerIndex();
         cb.writeByte(FLOW_SPEC_TYPE);
         cb.writeByte(length);
-        cb.writeInt(ipPrefix.getIp4Prefix().address().toInt());
+        // RFC 5575: only the octets covering the prefix length are encoded
+        cb.writeBytes(ipPrefix.getIp4Prefix().address().toOctets(), 0, (length + BYTE_IN_BITS - 1) / BYTE_IN_BITS);
         return cb.writerIndex() - iLenStartIndex;
     }
 
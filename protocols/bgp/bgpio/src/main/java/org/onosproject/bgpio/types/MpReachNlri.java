@@ -17,11 +17,13 @@
 package org.onosproject.bgpio.types;
 
 import java.net.InetAddress;
+import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.ListIterator;
 import org.jboss.netty.buffer.ChannelBuffer;
 import org.onlab.packet.Ip4Address;
+import org.onlab.packet.IpAddress;
+import org.onlab.packet.IpPrefix;
 import org.onosproject.bgpio.exceptions.BgpParseException;
 import org.onosproject.bgpio.protocol.BgpEvpnNlri;
 import org.onosproject.bgpio.protocol.BgpLSNlri;
@@ -38,6 +40,8 @@ import org.slf4j.LoggerFactory;
 
 import com.google.common.base.MoreObjects;
 
+import static com.google.common.base.Preconditions.checkArgument;
+
 /*
  * Provides Implementation of MpReach Nlri BGP Path Attribute.
  */
@@ -54,7 +58,10 @@ public class MpReachNlri implements BgpValueType {
     private final byte safi;
     private final Ip4Address ipNextHop;
     private BgpFlowSpecNlri bgpFlowSpecNlri;
+    private List<BgpFlowSpecNlri> bgpFlowSpecNlris;
     private List<BgpEvpnNlri> evpnNlri;
+    private IpAddress unicastNextHop;
+    private List<IpPrefix> unicastNlri;
 
     /**
      * Constructor to initialize parameters.
@@ -80,10 +87,28 @@ public class MpReachNlri implements BgpValueType {
         this.length = 0;
         this.ipNextHop = null;
         this.bgpFlowSpecNlri = bgpFlowSpecNlri;
+        this.bgpFlowSpecNlris = Collections.singletonList(bgpFlowSpecNlri);
         this.afi = afi;
         this.safi = safi;
     }
 
+    /**
+     * Returns object of this class carrying several flow specifications in
+     * one attribute. All flow specifications must share the same route
+     * distinguisher.
+     *
+     * @param bgpFlowSpecNlris flow specifications, at least one
+     * @param afi address family identifier
+     * @param safi subsequent address family identifier
+     * @return object of this class
+     */
+    public static MpReachNlri of(List<BgpFlowSpecNlri> bgpFlowSpecNlris, short afi, byte safi) {
+        checkArgument(!bgpFlowSpecNlris.isEmpty(), "Flow specifications cannot be empty");
+        MpReachNlri nlri = new MpReachNlri(bgpFlowSpecNlris.get(0), afi, safi);
+        nlri.bgpFlowSpecNlris = bgpFlowSpecNlris;
+        return nlri;
+    }
+
     public MpReachNlri(List<BgpEvpnNlri> evpnNlri, short afi, byte safi, Ip4Address ipNextHop) {
         this.bgpLSNlri = null;
         this.length = 42;
@@ -94,6 +119,25 @@ public class MpReachNlri implements BgpValueType {
         this.safi = safi;
     }
 
+    /**
+     * Constructor to initialize IPv4 or IPv6 unicast reachability.
+     *
+     * @param afi address family identifier
+     * @param safi subsequent address family identifier
+     * @param nextHop next hop of the prefixes
+     * @param unicastNlri reachable prefixes
+     */
+    public MpReachNlri(short afi, byte safi, IpAddress nextHop, List<IpPrefix> unicastNlri) {
+        this.bgpLSNlri = null;
+        this.isMpReachNlri = true;
+        this.length = 0;
+        this.ipNextHop = nextHop.isIp4() ? nextHop.getIp4Address() : null;
+        this.unicastNextHop = nextHop;
+        this.unicastNlri = unicastNlri;
+        this.afi = afi;
+        this.safi = safi;
+    }
+
     /**
      * Returns whether MpReachNlri is present.
      *
@@ -122,7 +166,8 @@ public class MpReachNlri implements BgpValueType {
     }
 
     /**
-     * Returns BGP flow specification info.
+     * Returns the first BGP flow specification info; the attribute may carry
+     * several, see {@link #bgpFlowSpecNlris()}.
      *
      * @return BGP flow specification info
      */
@@ -130,6 +175,15 @@ public class MpReachNlri implements BgpValueType {
         return this.bgpFlowSpecNlri;
     }
 
+    /**
+     * Returns all BGP flow specifications carried in this attribute.
+     *
+     * @return BGP flow specifications
+     */
+    public List<BgpFlowSpecNlri> bgpFlowSpecNlris() {
+        return this.bgpFlowSpecNlris;
+    }
+
     /**
      * Returns BGP Evpn info.
      *
@@ -139,6 +193,24 @@ public class MpReachNlri implements BgpValueType {
         return this.evpnNlri;
     }
 
+    /**
+     * Returns reachable unicast prefixes.
+     *
+     * @return unicast prefixes
+     */
+    public List<IpPrefix> unicastNlri() {
+        return this.unicastNlri;
+    }
+
+    /**
+     * Returns next hop of the unicast prefixes, IPv4 or IPv6.
+     *
+     * @return next hop address
+     */
+    public IpAddress unicastNextHop() {
+        return this.unicastNextHop;
+    }
+
     /**
      * Returns afi.
      *
@@ -181,9 +253,25 @@ public class MpReachNlri implements BgpValueType {
             return NlriDetailsType.EVPN;
         }
 
+        if (isUnicast(afi, safi)) {
+            return NlriDetailsType.UNICAST;
+        }
+
         return null;
     }
 
+    /**
+     * Returns whether the address family is IPv4 or IPv6 unicast.
+     *
+     * @param afi address family identifier
+     * @param safi subsequent address family identifier
+     * @return true if unicast
+     */
+    static boolean isUnicast(short afi, byte safi) {
+        return (afi == Constants.AFI_IPV4_UNICAST && safi == Constants.SAFI_IPV4_UNICAST)
+                || (afi == Constants.AFI_IPV6_UNICAST && safi == Constants.SAFI_IPV6_UNICAST);
+    }
+
     /**
      * Reads from ChannelBuffer and parses MpReachNlri.
      *
@@ -253,7 +341,7 @@ public class MpReachNlri implements BgpValueType {
             } else if ((afi == Constants.AFI_FLOWSPEC_VALUE)
                                                && ((safi == Constants.SAFI_FLOWSPEC_VALUE)
                                                || (safi == Constants.VPN_SAFI_FLOWSPEC_VALUE))) {
-                List<BgpValueType> flowSpecComponents = new LinkedList<>();
+                List<BgpFlowSpecNlri> flowSpecs = new LinkedList<>();
                 RouteDistinguisher routeDistinguisher = null;
                 if (tempCb.readableBytes() > 0) {
                     BgpValueType flowSpecComponent = null;
@@ -288,6 +376,8 @@ public class MpReachNlri implements BgpValueType {
                             Validation.validateLen(BgpErrorType.UPDATE_MESSAGE_ERROR,
                                     BgpErrorType.ATTRIBUTE_LENGTH_ERROR, totNlriLen);
                         }
+                        // Each NLRI is one flow specification
+                        List<BgpValueType> flowSpecComponents = new LinkedList<>();
                         tempBuf = tempCb.readBytes(totNlriLen);
                         while (tempBuf.readableBytes() > 0) {
                             short type = tempBuf.readByte();
@@ -334,11 +424,17 @@ public class MpReachNlri implements BgpValueType {
                             }
                             flowSpecComponents.add(flowSpecComponent);
                         }
+                        BgpFlowSpecNlri flowSpec = new BgpFlowSpecNlri(flowSpecComponents);
+                        flowSpec.setRouteDistinguiher(routeDistinguisher);
+                        flowSpecs.add(flowSpec);
                     }
                 }
-                BgpFlowSpecNlri flowSpecDetails = new BgpFlowSpecNlri(flowSpecComponents);
-                flowSpecDetails.setRouteDistinguiher(routeDistinguisher);
-                return new MpReachNlri(flowSpecDetails, afi, safi);
+                if (flowSpecs.isEmpty()) {
+                    BgpFlowSpecNlri flowSpec = new BgpFlowSpecNlri(new LinkedList<>());
+                    flowSpec.setRouteDistinguiher(routeDistinguisher);
+                    return new MpReachNlri(flowSpec, afi, safi);
+                }
+                return MpReachNlri.of(flowSpecs, afi, safi);
             } else if ((afi == Constants.AFI_EVPN_VALUE)
                     && (safi == Constants.SAFI_EVPN_VALUE)) {
 
@@ -359,6 +455,23 @@ public class MpReachNlri implements BgpValueType {
                 }
 
                 return new MpReachNlri(eVpnComponents, afi, safi, ipNextHop);
+            } else if (isUnicast(afi, safi)) {
+                IpAddress.Version version = afi == Constants.AFI_IPV4_UNICAST ? IpAddress.Version.INET
+                                                                              : IpAddress.Version.INET6;
+                int nextHopLen = tempCb.readUnsignedByte();
+                int addrLen = IpAddress.byteLength(version);
+                // An IPv6 next hop may carry a link local address after the global one
+                if (nextHopLen < addrLen || tempCb.readableBytes() < nextHopLen + 1) {
+                    throw new BgpParseException(BgpErrorType.UPDATE_MESSAGE_ERROR,
+                                                BgpErrorType.OPTIONAL_ATTRIBUTE_ERROR, data);
+                }
+                byte[] nextHop = new byte[addrLen];
+                tempCb.readBytes(nextHop);
+                // Skips any link local address and the reserved octet
+                tempCb.skipBytes(nextHopLen - addrLen + 1);
+
+                List<IpPrefix> prefixes = Validation.readPrefixes(tempCb, version);
+                return new MpReachNlri(afi, safi, IpAddress.valueOf(version, nextHop), prefixes);
             } else {
                 throw new BgpParseException("Not Supporting afi " + afi
                         + "safi " + safi);
@@ -405,10 +518,6 @@ public class MpReachNlri implements BgpValueType {
 
         if ((afi == Constants.AFI_FLOWSPEC_VALUE) && ((safi == Constants.SAFI_FLOWSPEC_VALUE)
             || (safi == Constants.VPN_SAFI_FLOWSPEC_VALUE))) {
-            List<BgpValueType> flowSpec = bgpFlowSpecNlri.flowSpecComponents();
-            ListIterator<BgpValueType> listIterator = flowSpec.listIterator();
-            boolean isAllFlowTypesIdentical = true;
-
             cb.writeByte(FLAGS);
             cb.writeByte(MPREACHNLRI_TYPE);
 
@@ -426,22 +535,8 @@ public class MpReachNlri implements BgpValueType {
                 cb.writeLong(bgpFlowSpecNlri.routeDistinguisher().getRouteDistinguisher());
             }
 
-            BgpValueType tlv1 = null;
-            if (listIterator.hasNext()) {
-                tlv1 = listIterator.next();
-            }
-            while (listIterator.hasNext()) {
-                BgpValueType tlv = listIterator.next();
-                if (tlv.getType() != tlv1.getType()) {
-                    isAllFlowTypesIdentical = false;
-                    break;
-                }
-            }
-
-            if (isAllFlowTypesIdentical) {
-                BgpFlowSpecNlri.updateBufferIdenticalFlowTypes(cb, bgpFlowSpecNlri());
-            } else {
-                BgpFlowSpecNlri.updateBufferNonIdenticalFlowTypes(cb, bgpFlowSpecNlri());
+            for (BgpFlowSpecNlri flowSpec : bgpFlowSpecNlris) {
+                BgpFlowSpecNlri.updateBuffer(cb, flowSpec);
             }
             int fsNlriLen = cb.writerIndex() - mpReachDataIndx;
             cb.setShort(mpReachDataIndx, (short) (fsNlriLen - 2));
@@ -488,6 +583,25 @@ public class MpReachNlri implements BgpValueType {
             }
             int evpnNlriLen = cb.writerIndex() - mpReachDataIndx;
             cb.setShort(mpReachDataIndx, (short) (evpnNlriLen - 2));
+        } else if (isUnicast(afi, safi)) {
+            cb.writeByte(FLAGS);
+            cb.writeByte(MPREACHNLRI_TYPE);
+
+            int mpReachDataIndx = cb.writerIndex();
+            cb.writeShort(0);
+            cb.writeShort(afi);
+            cb.writeByte(safi);
+            byte[] nextHop = unicastNextHop.toOctets();
+            cb.writeByte(nextHop.length);
+            cb.writeBytes(nextHop);
+            //sub network points of attachment
+            cb.writeByte(0);
+
+            for (IpPrefix prefix : unicastNlri) {
+                Validation.writePrefix(cb, prefix);
+            }
+            int unicastNlriLen = cb.writerIndex() - mpReachDataIndx;
+            cb.setShort(mpReachDataIndx, (short) (unicastNlriLen - 2));
         }
 
         return cb.writerIndex() - iLenStartIndex;
@@ -498,9 +612,11 @@ public class MpReachNlri implements BgpValueType {
         return MoreObjects.toStringHelper(getClass()).omitNullValues()
                 .add("mpReachNlri", bgpLSNlri)
                 .add("bgpFlowSpecNlri", bgpFlowSpecNlri)
+                .add("unicastNlri", unicastNlri)
                 .add("afi", afi)
                 .add("safi", safi)
                 .add("ipNextHop", ipNextHop)
+                .add("unicastNextHop", unicastNextHop)
                 .add("length", length)
                 .toString();
     }
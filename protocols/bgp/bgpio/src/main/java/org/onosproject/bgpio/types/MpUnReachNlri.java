@@ -16,11 +16,13 @@
 
 package org.onosproject.bgpio.types;
 
+import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.ListIterator;
 
 import org.jboss.netty.buffer.ChannelBuffer;
+import org.onlab.packet.IpAddress;
+import org.onlab.packet.IpPrefix;
 import org.onosproject.bgpio.exceptions.BgpParseException;
 import org.onosproject.bgpio.protocol.BgpEvpnNlri;
 import org.onosproject.bgpio.protocol.BgpLSNlri;
@@ -37,6 +39,8 @@ import org.slf4j.LoggerFactory;
 
 import com.google.common.base.MoreObjects;
 
+import static com.google.common.base.Preconditions.checkArgument;
+
 /**
  * Provides Implementation of MpUnReach Nlri BGP Path Attribute.
  */
@@ -52,7 +56,9 @@ public class MpUnReachNlri implements BgpValueType {
     private List<BgpLSNlri> bgpLSNlri;
     private final int length;
     private BgpFlowSpecNlri bgpFlowSpecNlri;
+    private List<BgpFlowSpecNlri> bgpFlowSpecNlris;
     private List<BgpEvpnNlri> evpnNlri;
+    private List<IpPrefix> unicastNlri;
 
     /**
      * Constructor to initialize parameters.
@@ -75,10 +81,28 @@ public class MpUnReachNlri implements BgpValueType {
         this.isMpUnReachNlri = true;
         this.length = 0;
         this.bgpFlowSpecNlri = bgpFlowSpecNlri;
+        this.bgpFlowSpecNlris = Collections.singletonList(bgpFlowSpecNlri);
         this.afi = afi;
         this.safi = safi;
     }
 
+    /**
+     * Returns object of this class carrying several flow specifications in
+     * one attribute. All flow specifications must share the same route
+     * distinguisher.
+     *
+     * @param bgpFlowSpecNlris flow specifications, at least one
+     * @param afi address family identifier
+     * @param safi subsequent address family identifier
+     * @return object of this class
+     */
+    public static MpUnReachNlri of(List<BgpFlowSpecNlri> bgpFlowSpecNlris, short afi, byte safi) {
+        checkArgument(!bgpFlowSpecNlris.isEmpty(), "Flow specifications cannot be empty");
+        MpUnReachNlri nlri = new MpUnReachNlri(bgpFlowSpecNlris.get(0), afi, safi);
+        nlri.bgpFlowSpecNlris = bgpFlowSpecNlris;
+        return nlri;
+    }
+
     public MpUnReachNlri(List<BgpEvpnNlri> evpnNlri, short afi, byte safi) {
         this.isMpUnReachNlri = true;
         this.length = 0;
@@ -87,6 +111,20 @@ public class MpUnReachNlri implements BgpValueType {
         this.safi = safi;
     }
 
+    /**
+     * Constructor to initialize IPv4 or IPv6 unicast withdrawals.
+     *
+     * @param afi address family identifier
+     * @param safi subsequent address family identifier
+     * @param unicastNlri withdrawn prefixes
+     */
+    public MpUnReachNlri(short afi, byte safi, List<IpPrefix> unicastNlri) {
+        this.isMpUnReachNlri = true;
+        this.length = 0;
+        this.unicastNlri = unicastNlri;
+        this.afi = afi;
+        this.safi = safi;
+    }
 
     /**
      * Returns list of Link State Nlri.
@@ -98,7 +136,8 @@ public class MpUnReachNlri implements BgpValueType {
     }
 
     /**
-     * Returns BGP flow specification info.
+     * Returns the first BGP flow specification info; the attribute may carry
+     * several, see {@link #bgpFlowSpecNlris()}.
      *
      * @return BGP flow specification info
      */
@@ -106,6 +145,15 @@ public class MpUnReachNlri implements BgpValueType {
         return this.bgpFlowSpecNlri;
     }
 
+    /**
+     * Returns all BGP flow specifications carried in this attribute.
+     *
+     * @return BGP flow specifications
+     */
+    public List<BgpFlowSpecNlri> bgpFlowSpecNlris() {
+        return this.bgpFlowSpecNlris;
+    }
+
     /**
      * Returns BGP Evpn info.
      *
@@ -115,6 +163,15 @@ public class MpUnReachNlri implements BgpValueType {
         return this.evpnNlri;
     }
 
+    /**
+     * Returns withdrawn unicast prefixes.
+     *
+     * @return unicast prefixes
+     */
+    public List<IpPrefix> unicastNlri() {
+        return this.unicastNlri;
+    }
+
     /**
      * Returns afi.
      *
@@ -157,6 +214,10 @@ public class MpUnReachNlri implements BgpValueType {
             return NlriDetailsType.EVPN;
         }
 
+        if (MpReachNlri.isUnicast(afi, safi)) {
+            return NlriDetailsType.UNICAST;
+        }
+
         return null;
     }
 
@@ -226,7 +287,7 @@ public class MpUnReachNlri implements BgpValueType {
             } else if ((afi == Constants.AFI_FLOWSPEC_VALUE)
                                                && ((safi == Constants.SAFI_FLOWSPEC_VALUE)
                                                || (safi == Constants.VPN_SAFI_FLOWSPEC_VALUE))) {
-                List<BgpValueType> flowSpecComponents = new LinkedList<>();
+                List<BgpFlowSpecNlri> flowSpecs = new LinkedList<>();
                 RouteDistinguisher routeDistinguisher = null;
                 if (tempCb.readableBytes() > 0) {
                     BgpValueType flowSpecComponent = null;
@@ -250,6 +311,8 @@ public class MpUnReachNlri implements BgpValueType {
                             Validation.validateLen(BgpErrorType.UPDATE_MESSAGE_ERROR,
                                     BgpErrorType.ATTRIBUTE_LENGTH_ERROR, totNlriLen);
                         }
+                        // Each NLRI is one flow specification
+                        List<BgpValueType> flowSpecComponents = new LinkedList<>();
                         tempBuf = tempCb.readBytes(totNlriLen);
                         while (tempBuf.readableBytes() > 0) {
                             short type = tempBuf.readByte();
@@ -296,11 +359,17 @@ public class MpUnReachNlri implements BgpValueType {
                             }
                             flowSpecComponents.add(flowSpecComponent);
                         }
+                        BgpFlowSpecNlri flowSpec = new BgpFlowSpecNlri(flowSpecComponents);
+                        flowSpec.setRouteDistinguiher(routeDistinguisher);
+                        flowSpecs.add(flowSpec);
                     }
                 }
-                BgpFlowSpecNlri flowSpecDetails = new BgpFlowSpecNlri(flowSpecComponents);
-                flowSpecDetails.setRouteDistinguiher(routeDistinguisher);
-                return new MpUnReachNlri(flowSpecDetails, afi, safi);
+                if (flowSpecs.isEmpty()) {
+                    BgpFlowSpecNlri flowSpec = new BgpFlowSpecNlri(new LinkedList<>());
+                    flowSpec.setRouteDistinguiher(routeDistinguisher);
+                    return new MpUnReachNlri(flowSpec, afi, safi);
+                }
+                return MpUnReachNlri.of(flowSpecs, afi, safi);
             } else if ((afi == Constants.AFI_EVPN_VALUE)
                     && (safi == Constants.SAFI_EVPN_VALUE)) {
                 List<BgpEvpnNlri> eVpnComponents = new LinkedList<>();
@@ -311,6 +380,10 @@ public class MpUnReachNlri implements BgpValueType {
                 }
 
                 return new MpUnReachNlri(eVpnComponents, afi, safi);
+            } else if (MpReachNlri.isUnicast(afi, safi)) {
+                IpAddress.Version version = afi == Constants.AFI_IPV4_UNICAST ? IpAddress.Version.INET
+                                                                              : IpAddress.Version.INET6;
+                return new MpUnReachNlri(afi, safi, Validation.readPrefixes(tempCb, version));
             } else {
                 //TODO: check with the values got from capability
                 throw new BgpParseException("Not Supporting afi " + afi + "safi " + safi);
@@ -375,10 +448,6 @@ public class MpUnReachNlri implements BgpValueType {
         int iLenStartIndex = cb.writerIndex();
         if ((afi == Constants.AFI_FLOWSPEC_VALUE) && ((safi == Constants.SAFI_FLOWSPEC_VALUE) ||
             (safi == Constants.VPN_SAFI_FLOWSPEC_VALUE))) {
-            List<BgpValueType> flowSpec = bgpFlowSpecNlri.flowSpecComponents();
-            ListIterator<BgpValueType> listIterator = flowSpec.listIterator();
-            boolean isAllFlowTypesIdentical = true;
-
             cb.writeByte(FLAGS);
             cb.writeByte(MPUNREACHNLRI_TYPE);
             int mpUnReachIndx = cb.writerIndex();
@@ -390,22 +459,8 @@ public class MpUnReachNlri implements BgpValueType {
                 cb.writeLong(bgpFlowSpecNlri.routeDistinguisher().getRouteDistinguisher());
             }
 
-            BgpValueType tlv1 = null;
-            if (listIterator.hasNext()) {
-                tlv1 = listIterator.next();
-            }
-            while (listIterator.hasNext()) {
-                BgpValueType tlv = listIterator.next();
-                if (tlv.getType() != tlv1.getType()) {
-                    isAllFlowTypesIdentical = false;
-                    break;
-                }
-            }
-
-            if (isAllFlowTypesIdentical) {
-                BgpFlowSpecNlri.updateBufferIdenticalFlowTypes(cb, bgpFlowSpecNlri());
-            } else {
-                BgpFlowSpecNlri.updateBufferNonIdenticalFlowTypes(cb, bgpFlowSpecNlri());
+            for (BgpFlowSpecNlri flowSpec : bgpFlowSpecNlris) {
+                BgpFlowSpecNlri.updateBuffer(cb, flowSpec);
             }
             int fsNlriLen = cb.writerIndex() - mpUnReachIndx;
             cb.setShort(mpUnReachIndx, (short) (fsNlriLen - 2));
@@ -446,6 +501,20 @@ public class MpUnReachNlri implements BgpValueType {
 
             int evpnNlriLen = cb.writerIndex() - mpReachDataIndx;
             cb.setShort(mpReachDataIndx, (short) (evpnNlriLen - 2));
+        } else if (MpReachNlri.isUnicast(afi, safi)) {
+            cb.writeByte(FLAGS);
+            cb.writeByte(MPUNREACHNLRI_TYPE);
+
+            int mpUnReachIndx = cb.writerIndex();
+            cb.writeShort(0);
+            cb.writeShort(afi);
+            cb.writeByte(safi);
+
+            for (IpPrefix prefix : unicastNlri) {
+                Validation.writePrefix(cb, prefix);
+            }
+            int unicastNlriLen = cb.writerIndex() - mpUnReachIndx;
+            cb.setShort(mpUnReachIndx, (short) (unicastNlriLen - 2));
         }
         return cb.writerIndex() - iLenStartIndex;
     }
@@ -461,6 +530,7 @@ public class MpUnReachNlri implements BgpValueType {
         return MoreObjects.toStringHelper(getClass()).omitNullValues()
                 .add("mpReachNlri", bgpLSNlri)
                 .add("bgpFlowSpecNlri", bgpFlowSpecNlri)
+                .add("unicastNlri", unicastNlri)
                 .add("afi", afi)
                 .add("safi", safi)
                 .add("length", length)
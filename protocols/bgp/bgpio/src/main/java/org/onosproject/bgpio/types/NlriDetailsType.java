@@ -13,6 +13,10 @@ public enum NlriDetailsType {
     /**
      * Signifies Evpn Nlri.
      */
-    EVPN;
+    EVPN,
+    /**
+     * Signifies IPv4 or IPv6 unicast Nlri.
+     */
+    UNICAST;
 
 }
@@ -36,6 +36,8 @@ public final class Constants {
     public static final byte SAFI_VALUE = 71;
     public static final short AFI_IPV4_UNICAST = 1;
     public static final byte SAFI_IPV4_UNICAST = 1;
+    public static final short AFI_IPV6_UNICAST = 2;
+    public static final byte SAFI_IPV6_UNICAST = 1;
     public static final short AFI_FLOWSPEC_VALUE = 1;
     public static final byte SAFI_FLOWSPEC_VALUE = (byte) 133;
     public static final byte VPN_SAFI_FLOWSPEC_VALUE = (byte) 134;
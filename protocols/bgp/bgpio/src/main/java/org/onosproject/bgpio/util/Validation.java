@@ -19,12 +19,15 @@ package org.onosproject.bgpio.util;
 import java.net.InetAddress;
 import java.net.UnknownHostException;
 import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
 import org.jboss.netty.buffer.ChannelBuffer;
 import org.jboss.netty.buffer.ChannelBuffers;
 import org.onlab.packet.IpAddress;
 import org.onlab.packet.IpPrefix;
 import org.onlab.packet.MacAddress;
 import org.onosproject.bgpio.exceptions.BgpParseException;
+import org.onosproject.bgpio.types.BgpErrorType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -40,6 +43,8 @@ public class Validation {
     public static final byte THIRD_BIT = 0x20;
     public static final byte FOURTH_BIT = (byte) 0x10;
     public static final byte IPV4_SIZE = 4;
+    public static final byte IPV6_SIZE = 16;
+    private static final int BYTE_IN_BITS = 8;
     private boolean firstBit;
     private boolean secondBit;
     private boolean thirdBit;
@@ -235,4 +240,43 @@ public class Validation {
         return ipPrefix;
     }
 
+
+    /**
+     * Reads a sequence of length-prefixed IP prefixes, as carried in the NLRI
+     * and withdrawn routes fields of an UPDATE message.
+     *
+     * @param cb channelBuffer holding only the prefixes
+     * @param version IP version of the prefixes
+     * @return list of prefixes
+     * @throws BgpParseException if a prefix is malformed
+     */
+    public static List<IpPrefix> readPrefixes(ChannelBuffer cb, IpAddress.Version version)
+            throws BgpParseException {
+        int size = version == IpAddress.Version.INET ? IPV4_SIZE : IPV6_SIZE;
+        List<IpPrefix> prefixes = new LinkedList<>();
+        while (cb.readableBytes() > 0) {
+            int length = cb.readUnsignedByte();
+            int len = (length + BYTE_IN_BITS - 1) / BYTE_IN_BITS;
+            if (length > size * BYTE_IN_BITS || cb.readableBytes() < len) {
+                throw new BgpParseException(BgpErrorType.UPDATE_MESSAGE_ERROR,
+                                            BgpErrorType.INVALID_NETWORK_FIELD, null);
+            }
+            byte[] value = new byte[size];
+            cb.readBytes(value, 0, len);
+            prefixes.add(IpPrefix.valueOf(IpAddress.valueOf(version, value), length));
+        }
+        return prefixes;
+    }
+
+    /**
+     * Writes an IP prefix in length-prefixed form.
+     *
+     * @param cb channelBuffer
+     * @param prefix IP prefix
+     */
+    public static void writePrefix(ChannelBuffer cb, IpPrefix prefix) {
+        int length = prefix.prefixLength();
+        cb.writeByte(length);
+        cb.writeBytes(prefix.address().toOctets(), 0, (length + BYTE_IN_BITS - 1) / BYTE_IN_BITS);
+    }
 }
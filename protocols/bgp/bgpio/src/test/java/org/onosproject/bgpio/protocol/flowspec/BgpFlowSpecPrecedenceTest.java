@@ -0,0 +1,111 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.bgpio.protocol.flowspec;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+
+import org.junit.Test;
+import org.onlab.packet.IpPrefix;
+import org.onosproject.bgpio.types.BgpFsDestinationPrefix;
+import org.onosproject.bgpio.types.BgpFsIpProtocol;
+import org.onosproject.bgpio.types.BgpFsOperatorValue;
+import org.onosproject.bgpio.types.BgpFsPortNum;
+import org.onosproject.bgpio.types.BgpValueType;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+
+/**
+ * Test for RFC 5575 ordering and overlap detection of flow specifications.
+ */
+public class BgpFlowSpecPrecedenceTest {
+
+    private static BgpFlowSpecNlri flowSpec(BgpValueType... components) {
+        return new BgpFlowSpecNlri(new LinkedList<>(Arrays.asList(components)));
+    }
+
+    private static BgpFsDestinationPrefix dstPrefix(String prefix) {
+        IpPrefix ipPrefix = IpPrefix.valueOf(prefix);
+        return new BgpFsDestinationPrefix((byte) ipPrefix.prefixLength(), ipPrefix);
+    }
+
+    private static BgpFsIpProtocol ipProtocol(int protocol) {
+        List<BgpFsOperatorValue> operatorValue = new LinkedList<>();
+        operatorValue.add(new BgpFsOperatorValue((byte) 0x81, new byte[] {(byte) protocol}));
+        return new BgpFsIpProtocol(operatorValue);
+    }
+
+    private static BgpFsPortNum portGreaterThan(int port) {
+        List<BgpFsOperatorValue> operatorValue = new LinkedList<>();
+        operatorValue.add(new BgpFsOperatorValue((byte) 0x82, new byte[] {(byte) port}));
+        return new BgpFsPortNum(operatorValue);
+    }
+
+    /**
+     * Checks that more specific destination prefixes take precedence.
+     */
+    @Test
+    public void testMoreSpecificPrefixFirst() {
+        BgpFlowSpecNlri wide = flowSpec(dstPrefix("10.0.0.0/8"));
+        BgpFlowSpecNlri narrow = flowSpec(dstPrefix("10.1.0.0/16"));
+        BgpFlowSpecNlri other = flowSpec(dstPrefix("11.0.0.0/24"));
+
+        assertThat(BgpFlowSpecPrecedence.COMPARATOR.compare(narrow, wide), lessThan(0));
+        assertThat(BgpFlowSpecPrecedence.COMPARATOR.compare(wide, other), lessThan(0));
+        assertThat(BgpFlowSpecPrecedence.COMPARATOR.compare(other, narrow), greaterThan(0));
+    }
+
+    /**
+     * Checks that the rule carrying the lower component type takes precedence
+     * and that more components win on a tie.
+     */
+    @Test
+    public void testComponentTypeOrder() {
+        BgpFlowSpecNlri prefixOnly = flowSpec(dstPrefix("10.0.0.0/8"));
+        BgpFlowSpecNlri protocolOnly = flowSpec(ipProtocol(6));
+        BgpFlowSpecNlri prefixAndProtocol = flowSpec(ipProtocol(6), dstPrefix("10.0.0.0/8"));
+
+        assertThat(BgpFlowSpecPrecedence.COMPARATOR.compare(prefixOnly, protocolOnly), lessThan(0));
+        assertThat(BgpFlowSpecPrecedence.COMPARATOR.compare(prefixAndProtocol, prefixOnly), lessThan(0));
+        assertThat(BgpFlowSpecPrecedence.COMPARATOR.compare(prefixOnly, flowSpec(dstPrefix("10.0.0.0/8"))), is(0));
+
+        List<BgpFlowSpecNlri> rules = new LinkedList<>(Arrays.asList(protocolOnly, prefixOnly, prefixAndProtocol));
+        Collections.sort(rules, BgpFlowSpecPrecedence.COMPARATOR);
+        assertThat(rules, is(Arrays.asList(prefixAndProtocol, prefixOnly, protocolOnly)));
+    }
+
+    /**
+     * Checks overlap detection between prefixes and operator lists.
+     */
+    @Test
+    public void testOverlaps() {
+        BgpFlowSpecPrecedence tcpTo10 = BgpFlowSpecPrecedence.of(flowSpec(dstPrefix("10.0.0.0/8"), ipProtocol(6)));
+        BgpFlowSpecPrecedence udpTo10 = BgpFlowSpecPrecedence.of(flowSpec(dstPrefix("10.1.0.0/16"), ipProtocol(17)));
+        BgpFlowSpecPrecedence anyTo10 = BgpFlowSpecPrecedence.of(flowSpec(dstPrefix("10.1.0.0/16")));
+        BgpFlowSpecPrecedence tcpTo11 = BgpFlowSpecPrecedence.of(flowSpec(dstPrefix("11.0.0.0/8"), ipProtocol(6)));
+        BgpFlowSpecPrecedence highPorts = BgpFlowSpecPrecedence.of(flowSpec(portGreaterThan(80)));
+
+        assertThat(tcpTo10.overlaps(udpTo10), is(false));
+        assertThat(tcpTo10.overlaps(anyTo10), is(true));
+        assertThat(tcpTo10.overlaps(tcpTo11), is(false));
+        assertThat(highPorts.overlaps(tcpTo10), is(true));
+    }
+}
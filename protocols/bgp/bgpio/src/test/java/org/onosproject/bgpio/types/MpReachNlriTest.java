@@ -16,17 +16,27 @@
 package org.onosproject.bgpio.types;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.core.Is.is;
 
+import com.google.common.collect.ImmutableList;
 import org.jboss.netty.buffer.ChannelBuffer;
 import org.jboss.netty.buffer.ChannelBuffers;
 import org.junit.Test;
+import org.onlab.packet.IpAddress;
+import org.onlab.packet.IpPrefix;
 import org.onosproject.bgpio.exceptions.BgpParseException;
 import org.onosproject.bgpio.protocol.BgpFactories;
 import org.onosproject.bgpio.protocol.BgpMessage;
 import org.onosproject.bgpio.protocol.BgpMessageReader;
+import org.onosproject.bgpio.protocol.flowspec.BgpFlowSpecNlri;
 import org.onosproject.bgpio.protocol.ver4.BgpUpdateMsgVer4;
+import org.onosproject.bgpio.util.Constants;
+
+import java.util.LinkedList;
+import java.util.List;
 
 /**
  * Test for MP reach NLRI encoding and decoding.
@@ -161,4 +171,63 @@ public class MpReachNlriTest {
 
         assertThat(testFsMsg, is(flowSpecMsg));
     }
+
+    /**
+     * Checks decoding of IPv6 unicast reachability with a link local next hop,
+     * and encoding back.
+     */
+    @Test
+    public void mpReachNlriIpv6UnicastTest() throws BgpParseException {
+        byte[] mpReach = new byte[] {(byte) 0x90, 0x0e, 0x00, 0x35, 0x00, 0x02, 0x01, 0x20,
+                0x20, 0x01, 0x0d, (byte) 0xb8, 0x00, 0x00, 0x00, 0x00,
+                0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x01,
+                (byte) 0xfe, (byte) 0x80, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00,
+                0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x01, 0x00,
+                0x40, 0x20, 0x01, 0x0d, (byte) 0xb8, 0x00, 0x01, 0x00, 0x00,
+                0x30, 0x20, 0x01, 0x0d, (byte) 0xb8, 0x00, 0x02};
+
+        ChannelBuffer buffer = ChannelBuffers.dynamicBuffer();
+        buffer.writeBytes(mpReach);
+        MpReachNlri nlri = MpReachNlri.read(buffer);
+
+        assertThat(nlri.getNlriDetailsType(), is(NlriDetailsType.UNICAST));
+        assertThat(nlri.unicastNextHop(), is(IpAddress.valueOf("2001:db8::1")));
+        assertThat(nlri.unicastNlri(), contains(IpPrefix.valueOf("2001:db8:1::/64"),
+                                                IpPrefix.valueOf("2001:db8:2::/48")));
+
+        ChannelBuffer buf = ChannelBuffers.dynamicBuffer();
+        nlri.write(buf);
+        MpReachNlri decoded = MpReachNlri.read(buf);
+        assertThat(decoded.unicastNextHop(), is(nlri.unicastNextHop()));
+        assertThat(decoded.unicastNlri(), is(nlri.unicastNlri()));
+    }
+
+    /**
+     * Checks that several flow specifications written in one MP reach NLRI
+     * attribute are read back as separate flow specifications.
+     */
+    @Test
+    public void flowSpecsRoundTrip() throws BgpParseException {
+        BgpFlowSpecNlri first = flowSpec("10.1.1.0/24", (byte) 6);
+        BgpFlowSpecNlri second = flowSpec("10.2.0.0/16", (byte) 17);
+        ChannelBuffer buf = ChannelBuffers.dynamicBuffer();
+        MpReachNlri.of(ImmutableList.of(first, second), Constants.AFI_FLOWSPEC_VALUE,
+                       Constants.SAFI_FLOWSPEC_VALUE).write(buf);
+
+        MpReachNlri read = MpReachNlri.read(buf);
+        assertThat(read.bgpFlowSpecNlris(), hasSize(2));
+        assertThat(read.bgpFlowSpecNlris().get(0).flowSpecComponents(), is(first.flowSpecComponents()));
+        assertThat(read.bgpFlowSpecNlris().get(1).flowSpecComponents(), is(second.flowSpecComponents()));
+        assertThat(buf.readableBytes(), is(0));
+    }
+
+    private static BgpFlowSpecNlri flowSpec(String prefix, byte protocol) {
+        IpPrefix ipPrefix = IpPrefix.valueOf(prefix);
+        List<BgpFsOperatorValue> operators = new LinkedList<>();
+        operators.add(new BgpFsOperatorValue((byte) 0x81, new byte[]{protocol}));
+        List<BgpValueType> components = new LinkedList<>();
+        components.add(new BgpFsDestinationPrefix((byte) ipPrefix.prefixLength(), ipPrefix));
+        components.add(new BgpFsIpProtocol(operators));
+        return new BgpFlowSpecNlri(components);
+    }
 }
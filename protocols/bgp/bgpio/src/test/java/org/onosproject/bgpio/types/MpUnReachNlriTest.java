@@ -16,17 +16,26 @@
 package org.onosproject.bgpio.types;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.core.Is.is;
 
+import com.google.common.collect.ImmutableList;
 import org.jboss.netty.buffer.ChannelBuffer;
 import org.jboss.netty.buffer.ChannelBuffers;
 import org.junit.Test;
+import org.onlab.packet.IpPrefix;
 import org.onosproject.bgpio.exceptions.BgpParseException;
 import org.onosproject.bgpio.protocol.BgpFactories;
 import org.onosproject.bgpio.protocol.BgpMessage;
 import org.onosproject.bgpio.protocol.BgpMessageReader;
+import org.onosproject.bgpio.protocol.flowspec.BgpFlowSpecNlri;
 import org.onosproject.bgpio.protocol.ver4.BgpUpdateMsgVer4;
+import org.onosproject.bgpio.util.Constants;
+
+import java.util.LinkedList;
+import java.util.List;
 
 /**
  * Test for MP unreach NLRI encoding and decoding.
@@ -69,4 +78,56 @@ public class MpUnReachNlriTest {
 
         assertThat(testFsMsg, is(flowSpecMsg));
     }
+
+    /**
+     * Checks decoding and encoding of IPv4 unicast withdrawals.
+     */
+    @Test
+    public void mpUnReachNlriIpv4UnicastTest() throws BgpParseException {
+        byte[] mpUnReach = new byte[] {(byte) 0x90, 0x0f, 0x00, 0x09, 0x00, 0x01, 0x01,
+                0x08, 0x0a, 0x18, (byte) 0xc0, (byte) 0xa8, 0x01};
+
+        ChannelBuffer buffer = ChannelBuffers.dynamicBuffer();
+        buffer.writeBytes(mpUnReach);
+        MpUnReachNlri nlri = MpUnReachNlri.read(buffer);
+
+        assertThat(nlri.getNlriDetailsType(), is(NlriDetailsType.UNICAST));
+        assertThat(nlri.unicastNlri(), contains(IpPrefix.valueOf("10.0.0.0/8"),
+                                                IpPrefix.valueOf("192.168.1.0/24")));
+
+        ChannelBuffer buf = ChannelBuffers.dynamicBuffer();
+        nlri.write(buf);
+        byte[] written = new byte[buf.writerIndex()];
+        buf.readBytes(written);
+        assertThat(written, is(mpUnReach));
+    }
+
+    /**
+     * Checks that several flow specifications written in one MP unreach NLRI
+     * attribute are read back as separate flow specifications.
+     */
+    @Test
+    public void flowSpecsRoundTrip() throws BgpParseException {
+        BgpFlowSpecNlri first = flowSpec("10.1.1.0/24", (byte) 6);
+        BgpFlowSpecNlri second = flowSpec("10.2.0.0/16", (byte) 17);
+        ChannelBuffer buf = ChannelBuffers.dynamicBuffer();
+        MpUnReachNlri.of(ImmutableList.of(first, second), Constants.AFI_FLOWSPEC_VALUE,
+                       Constants.SAFI_FLOWSPEC_VALUE).write(buf);
+
+        MpUnReachNlri read = MpUnReachNlri.read(buf);
+        assertThat(read.bgpFlowSpecNlris(), hasSize(2));
+        assertThat(read.bgpFlowSpecNlris().get(0).flowSpecComponents(), is(first.flowSpecComponents()));
+        assertThat(read.bgpFlowSpecNlris().get(1).flowSpecComponents(), is(second.flowSpecComponents()));
+        assertThat(buf.readableBytes(), is(0));
+    }
+
+    private static BgpFlowSpecNlri flowSpec(String prefix, byte protocol) {
+        IpPrefix ipPrefix = IpPrefix.valueOf(prefix);
+        List<BgpFsOperatorValue> operators = new LinkedList<>();
+        operators.add(new BgpFsOperatorValue((byte) 0x81, new byte[]{protocol}));
+        List<BgpValueType> components = new LinkedList<>();
+        components.add(new BgpFsDestinationPrefix((byte) ipPrefix.prefixLength(), ipPrefix));
+        components.add(new BgpFsIpProtocol(operators));
+        return new BgpFlowSpecNlri(components);
+    }
 }
@@ -90,6 +90,7 @@ class BgpChannelHandler extends IdleStateAwareChannelHandler {
     private long peerAsNum;
     private int peerIdentifier;
     private BgpPacketStatsImpl bgpPacketStats;
+    private volatile BgpPeerMetricsImpl peerMetrics;
     static final int MAX_WRONG_COUNT_PACKET = 5;
     static final byte MULTI_PROTOCOL_EXTN_CAPA_TYPE = 1;
     static final byte FOUR_OCTET_AS_NUM_CAPA_TYPE = 65;
@@ -327,6 +328,7 @@ class BgpChannelHandler extends IdleStateAwareChannelHandler {
                     } else {
                         h.setState(ESTABLISHED);
                         h.bgpconfig.setPeerConnState(h.peerAddr, BgpPeerCfg.State.ESTABLISHED);
+                        h.peerMetrics.sessionUp((BgpPeerImpl) h.bgpPeer);
                     }
                 }
             }
@@ -423,6 +425,8 @@ class BgpChannelHandler extends IdleStateAwareChannelHandler {
             return;
         }
 
+        peerMetrics = peerManager.peerMetrics(peerAddr);
+
         // if connection is already established close channel
         if (peerManager.isPeerConnected(BgpId.bgpId(IpAddress.valueOf(peerAddr)))) {
             log.debug("Duplicate connection received, peer {}", peerAddr);
@@ -471,6 +475,7 @@ class BgpChannelHandler extends IdleStateAwareChannelHandler {
                     BgpPeerImpl peer = (BgpPeerImpl) bgpPeer;
                     peerManager.removeConnectedPeer(thisbgpId);
                     peer.updateLocalRibOnPeerDisconnect();
+                    peerMetrics.sessionDown();
                 }
 
                 // Retry connection if connection is lost to bgp speaker/peer
@@ -674,6 +679,15 @@ class BgpChannelHandler extends IdleStateAwareChannelHandler {
         return bgpPacketStats;
     }
 
+    /**
+     * Returns the instrumentation of the connected peer.
+     *
+     * @return peer metrics, or null until the peer address is known
+     */
+    BgpPeerMetricsImpl peerMetrics() {
+        return peerMetrics;
+    }
+
     /**
      * Send handshake open message to the peer.
      *
@@ -707,7 +721,8 @@ class BgpChannelHandler extends IdleStateAwareChannelHandler {
                 .setVpnFlowSpecCapabilityTlv(vpnFlowSpecStatus)
                 .setFlowSpecRpdCapabilityTlv(bgpconfig.flowSpecRpdCapability())
                 .setVpnv4CapabilityTlv(vpnv4Cability)
-                .setEvpnCapabilityTlv(evpnCability).build();
+                .setEvpnCapabilityTlv(evpnCability)
+                .setIpv6UnicastCapabilityTlv(bgpconfig.ipv6UnicastCapability()).build();
         log.debug("Sending open message to {}", channel.getRemoteAddress());
         channel.write(Collections.singletonList(msg));
 
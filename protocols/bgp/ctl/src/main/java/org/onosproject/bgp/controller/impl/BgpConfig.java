@@ -60,6 +60,7 @@ public class BgpConfig implements BgpCfg {
     private boolean rpdCapability;
     private boolean vpnv4Capability;
     private boolean evpnCapability;
+    private boolean ipv6UnicastCapability;
 
     /*
      * Constructor to initialize the values.
@@ -151,6 +152,16 @@ public class BgpConfig implements BgpCfg {
         this.evpnCapability = evpnCapability;
     }
 
+    @Override
+    public boolean ipv6UnicastCapability() {
+        return this.ipv6UnicastCapability;
+    }
+
+    @Override
+    public void setIpv6UnicastCapability(boolean ipv6UnicastCapability) {
+        this.ipv6UnicastCapability = ipv6UnicastCapability;
+    }
+
     @Override
     public boolean flowSpecRpdCapability() {
         return this.rpdCapability;
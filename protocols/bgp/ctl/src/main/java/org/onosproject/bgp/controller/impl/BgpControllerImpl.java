@@ -19,7 +19,12 @@ package org.onosproject.bgp.controller.impl;
 import org.apache.felix.scr.annotations.Activate;
 import org.apache.felix.scr.annotations.Component;
 import org.apache.felix.scr.annotations.Deactivate;
+import org.apache.felix.scr.annotations.Reference;
+import org.apache.felix.scr.annotations.ReferenceCardinality;
 import org.apache.felix.scr.annotations.Service;
+import org.onlab.metrics.MetricsService;
+import org.onlab.packet.IpAddress;
+import org.onlab.packet.IpPrefix;
 import org.onosproject.bgp.controller.BgpCfg;
 import org.onosproject.bgp.controller.BgpController;
 import org.onosproject.bgp.controller.BgpId;
@@ -28,7 +33,9 @@ import org.onosproject.bgp.controller.BgpLocalRib;
 import org.onosproject.bgp.controller.BgpNodeListener;
 import org.onosproject.bgp.controller.BgpPeer;
 import org.onosproject.bgp.controller.BgpPeerManager;
+import org.onosproject.bgp.controller.BgpPeerMetrics;
 import org.onosproject.bgp.controller.BgpRouteListener;
+import org.onosproject.bgp.controller.BgpUnicastRouteListener;
 import org.onosproject.bgpio.exceptions.BgpParseException;
 import org.onosproject.bgpio.protocol.BgpMessage;
 import org.onosproject.bgpio.protocol.BgpUpdateMsg;
@@ -38,10 +45,14 @@ import org.onosproject.bgpio.types.MpUnReachNlri;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CopyOnWriteArraySet;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
@@ -62,11 +73,19 @@ public class BgpControllerImpl implements BgpController {
     protected Set<BgpNodeListener> bgpNodeListener = new CopyOnWriteArraySet<>();
     protected Set<BgpLinkListener> bgpLinkListener = new CopyOnWriteArraySet<>();
     protected Set<BgpRouteListener> bgpRouteListener = new CopyOnWriteArraySet<>();
+    protected Set<BgpUnicastRouteListener> bgpUnicastRouteListener = new CopyOnWriteArraySet<>();
+
+    private final BgpUnicastRib unicastRib = new BgpUnicastRib();
 
     final Controller ctrl = new Controller(this);
 
     private BgpConfig bgpconfig = new BgpConfig(this);
 
+    private final ConcurrentMap<String, BgpPeerMetricsImpl> peerMetrics = new ConcurrentHashMap<>();
+
+    @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
+    protected MetricsService metricsService;
+
     @Activate
     public void activate() {
         this.ctrl.start();
@@ -78,6 +97,8 @@ public class BgpControllerImpl implements BgpController {
         // Close all connected peers
         closeConnectedPeers();
         this.ctrl.stop();
+        peerMetrics.values().forEach(BgpPeerMetricsImpl::unregister);
+        peerMetrics.clear();
         log.info("Stopped");
     }
 
@@ -128,9 +149,13 @@ public class BgpControllerImpl implements BgpController {
             break;
         case UPDATE:
             BgpUpdateMsg updateMsg = (BgpUpdateMsg) msg;
-            List<BgpValueType> pathAttr = updateMsg.bgpPathAttributes().pathAttributes();
+            long start = System.nanoTime();
+            updateUnicastRib(bgpId, peer, updateMsg);
+            List<BgpValueType> pathAttr = updateMsg.bgpPathAttributes() == null ? null
+                    : updateMsg.bgpPathAttributes().pathAttributes();
             if (pathAttr == null) {
                log.debug("llPathAttr is null, cannot process update message");
+               peerMetrics(bgpId).ribCommitted(System.nanoTime() - start);
                break;
             }
             Iterator<BgpValueType> listIterator = pathAttr.iterator();
@@ -166,6 +191,7 @@ public class BgpControllerImpl implements BgpController {
                     listener.addRoute(bgpId, updateMsg);
                 }
             }
+            peerMetrics(bgpId).ribCommitted(System.nanoTime() - start);
             break;
         default:
             // TODO: Process other message
@@ -173,6 +199,81 @@ public class BgpControllerImpl implements BgpController {
         }
     }
 
+    /**
+     * Applies the IPv4 and IPv6 unicast routes of an UPDATE message to the
+     * unicast RIB and notifies listeners of the resulting best path changes.
+     *
+     * @param bgpId peer the message was received from
+     * @param peer BGP peer
+     * @param updateMsg UPDATE message
+     */
+    private void updateUnicastRib(BgpId bgpId, BgpPeer peer, BgpUpdateMsg updateMsg) {
+        int peerIdentifier = peer.sessionInfo().remoteBgpIdentifier();
+        synchronized (unicastRib) {
+            notifyUnicastRouteListeners(unicastRib.processUpdate(bgpId, peerIdentifier, updateMsg));
+        }
+    }
+
+    /**
+     * Removes the unicast routes learnt from a peer.
+     *
+     * @param bgpId peer
+     */
+    private void flushUnicastRib(BgpId bgpId) {
+        synchronized (unicastRib) {
+            notifyUnicastRouteListeners(unicastRib.removePeer(bgpId));
+        }
+    }
+
+    // Called with the RIB lock held, so listeners see changes in order
+    private void notifyUnicastRouteListeners(BgpUnicastRib.Delta delta) {
+        Map<IpPrefix, IpAddress> withdrawn = delta.withdrawn();
+        Map<IpPrefix, IpAddress> updated = delta.updated();
+        for (BgpUnicastRouteListener listener : bgpUnicastRouteListener) {
+            if (!withdrawn.isEmpty()) {
+                listener.routesWithdrawn(withdrawn);
+            }
+            if (!updated.isEmpty()) {
+                listener.routesUpdated(updated);
+            }
+        }
+    }
+
+    /**
+     * Returns the instrumentation of a peer, creating and publishing it the
+     * first time the peer is seen.
+     *
+     * @param peerAddr peer address
+     * @return peer metrics
+     */
+    BgpPeerMetricsImpl peerMetricsFor(String peerAddr) {
+        BgpPeerMetricsImpl existing = peerMetrics.get(peerAddr);
+        if (existing != null) {
+            return existing;
+        }
+        return peerMetrics.computeIfAbsent(peerAddr, addr -> {
+            BgpPeerMetricsImpl metrics = new BgpPeerMetricsImpl(addr);
+            if (metricsService != null) {
+                metrics.register(metricsService);
+            }
+            return metrics;
+        });
+    }
+
+    private BgpPeerMetricsImpl peerMetrics(BgpId bgpId) {
+        return peerMetricsFor(bgpId.ipAddress().toString());
+    }
+
+    @Override
+    public Collection<BgpPeerMetrics> peerMetrics() {
+        return Collections.unmodifiableCollection(peerMetrics.values());
+    }
+
+    @Override
+    public BgpPeerMetrics peerMetrics(String peerAddr) {
+        return peerMetrics.get(peerAddr);
+    }
+
     @Override
     public void closeConnectedPeers() {
         BgpPeer bgpPeer;
@@ -218,6 +319,7 @@ public class BgpControllerImpl implements BgpController {
         @Override
         public void removeConnectedPeer(BgpId bgpId) {
             connectedPeers.remove(bgpId);
+            flushUnicastRib(bgpId);
         }
 
         @Override
@@ -225,6 +327,16 @@ public class BgpControllerImpl implements BgpController {
             return connectedPeers.get(bgpId);
         }
 
+        /**
+         * Gets the instrumentation of a peer.
+         *
+         * @param peerAddr peer address
+         * @return peer metrics
+         */
+        public BgpPeerMetricsImpl peerMetrics(String peerAddr) {
+            return peerMetricsFor(peerAddr);
+        }
+
         /**
          * Gets bgp peer instance.
          *
@@ -320,4 +432,20 @@ public class BgpControllerImpl implements BgpController {
     public Set<BgpRouteListener> routeListener() {
         return bgpRouteListener;
     }
+
+    @Override
+    public void addUnicastRouteListener(BgpUnicastRouteListener listener) {
+        synchronized (unicastRib) {
+            Map<IpPrefix, IpAddress> routes = unicastRib.bestRoutes();
+            if (!routes.isEmpty()) {
+                listener.routesUpdated(routes);
+            }
+            this.bgpUnicastRouteListener.add(listener);
+        }
+    }
+
+    @Override
+    public void removeUnicastRouteListener(BgpUnicastRouteListener listener) {
+        this.bgpUnicastRouteListener.remove(listener);
+    }
 }
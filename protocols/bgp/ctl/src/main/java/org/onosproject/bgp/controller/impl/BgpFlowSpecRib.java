@@ -0,0 +1,197 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.onosproject.bgp.controller.impl;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+import org.onosproject.bgpio.protocol.flowspec.BgpFlowSpecNlri;
+import org.onosproject.bgpio.protocol.flowspec.BgpFlowSpecPrecedence;
+import org.onosproject.bgpio.protocol.flowspec.BgpFlowSpecRouteKey;
+
+import com.google.common.base.MoreObjects;
+
+/**
+ * Implementation of the flow specification RIB advertised to each peer.
+ * Rules are indexed by route key and by match, and kept in RFC 5575
+ * precedence order, so that overlapping rules, such as a discard of a
+ * prefix with a rate-limited exception for a more specific one, coexist and
+ * are resolved by their order. Only rules repeating the very match of
+ * another rule under a different key are reported as conflicts.
+ */
+public class BgpFlowSpecRib {
+    private final Map<BgpFlowSpecRouteKey, Entry> flowSpecTree = new HashMap<>();
+    private final TreeSet<Entry> precedenceTree = new TreeSet<>();
+    // Route key of the rule installed for each route distinguisher and match
+    private final Map<List<Object>, BgpFlowSpecRouteKey> matchIndex = new HashMap<>();
+
+    /**
+     * Returns the flow specification stored for the route key.
+     *
+     * @param routeKey flow specification route key
+     * @return flow specification or null if absent
+     */
+    public synchronized BgpFlowSpecNlri get(BgpFlowSpecRouteKey routeKey) {
+        Entry entry = flowSpecTree.get(routeKey);
+        return entry != null ? entry.flowSpec : null;
+    }
+
+    /**
+     * Returns the number of flow specifications in the RIB.
+     *
+     * @return number of flow specifications
+     */
+    public synchronized int size() {
+        return flowSpecTree.size();
+    }
+
+    /**
+     * Returns route keys in precedence order, highest precedence first.
+     *
+     * @return ordered route keys
+     */
+    public synchronized List<BgpFlowSpecRouteKey> orderedKeys() {
+        return precedenceTree.stream().map(entry -> entry.routeKey).collect(Collectors.toList());
+    }
+
+    /**
+     * Returns route keys of installed rules that conflict with the given
+     * flow specification, that is rules with the very same match and route
+     * distinguisher under another key.
+     *
+     * @param routeKey route key of the candidate rule
+     * @param flowSpec candidate flow specification
+     * @return conflicting route keys, empty if none
+     */
+    public synchronized Set<BgpFlowSpecRouteKey> conflicts(BgpFlowSpecRouteKey routeKey, BgpFlowSpecNlri flowSpec) {
+        return conflicts(new Entry(routeKey, flowSpec));
+    }
+
+    private Set<BgpFlowSpecRouteKey> conflicts(Entry candidate) {
+        BgpFlowSpecRouteKey installed = matchIndex.get(candidate.match());
+        if (installed == null || installed.equals(candidate.routeKey)) {
+            return Collections.emptySet();
+        }
+        return Collections.singleton(installed);
+    }
+
+    /**
+     * Returns route keys of installed rules whose match overlaps that of the
+     * given flow specification while their actions differ. Such rules are
+     * installed and resolved by their precedence order; this scans the RIB
+     * and is meant for reporting them.
+     *
+     * @param routeKey route key of the candidate rule
+     * @param flowSpec candidate flow specification
+     * @return overlapping route keys in precedence order, empty if none
+     */
+    public synchronized Set<BgpFlowSpecRouteKey> overlaps(BgpFlowSpecRouteKey routeKey, BgpFlowSpecNlri flowSpec) {
+        Entry candidate = new Entry(routeKey, flowSpec);
+        Set<BgpFlowSpecRouteKey> overlaps = new LinkedHashSet<>();
+        for (Entry entry : precedenceTree) {
+            if (!entry.routeKey.equals(routeKey)
+                    && Objects.equals(entry.flowSpec.routeDistinguisher(), flowSpec.routeDistinguisher())
+                    && !Objects.equals(entry.flowSpec.fsActionTlv(), flowSpec.fsActionTlv())
+                    && entry.precedence.overlaps(candidate.precedence)) {
+                overlaps.add(entry.routeKey);
+            }
+        }
+        return overlaps;
+    }
+
+    /**
+     * Adds or replaces the flow specification for the route key unless it
+     * conflicts with another installed rule.
+     *
+     * @param routeKey flow specification route key
+     * @param flowSpec flow specification
+     * @return conflicting route keys; empty if the rule was installed
+     */
+    public synchronized Set<BgpFlowSpecRouteKey> add(BgpFlowSpecRouteKey routeKey, BgpFlowSpecNlri flowSpec) {
+        Entry entry = new Entry(routeKey, flowSpec);
+        Set<BgpFlowSpecRouteKey> conflicts = conflicts(entry);
+        if (!conflicts.isEmpty()) {
+            return conflicts;
+        }
+
+        Entry old = flowSpecTree.put(routeKey, entry);
+        if (old != null) {
+            precedenceTree.remove(old);
+            matchIndex.remove(old.match());
+        }
+        precedenceTree.add(entry);
+        matchIndex.put(entry.match(), routeKey);
+        return Collections.emptySet();
+    }
+
+    /**
+     * Removes the flow specification for the route key.
+     *
+     * @param routeKey flow specification route key
+     * @return removed flow specification or null if absent
+     */
+    public synchronized BgpFlowSpecNlri remove(BgpFlowSpecRouteKey routeKey) {
+        Entry old = flowSpecTree.remove(routeKey);
+        if (old == null) {
+            return null;
+        }
+        precedenceTree.remove(old);
+        matchIndex.remove(old.match());
+        return old.flowSpec;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(getClass()).omitNullValues()
+                .add("flowSpecTree", flowSpecTree.size())
+                .toString();
+    }
+
+    /**
+     * Flow specification together with its precomputed precedence.
+     */
+    private static final class Entry implements Comparable<Entry> {
+        private final BgpFlowSpecRouteKey routeKey;
+        private final BgpFlowSpecNlri flowSpec;
+        private final BgpFlowSpecPrecedence precedence;
+
+        private Entry(BgpFlowSpecRouteKey routeKey, BgpFlowSpecNlri flowSpec) {
+            this.routeKey = routeKey;
+            this.flowSpec = flowSpec;
+            this.precedence = BgpFlowSpecPrecedence.of(flowSpec);
+        }
+
+        // Route distinguisher and match, identifying rules with the same match
+        private List<Object> match() {
+            return Arrays.asList(flowSpec.routeDistinguisher(), precedence);
+        }
+
+        @Override
+        public int compareTo(Entry other) {
+            int result = precedence.compareTo(other.precedence);
+            return result != 0 ? result : routeKey.compareTo(other.routeKey);
+        }
+    }
+}
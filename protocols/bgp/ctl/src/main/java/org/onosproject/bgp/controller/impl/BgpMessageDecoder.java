@@ -26,6 +26,7 @@ import org.onosproject.bgpio.protocol.BgpMessage;
 import org.onlab.util.HexDump;
 import org.onosproject.bgpio.protocol.BgpFactories;
 import org.onosproject.bgpio.protocol.BgpMessageReader;
+import org.onosproject.bgpio.protocol.BgpType;
 import org.onosproject.bgpio.types.BgpHeader;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -37,6 +38,24 @@ public class BgpMessageDecoder extends FrameDecoder {
 
     protected static final Logger log = LoggerFactory.getLogger(BgpMessageDecoder.class);
 
+    private final BgpChannelHandler handler;
+
+    /**
+     * Creates a decoder which does not record decode latency.
+     */
+    public BgpMessageDecoder() {
+        this(null);
+    }
+
+    /**
+     * Creates a decoder recording UPDATE decode latency for the handler's peer.
+     *
+     * @param handler channel handler of the same pipeline
+     */
+    BgpMessageDecoder(BgpChannelHandler handler) {
+        this.handler = handler;
+    }
+
     @Override
     protected Object decode(ChannelHandlerContext ctx, Channel channel, ChannelBuffer buffer) throws Exception {
         log.debug("MESSAGE IS RECEIVED.");
@@ -58,7 +77,11 @@ public class BgpMessageDecoder extends FrameDecoder {
             while (buffer.readableBytes() > 0) {
                 buffer.markReaderIndex();
                 BgpHeader bgpHeader = new BgpHeader();
+                long start = System.nanoTime();
                 BgpMessage message = reader.readFrom(buffer, bgpHeader);
+                if (message.getType() == BgpType.UPDATE) {
+                    recordUpdateDecoded(System.nanoTime() - start);
+                }
                 msgList.add(message);
             }
             ctx.setAttachment(null);
@@ -71,4 +94,11 @@ public class BgpMessageDecoder extends FrameDecoder {
         }
         return null;
     }
-}
\ No newline at end of file
+
+    private void recordUpdateDecoded(long nanos) {
+        BgpPeerMetricsImpl metrics = handler == null ? null : handler.peerMetrics();
+        if (metrics != null) {
+            metrics.updateDecoded(nanos);
+        }
+    }
+}
@@ -20,7 +20,9 @@ import java.util.List;
 import org.jboss.netty.buffer.ChannelBuffer;
 import org.jboss.netty.buffer.ChannelBuffers;
 import org.jboss.netty.channel.Channel;
+import org.jboss.netty.channel.ChannelEvent;
 import org.jboss.netty.channel.ChannelHandlerContext;
+import org.jboss.netty.channel.MessageEvent;
 import org.jboss.netty.handler.codec.oneone.OneToOneEncoder;
 import org.onosproject.bgpio.protocol.BgpMessage;
 import org.onlab.util.HexDump;
@@ -35,6 +37,36 @@ import org.slf4j.LoggerFactory;
 public class BgpMessageEncoder extends OneToOneEncoder {
     protected static final Logger log = LoggerFactory.getLogger(BgpMessageEncoder.class);
 
+    private final BgpChannelHandler handler;
+
+    /**
+     * Creates an encoder which does not track the outbound queue.
+     */
+    public BgpMessageEncoder() {
+        this(null);
+    }
+
+    /**
+     * Creates an encoder tracking the outbound queue depth of the handler's peer.
+     *
+     * @param handler channel handler of the same pipeline
+     */
+    BgpMessageEncoder(BgpChannelHandler handler) {
+        this.handler = handler;
+    }
+
+    @Override
+    public void handleDownstream(ChannelHandlerContext ctx, ChannelEvent evt) throws Exception {
+        BgpPeerMetricsImpl metrics = handler == null ? null : handler.peerMetrics();
+        if (metrics != null && evt instanceof MessageEvent
+                && ((MessageEvent) evt).getMessage() instanceof List) {
+            int count = ((List<?>) ((MessageEvent) evt).getMessage()).size();
+            metrics.messagesQueued(count);
+            evt.getFuture().addListener(future -> metrics.messagesFlushed(count));
+        }
+        super.handleDownstream(ctx, evt);
+    }
+
     @Override
     protected Object encode(ChannelHandlerContext ctx, Channel channel, Object msg) throws Exception {
         log.debug("BGPMessageEncoder::encode");
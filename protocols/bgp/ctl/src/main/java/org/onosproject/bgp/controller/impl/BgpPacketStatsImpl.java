@@ -17,6 +17,8 @@ package org.onosproject.bgp.controller.impl;
 
 import org.onosproject.bgp.controller.BgpPacketStats;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 /**
  * A representation of a packet context which allows any provider
  * to view a packet in event, but may block the response to the
@@ -25,18 +27,16 @@ import org.onosproject.bgp.controller.BgpPacketStats;
  */
 public class BgpPacketStatsImpl implements BgpPacketStats {
 
-    private int inPacketCount;
-    private int outPacketCount;
-    private int wrongPacketCount;
-    private long time;
+    // Updated from the I/O thread and from callers sending to the peer
+    private final AtomicInteger inPacketCount = new AtomicInteger();
+    private final AtomicInteger outPacketCount = new AtomicInteger();
+    private final AtomicInteger wrongPacketCount = new AtomicInteger();
+    private volatile long time;
 
     /**
      * Resets parameter.
      */
     public BgpPacketStatsImpl() {
-        this.inPacketCount = 0;
-        this.outPacketCount = 0;
-        this.wrongPacketCount = 0;
         this.time = 0;
     }
 
@@ -46,7 +46,7 @@ public class BgpPacketStatsImpl implements BgpPacketStats {
      * @return packet count
      */
     public int outPacketCount() {
-        return outPacketCount;
+        return outPacketCount.get();
     }
 
     /**
@@ -55,7 +55,7 @@ public class BgpPacketStatsImpl implements BgpPacketStats {
      * @return packet count
      */
     public int inPacketCount() {
-        return inPacketCount;
+        return inPacketCount.get();
     }
 
     /**
@@ -64,21 +64,21 @@ public class BgpPacketStatsImpl implements BgpPacketStats {
      * @return packet count
      */
     public int wrongPacketCount() {
-        return wrongPacketCount;
+        return wrongPacketCount.get();
     }
 
     /**
      * Increments the received packet counter.
      */
     public void addInPacket() {
-        this.inPacketCount++;
+        inPacketCount.incrementAndGet();
     }
 
     /**
      * Increments the sent packet counter.
      */
     public void addOutPacket() {
-        this.outPacketCount++;
+        outPacketCount.incrementAndGet();
     }
 
     /**
@@ -87,21 +87,21 @@ public class BgpPacketStatsImpl implements BgpPacketStats {
      * @param value of no of packets sent
      */
     public void addOutPacket(int value) {
-        this.outPacketCount = this.outPacketCount + value;
+        outPacketCount.addAndGet(value);
     }
 
     /**
      * Increments the wrong packet counter.
      */
     public void addWrongPacket() {
-        this.wrongPacketCount++;
+        wrongPacketCount.incrementAndGet();
     }
 
     /**
      * Resets wrong packet count.
      */
     public void resetWrongPacket() {
-        this.wrongPacketCount = 0;
+        wrongPacketCount.set(0);
     }
 
     /**
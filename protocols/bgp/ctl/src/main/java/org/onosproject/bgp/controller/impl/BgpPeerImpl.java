@@ -18,7 +18,10 @@ package org.onosproject.bgp.controller.impl;
 
 import com.google.common.base.MoreObjects;
 import com.google.common.base.Preconditions;
+import com.google.common.collect.Maps;
 
+import org.jboss.netty.buffer.ChannelBuffer;
+import org.jboss.netty.buffer.ChannelBuffers;
 import org.jboss.netty.channel.Channel;
 import org.onlab.packet.Ip4Address;
 import org.onlab.packet.IpAddress;
@@ -33,6 +36,7 @@ import org.onosproject.bgpio.protocol.BgpFactory;
 import org.onosproject.bgpio.protocol.BgpLSNlri;
 import org.onosproject.bgpio.protocol.BgpMessage;
 import org.onosproject.bgpio.protocol.flowspec.BgpFlowSpecNlri;
+import org.onosproject.bgpio.protocol.flowspec.BgpFlowSpecPrecedence;
 import org.onosproject.bgpio.protocol.flowspec.BgpFlowSpecRouteKey;
 import org.onosproject.bgpio.protocol.linkstate.BgpLinkLsNlriVer4;
 import org.onosproject.bgpio.protocol.linkstate.BgpNodeLSNlriVer4;
@@ -57,11 +61,17 @@ import org.slf4j.LoggerFactory;
 import java.net.InetSocketAddress;
 import java.net.SocketAddress;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.ListIterator;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.RejectedExecutionException;
+import java.util.stream.Collectors;
 
 /**
  * BGPPeerImpl implements BGPPeer, maintains peer information and store updates
@@ -72,6 +82,11 @@ public class BgpPeerImpl implements BgpPeer {
     protected final Logger log = LoggerFactory.getLogger(BgpPeerImpl.class);
 
     private static final String SHUTDOWN_MSG = "Worker has already been shutdown";
+    private static final int MAX_MESSAGE_LENGTH = 4096;
+    // Message header, withdrawn routes length and total path attribute length
+    private static final int UPDATE_OVERHEAD = 23;
+    // MP NLRI attribute header, AFI, SAFI, next hop, SNPA and route distinguisher
+    private static final int MP_NLRI_OVERHEAD = 17;
 
     private BgpController bgpController;
     private Channel channel;
@@ -84,6 +99,7 @@ public class BgpPeerImpl implements BgpPeer {
     private BgpLocalRib bgplocalRibVpn;
     private AdjRibIn adjRib;
     private VpnAdjRibIn vpnAdjRib;
+    private BgpFlowSpecRib flowSpecRib;
 
     /**
      * Return the adjacency RIB-IN.
@@ -94,6 +110,15 @@ public class BgpPeerImpl implements BgpPeer {
         return adjRib;
     }
 
+    /**
+     * Return the flow specification RIB advertised to the peer.
+     *
+     * @return flowSpecRib the flow specification RIB
+     */
+    public BgpFlowSpecRib flowSpecRib() {
+        return flowSpecRib;
+    }
+
     /**
      * Return the adjacency RIB-IN with VPN.
      *
@@ -124,6 +149,7 @@ public class BgpPeerImpl implements BgpPeer {
         this.bgplocalRibVpn = bgpController.bgpLocalRibVpn();
         this.adjRib = new AdjRibIn();
         this.vpnAdjRib = new VpnAdjRibIn();
+        this.flowSpecRib = new BgpFlowSpecRib();
     }
 
     /**
@@ -172,11 +198,67 @@ public class BgpPeerImpl implements BgpPeer {
                                                       BgpFlowSpecRouteKey routeKey,
                                                       BgpFlowSpecNlri flowSpec,
                                                       WideCommunity wideCommunity) {
+        sendFlowSpecUpdateMessageToPeer(operType, Collections.singletonList(flowSpec), wideCommunity);
+    }
 
-        List<BgpValueType> attributesList = new LinkedList<>();
-        byte sessionType = sessionInfo.isIbgpSession() ? (byte) 0 : (byte) 1;
-        byte sAfi = Constants.SAFI_FLOWSPEC_VALUE;
+    /**
+     * Send flow specification update messages to peer. Flow specifications
+     * sharing actions and route distinguisher are packed into the same
+     * UPDATE message up to the maximum BGP message length.
+     *
+     * @param operType operation type
+     * @param flowSpecs flow specification details
+     * @param wideCommunity for route policy
+     */
+    public final void sendFlowSpecUpdateMessageToPeer(OperationType operType,
+                                                      List<BgpFlowSpecNlri> flowSpecs,
+                                                      WideCommunity wideCommunity) {
+        byte sAfi = flowSpecSafi();
+        if (sAfi == 0) {
+            log.debug("Peer do not support BGP flow spec capability",
+                      channel.getRemoteAddress());
+            return;
+        }
+
+        // Rules with identical actions and route distinguisher can share path attributes
+        Map<List<Object>, List<BgpFlowSpecNlri>> groups = new LinkedHashMap<>();
+        for (BgpFlowSpecNlri flowSpec : flowSpecs) {
+            groups.computeIfAbsent(Arrays.asList(flowSpec.fsActionTlv(), flowSpec.routeDistinguisher()),
+                                   k -> new ArrayList<>()).add(flowSpec);
+        }
+
+        List<BgpMessage> msgs = new ArrayList<>();
+        for (List<BgpFlowSpecNlri> group : groups.values()) {
+            List<BgpValueType> attributesList = flowSpecAttributes(group.get(0), wideCommunity);
+            int budget = MAX_MESSAGE_LENGTH - UPDATE_OVERHEAD - MP_NLRI_OVERHEAD - encodedLength(attributesList);
+
+            List<BgpFlowSpecNlri> packed = new ArrayList<>();
+            int packedLength = 0;
+            for (BgpFlowSpecNlri flowSpec : group) {
+                ChannelBuffer cb = ChannelBuffers.dynamicBuffer();
+                BgpFlowSpecNlri.updateBuffer(cb, flowSpec);
+                int length = cb.readableBytes();
+
+                if (!packed.isEmpty() && packedLength + length > budget) {
+                    msgs.add(flowSpecUpdateMessage(operType, attributesList, packed, sAfi));
+                    packed = new ArrayList<>();
+                    packedLength = 0;
+                }
+                packed.add(flowSpec);
+                packedLength += length;
+            }
+            if (!packed.isEmpty()) {
+                msgs.add(flowSpecUpdateMessage(operType, attributesList, packed, sAfi));
+            }
+        }
+
+        log.debug("Sending {} Flow spec Update message(s) for {} rule(s) to {}",
+                  msgs.size(), flowSpecs.size(), channel.getRemoteAddress());
+        channel.write(msgs);
+    }
 
+    // Returns the flow specification SAFI negotiated with the peer, 0 if none.
+    private byte flowSpecSafi() {
         boolean isFsCapabilitySet = isCapabilitySupported(MultiProtocolExtnCapabilityTlv.TYPE,
                                                           Constants.AFI_FLOWSPEC_VALUE,
                                                           Constants.SAFI_FLOWSPEC_VALUE);
@@ -195,16 +277,22 @@ public class BgpPeerImpl implements BgpPeer {
 
         if ((!isFsCapabilitySet) && (!isVpnFsCapabilitySet)
                 && (!isRpdCapabilitySet) && (!isVpnRpdCapabilitySet)) {
-            log.debug("Peer do not support BGP flow spec capability",
-                      channel.getRemoteAddress());
-            return;
+            return 0;
         }
 
         if (isVpnFsCapabilitySet) {
-            sAfi = Constants.VPN_SAFI_FLOWSPEC_VALUE;
+            return Constants.VPN_SAFI_FLOWSPEC_VALUE;
         } else if (isVpnRpdCapabilitySet) {
-            sAfi = Constants.VPN_SAFI_FLOWSPEC_RDP_VALUE;
+            return Constants.VPN_SAFI_FLOWSPEC_RDP_VALUE;
         }
+        return Constants.SAFI_FLOWSPEC_VALUE;
+    }
+
+    // Builds the path attributes shared by all rules with the actions of the given rule.
+    private List<BgpValueType> flowSpecAttributes(BgpFlowSpecNlri flowSpec, WideCommunity wideCommunity) {
+        List<BgpValueType> attributesList = new LinkedList<>();
+        byte sessionType = sessionInfo.isIbgpSession() ? (byte) 0 : (byte) 1;
+
         attributesList.add(new Origin((byte) 0));
 
         if (sessionType != 0) {
@@ -235,24 +323,33 @@ public class BgpPeerImpl implements BgpPeer {
         if (wideCommunity != null) {
             attributesList.add(wideCommunity);
         }
+        return attributesList;
+    }
 
+    private BgpMessage flowSpecUpdateMessage(OperationType operType, List<BgpValueType> attributes,
+                                             List<BgpFlowSpecNlri> flowSpecs, byte sAfi) {
+        List<BgpValueType> attributesList = new LinkedList<>(attributes);
         if (operType == OperationType.ADD) {
             attributesList
-                    .add(new MpReachNlri(flowSpec, Constants.AFI_FLOWSPEC_VALUE,
-                                         sAfi));
+                    .add(MpReachNlri.of(flowSpecs, Constants.AFI_FLOWSPEC_VALUE,
+                                        sAfi));
         } else if (operType == OperationType.DELETE) {
             attributesList
-                    .add(new MpUnReachNlri(flowSpec,
-                                           Constants.AFI_FLOWSPEC_VALUE, sAfi));
+                    .add(MpUnReachNlri.of(flowSpecs,
+                                          Constants.AFI_FLOWSPEC_VALUE, sAfi));
         }
 
-        BgpMessage msg = Controller.getBgpMessageFactory4()
+        return Controller.getBgpMessageFactory4()
                 .updateMessageBuilder().setBgpPathAttributes(attributesList)
                 .build();
+    }
 
-        log.debug("Sending Flow spec Update message to {}",
-                  channel.getRemoteAddress());
-        channel.write(Collections.singletonList(msg));
+    private static int encodedLength(List<BgpValueType> attributes) {
+        ChannelBuffer cb = ChannelBuffers.dynamicBuffer();
+        for (BgpValueType attribute : attributes) {
+            attribute.write(cb);
+        }
+        return cb.readableBytes();
     }
 
     @Override
@@ -260,18 +357,71 @@ public class BgpPeerImpl implements BgpPeer {
                                BgpFlowSpecRouteKey routeKey,
                                BgpFlowSpecNlri flowSpec,
                                WideCommunity wideCommunity) {
+        Preconditions.checkNotNull(routeKey,
+                                   "flow specification prefix cannot be null");
+        Preconditions.checkNotNull(flowSpec,
+                                   "flow specification details cannot be null");
+
+        updateFlowSpec(operType, Collections.singletonMap(routeKey, flowSpec),
+                       wideCommunity);
+    }
+
+    @Override
+    public Set<BgpFlowSpecRouteKey> updateFlowSpec(OperationType operType,
+                                                   Map<BgpFlowSpecRouteKey, BgpFlowSpecNlri> flowSpecs,
+                                                   WideCommunity wideCommunity) {
         Preconditions
                 .checkNotNull(operType,
                               "flow specification operation type cannot be null");
-        Preconditions.checkNotNull(routeKey,
+        Preconditions.checkNotNull(flowSpecs,
+                                   "flow specifications cannot be null");
+
+        if (flowSpecSafi() == 0) {
+            log.debug("Peer {} does not support BGP flow spec capability",
+                      channel.getRemoteAddress());
+            return new HashSet<>(flowSpecs.keySet());
+        }
+
+        Set<BgpFlowSpecRouteKey> rejected = new HashSet<>();
+        List<Map.Entry<BgpFlowSpecPrecedence, BgpFlowSpecNlri>> accepted = new ArrayList<>(flowSpecs.size());
+        for (Map.Entry<BgpFlowSpecRouteKey, BgpFlowSpecNlri> entry : flowSpecs.entrySet()) {
+            BgpFlowSpecRouteKey routeKey = Preconditions.checkNotNull(entry.getKey(),
                                    "flow specification prefix cannot be null");
-        Preconditions.checkNotNull(flowSpec,
+            BgpFlowSpecNlri flowSpec = Preconditions.checkNotNull(entry.getValue(),
                                    "flow specification details cannot be null");
-        Preconditions.checkNotNull(flowSpec.fsActionTlv(),
+            Preconditions.checkNotNull(flowSpec.fsActionTlv(),
                                    "flow specification action cannot be null");
 
-        sendFlowSpecUpdateMessageToPeer(operType, routeKey, flowSpec,
-                                        wideCommunity);
+            if (operType == OperationType.DELETE) {
+                flowSpecRib.remove(routeKey);
+            } else {
+                if (log.isDebugEnabled()) {
+                    Set<BgpFlowSpecRouteKey> overlaps = flowSpecRib.overlaps(routeKey, flowSpec);
+                    if (!overlaps.isEmpty()) {
+                        log.debug("Flow specification {} overlaps {} with other actions, "
+                                          + "resolved by precedence", routeKey, overlaps);
+                    }
+                }
+                Set<BgpFlowSpecRouteKey> conflicts = flowSpecRib.add(routeKey, flowSpec);
+                if (!conflicts.isEmpty()) {
+                    log.warn("Flow specification {} has the same match as {}, not advertised",
+                             routeKey, conflicts);
+                    rejected.add(routeKey);
+                    continue;
+                }
+            }
+            accepted.add(Maps.immutableEntry(BgpFlowSpecPrecedence.of(flowSpec), flowSpec));
+        }
+
+        if (!accepted.isEmpty()) {
+            // Advertise in RFC 5575 precedence order, highest first
+            accepted.sort(Map.Entry.comparingByKey());
+            sendFlowSpecUpdateMessageToPeer(operType,
+                                            accepted.stream().map(Map.Entry::getValue)
+                                                    .collect(Collectors.toList()),
+                                            wideCommunity);
+        }
+        return rejected;
     }
 
     @Override
@@ -0,0 +1,220 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.bgp.controller.impl;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Metric;
+import com.codahale.metrics.Timer;
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableMap;
+import org.onlab.metrics.MetricsComponent;
+import org.onlab.metrics.MetricsFeature;
+import org.onlab.metrics.MetricsService;
+import org.onosproject.bgp.controller.BgpPeerMetrics;
+import org.onosproject.bgpio.util.Constants;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Instrumentation of a BGP peer. Updated from the netty I/O threads, so all
+ * counters are lock free.
+ */
+public class BgpPeerMetricsImpl implements BgpPeerMetrics {
+
+    static final String COMPONENT_NAME = "bgp";
+    static final String UPDATE_DECODE_LATENCY = "updateDecodeLatency";
+    static final String RIB_COMMIT_LATENCY = "ribCommitLatency";
+    static final String OUTBOUND_QUEUE_DEPTH = "outboundQueueDepth";
+    static final String FLAPS = "flaps";
+    static final String PREFIXES = "prefixes.";
+
+    private static final String LS = family(Constants.AFI_VALUE, Constants.SAFI_VALUE);
+    private static final String VPN_LS = family(Constants.AFI_VALUE, Constants.VPN_SAFI_VALUE);
+    private static final String FLOWSPEC = family(Constants.AFI_FLOWSPEC_VALUE, Constants.SAFI_FLOWSPEC_VALUE);
+
+    private final String peerAddr;
+    private final Timer updateDecodeLatency = new Timer();
+    private final Timer ribCommitLatency = new Timer();
+    private final AtomicLong outboundQueueDepth = new AtomicLong();
+    private final Counter flaps = new Counter();
+
+    private volatile BgpPeerImpl peer;
+
+    private MetricsService metricsService;
+    private MetricsComponent component;
+    private MetricsFeature feature;
+    private final List<String> registered = new ArrayList<>();
+
+    /**
+     * Creates the instrumentation of a peer.
+     *
+     * @param peerAddr peer address
+     */
+    public BgpPeerMetricsImpl(String peerAddr) {
+        this.peerAddr = peerAddr;
+    }
+
+    /**
+     * Publishes the metrics of this peer through the metrics service.
+     *
+     * @param metricsService metrics service
+     */
+    synchronized void register(MetricsService metricsService) {
+        this.metricsService = metricsService;
+        component = metricsService.registerComponent(COMPONENT_NAME);
+        feature = component.registerFeature(peerAddr);
+
+        register(UPDATE_DECODE_LATENCY, updateDecodeLatency);
+        register(RIB_COMMIT_LATENCY, ribCommitLatency);
+        register(OUTBOUND_QUEUE_DEPTH, (Gauge<Long>) this::outboundQueueDepth);
+        register(FLAPS, flaps);
+        for (String family : new String[] {LS, VPN_LS, FLOWSPEC}) {
+            register(PREFIXES + family.replace('/', '.'),
+                     (Gauge<Long>) () -> prefixCounts().getOrDefault(family, 0L));
+        }
+    }
+
+    private void register(String name, Metric metric) {
+        metricsService.registerMetric(component, feature, name, metric);
+        registered.add(name);
+    }
+
+    /**
+     * Withdraws the metrics of this peer from the metrics service.
+     */
+    synchronized void unregister() {
+        if (metricsService == null) {
+            return;
+        }
+        registered.forEach(name -> metricsService.removeMetric(component, feature, name));
+        registered.clear();
+        metricsService = null;
+    }
+
+    /**
+     * Binds the metrics to the peer of a newly established session.
+     *
+     * @param peer BGP peer
+     */
+    void sessionUp(BgpPeerImpl peer) {
+        this.peer = peer;
+    }
+
+    /**
+     * Records that the established session went down.
+     */
+    void sessionDown() {
+        if (peer != null) {
+            peer = null;
+            flaps.inc();
+        }
+    }
+
+    /**
+     * Records the time taken to decode an UPDATE message.
+     *
+     * @param nanos elapsed time in nanoseconds
+     */
+    void updateDecoded(long nanos) {
+        updateDecodeLatency.update(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Records the time taken to apply an UPDATE message to the RIB.
+     *
+     * @param nanos elapsed time in nanoseconds
+     */
+    void ribCommitted(long nanos) {
+        ribCommitLatency.update(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Records messages handed to the channel.
+     *
+     * @param count number of messages
+     */
+    void messagesQueued(int count) {
+        outboundQueueDepth.addAndGet(count);
+    }
+
+    /**
+     * Records messages flushed to the socket, or dropped with the channel.
+     *
+     * @param count number of messages
+     */
+    void messagesFlushed(int count) {
+        outboundQueueDepth.addAndGet(-count);
+    }
+
+    @Override
+    public String peerAddress() {
+        return peerAddr;
+    }
+
+    @Override
+    public Timer updateDecodeLatency() {
+        return updateDecodeLatency;
+    }
+
+    @Override
+    public Timer ribCommitLatency() {
+        return ribCommitLatency;
+    }
+
+    @Override
+    public Map<String, Long> prefixCounts() {
+        BgpPeerImpl current = peer;
+        if (current == null) {
+            return ImmutableMap.of();
+        }
+        AdjRibIn adjRib = current.adjRib();
+        VpnAdjRibIn vpnAdjRib = current.vpnAdjRib();
+        return ImmutableMap.of(
+                LS, (long) adjRib.nodeTree().size() + adjRib.linkTree().size()
+                        + adjRib.prefixTree().size(),
+                VPN_LS, (long) vpnAdjRib.nodeTree().size() + vpnAdjRib.linkTree().size()
+                        + vpnAdjRib.prefixTree().size(),
+                FLOWSPEC, (long) current.flowSpecRib().size());
+    }
+
+    @Override
+    public long outboundQueueDepth() {
+        return outboundQueueDepth.get();
+    }
+
+    @Override
+    public long flapCount() {
+        return flaps.getCount();
+    }
+
+    private static String family(short afi, byte safi) {
+        return afi + "/" + (safi & 0xff);
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(getClass())
+                .add("peerAddr", peerAddr)
+                .add("updates", updateDecodeLatency.getCount())
+                .add("flaps", flaps.getCount())
+                .toString();
+    }
+}
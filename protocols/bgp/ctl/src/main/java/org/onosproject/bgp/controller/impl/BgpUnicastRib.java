@@ -0,0 +1,404 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.bgp.controller.impl;
+
+import com.google.common.base.MoreObjects;
+import org.onlab.packet.IpAddress;
+import org.onlab.packet.IpPrefix;
+import org.onosproject.bgp.controller.BgpId;
+import org.onosproject.bgpio.protocol.BgpUpdateMsg;
+import org.onosproject.bgpio.types.As4Path;
+import org.onosproject.bgpio.types.AsPath;
+import org.onosproject.bgpio.types.BgpValueType;
+import org.onosproject.bgpio.types.LocalPref;
+import org.onosproject.bgpio.types.Med;
+import org.onosproject.bgpio.types.MpReachNlri;
+import org.onosproject.bgpio.types.MpUnReachNlri;
+import org.onosproject.bgpio.types.NextHop;
+import org.onosproject.bgpio.types.NlriDetailsType;
+import org.onosproject.bgpio.types.Origin;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Loc-RIB of the IPv4 and IPv6 unicast routes received from all peers. The
+ * attributes of an UPDATE are decoded once and shared by all of its prefixes,
+ * and every change reports the resulting best path delta.
+ * Not thread safe; callers serialize access.
+ */
+public class BgpUnicastRib {
+
+    static final long DEFAULT_LOCAL_PREF = 100;
+
+    private final Map<IpPrefix, Map<BgpId, Attributes>> paths = new HashMap<>();
+    private final Map<IpPrefix, BgpId> best = new HashMap<>();
+    private final Map<BgpId, Set<IpPrefix>> peerPrefixes = new HashMap<>();
+    private final Map<BgpId, Integer> peerIdentifiers = new HashMap<>();
+
+    /**
+     * Applies the unicast withdrawals and advertisements of an UPDATE message.
+     *
+     * @param peer peer the message was received from
+     * @param peerIdentifier BGP identifier of the peer
+     * @param updateMsg UPDATE message
+     * @return best path changes
+     */
+    public Delta processUpdate(BgpId peer, int peerIdentifier, BgpUpdateMsg updateMsg) {
+        Delta delta = new Delta();
+        List<BgpValueType> pathAttr = updateMsg.bgpPathAttributes() == null ? null
+                : updateMsg.bgpPathAttributes().pathAttributes();
+
+        withdraw(peer, updateMsg.withdrawnRoutes(), delta);
+        if (pathAttr == null) {
+            return delta;
+        }
+        for (BgpValueType attr : pathAttr) {
+            if (attr instanceof MpUnReachNlri) {
+                MpUnReachNlri mpUnReach = (MpUnReachNlri) attr;
+                if (mpUnReach.getNlriDetailsType() == NlriDetailsType.UNICAST) {
+                    withdraw(peer, mpUnReach.unicastNlri(), delta);
+                }
+            }
+        }
+
+        List<IpPrefix> nlri = updateMsg.nlri();
+        if (nlri != null && !nlri.isEmpty()) {
+            IpAddress nextHop = null;
+            for (BgpValueType attr : pathAttr) {
+                if (attr instanceof NextHop) {
+                    nextHop = ((NextHop) attr).nextHop();
+                }
+            }
+            if (nextHop != null) {
+                update(peer, peerIdentifier, nlri, Attributes.of(pathAttr, nextHop), delta);
+            }
+        }
+        for (BgpValueType attr : pathAttr) {
+            if (attr instanceof MpReachNlri) {
+                MpReachNlri mpReach = (MpReachNlri) attr;
+                if (mpReach.getNlriDetailsType() == NlriDetailsType.UNICAST) {
+                    update(peer, peerIdentifier, mpReach.unicastNlri(),
+                           Attributes.of(pathAttr, mpReach.unicastNextHop()), delta);
+                }
+            }
+        }
+        return delta;
+    }
+
+    /**
+     * Installs the paths of a peer towards the given prefixes.
+     *
+     * @param peer peer advertising the prefixes
+     * @param peerIdentifier BGP identifier of the peer
+     * @param prefixes reachable prefixes
+     * @param attributes path attributes shared by the prefixes
+     * @param delta best path changes to add to
+     */
+    void update(BgpId peer, int peerIdentifier, Collection<IpPrefix> prefixes,
+                Attributes attributes, Delta delta) {
+        if (prefixes == null || prefixes.isEmpty()) {
+            return;
+        }
+        peerIdentifiers.put(peer, peerIdentifier);
+        Set<IpPrefix> advertised = peerPrefixes.computeIfAbsent(peer, k -> new HashSet<>());
+        for (IpPrefix prefix : prefixes) {
+            Map<BgpId, Attributes> candidates = paths.computeIfAbsent(prefix, k -> new HashMap<>(4));
+            IpAddress previous = bestNextHop(prefix, candidates);
+            candidates.put(peer, attributes);
+            advertised.add(prefix);
+            select(prefix, candidates, previous, delta);
+        }
+    }
+
+    /**
+     * Removes the paths of a peer towards the given prefixes.
+     *
+     * @param peer peer withdrawing the prefixes
+     * @param prefixes withdrawn prefixes
+     * @param delta best path changes to add to
+     */
+    void withdraw(BgpId peer, Collection<IpPrefix> prefixes, Delta delta) {
+        if (prefixes == null || prefixes.isEmpty()) {
+            return;
+        }
+        Set<IpPrefix> advertised = peerPrefixes.get(peer);
+        if (advertised == null) {
+            return;
+        }
+        for (IpPrefix prefix : prefixes) {
+            if (advertised.remove(prefix)) {
+                removePath(peer, prefix, delta);
+            }
+        }
+        if (advertised.isEmpty()) {
+            peerPrefixes.remove(peer);
+        }
+    }
+
+    /**
+     * Removes all paths of a peer, typically once its session went down.
+     *
+     * @param peer peer
+     * @return best path changes
+     */
+    public Delta removePeer(BgpId peer) {
+        Delta delta = new Delta();
+        Set<IpPrefix> advertised = peerPrefixes.remove(peer);
+        peerIdentifiers.remove(peer);
+        if (advertised != null) {
+            advertised.forEach(prefix -> removePath(peer, prefix, delta));
+        }
+        return delta;
+    }
+
+    /**
+     * Returns the next hop of the best path of every prefix.
+     *
+     * @return prefixes mapped to next hops
+     */
+    public Map<IpPrefix, IpAddress> bestRoutes() {
+        Map<IpPrefix, IpAddress> routes = new HashMap<>(best.size());
+        best.forEach((prefix, peer) -> routes.put(prefix, bestNextHop(prefix, paths.get(prefix))));
+        return routes;
+    }
+
+    /**
+     * Returns the number of prefixes advertised by a peer.
+     *
+     * @param peer peer
+     * @return prefix count
+     */
+    public int prefixCount(BgpId peer) {
+        Set<IpPrefix> advertised = peerPrefixes.get(peer);
+        return advertised == null ? 0 : advertised.size();
+    }
+
+    private void removePath(BgpId peer, IpPrefix prefix, Delta delta) {
+        Map<BgpId, Attributes> candidates = paths.get(prefix);
+        IpAddress previous = bestNextHop(prefix, candidates);
+        candidates.remove(peer);
+        if (candidates.isEmpty()) {
+            paths.remove(prefix);
+            best.remove(prefix);
+            delta.record(prefix, previous, null);
+        } else if (peer.equals(best.get(prefix))) {
+            select(prefix, candidates, previous, delta);
+        }
+    }
+
+    private IpAddress bestNextHop(IpPrefix prefix, Map<BgpId, Attributes> candidates) {
+        BgpId peer = best.get(prefix);
+        return peer == null ? null : candidates.get(peer).nextHop;
+    }
+
+    private void select(IpPrefix prefix, Map<BgpId, Attributes> candidates,
+                        IpAddress previous, Delta delta) {
+        BgpId bestPeer = null;
+        Attributes bestPath = null;
+        for (Map.Entry<BgpId, Attributes> candidate : candidates.entrySet()) {
+            if (bestPath == null || isBetter(candidate.getKey(), candidate.getValue(), bestPeer, bestPath)) {
+                bestPeer = candidate.getKey();
+                bestPath = candidate.getValue();
+            }
+        }
+        best.put(prefix, bestPeer);
+        delta.record(prefix, previous, bestPath.nextHop);
+    }
+
+    /**
+     * Compares two paths following the BGP decision process: higher local
+     * preference, shorter AS path, lower origin, lower MED between paths from
+     * the same neighbor AS, lower BGP identifier and lower peer address.
+     */
+    private boolean isBetter(BgpId peer, Attributes path, BgpId otherPeer, Attributes other) {
+        if (path.localPref != other.localPref) {
+            return path.localPref > other.localPref;
+        }
+        if (path.asPathLength != other.asPathLength) {
+            return path.asPathLength < other.asPathLength;
+        }
+        if (path.origin != other.origin) {
+            return path.origin < other.origin;
+        }
+        if (path.neighborAs == other.neighborAs && path.med != other.med) {
+            return path.med < other.med;
+        }
+        int identifier = peerIdentifiers.getOrDefault(peer, 0);
+        int otherIdentifier = peerIdentifiers.getOrDefault(otherPeer, 0);
+        if (identifier != otherIdentifier) {
+            return Integer.compareUnsigned(identifier, otherIdentifier) < 0;
+        }
+        return peer.ipAddress().compareTo(otherPeer.ipAddress()) < 0;
+    }
+
+    /**
+     * Path attributes relevant to best path selection, shared by all
+     * prefixes of an UPDATE message.
+     */
+    static final class Attributes {
+        private final IpAddress nextHop;
+        private final long localPref;
+        private final int asPathLength;
+        private final long neighborAs;
+        private final int origin;
+        private final long med;
+
+        Attributes(IpAddress nextHop, long localPref, int asPathLength, long neighborAs,
+                   int origin, long med) {
+            this.nextHop = nextHop;
+            this.localPref = localPref;
+            this.asPathLength = asPathLength;
+            this.neighborAs = neighborAs;
+            this.origin = origin;
+            this.med = med;
+        }
+
+        /**
+         * Decodes the selection attributes from the path attributes of an UPDATE.
+         *
+         * @param pathAttr path attributes
+         * @param nextHop next hop of the prefixes
+         * @return attributes
+         */
+        static Attributes of(List<BgpValueType> pathAttr, IpAddress nextHop) {
+            long localPref = DEFAULT_LOCAL_PREF;
+            int origin = Origin.OriginType.INCOMPLETE.getType();
+            long med = 0;
+            List<Long> sequence = new ArrayList<>();
+            List<Long> as4Sequence = null;
+            boolean asSet = false;
+            boolean as4Set = false;
+            for (BgpValueType attr : pathAttr) {
+                if (attr instanceof LocalPref) {
+                    localPref = Integer.toUnsignedLong(((LocalPref) attr).localPref());
+                } else if (attr instanceof Med) {
+                    med = Integer.toUnsignedLong(((Med) attr).med());
+                } else if (attr instanceof Origin) {
+                    origin = ((Origin) attr).origin().getType();
+                } else if (attr instanceof AsPath) {
+                    AsPath asPath = (AsPath) attr;
+                    if (asPath.asPathSeq() != null) {
+                        asPath.asPathSeq().forEach(as -> sequence.add(Short.toUnsignedLong(as)));
+                    }
+                    asSet = asPath.asPathSet() != null && !asPath.asPathSet().isEmpty();
+                } else if (attr instanceof As4Path) {
+                    As4Path as4Path = (As4Path) attr;
+                    as4Sequence = new ArrayList<>();
+                    if (as4Path.as4PathSeq() != null) {
+                        for (int as : as4Path.as4PathSeq()) {
+                            as4Sequence.add(Integer.toUnsignedLong(as));
+                        }
+                    }
+                    as4Set = as4Path.as4PathSet() != null && !as4Path.as4PathSet().isEmpty();
+                }
+            }
+            // A 2-octet speaker carries 4-octet AS numbers as AS_TRANS in
+            // AS_PATH and in full in AS4_PATH, which replaces the trailing
+            // part of the AS path (RFC 6793)
+            if (as4Sequence != null && as4Sequence.size() <= sequence.size()) {
+                sequence.subList(sequence.size() - as4Sequence.size(), sequence.size()).clear();
+                sequence.addAll(as4Sequence);
+                asSet |= as4Set;
+            }
+            long neighborAs = sequence.isEmpty() ? 0 : sequence.get(0);
+            // An AS_SET counts as a single hop
+            int asPathLength = sequence.size() + (asSet ? 1 : 0);
+            return new Attributes(nextHop, localPref, asPathLength, neighborAs, origin, med);
+        }
+
+        @Override
+        public String toString() {
+            return MoreObjects.toStringHelper(getClass())
+                    .add("nextHop", nextHop)
+                    .add("localPref", localPref)
+                    .add("asPathLength", asPathLength)
+                    .add("origin", origin)
+                    .add("med", med)
+                    .toString();
+        }
+    }
+
+    /**
+     * Best path changes caused by one RIB operation.
+     */
+    public static final class Delta {
+        // Next hop before the first and after the last change, null if unreachable
+        private final Map<IpPrefix, IpAddress> before = new LinkedHashMap<>();
+        private final Map<IpPrefix, IpAddress> after = new LinkedHashMap<>();
+
+        private void record(IpPrefix prefix, IpAddress previous, IpAddress current) {
+            if (!before.containsKey(prefix)) {
+                before.put(prefix, previous);
+            }
+            after.put(prefix, current);
+        }
+
+        /**
+         * Returns prefixes whose best path was installed or changed next hop.
+         *
+         * @return prefixes mapped to the next hop of their best path
+         */
+        public Map<IpPrefix, IpAddress> updated() {
+            Map<IpPrefix, IpAddress> updated = new LinkedHashMap<>();
+            after.forEach((prefix, nextHop) -> {
+                if (nextHop != null && !nextHop.equals(before.get(prefix))) {
+                    updated.put(prefix, nextHop);
+                }
+            });
+            return updated;
+        }
+
+        /**
+         * Returns prefixes which lost their last path.
+         *
+         * @return prefixes mapped to the next hop of their previous best path
+         */
+        public Map<IpPrefix, IpAddress> withdrawn() {
+            Map<IpPrefix, IpAddress> withdrawn = new LinkedHashMap<>();
+            after.forEach((prefix, nextHop) -> {
+                IpAddress previous = before.get(prefix);
+                if (nextHop == null && previous != null) {
+                    withdrawn.put(prefix, previous);
+                }
+            });
+            return withdrawn;
+        }
+
+        /**
+         * Returns whether the best paths are unchanged.
+         *
+         * @return true if nothing changed
+         */
+        public boolean isEmpty() {
+            return updated().isEmpty() && withdrawn().isEmpty();
+        }
+
+        @Override
+        public String toString() {
+            return MoreObjects.toStringHelper(getClass())
+                    .add("updated", updated())
+                    .add("withdrawn", withdrawn())
+                    .toString();
+        }
+    }
+}
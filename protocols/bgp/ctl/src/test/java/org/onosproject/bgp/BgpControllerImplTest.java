@@ -51,6 +51,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.onosproject.bgp.controller.BgpCfg;
 import org.onosproject.bgp.controller.BgpId;
+import org.onosproject.bgp.controller.BgpPeerMetrics;
 import org.onosproject.bgp.controller.impl.AdjRibIn;
 import org.onosproject.bgp.controller.impl.BgpControllerImpl;
 import org.onosproject.bgp.controller.impl.BgpLocalRibImpl;
@@ -364,6 +365,42 @@ public class BgpControllerImplTest {
         assertThat(obj.nodeTree().containsKey(key), is(true));
     }
 
+    /**
+     * Peer1 has Node NLRI (MpReach), peer metrics follow the update and the session flap.
+     */
+    @Test
+    public void testBgpPeerMetrics() throws InterruptedException {
+        // Initiate the connections
+        peer1.peerChannelHandler.asNumber = 200;
+        peer1.peerChannelHandler.version = 4;
+        peer1.peerChannelHandler.holdTime = 120;
+
+        short afi = 16388;
+        byte res = 0;
+        byte safi = 71;
+
+        bgpControllerImpl.getConfig().setLsCapability(true);
+        BgpValueType tempTlv1 = new MultiProtocolExtnCapabilityTlv(afi, res, safi);
+        peer1.peerChannelHandler.capabilityTlv.add(tempTlv1);
+        Channel channel = peer1.connectFrom(connectToSocket, new InetSocketAddress("127.0.0.9", 0));
+        TimeUnit.MILLISECONDS.sleep(1000);
+
+        BgpPeerMetrics metrics = bgpControllerImpl.peerMetrics("127.0.0.9");
+        assertThat(metrics.updateDecodeLatency().getCount(), is(1L));
+        assertThat(metrics.ribCommitLatency().getCount(), is(1L));
+        assertThat(metrics.prefixCounts().get("16388/71"), is(1L));
+        assertThat(metrics.outboundQueueDepth(), is(0L));
+        assertThat(metrics.flapCount(), is(0L));
+
+        //Disconnect peer1
+        channel.disconnect();
+        channel.close();
+        TimeUnit.MILLISECONDS.sleep(200);
+
+        assertThat(metrics.flapCount(), is(1L));
+        assertThat(metrics.prefixCounts().isEmpty(), is(true));
+    }
+
     /**
      * Peer1 has Node NLRI (MpReach) and Peer2 has Node NLRI with same MpReach and MpUnReach.
      */
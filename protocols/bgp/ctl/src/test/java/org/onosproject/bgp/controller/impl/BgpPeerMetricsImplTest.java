@@ -0,0 +1,90 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.bgp.controller.impl;
+
+import org.junit.Test;
+import org.onlab.metrics.MetricsManager;
+import org.onlab.metrics.MetricsService;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+/**
+ * Test of the BGP peer instrumentation.
+ */
+public class BgpPeerMetricsImplTest {
+
+    private static final String PEER = "10.0.0.1";
+    private static final String PREFIX = BgpPeerMetricsImpl.COMPONENT_NAME + "." + PEER + ".";
+
+    /**
+     * Checks latency recording and outbound queue accounting.
+     */
+    @Test
+    public void testCounters() {
+        BgpPeerMetricsImpl metrics = new BgpPeerMetricsImpl(PEER);
+
+        metrics.updateDecoded(1000);
+        metrics.updateDecoded(3000);
+        metrics.ribCommitted(2000);
+        assertThat(metrics.updateDecodeLatency().getCount(), is(2L));
+        assertThat(metrics.ribCommitLatency().getCount(), is(1L));
+
+        metrics.messagesQueued(3);
+        metrics.messagesFlushed(2);
+        assertThat(metrics.outboundQueueDepth(), is(1L));
+    }
+
+    /**
+     * Checks that only established sessions going down count as flaps.
+     */
+    @Test
+    public void testFlaps() {
+        BgpPeerMetricsImpl metrics = new BgpPeerMetricsImpl(PEER);
+
+        metrics.sessionDown();
+        assertThat(metrics.flapCount(), is(0L));
+        assertThat(metrics.prefixCounts().isEmpty(), is(true));
+
+        metrics.sessionUp(new BgpPeerImpl(new BgpControllerImpl(), null, new BgpPacketStatsImpl()));
+        assertThat(metrics.prefixCounts().get("16388/71"), is(0L));
+        assertThat(metrics.prefixCounts().get("1/133"), is(0L));
+
+        metrics.sessionDown();
+        metrics.sessionDown();
+        assertThat(metrics.flapCount(), is(1L));
+    }
+
+    /**
+     * Checks that metrics are published and withdrawn through the metrics service.
+     */
+    @Test
+    public void testRegistration() {
+        MetricsService metricsService = new MetricsManager();
+        BgpPeerMetricsImpl metrics = new BgpPeerMetricsImpl(PEER);
+
+        metrics.register(metricsService);
+        metrics.messagesQueued(4);
+        assertThat(metricsService.getTimers((name, metric) -> name.startsWith(PREFIX)).size(), is(2));
+        assertThat(metricsService.getCounters((name, metric) -> name.startsWith(PREFIX)).size(), is(1));
+        assertThat(metricsService.getGauges((name, metric) -> name.startsWith(PREFIX)).size(), is(4));
+        assertThat(metricsService.getGauges((name, metric) -> name.startsWith(PREFIX))
+                           .get(PREFIX + BgpPeerMetricsImpl.OUTBOUND_QUEUE_DEPTH).getValue(), is(4L));
+
+        metrics.unregister();
+        assertThat(metricsService.getMetrics().isEmpty(), is(true));
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.bgp.controller.impl;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import org.junit.Test;
+import org.onlab.packet.IpAddress;
+import org.onlab.packet.IpPrefix;
+import org.onosproject.bgp.controller.BgpId;
+import org.onosproject.bgpio.types.As4Path;
+import org.onosproject.bgpio.types.AsPath;
+import org.onosproject.bgpio.types.Med;
+
+import java.util.Collections;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+/**
+ * Test of the unicast Loc-RIB best path selection.
+ */
+public class BgpUnicastRibTest {
+
+    private static final BgpId PEER1 = new BgpId(IpAddress.valueOf("10.0.0.1"));
+    private static final BgpId PEER2 = new BgpId(IpAddress.valueOf("10.0.0.2"));
+    private static final IpAddress NH1 = IpAddress.valueOf("192.168.1.1");
+    private static final IpAddress NH2 = IpAddress.valueOf("192.168.2.1");
+    private static final IpPrefix PREFIX1 = IpPrefix.valueOf("1.1.0.0/16");
+    private static final IpPrefix PREFIX2 = IpPrefix.valueOf("2.2.0.0/16");
+    private static final IpPrefix PREFIX6 = IpPrefix.valueOf("2001:db8::/32");
+
+    private final BgpUnicastRib rib = new BgpUnicastRib();
+
+    private static BgpUnicastRib.Attributes path(IpAddress nextHop, long localPref, int asPathLength) {
+        return new BgpUnicastRib.Attributes(nextHop, localPref, asPathLength, 65000, 0, 0);
+    }
+
+    private BgpUnicastRib.Delta update(BgpId peer, BgpUnicastRib.Attributes attributes, IpPrefix... prefixes) {
+        BgpUnicastRib.Delta delta = new BgpUnicastRib.Delta();
+        rib.update(peer, 1, ImmutableList.copyOf(prefixes), attributes, delta);
+        return delta;
+    }
+
+    private BgpUnicastRib.Delta withdraw(BgpId peer, IpPrefix... prefixes) {
+        BgpUnicastRib.Delta delta = new BgpUnicastRib.Delta();
+        rib.withdraw(peer, ImmutableList.copyOf(prefixes), delta);
+        return delta;
+    }
+
+    /**
+     * Checks that prefixes of an UPDATE are installed and withdrawn with the
+     * previous next hop.
+     */
+    @Test
+    public void testUpdateAndWithdraw() {
+        BgpUnicastRib.Delta delta = update(PEER1, path(NH1, 100, 2), PREFIX1, PREFIX2);
+        assertThat(delta.updated(), is(ImmutableMap.of(PREFIX1, NH1, PREFIX2, NH1)));
+        assertThat(rib.prefixCount(PEER1), is(2));
+
+        delta = update(PEER1, path(NH1, 100, 3), PREFIX1);
+        assertThat(delta.isEmpty(), is(true));
+
+        delta = withdraw(PEER1, PREFIX1);
+        assertThat(delta.withdrawn(), is(ImmutableMap.of(PREFIX1, NH1)));
+        assertThat(rib.bestRoutes(), is(ImmutableMap.of(PREFIX2, NH1)));
+
+        assertThat(withdraw(PEER2, PREFIX2).isEmpty(), is(true));
+    }
+
+    /**
+     * Checks selection on local preference and AS path length, and fail over
+     * when the best path goes away.
+     */
+    @Test
+    public void testBestPathSelection() {
+        update(PEER1, path(NH1, 100, 3), PREFIX1);
+
+        BgpUnicastRib.Delta delta = update(PEER2, path(NH2, 100, 2), PREFIX1);
+        assertThat(delta.updated(), is(ImmutableMap.of(PREFIX1, NH2)));
+
+        delta = update(PEER1, path(NH1, 200, 5), PREFIX1);
+        assertThat(delta.updated(), is(ImmutableMap.of(PREFIX1, NH1)));
+
+        delta = withdraw(PEER1, PREFIX1);
+        assertThat(delta.updated(), is(ImmutableMap.of(PREFIX1, NH2)));
+        assertThat(delta.withdrawn().isEmpty(), is(true));
+    }
+
+    /**
+     * Checks that a session going down withdraws only the prefixes without
+     * another path.
+     */
+    @Test
+    public void testRemovePeer() {
+        update(PEER1, path(NH1, 100, 1), PREFIX1, PREFIX2);
+        update(PEER2, path(NH2, 100, 2), PREFIX1);
+
+        BgpUnicastRib.Delta delta = rib.removePeer(PEER1);
+        assertThat(delta.updated(), is(ImmutableMap.of(PREFIX1, NH2)));
+        assertThat(delta.withdrawn(), is(ImmutableMap.of(PREFIX2, NH1)));
+        assertThat(rib.prefixCount(PEER1), is(0));
+        assertThat(rib.removePeer(PEER1).isEmpty(), is(true));
+    }
+
+    /**
+     * Checks that a prefix changed and withdrawn within one operation is
+     * withdrawn with the next hop known before the operation.
+     */
+    @Test
+    public void testIpv6AndCoalescing() {
+        IpAddress nh6 = IpAddress.valueOf("2001:db8::1");
+        update(PEER1, path(nh6, 100, 1), PREFIX6);
+
+        BgpUnicastRib.Delta delta = new BgpUnicastRib.Delta();
+        rib.update(PEER1, 1, Collections.singletonList(PREFIX6),
+                   path(IpAddress.valueOf("2001:db8::2"), 100, 1), delta);
+        rib.withdraw(PEER1, Collections.singletonList(PREFIX6), delta);
+        assertThat(delta.updated().isEmpty(), is(true));
+        assertThat(delta.withdrawn(), is(ImmutableMap.of(PREFIX6, nh6)));
+    }
+
+    /**
+     * Checks that 4-octet AS numbers carried in AS4_PATH tell neighbor ASes
+     * apart even though both AS paths hold AS_TRANS.
+     */
+    @Test
+    public void testFourOctetNeighborAs() {
+        short asTrans = 23456;
+        BgpUnicastRib.Attributes path1 = BgpUnicastRib.Attributes.of(ImmutableList.of(
+                new AsPath(null, ImmutableList.of(asTrans, (short) 100)),
+                new As4Path(null, ImmutableList.of(70000, 100)),
+                new Med(10)), NH1);
+        BgpUnicastRib.Attributes path2 = BgpUnicastRib.Attributes.of(ImmutableList.of(
+                new AsPath(null, ImmutableList.of(asTrans, (short) 100)),
+                new As4Path(null, ImmutableList.of(70001, 100)),
+                new Med(5)), NH2);
+
+        update(PEER1, path1, PREFIX1);
+        // MED is not compared across neighbor ASes, the lower peer wins
+        assertThat(update(PEER2, path2, PREFIX1).isEmpty(), is(true));
+        assertThat(rib.bestRoutes(), is(ImmutableMap.of(PREFIX1, NH1)));
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.controller.impl;
+
+import org.junit.Test;
+import org.onlab.packet.IpPrefix;
+import org.onosproject.bgp.controller.impl.BgpFlowSpecRib;
+import org.onosproject.bgpio.protocol.flowspec.BgpFlowSpecNlri;
+import org.onosproject.bgpio.protocol.flowspec.BgpFlowSpecRouteKey;
+import org.onosproject.bgpio.types.BgpFsActionTrafficRate;
+import org.onosproject.bgpio.types.BgpFsDestinationPrefix;
+import org.onosproject.bgpio.types.BgpValueType;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+/**
+ * Test cases for BGP flow specification RIB.
+ */
+public class BgpFlowSpecRibTest {
+
+    private static final BgpFlowSpecRouteKey KEY1 = new BgpFlowSpecRouteKey("flowRoute1");
+    private static final BgpFlowSpecRouteKey KEY2 = new BgpFlowSpecRouteKey("flowRoute2");
+    private static final BgpFlowSpecRouteKey KEY3 = new BgpFlowSpecRouteKey("flowRoute3");
+
+    private static BgpFlowSpecNlri flowSpec(String prefix, float rate) {
+        IpPrefix ipPrefix = IpPrefix.valueOf(prefix);
+        List<BgpValueType> components = new LinkedList<>();
+        components.add(new BgpFsDestinationPrefix((byte) ipPrefix.prefixLength(), ipPrefix));
+        BgpFlowSpecNlri flowSpec = new BgpFlowSpecNlri(components);
+
+        List<BgpValueType> actions = new LinkedList<>();
+        actions.add(new BgpFsActionTrafficRate((short) 1, rate));
+        flowSpec.setFsActionTlv(actions);
+        return flowSpec;
+    }
+
+    /**
+     * Adds rules and checks they are kept in precedence order.
+     */
+    @Test
+    public void flowSpecRibOrderTest() {
+        BgpFlowSpecRib rib = new BgpFlowSpecRib();
+
+        assertThat(rib.add(KEY1, flowSpec("10.0.0.0/8", 0)).isEmpty(), is(true));
+        assertThat(rib.add(KEY2, flowSpec("10.1.0.0/16", 0)).isEmpty(), is(true));
+        assertThat(rib.add(KEY3, flowSpec("9.0.0.0/8", 100)).isEmpty(), is(true));
+
+        assertThat(rib.size(), is(3));
+        assertThat(rib.orderedKeys(), is(Arrays.asList(KEY3, KEY2, KEY1)));
+
+        assertThat(rib.remove(KEY2), is(flowSpec("10.1.0.0/16", 0)));
+        assertThat(rib.orderedKeys(), is(Arrays.asList(KEY3, KEY1)));
+        assertThat(rib.get(KEY2) == null, is(true));
+    }
+
+    /**
+     * Checks that overlapping rules with different actions are installed in
+     * precedence order, and that only repeated matches conflict.
+     */
+    @Test
+    public void flowSpecRibConflictTest() {
+        BgpFlowSpecRib rib = new BgpFlowSpecRib();
+
+        // Discard of a prefix, with a rate-limited exception for a host
+        assertThat(rib.add(KEY1, flowSpec("10.0.0.0/24", 0)).isEmpty(), is(true));
+        assertThat(rib.add(KEY2, flowSpec("10.0.0.1/32", 100)).isEmpty(), is(true));
+        assertThat(rib.orderedKeys(), is(Arrays.asList(KEY2, KEY1)));
+
+        // Same match under another key
+        assertThat(rib.add(KEY3, flowSpec("10.0.0.0/24", 100)).contains(KEY1), is(true));
+        assertThat(rib.size(), is(2));
+
+        // Replacing the rule under its own key is allowed
+        assertThat(rib.add(KEY1, flowSpec("10.0.0.0/24", 100)).isEmpty(), is(true));
+        assertThat(rib.size(), is(2));
+
+        // Once removed, its match is free for another key
+        rib.remove(KEY1);
+        assertThat(rib.add(KEY3, flowSpec("10.0.0.0/24", 100)).isEmpty(), is(true));
+        assertThat(rib.orderedKeys(), is(Arrays.asList(KEY2, KEY3)));
+    }
+
+    /**
+     * Checks that rules overlapping a candidate with other actions are
+     * reported.
+     */
+    @Test
+    public void flowSpecRibOverlapTest() {
+        BgpFlowSpecRib rib = new BgpFlowSpecRib();
+        rib.add(KEY1, flowSpec("10.0.0.0/24", 0));
+        rib.add(KEY2, flowSpec("10.0.1.0/24", 0));
+
+        assertThat(rib.overlaps(KEY3, flowSpec("10.0.0.1/32", 100)), is(Collections.singleton(KEY1)));
+        assertThat(rib.overlaps(KEY3, flowSpec("10.0.0.1/32", 0)).isEmpty(), is(true));
+        assertThat(rib.overlaps(KEY3, flowSpec("10.0.2.0/24", 100)).isEmpty(), is(true));
+        assertThat(rib.overlaps(KEY1, flowSpec("10.0.0.0/24", 100)).isEmpty(), is(true));
+    }
+}
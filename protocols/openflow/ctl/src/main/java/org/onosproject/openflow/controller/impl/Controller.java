@@ -22,7 +22,9 @@ import org.jboss.netty.bootstrap.ServerBootstrap;
 import org.jboss.netty.channel.ChannelPipelineFactory;
 import org.jboss.netty.channel.group.ChannelGroup;
 import org.jboss.netty.channel.group.DefaultChannelGroup;
+import org.jboss.netty.channel.socket.nio.NioServerBossPool;
 import org.jboss.netty.channel.socket.nio.NioServerSocketChannelFactory;
+import org.jboss.netty.channel.socket.nio.NioWorkerPool;
 
 import org.onlab.util.ItemNotFoundException;
 import org.onosproject.net.DeviceId;
@@ -97,6 +99,9 @@ public class Controller {
 
     // Perf. related configuration
     protected static final int SEND_BUFFER_SIZE = 4 * 1024 * 1024;
+    // Lets a whole network of switches reconnect at once, e.g. on failover
+    protected static final int ACCEPT_BACKLOG = 4096;
+    protected static final int DEFAULT_WORKER_THREADS = Runtime.getRuntime().availableProcessors() * 2;
     private DriverService driverService;
     private boolean enableOfTls = TLS_DISABLED;
 
@@ -126,6 +131,7 @@ public class Controller {
             final ServerBootstrap bootstrap = createServerBootStrap();
 
             bootstrap.setOption("reuseAddr", true);
+            bootstrap.setOption("backlog", Controller.ACCEPT_BACKLOG);
             bootstrap.setOption("child.keepAlive", true);
             bootstrap.setOption("child.tcpNoDelay", true);
             bootstrap.setOption("child.sendBufferSize", Controller.SEND_BUFFER_SIZE);
@@ -147,18 +153,16 @@ public class Controller {
     }
 
     private ServerBootstrap createServerBootStrap() {
-
-        if (workerThreads == 0) {
-            execFactory = new NioServerSocketChannelFactory(
-                    Executors.newCachedThreadPool(groupedThreads("onos/of", "boss-%d", log)),
-                    Executors.newCachedThreadPool(groupedThreads("onos/of", "worker-%d", log)));
-            return new ServerBootstrap(execFactory);
-        } else {
-            execFactory = new NioServerSocketChannelFactory(
-                    Executors.newCachedThreadPool(groupedThreads("onos/of", "boss-%d", log)),
-                    Executors.newCachedThreadPool(groupedThreads("onos/of", "worker-%d", log)), workerThreads);
-            return new ServerBootstrap(execFactory);
-        }
+        // Bounded I/O threads: one boss accepting the connections of all
+        // ports, and a fixed set of workers each serving many switches.
+        int workers = workerThreads > 0 ? workerThreads : DEFAULT_WORKER_THREADS;
+        execFactory = new NioServerSocketChannelFactory(
+                new NioServerBossPool(
+                        Executors.newFixedThreadPool(1, groupedThreads("onos/of", "boss-%d", log)), 1),
+                new NioWorkerPool(
+                        Executors.newFixedThreadPool(workers, groupedThreads("onos/of", "worker-%d", log)),
+                        workers));
+        return new ServerBootstrap(execFactory);
     }
 
     public void setConfigParams(Dictionary<?, ?> properties) {
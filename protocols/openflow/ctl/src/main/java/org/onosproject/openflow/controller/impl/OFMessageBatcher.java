@@ -0,0 +1,143 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.openflow.controller.impl;
+
+import org.jboss.netty.channel.ChannelFuture;
+import org.jboss.netty.channel.ChannelHandlerContext;
+import org.jboss.netty.channel.Channels;
+import org.jboss.netty.channel.MessageEvent;
+import org.jboss.netty.channel.SimpleChannelDownstreamHandler;
+import org.projectfloodlight.openflow.protocol.OFMessage;
+import org.projectfloodlight.openflow.protocol.OFType;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Coalesces the OpenFlow messages written to a channel, so that a burst of
+ * writes, such as the flow mods of a batch, is encoded into one buffer and
+ * written with one system call rather than one per message.
+ * <p>
+ * Messages are held until a barrier request is written, until the number of
+ * held messages reaches the batch size, or else until the I/O thread of the
+ * channel next gets to run, whichever comes first. Messages keep the order
+ * in which they were written.
+ * </p>
+ */
+public class OFMessageBatcher extends SimpleChannelDownstreamHandler {
+
+    static final int DEFAULT_BATCH_SIZE = 256;
+
+    private final int batchSize;
+
+    // Messages and futures of the writes held, guarded by this
+    private List<OFMessage> messages = new ArrayList<>();
+    private List<ChannelFuture> futures = new ArrayList<>();
+    private boolean flushScheduled;
+
+    /**
+     * Creates a batcher with the default batch size.
+     */
+    public OFMessageBatcher() {
+        this(DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Creates a batcher.
+     *
+     * @param batchSize number of held messages at which they are written
+     */
+    public OFMessageBatcher(int batchSize) {
+        checkArgument(batchSize > 0, "Batch size must be positive");
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public void writeRequested(ChannelHandlerContext ctx, MessageEvent e) throws Exception {
+        if (!(e.getMessage() instanceof List)) {
+            synchronized (this) {
+                flush(ctx);
+                super.writeRequested(ctx, e);
+            }
+            return;
+        }
+
+        @SuppressWarnings("unchecked")
+        List<OFMessage> msgs = (List<OFMessage>) e.getMessage();
+        boolean flushNow = false;
+        boolean scheduleFlush = false;
+        synchronized (this) {
+            for (OFMessage msg : msgs) {
+                if (msg != null) {
+                    messages.add(msg);
+                    flushNow |= msg.getType() == OFType.BARRIER_REQUEST;
+                }
+            }
+            futures.add(e.getFuture());
+            if (flushNow || messages.size() >= batchSize) {
+                flush(ctx);
+            } else if (!flushScheduled) {
+                flushScheduled = true;
+                scheduleFlush = true;
+            }
+        }
+        if (scheduleFlush) {
+            scheduleFlush(ctx, () -> {
+                synchronized (this) {
+                    flushScheduled = false;
+                    flush(ctx);
+                }
+            });
+        }
+    }
+
+    /**
+     * Arranges for the given flush to run on the I/O thread of the channel.
+     *
+     * @param ctx   channel handler context
+     * @param flush flush of the held messages
+     */
+    protected void scheduleFlush(ChannelHandlerContext ctx, Runnable flush) {
+        ctx.getPipeline().execute(flush);
+    }
+
+    // Writes the held messages as one list; called while holding this.
+    private void flush(ChannelHandlerContext ctx) {
+        if (futures.isEmpty()) {
+            return;
+        }
+        List<OFMessage> batch = messages;
+        List<ChannelFuture> batchFutures = futures;
+        messages = new ArrayList<>();
+        futures = new ArrayList<>();
+
+        ChannelFuture future = Channels.future(ctx.getChannel());
+        future.addListener(f -> {
+            for (ChannelFuture held : batchFutures) {
+                if (f.isSuccess()) {
+                    held.setSuccess();
+                } else if (f.isCancelled()) {
+                    held.cancel();
+                } else {
+                    held.setFailure(f.getCause());
+                }
+            }
+        });
+        Channels.write(ctx, future, batch);
+    }
+}
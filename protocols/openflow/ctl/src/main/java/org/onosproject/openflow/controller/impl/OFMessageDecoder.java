@@ -21,15 +21,21 @@ import org.jboss.netty.buffer.ChannelBuffer;
 import org.jboss.netty.channel.Channel;
 import org.jboss.netty.channel.ChannelHandlerContext;
 import org.jboss.netty.handler.codec.frame.FrameDecoder;
+import org.projectfloodlight.openflow.exceptions.OFParseError;
 import org.projectfloodlight.openflow.protocol.OFFactories;
 import org.projectfloodlight.openflow.protocol.OFMessage;
 import org.projectfloodlight.openflow.protocol.OFMessageReader;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Decode an openflow message from a Channel, for use in a netty pipeline.
  */
 public class OFMessageDecoder extends FrameDecoder {
 
+    private static final OFMessageReader<OFMessage> READER = OFFactories.getGenericReader();
+
     @Override
     protected Object decode(ChannelHandlerContext ctx, Channel channel,
             ChannelBuffer buffer) throws Exception {
@@ -39,17 +45,39 @@ public class OFMessageDecoder extends FrameDecoder {
             return null;
         }
 
-        // Note that a single call to decode results in reading a single
-        // OFMessage from the channel buffer, which is passed on to, and processed
-        // by, the controller (in OFChannelHandler).
-        // This is different from earlier behavior (with the original openflowj),
-        // where we parsed all the messages in the buffer, before passing on
-        // a list of the parsed messages to the controller.
-        // The performance *may or may not* not be as good as before.
-        OFMessageReader<OFMessage> reader = OFFactories.getGenericReader();
-        OFMessage message = reader.readFrom(buffer);
-
-        return message;
+        // Decode all the complete messages in the buffer, so that they are
+        // passed on to the controller (in OFChannelHandler) in a single
+        // event rather than one event per message. A lone message is passed
+        // on as is.
+        OFMessage first = null;
+        List<OFMessage> messages = null;
+        while (buffer.readable()) {
+            int start = buffer.readerIndex();
+            OFMessage message;
+            try {
+                message = READER.readFrom(buffer);
+            } catch (OFParseError e) {
+                if (first == null) {
+                    throw e;
+                }
+                // Pass on what was decoded; the error is raised by the next call
+                buffer.readerIndex(start);
+                break;
+            }
+            if (message == null) {
+                break;
+            }
+            if (first == null) {
+                first = message;
+            } else {
+                if (messages == null) {
+                    messages = new ArrayList<>();
+                    messages.add(first);
+                }
+                messages.add(message);
+            }
+        }
+        return messages != null ? messages : first;
     }
 
 }
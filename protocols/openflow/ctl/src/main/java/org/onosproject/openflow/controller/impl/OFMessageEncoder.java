@@ -31,6 +31,8 @@ import org.projectfloodlight.openflow.protocol.OFMessage;
  */
 public class OFMessageEncoder extends OneToOneEncoder {
 
+    private static final int SIZE_HINT = 128;
+
     @Override
     protected Object encode(ChannelHandlerContext ctx, Channel channel,
                             Object msg) throws Exception {
@@ -46,7 +48,8 @@ public class OFMessageEncoder extends OneToOneEncoder {
             size += ofm.getLengthU();
         }*/
 
-        ChannelBuffer buf = ChannelBuffers.dynamicBuffer();
+        // Sized for typical messages, so that batches rarely need to grow it
+        ChannelBuffer buf = ChannelBuffers.dynamicBuffer(Math.max(msglist.size(), 1) * SIZE_HINT);
 
         for (OFMessage ofm : msglist) {
             if (ofm != null) {
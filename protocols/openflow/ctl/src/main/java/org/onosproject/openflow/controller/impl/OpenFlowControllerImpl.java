@@ -26,6 +26,7 @@ import org.apache.felix.scr.annotations.Property;
 import org.apache.felix.scr.annotations.Reference;
 import org.apache.felix.scr.annotations.ReferenceCardinality;
 import org.apache.felix.scr.annotations.Service;
+import org.onlab.metrics.MetricsService;
 import org.onosproject.cfg.ComponentConfigService;
 import org.onosproject.core.CoreService;
 import org.onosproject.net.device.DeviceEvent;
@@ -74,6 +75,7 @@ import org.slf4j.LoggerFactory;
 
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Dictionary;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Optional;
@@ -86,6 +88,8 @@ import java.util.concurrent.Executors;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
+import static com.google.common.base.Strings.isNullOrEmpty;
+import static org.onlab.util.Tools.get;
 import static org.onlab.util.Tools.groupedThreads;
 import static org.onosproject.openflow.controller.Dpid.dpid;
 
@@ -95,6 +99,8 @@ public class OpenFlowControllerImpl implements OpenFlowController {
     private static final String APP_ID = "org.onosproject.openflow-base";
     private static final String DEFAULT_OFPORT = "6633,6653";
     private static final int DEFAULT_WORKER_THREADS = 0;
+    private static final int DEFAULT_PACKET_IN_QUEUE_SIZE = 1000;
+    private static final int DEFAULT_PACKET_IN_RATE_LIMIT = 0;
 
     private static final Logger log =
             LoggerFactory.getLogger(OpenFlowControllerImpl.class);
@@ -115,18 +121,35 @@ public class OpenFlowControllerImpl implements OpenFlowController {
     @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
     protected DeviceService deviceService;
 
+    @Reference(cardinality = ReferenceCardinality.OPTIONAL_UNARY)
+    protected MetricsService metricsService;
 
     @Property(name = "openflowPorts", value = DEFAULT_OFPORT,
             label = "Port numbers (comma separated) used by OpenFlow protocol; default is 6633,6653")
     private String openflowPorts = DEFAULT_OFPORT;
 
     @Property(name = "workerThreads", intValue = DEFAULT_WORKER_THREADS,
-            label = "Number of controller worker threads")
+            label = "Number of controller worker threads; default is 0 for twice the number of cores")
     private int workerThreads = DEFAULT_WORKER_THREADS;
 
+    @Property(name = "packetInQueueSize", intValue = DEFAULT_PACKET_IN_QUEUE_SIZE,
+            label = "Maximum number of pending packet-ins per switch; default is 1000")
+    private int packetInQueueSize = DEFAULT_PACKET_IN_QUEUE_SIZE;
+
+    @Property(name = "packetInRateLimit", intValue = DEFAULT_PACKET_IN_RATE_LIMIT,
+            label = "Maximum number of packet-ins per second per switch; default is 0 for no limit")
+    private int packetInRateLimit = DEFAULT_PACKET_IN_RATE_LIMIT;
+
     protected ExecutorService executorMsgs =
         Executors.newFixedThreadPool(32, groupedThreads("onos/of", "event-stats-%d", log));
 
+    // Handles the packet-ins of each switch in order, taking turns across switches
+    protected ExecutorService executorPacketIns =
+        Executors.newFixedThreadPool(8, groupedThreads("onos/of", "event-packet-in-%d", log));
+
+    protected PacketInScheduler packetIns =
+        new PacketInScheduler(executorPacketIns, DEFAULT_PACKET_IN_QUEUE_SIZE, DEFAULT_PACKET_IN_RATE_LIMIT);
+
     private final ExecutorService executorBarrier =
         Executors.newFixedThreadPool(4, groupedThreads("onos/of", "event-barrier-%d", log));
 
@@ -178,7 +201,12 @@ public class OpenFlowControllerImpl implements OpenFlowController {
         coreService.registerApplication(APP_ID, this::cleanup);
         cfgService.registerProperties(getClass());
         deviceService.addListener(listener);
-        ctrl.setConfigParams(context.getProperties());
+        if (metricsService != null) {
+            packetIns.bindMetrics(metricsService);
+        }
+        Dictionary<?, ?> properties = context.getProperties();
+        readPacketInConfig(properties);
+        ctrl.setConfigParams(properties);
         ctrl.start(agent, driverService);
     }
 
@@ -196,16 +224,34 @@ public class OpenFlowControllerImpl implements OpenFlowController {
     public void deactivate() {
         deviceService.removeListener(listener);
         cleanup();
+        packetIns.unbindMetrics();
         cfgService.unregisterProperties(getClass(), false);
     }
 
     @Modified
     public void modified(ComponentContext context) {
+        Dictionary<?, ?> properties = context.getProperties();
+        readPacketInConfig(properties);
         ctrl.stop();
-        ctrl.setConfigParams(context.getProperties());
+        ctrl.setConfigParams(properties);
         ctrl.start(agent, driverService);
     }
 
+    private void readPacketInConfig(Dictionary<?, ?> properties) {
+        try {
+            String s = get(properties, "packetInQueueSize");
+            packetInQueueSize = isNullOrEmpty(s) ? DEFAULT_PACKET_IN_QUEUE_SIZE : Integer.parseInt(s.trim());
+            s = get(properties, "packetInRateLimit");
+            packetInRateLimit = isNullOrEmpty(s) ? DEFAULT_PACKET_IN_RATE_LIMIT : Integer.parseInt(s.trim());
+            packetIns.setQueueSize(packetInQueueSize);
+            packetIns.setRateLimit(packetInRateLimit);
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid packet-in configuration", e);
+        }
+        log.info("Settings: packetInQueueSize={}, packetInRateLimit={}",
+                 packetInQueueSize, packetInRateLimit);
+    }
+
     @Override
     public Iterable<OpenFlowSwitch> getSwitches() {
         return connectedSwitches.values();
@@ -309,10 +355,8 @@ public class OpenFlowControllerImpl implements OpenFlowController {
                 log.error("Switch {} is not found", dpid);
                 break;
             }
-            OpenFlowPacketContext pktCtx = DefaultOpenFlowPacketContext
-            .packetContextFromPacketIn(sw, (OFPacketIn) msg);
-            for (PacketListener p : ofPacketListener.values()) {
-                p.handlePacket(pktCtx);
+            if (!packetIns.submit(dpid, () -> handlePacketIn(sw, (OFPacketIn) msg))) {
+                log.trace("Dropped packet-in from {}", dpid);
             }
             break;
         // TODO: Consider using separate threadpool for sensitive messages.
@@ -524,6 +568,14 @@ public class OpenFlowControllerImpl implements OpenFlowController {
         return null;
     }
 
+    private void handlePacketIn(OpenFlowSwitch sw, OFPacketIn packetIn) {
+        OpenFlowPacketContext pktCtx = DefaultOpenFlowPacketContext
+                .packetContextFromPacketIn(sw, packetIn);
+        for (PacketListener p : ofPacketListener.values()) {
+            p.handlePacket(pktCtx);
+        }
+    }
+
     @Override
     public void setRole(Dpid dpid, RoleState role) {
         final OpenFlowSwitch sw = getSwitch(dpid);
@@ -703,6 +755,7 @@ public class OpenFlowControllerImpl implements OpenFlowController {
         @Override
         public void removeConnectedSwitch(Dpid dpid) {
             connectedSwitches.remove(dpid);
+            packetIns.remove(dpid);
             OpenFlowSwitch sw = activeMasterSwitches.remove(dpid);
             if (sw == null) {
                 log.debug("sw was null for {}", dpid);
@@ -86,6 +86,7 @@ public class OpenflowPipelineFactory
         }
         pipeline.addLast("ofmessagedecoder", new OFMessageDecoder());
         pipeline.addLast("ofmessageencoder", new OFMessageEncoder());
+        pipeline.addLast("ofmessagebatcher", new OFMessageBatcher());
         pipeline.addLast("idle", idleHandler);
         pipeline.addLast("timeout", readTimeoutHandler);
         // XXX S ONOS: was 15 increased it to fix Issue #296
@@ -0,0 +1,315 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.openflow.controller.impl;
+
+import com.codahale.metrics.Gauge;
+import org.onlab.metrics.MetricsComponent;
+import org.onlab.metrics.MetricsFeature;
+import org.onlab.metrics.MetricsService;
+import org.onosproject.openflow.controller.Dpid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Schedules the handling of packet-ins off the I/O threads. Each device has
+ * its own bounded queue, handled in order by at most one thread at a time;
+ * devices with pending packet-ins take turns on the executor, handling at
+ * most a batch of packet-ins per turn, so that a device flooding the
+ * controller cannot starve the others. Packet-ins beyond the per-device rate
+ * limit, or which find the queue of their device full, are dropped.
+ */
+final class PacketInScheduler {
+
+    static final String COMPONENT_NAME = "OpenFlowPacketIn";
+    static final String ADMITTED = "admitted";
+    static final String DROPPED = "dropped";
+    static final String THROTTLED = "throttled";
+    static final String QUEUE_DEPTH = "queueDepth";
+
+    private static final String[] METRICS = {ADMITTED, DROPPED, THROTTLED, QUEUE_DEPTH};
+
+    /**
+     * Maximum number of packet-ins of a device handled per turn.
+     */
+    static final int BATCH_SIZE = 32;
+
+    private final Logger log = LoggerFactory.getLogger(getClass());
+
+    private final Executor executor;
+    private final ConcurrentMap<Dpid, DeviceQueue> queues = new ConcurrentHashMap<>();
+
+    private volatile int queueSize;
+    private volatile int rateLimit;
+
+    private MetricsService metricsService;
+    private MetricsComponent metricsComponent;
+
+    /**
+     * Creates a scheduler handling packet-ins on the given executor.
+     *
+     * @param executor  executor handling the packet-ins
+     * @param queueSize maximum number of pending packet-ins per device
+     * @param rateLimit maximum number of packet-ins per second per device;
+     *                  0 for no limit
+     */
+    PacketInScheduler(Executor executor, int queueSize, int rateLimit) {
+        this.executor = executor;
+        setQueueSize(queueSize);
+        setRateLimit(rateLimit);
+    }
+
+    /**
+     * Sets the maximum number of pending packet-ins per device. Packet-ins
+     * already queued are kept.
+     *
+     * @param queueSize maximum number of pending packet-ins per device
+     */
+    void setQueueSize(int queueSize) {
+        checkArgument(queueSize > 0, "Queue size must be positive");
+        this.queueSize = queueSize;
+    }
+
+    /**
+     * Sets the maximum number of packet-ins per second per device.
+     *
+     * @param rateLimit packet-ins per second; 0 for no limit
+     */
+    void setRateLimit(int rateLimit) {
+        checkArgument(rateLimit >= 0, "Rate limit must not be negative");
+        this.rateLimit = rateLimit;
+    }
+
+    /**
+     * Publishes the per-device counters through the metrics service.
+     *
+     * @param metricsService metrics service
+     */
+    synchronized void bindMetrics(MetricsService metricsService) {
+        this.metricsService = metricsService;
+        metricsComponent = metricsService.registerComponent(COMPONENT_NAME);
+        queues.values().forEach(DeviceQueue::registerMetrics);
+    }
+
+    /**
+     * Withdraws the per-device counters from the metrics service.
+     */
+    synchronized void unbindMetrics() {
+        if (metricsService != null) {
+            queues.values().forEach(DeviceQueue::removeMetrics);
+            metricsService = null;
+            metricsComponent = null;
+        }
+    }
+
+    /**
+     * Queues the handling of a packet-in of the given device.
+     *
+     * @param dpid    device the packet-in came from
+     * @param handler handling of the packet-in
+     * @return true if the packet-in was admitted, false if it was dropped
+     */
+    boolean submit(Dpid dpid, Runnable handler) {
+        DeviceQueue queue = queues.get(dpid);
+        if (queue == null) {
+            queue = queues.computeIfAbsent(dpid, DeviceQueue::new);
+        }
+        return queue.submit(handler);
+    }
+
+    /**
+     * Drops the pending packet-ins and the counters of a device.
+     *
+     * @param dpid device identifier
+     */
+    void remove(Dpid dpid) {
+        DeviceQueue queue = queues.remove(dpid);
+        if (queue != null) {
+            queue.close();
+        }
+    }
+
+    /**
+     * Returns the number of packet-ins admitted for a device.
+     *
+     * @param dpid device identifier
+     * @return number of admitted packet-ins
+     */
+    long admitted(Dpid dpid) {
+        DeviceQueue queue = queues.get(dpid);
+        return queue == null ? 0 : queue.admitted.sum();
+    }
+
+    /**
+     * Returns the number of packet-ins of a device dropped because its queue
+     * was full.
+     *
+     * @param dpid device identifier
+     * @return number of dropped packet-ins
+     */
+    long dropped(Dpid dpid) {
+        DeviceQueue queue = queues.get(dpid);
+        return queue == null ? 0 : queue.dropped.sum();
+    }
+
+    /**
+     * Returns the number of packet-ins of a device dropped because they
+     * exceeded the rate limit.
+     *
+     * @param dpid device identifier
+     * @return number of throttled packet-ins
+     */
+    long throttled(Dpid dpid) {
+        DeviceQueue queue = queues.get(dpid);
+        return queue == null ? 0 : queue.throttled.sum();
+    }
+
+    /**
+     * Returns the number of pending packet-ins of a device.
+     *
+     * @param dpid device identifier
+     * @return number of pending packet-ins
+     */
+    int queueDepth(Dpid dpid) {
+        DeviceQueue queue = queues.get(dpid);
+        return queue == null ? 0 : queue.depth.get();
+    }
+
+    // Pending packet-ins of a device, with its token bucket and counters.
+    private final class DeviceQueue implements Runnable {
+        private final Dpid dpid;
+        private final Queue<Runnable> pending = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger depth = new AtomicInteger();
+        // Set while the queue is waiting for, or holding, a thread
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private final LongAdder admitted = new LongAdder();
+        private final LongAdder dropped = new LongAdder();
+        private final LongAdder throttled = new LongAdder();
+
+        private double tokens;
+        private long refilledAt;
+
+        private MetricsFeature feature;
+        private volatile boolean closed;
+
+        DeviceQueue(Dpid dpid) {
+            this.dpid = dpid;
+            this.refilledAt = System.nanoTime();
+            this.tokens = rateLimit;
+            synchronized (PacketInScheduler.this) {
+                if (metricsService != null) {
+                    registerMetrics();
+                }
+            }
+        }
+
+        boolean submit(Runnable handler) {
+            if (!acquireToken()) {
+                throttled.increment();
+                return false;
+            }
+            if (depth.incrementAndGet() > queueSize) {
+                depth.decrementAndGet();
+                dropped.increment();
+                return false;
+            }
+            pending.add(handler);
+            admitted.increment();
+            schedule();
+            return true;
+        }
+
+        private synchronized boolean acquireToken() {
+            int rate = rateLimit;
+            if (rate == 0) {
+                return true;
+            }
+            long now = System.nanoTime();
+            tokens = Math.min(rate, tokens + (now - refilledAt) * rate / (double) TimeUnit.SECONDS.toNanos(1));
+            refilledAt = now;
+            if (tokens < 1) {
+                return false;
+            }
+            tokens--;
+            return true;
+        }
+
+        private void schedule() {
+            if (!closed && scheduled.compareAndSet(false, true)) {
+                executor.execute(this);
+            }
+        }
+
+        // Handles a batch of packet-ins, then yields to the other devices.
+        @Override
+        public void run() {
+            for (int i = 0; i < BATCH_SIZE && !closed; i++) {
+                Runnable handler = pending.poll();
+                if (handler == null) {
+                    break;
+                }
+                depth.decrementAndGet();
+                try {
+                    handler.run();
+                } catch (Exception e) {
+                    log.warn("Unable to handle packet-in from {}", dpid, e);
+                }
+            }
+            scheduled.set(false);
+            if (!pending.isEmpty()) {
+                schedule();
+            }
+        }
+
+        void close() {
+            closed = true;
+            pending.clear();
+            depth.set(0);
+            synchronized (PacketInScheduler.this) {
+                if (metricsService != null) {
+                    removeMetrics();
+                }
+            }
+        }
+
+        // Called while holding the scheduler lock.
+        void registerMetrics() {
+            feature = metricsComponent.registerFeature(dpid.toString());
+            metricsService.registerMetric(metricsComponent, feature, ADMITTED, (Gauge<Long>) admitted::sum);
+            metricsService.registerMetric(metricsComponent, feature, DROPPED, (Gauge<Long>) dropped::sum);
+            metricsService.registerMetric(metricsComponent, feature, THROTTLED, (Gauge<Long>) throttled::sum);
+            metricsService.registerMetric(metricsComponent, feature, QUEUE_DEPTH, (Gauge<Integer>) depth::get);
+        }
+
+        // Called while holding the scheduler lock.
+        void removeMetrics() {
+            for (String name : METRICS) {
+                metricsService.removeMetric(metricsComponent, feature, name);
+            }
+        }
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.openflow.controller.impl;
+
+import com.google.common.collect.ImmutableList;
+import org.jboss.netty.channel.ChannelHandlerContext;
+import org.jboss.netty.handler.codec.embedder.EncoderEmbedder;
+import org.junit.Before;
+import org.junit.Test;
+import org.onosproject.openflow.OfMessageAdapter;
+import org.projectfloodlight.openflow.protocol.OFMessage;
+import org.projectfloodlight.openflow.protocol.OFType;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+/**
+ * Tests for the coalescing of OpenFlow message writes.
+ */
+public class OFMessageBatcherTest {
+
+    private static final int BATCH_SIZE = 4;
+
+    private final List<Runnable> scheduled = new ArrayList<>();
+    private EncoderEmbedder<List<OFMessage>> embedder;
+
+    /**
+     * Batcher whose deferred flushes run only when the test asks.
+     */
+    private class TestBatcher extends OFMessageBatcher {
+        TestBatcher() {
+            super(BATCH_SIZE);
+        }
+
+        @Override
+        protected void scheduleFlush(ChannelHandlerContext ctx, Runnable flush) {
+            scheduled.add(flush);
+        }
+    }
+
+    @Before
+    public void setUp() {
+        embedder = new EncoderEmbedder<>(new TestBatcher());
+    }
+
+    private void runScheduled() {
+        List<Runnable> flushes = new ArrayList<>(scheduled);
+        scheduled.clear();
+        flushes.forEach(Runnable::run);
+    }
+
+    /**
+     * Tests that writes are held until the deferred flush, then written
+     * together in order.
+     */
+    @Test
+    public void testDeferredFlush() {
+        OFMessage m1 = new OfMessageAdapter(OFType.FLOW_MOD);
+        OFMessage m2 = new OfMessageAdapter(OFType.FLOW_MOD);
+        OFMessage m3 = new OfMessageAdapter(OFType.PACKET_OUT);
+        embedder.offer(ImmutableList.of(m1));
+        embedder.offer(ImmutableList.of(m2, m3));
+        assertThat(embedder.poll(), nullValue());
+        assertThat(scheduled.size(), is(1));
+
+        runScheduled();
+        assertThat(embedder.poll(), contains(m1, m2, m3));
+        assertThat(embedder.poll(), nullValue());
+    }
+
+    /**
+     * Tests that held writes are flushed once the batch size is reached.
+     */
+    @Test
+    public void testSizeFlush() {
+        List<OFMessage> sent = new ArrayList<>();
+        for (int i = 0; i < BATCH_SIZE + 1; i++) {
+            OFMessage msg = new OfMessageAdapter(OFType.FLOW_MOD);
+            sent.add(msg);
+            embedder.offer(ImmutableList.of(msg));
+        }
+        assertThat(embedder.poll(), is(sent.subList(0, BATCH_SIZE)));
+        assertThat(embedder.poll(), nullValue());
+
+        runScheduled();
+        assertThat(embedder.poll(), contains(sent.get(BATCH_SIZE)));
+    }
+
+    /**
+     * Tests that a barrier request flushes the held writes.
+     */
+    @Test
+    public void testBarrierFlush() {
+        OFMessage flowMod = new OfMessageAdapter(OFType.FLOW_MOD);
+        OFMessage barrier = new OfMessageAdapter(OFType.BARRIER_REQUEST);
+        embedder.offer(ImmutableList.of(flowMod));
+        embedder.offer(ImmutableList.of(barrier));
+        assertThat(embedder.poll(), contains(flowMod, barrier));
+
+        runScheduled();
+        assertThat(embedder.poll(), nullValue());
+    }
+}
@@ -23,8 +23,12 @@ import org.onosproject.core.netty.ChannelAdapter;
 import org.onosproject.openflow.ChannelHandlerContextAdapter;
 import org.projectfloodlight.openflow.protocol.OFHello;
 
+import java.util.List;
+
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.hamcrest.Matchers.nullValue;
 
@@ -81,4 +85,24 @@ public class OFMessageDecoderTest {
         assertThat(message, instanceOf(OFHello.class));
     }
 
+    /**
+     * Tests decoding several messages received together.
+     *
+     * @throws Exception when an exception is thrown from the decoder
+     */
+    @Test
+    public void testDecodeSeveral() throws Exception {
+        OFMessageDecoder decoder = new OFMessageDecoder();
+        ChannelBuffer channelBuffer = getHelloMessageBuffer();
+        channelBuffer.writeBytes(getHelloMessageBuffer());
+        // Start of a third message
+        channelBuffer.writeBytes(new byte[] {0x1, 0x0});
+        Object message =
+                decoder.decode(new ChannelHandlerContextAdapter(),
+                               new ConnectedChannel(),
+                               channelBuffer);
+        assertThat(message, instanceOf(List.class));
+        assertThat((List<?>) message, hasSize(2));
+        assertThat(channelBuffer.readableBytes(), is(2));
+    }
 }
@@ -27,13 +27,20 @@ import org.onosproject.openflow.controller.Dpid;
 import org.onosproject.openflow.controller.OpenFlowPacketContext;
 import org.onosproject.openflow.controller.OpenFlowSwitch;
 import org.onosproject.openflow.controller.PacketListener;
+import org.projectfloodlight.openflow.protocol.OFFactories;
 import org.projectfloodlight.openflow.protocol.OFMessage;
+import org.projectfloodlight.openflow.protocol.OFPacketIn;
+import org.projectfloodlight.openflow.protocol.OFPacketInReason;
 import org.projectfloodlight.openflow.protocol.OFType;
+import org.projectfloodlight.openflow.protocol.OFVersion;
+import org.projectfloodlight.openflow.types.OFBufferId;
 
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.ArrayList;
+import java.util.LinkedList;
 import java.util.List;
+import java.util.Queue;
 
 import static junit.framework.TestCase.fail;
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -53,6 +60,7 @@ public class OpenFlowControllerImplPacketsTest {
     TestPacketListener packetListener;
     TestExecutorService statsExecutorService;
     TestExecutorService errorMsgExecutorService;
+    QueuedExecutorService packetInExecutorService;
     /**
      * Mock packet listener that accumulates packets.
      */
@@ -87,6 +95,25 @@ public class OpenFlowControllerImplPacketsTest {
         }
     }
 
+    /**
+     * Mock executor service that queues tasks until they are run.
+     */
+    static class QueuedExecutorService extends ExecutorServiceAdapter {
+        private final Queue<Runnable> tasks = new LinkedList<>();
+
+        @Override
+        public void execute(Runnable task) {
+            tasks.add(task);
+        }
+
+        void runAll() {
+            Runnable task;
+            while ((task = tasks.poll()) != null) {
+                task.run();
+            }
+        }
+    }
+
     /**
      * Sets up switches to use as data, mocks and launches a controller instance.
      */
@@ -113,6 +140,10 @@ public class OpenFlowControllerImplPacketsTest {
 
         controller.executorMsgs = statsExecutorService;
         controller.executorErrorMsgs = errorMsgExecutorService;
+
+        packetInExecutorService = new QueuedExecutorService();
+        controller.executorPacketIns = packetInExecutorService;
+        controller.packetIns = new PacketInScheduler(packetInExecutorService, 1000, 0);
     }
 
     /**
@@ -152,4 +183,29 @@ public class OpenFlowControllerImplPacketsTest {
         assertThat(errorMsgExecutorService.submittedMessages(), hasSize(1));
         assertThat(errorMsgExecutorService.submittedMessages().get(0), is(errorPacket));
     }
+
+    /**
+     * Tests that packet-ins are handed to the packet listeners, and that the
+     * pending packet-ins of a removed switch are dropped.
+     */
+    @Test
+    public void testPacketIn() {
+        agent.addConnectedSwitch(dpid1, switch1);
+        OFPacketIn packetIn = OFFactories.getFactory(OFVersion.OF_13).buildPacketIn()
+                .setBufferId(OFBufferId.NO_BUFFER)
+                .setReason(OFPacketInReason.NO_MATCH)
+                .build();
+
+        controller.processPacket(dpid1, packetIn);
+        assertThat(packetListener.contexts(), hasSize(0));
+        packetInExecutorService.runAll();
+        assertThat(packetListener.contexts(), hasSize(1));
+
+        controller.processPacket(dpid1, packetIn);
+        assertThat(controller.packetIns.queueDepth(dpid1), is(1));
+        agent.removeConnectedSwitch(dpid1);
+        assertThat(controller.packetIns.queueDepth(dpid1), is(0));
+        packetInExecutorService.runAll();
+        assertThat(packetListener.contexts(), hasSize(1));
+    }
 }
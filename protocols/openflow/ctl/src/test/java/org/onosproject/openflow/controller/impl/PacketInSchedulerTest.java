@@ -0,0 +1,158 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.openflow.controller.impl;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.onlab.metrics.MetricsManager;
+import org.onosproject.openflow.controller.Dpid;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.hasKey;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for the per-device scheduling of packet-ins.
+ */
+public class PacketInSchedulerTest {
+
+    private static final Dpid DPID1 = new Dpid(1);
+    private static final Dpid DPID2 = new Dpid(2);
+
+    private final TestExecutor executor = new TestExecutor();
+    private final List<String> handled = new ArrayList<>();
+    private PacketInScheduler scheduler;
+
+    /**
+     * Executor running its tasks only when asked to, in order.
+     */
+    private static class TestExecutor implements Executor {
+        private final Queue<Runnable> tasks = new LinkedList<>();
+
+        @Override
+        public void execute(Runnable command) {
+            tasks.add(command);
+        }
+
+        void runAll() {
+            Runnable task;
+            while ((task = tasks.poll()) != null) {
+                task.run();
+            }
+        }
+    }
+
+    @Before
+    public void setUp() {
+        scheduler = new PacketInScheduler(executor, 1000, 0);
+    }
+
+    private boolean submit(Dpid dpid, String name) {
+        return scheduler.submit(dpid, () -> handled.add(name));
+    }
+
+    /**
+     * Tests that packet-ins are handled in order per device, with devices
+     * taking turns a batch at a time.
+     */
+    @Test
+    public void testFairOrdering() {
+        int flood = PacketInScheduler.BATCH_SIZE * 3;
+        for (int i = 0; i < flood; i++) {
+            assertTrue(submit(DPID1, "a" + i));
+        }
+        submit(DPID2, "b0");
+        submit(DPID2, "b1");
+        // One turn pending per device with packet-ins
+        assertThat(executor.tasks.size(), is(2));
+
+        executor.runAll();
+
+        assertThat(handled.size(), is(flood + 2));
+        int batch = PacketInScheduler.BATCH_SIZE;
+        assertThat(handled.subList(batch, batch + 2), contains("b0", "b1"));
+        List<String> flooded = new ArrayList<>(handled);
+        flooded.removeIf(s -> s.startsWith("b"));
+        for (int i = 0; i < flood; i++) {
+            assertThat(flooded.get(i), is("a" + i));
+        }
+        assertThat(scheduler.admitted(DPID1), is((long) flood));
+        assertThat(scheduler.queueDepth(DPID1), is(0));
+    }
+
+    /**
+     * Tests that packet-ins beyond the queue size are dropped.
+     */
+    @Test
+    public void testQueueBound() {
+        scheduler.setQueueSize(2);
+        assertTrue(submit(DPID1, "a0"));
+        assertTrue(submit(DPID1, "a1"));
+        assertFalse(submit(DPID1, "a2"));
+        assertTrue(submit(DPID2, "b0"));
+        assertThat(scheduler.dropped(DPID1), is(1L));
+        assertThat(scheduler.queueDepth(DPID1), is(2));
+
+        executor.runAll();
+        assertThat(handled, contains("a0", "a1", "b0"));
+        assertTrue(submit(DPID1, "a3"));
+    }
+
+    /**
+     * Tests that packet-ins beyond the rate limit are dropped.
+     */
+    @Test
+    public void testRateLimit() {
+        scheduler = new PacketInScheduler(executor, 1000, 5);
+        int admitted = 0;
+        for (int i = 0; i < 100; i++) {
+            if (submit(DPID1, "a" + i)) {
+                admitted++;
+            }
+        }
+        // Burst of one second worth of packet-ins, give or take a refill
+        assertTrue(admitted >= 5 && admitted < 10);
+        assertThat(scheduler.throttled(DPID1), is(100L - admitted));
+        assertTrue(submit(DPID2, "b0"));
+    }
+
+    /**
+     * Tests that removing a device drops its pending packet-ins and metrics.
+     */
+    @Test
+    public void testRemove() {
+        MetricsManager metricsService = new MetricsManager();
+        scheduler.bindMetrics(metricsService);
+        submit(DPID1, "a0");
+        String gauge = PacketInScheduler.COMPONENT_NAME + "." + DPID1 + "." + PacketInScheduler.ADMITTED;
+        assertThat(metricsService.getMetrics(), hasKey(gauge));
+
+        scheduler.remove(DPID1);
+        executor.runAll();
+        assertTrue(handled.isEmpty());
+        assertThat(metricsService.getMetrics(), not(hasKey(gauge)));
+    }
+}
@@ -230,6 +230,17 @@ public final class TestEventuallyConsistentMap<K, V> extends EventuallyConsisten
             return this;
         }
 
+        @Override
+        public EventuallyConsistentMapBuilder<K, V> withBucketedAntiEntropy() {
+            return this;
+        }
+
+        @Override
+        public EventuallyConsistentMapBuilder<K, V> withUpdateBatching(int maxBatchSize, long maxBatchDelay,
+                                                                       TimeUnit unit) {
+            return this;
+        }
+
         @Override
         public EventuallyConsistentMapBuilder<K, V> withPersistence() {
             return this;
@@ -51,6 +51,7 @@ public class BgpAppConfig extends Config<ApplicationId> {
     public static final String FLOW_SPEC_RPD_CAPABILITY = "flowSpecRpdCapability";
     public static final String VPNV4_CAPABILITY = "vpnv4Capability";
     public static final String EVPN_CAPABILITY = "evpnCapability";
+    public static final String IPV6_UNICAST_CAPABILITY = "ipv6UnicastCapability";
 
     public static final String BGP_PEER = "bgpPeer";
     public static final String PEER_IP = "peerIp";
@@ -80,7 +81,7 @@ public class BgpAppConfig extends Config<ApplicationId> {
         fields = hasOnlyFields(ROUTER_ID, LOCAL_AS, MAX_SESSION, LS_CAPABILITY,
                                HOLD_TIME, LARGE_AS_CAPABILITY,
                                FLOW_SPEC_CAPABILITY, FLOW_SPEC_RPD_CAPABILITY,
-                               VPNV4_CAPABILITY, EVPN_CAPABILITY, BGP_PEER)
+                               VPNV4_CAPABILITY, EVPN_CAPABILITY, IPV6_UNICAST_CAPABILITY, BGP_PEER)
                 && isIpAddress(ROUTER_ID, MANDATORY)
                 && isNumber(LOCAL_AS, MANDATORY)
                 && isNumber(MAX_SESSION, OPTIONAL, MIN_SESSION_NUMBER,
@@ -91,7 +92,8 @@ public class BgpAppConfig extends Config<ApplicationId> {
                 && isString(FLOW_SPEC_CAPABILITY, OPTIONAL)
                 && isBoolean(FLOW_SPEC_RPD_CAPABILITY, OPTIONAL)
                 && isBoolean(VPNV4_CAPABILITY, OPTIONAL)
-                && isBoolean(EVPN_CAPABILITY, OPTIONAL);
+                && isBoolean(EVPN_CAPABILITY, OPTIONAL)
+                && isBoolean(IPV6_UNICAST_CAPABILITY, OPTIONAL);
 
         if (!fields) {
             return fields;
@@ -183,6 +185,15 @@ public class BgpAppConfig extends Config<ApplicationId> {
         return Boolean.parseBoolean(get(EVPN_CAPABILITY, null));
     }
 
+    /**
+     * Returns IPv6 unicast capability support from the configuration.
+     *
+     * @return IPv6 unicast capability
+     */
+    public boolean ipv6UnicastCapability() {
+        return Boolean.parseBoolean(get(IPV6_UNICAST_CAPABILITY, null));
+    }
+
     /**
      * Returns holdTime of the local node from the configuration.
      *
@@ -129,6 +129,7 @@ public class BgpCfgProvider extends AbstractProvider {
         bgpConfig.setLargeASCapability(config.largeAsCapability());
         bgpConfig.setVpnv4Capability(config.vpnv4Capability());
         bgpConfig.setEvpnCapability(config.evpnCapability());
+        bgpConfig.setIpv6UnicastCapability(config.ipv6UnicastCapability());
 
         if (config.flowSpecCapability().equals("IPV4")) {
             bgpConfig.setFlowSpecCapability(BgpCfg.FlowSpec.IPV4);
@@ -181,6 +182,7 @@ public class BgpCfgProvider extends AbstractProvider {
         bgpConfig.setLargeASCapability(config.largeAsCapability());
         bgpConfig.setVpnv4Capability(config.vpnv4Capability());
         bgpConfig.setEvpnCapability(config.evpnCapability());
+        bgpConfig.setIpv6UnicastCapability(config.ipv6UnicastCapability());
 
         if (config.flowSpecCapability().equals("IPV4")) {
             bgpConfig.setFlowSpecCapability(BgpCfg.FlowSpec.IPV4);
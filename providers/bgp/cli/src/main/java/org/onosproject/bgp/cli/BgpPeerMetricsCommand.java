@@ -0,0 +1,104 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.bgp.cli;
+
+import com.codahale.metrics.Snapshot;
+import com.codahale.metrics.Timer;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.apache.karaf.shell.commands.Argument;
+import org.apache.karaf.shell.commands.Command;
+import org.onosproject.bgp.controller.BgpController;
+import org.onosproject.bgp.controller.BgpPeerMetrics;
+import org.onosproject.cli.AbstractShellCommand;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Lists the instrumentation of BGP peers.
+ */
+@Command(scope = "onos", name = "bgp-peer-metrics",
+         description = "Lists BGP peer metrics")
+public class BgpPeerMetricsCommand extends AbstractShellCommand {
+
+    private static final String FORMAT =
+            "peer=%s, updates=%d, decodeMeanMs=%.3f, decodeP99Ms=%.3f, " +
+            "ribCommitMeanMs=%.3f, ribCommitP99Ms=%.3f, outboundQueue=%d, " +
+            "flaps=%d, prefixes=%s";
+    private static final double NANOS_PER_MS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @Argument(index = 0, name = "peer", description = "Peer address",
+            required = false, multiValued = false)
+    String peerAddr = null;
+
+    @Override
+    protected void execute() {
+        BgpController controller = get(BgpController.class);
+
+        Collection<BgpPeerMetrics> metrics;
+        if (peerAddr == null) {
+            metrics = controller.peerMetrics();
+        } else {
+            BgpPeerMetrics peer = controller.peerMetrics(peerAddr);
+            metrics = peer == null ? Collections.emptyList() : Collections.singletonList(peer);
+        }
+        List<BgpPeerMetrics> sorted = metrics.stream()
+                .sorted(Comparator.comparing(BgpPeerMetrics::peerAddress))
+                .collect(Collectors.toList());
+
+        if (outputJson()) {
+            ArrayNode result = mapper().createArrayNode();
+            sorted.forEach(peer -> result.add(json(peer)));
+            print("%s", result);
+        } else {
+            for (BgpPeerMetrics peer : sorted) {
+                Snapshot decode = peer.updateDecodeLatency().getSnapshot();
+                Snapshot ribCommit = peer.ribCommitLatency().getSnapshot();
+                print(FORMAT, peer.peerAddress(), peer.updateDecodeLatency().getCount(),
+                      decode.getMean() / NANOS_PER_MS, decode.get99thPercentile() / NANOS_PER_MS,
+                      ribCommit.getMean() / NANOS_PER_MS, ribCommit.get99thPercentile() / NANOS_PER_MS,
+                      peer.outboundQueueDepth(), peer.flapCount(), peer.prefixCounts());
+            }
+        }
+    }
+
+    private ObjectNode json(BgpPeerMetrics peer) {
+        ObjectNode prefixes = mapper().createObjectNode();
+        peer.prefixCounts().forEach(prefixes::put);
+        ObjectNode result = mapper().createObjectNode()
+                .put("peer", peer.peerAddress())
+                .put("outboundQueueDepth", peer.outboundQueueDepth())
+                .put("flaps", peer.flapCount());
+        result.set("updateDecodeLatency", json(peer.updateDecodeLatency()));
+        result.set("ribCommitLatency", json(peer.ribCommitLatency()));
+        result.set("prefixes", prefixes);
+        return result;
+    }
+
+    private ObjectNode json(Timer timer) {
+        Snapshot snapshot = timer.getSnapshot();
+        return mapper().createObjectNode()
+                .put("count", timer.getCount())
+                .put("meanMs", snapshot.getMean() / NANOS_PER_MS)
+                .put("p99Ms", snapshot.get99thPercentile() / NANOS_PER_MS)
+                .put("maxMs", snapshot.getMax() / NANOS_PER_MS);
+    }
+}
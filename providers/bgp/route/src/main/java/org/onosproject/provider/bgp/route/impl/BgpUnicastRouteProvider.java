@@ -0,0 +1,98 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.provider.bgp.route.impl;
+
+import org.apache.felix.scr.annotations.Activate;
+import org.apache.felix.scr.annotations.Component;
+import org.apache.felix.scr.annotations.Deactivate;
+import org.apache.felix.scr.annotations.Reference;
+import org.apache.felix.scr.annotations.ReferenceCardinality;
+import org.onlab.packet.IpAddress;
+import org.onlab.packet.IpPrefix;
+import org.onosproject.bgp.controller.BgpController;
+import org.onosproject.bgp.controller.BgpUnicastRouteListener;
+import org.onosproject.incubator.net.routing.Route;
+import org.onosproject.incubator.net.routing.RouteAdminService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+
+import static java.util.concurrent.Executors.newSingleThreadExecutor;
+import static org.onlab.util.Tools.groupedThreads;
+
+/**
+ * Feeds the IPv4 and IPv6 unicast best paths selected by the BGP controller
+ * into the route service, so that routing applications such as SDN-IP share
+ * the BGP speaker and its RIB.
+ */
+@Component(immediate = true)
+public class BgpUnicastRouteProvider {
+
+    private static final Logger log = LoggerFactory.getLogger(BgpUnicastRouteProvider.class);
+
+    @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
+    protected BgpController controller;
+
+    @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
+    protected RouteAdminService routeAdminService;
+
+    private final InternalUnicastRouteListener unicastRouteListener = new InternalUnicastRouteListener();
+
+    // Single thread keeps the route service updates in RIB order
+    private ExecutorService executor;
+
+    @Activate
+    public void activate() {
+        executor = newSingleThreadExecutor(groupedThreads("onos/bgp", "unicast-route-%d", log));
+        controller.addUnicastRouteListener(unicastRouteListener);
+        log.info("Started");
+    }
+
+    @Deactivate
+    public void deactivate() {
+        controller.removeUnicastRouteListener(unicastRouteListener);
+        executor.shutdown();
+        log.info("Stopped");
+    }
+
+    private static List<Route> routes(Map<IpPrefix, IpAddress> routes) {
+        List<Route> result = new ArrayList<>(routes.size());
+        routes.forEach((prefix, nextHop) -> result.add(new Route(Route.Source.BGP, prefix, nextHop)));
+        return result;
+    }
+
+    /**
+     * Hands best path changes over to the route service, one batch per change set.
+     */
+    private class InternalUnicastRouteListener implements BgpUnicastRouteListener {
+
+        @Override
+        public void routesUpdated(Map<IpPrefix, IpAddress> routes) {
+            List<Route> update = routes(routes);
+            executor.execute(() -> routeAdminService.update(update));
+        }
+
+        @Override
+        public void routesWithdrawn(Map<IpPrefix, IpAddress> routes) {
+            List<Route> withdraw = routes(routes);
+            executor.execute(() -> routeAdminService.withdraw(withdraw));
+        }
+    }
+}
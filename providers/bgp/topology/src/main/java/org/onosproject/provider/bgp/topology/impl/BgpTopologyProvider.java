@@ -19,18 +19,29 @@ import static org.onosproject.net.Device.Type.ROUTER;
 import static org.onosproject.net.Device.Type.VIRTUAL;
 import static org.onosproject.incubator.net.resource.label.LabelResourceId.labelResourceId;
 import static java.util.stream.Collectors.toList;
+import static com.google.common.base.Strings.isNullOrEmpty;
+import static org.onlab.util.Tools.get;
+import static org.onosproject.net.LinkKey.linkKey;
 
 import java.util.ArrayList;
+import java.util.Dictionary;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.HashMap;
+import java.util.Timer;
 
 import org.onlab.packet.ChassisId;
 import org.onlab.packet.Ip4Address;
+import org.onlab.util.AbstractAccumulator;
 import org.onlab.util.Bandwidth;
 import org.apache.felix.scr.annotations.Activate;
 import org.apache.felix.scr.annotations.Component;
 import org.apache.felix.scr.annotations.Deactivate;
+import org.apache.felix.scr.annotations.Modified;
+import org.apache.felix.scr.annotations.Property;
 import org.apache.felix.scr.annotations.Reference;
 import org.apache.felix.scr.annotations.ReferenceCardinality;
 import org.onosproject.bgp.controller.BgpController;
@@ -60,6 +71,7 @@ import org.onosproject.bgpio.types.attr.BgpAttrRouterIdV4;
 import org.onosproject.bgpio.types.attr.BgpLinkAttrIgpMetric;
 import org.onosproject.bgpio.types.attr.BgpLinkAttrMaxLinkBandwidth;
 import org.onosproject.bgpio.types.attr.BgpLinkAttrTeDefaultMetric;
+import org.onosproject.cfg.ComponentConfigService;
 import org.onosproject.core.CoreService;
 import org.onosproject.incubator.net.resource.label.LabelResourceAdminService;
 import org.onosproject.incubator.net.resource.label.LabelResourceId;
@@ -70,6 +82,7 @@ import org.onosproject.net.DefaultAnnotations;
 import org.onosproject.net.Device;
 import org.onosproject.net.DeviceId;
 import org.onosproject.net.Link;
+import org.onosproject.net.LinkKey;
 import org.onosproject.net.MastershipRole;
 import org.onosproject.net.PortNumber;
 import org.onosproject.net.config.NetworkConfigService;
@@ -92,9 +105,12 @@ import org.onosproject.net.link.LinkProviderService;
 import org.onosproject.net.link.LinkService;
 import org.onosproject.net.provider.AbstractProvider;
 import org.onosproject.net.provider.ProviderId;
+import org.osgi.service.component.ComponentContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.common.collect.ImmutableList;
+
 /**
  * Provider which uses an BGP controller to detect network infrastructure topology.
  */
@@ -110,6 +126,24 @@ public class BgpTopologyProvider extends AbstractProvider implements DeviceProvi
 
     private static final Logger log = LoggerFactory.getLogger(BgpTopologyProvider.class);
 
+    private static final int DEFAULT_MAX_EVENTS = 1000;
+    private static final int DEFAULT_MAX_IDLE_MS = 20;
+    private static final int DEFAULT_MAX_BATCH_MS = 100;
+
+    private static final Timer TIMER = new Timer("onos-bgp-ls-batching");
+
+    @Property(name = "maxEvents", intValue = DEFAULT_MAX_EVENTS,
+            label = "Maximum number of link-state updates to accumulate; 1 disables batching")
+    private int maxEvents = DEFAULT_MAX_EVENTS;
+
+    @Property(name = "maxIdleMs", intValue = DEFAULT_MAX_IDLE_MS,
+            label = "Maximum number of millis between link-state updates")
+    private int maxIdleMs = DEFAULT_MAX_IDLE_MS;
+
+    @Property(name = "maxBatchMs", intValue = DEFAULT_MAX_BATCH_MS,
+            label = "Maximum number of millis for whole link-state batch")
+    private int maxBatchMs = DEFAULT_MAX_BATCH_MS;
+
     @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
     protected DeviceProviderRegistry deviceProviderRegistry;
 
@@ -137,6 +171,9 @@ public class BgpTopologyProvider extends AbstractProvider implements DeviceProvi
     @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
     protected NetworkConfigService networkConfigService;
 
+    @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
+    protected ComponentConfigService cfgService;
+
     private DeviceProviderService deviceProviderService;
     private LinkProviderService linkProviderService;
 
@@ -162,10 +199,13 @@ public class BgpTopologyProvider extends AbstractProvider implements DeviceProvi
     private LabelResourceId beginLabel = labelResourceId(5122);
     private LabelResourceId endLabel = labelResourceId(9217);
     private HashMap<DeviceId, List<PortDescription>> portMap = new HashMap<>();
+    private LinkStateAccumulator accumulator;
 
     @Activate
-    public void activate() {
+    public void activate(ComponentContext context) {
         log.debug("BgpTopologyProvider activate");
+        cfgService.registerProperties(getClass());
+        modified(context);
         deviceProviderService = deviceProviderRegistry.register(this);
         linkProviderService = linkProviderRegistry.register(this);
         controller.addListener(listener);
@@ -176,13 +216,69 @@ public class BgpTopologyProvider extends AbstractProvider implements DeviceProvi
     @Deactivate
     public void deactivate() {
         log.debug("BgpTopologyProvider deactivate");
+        cfgService.unregisterProperties(getClass(), false);
+        controller.removeListener(listener);
+        controller.removeLinkListener(listener);
+        deviceService.removeListener(deviceListener);
+        // Pushes the pending updates while the provider services are still there
+        LinkStateAccumulator batcher = accumulator;
+        accumulator = null;
+        if (batcher != null) {
+            batcher.flush();
+        }
         deviceProviderRegistry.unregister(this);
         deviceProviderService = null;
         linkProviderRegistry.unregister(this);
         linkProviderService = null;
-        controller.removeListener(listener);
-        controller.removeLinkListener(listener);
-        deviceService.removeListener(deviceListener);
+    }
+
+    @Modified
+    public void modified(ComponentContext context) {
+        if (context == null) {
+            if (accumulator == null) {
+                replaceAccumulator();
+            }
+            return;
+        }
+
+        Dictionary<?, ?> properties = context.getProperties();
+        int newMaxEvents, newMaxBatchMs, newMaxIdleMs;
+        try {
+            String s = get(properties, "maxEvents");
+            newMaxEvents = isNullOrEmpty(s) ? maxEvents : Integer.parseInt(s.trim());
+
+            s = get(properties, "maxBatchMs");
+            newMaxBatchMs = isNullOrEmpty(s) ? maxBatchMs : Integer.parseInt(s.trim());
+
+            s = get(properties, "maxIdleMs");
+            newMaxIdleMs = isNullOrEmpty(s) ? maxIdleMs : Integer.parseInt(s.trim());
+
+        } catch (NumberFormatException | ClassCastException e) {
+            newMaxEvents = DEFAULT_MAX_EVENTS;
+            newMaxBatchMs = DEFAULT_MAX_BATCH_MS;
+            newMaxIdleMs = DEFAULT_MAX_IDLE_MS;
+        }
+
+        if (newMaxEvents != maxEvents || newMaxBatchMs != maxBatchMs || newMaxIdleMs != maxIdleMs) {
+            maxEvents = newMaxEvents;
+            maxBatchMs = newMaxBatchMs;
+            maxIdleMs = newMaxIdleMs;
+            replaceAccumulator();
+            log.info("Reconfigured with maxEvents = {}; maxBatchMs = {}; maxIdleMs = {}",
+                     maxEvents, maxBatchMs, maxIdleMs);
+        } else if (accumulator == null) {
+            replaceAccumulator();
+        }
+    }
+
+    // Builds the accumulator for the current settings, then flushes the one
+    // it replaces so that none of the updates handed to it is left behind.
+    private void replaceAccumulator() {
+        LinkStateAccumulator retired = accumulator;
+        accumulator = maxEvents > 1 ? new LinkStateAccumulator() : null;
+        if (retired != null) {
+            retired.flush();
+        }
     }
 
     private class InternalDeviceListener implements DeviceListener {
@@ -269,7 +365,7 @@ public class BgpTopologyProvider extends AbstractProvider implements DeviceProvi
             DeviceDescription description = new DefaultDeviceDescription(uri(nodeUri.toString()), deviceType, UNKNOWN,
                     UNKNOWN, UNKNOWN, UNKNOWN, cId, anntotations.build());
 
-            deviceProviderService.deviceConnected(deviceId, description);
+            submit(LinkStateUpdate.deviceAdded(deviceId, description));
         }
 
         @Override
@@ -283,60 +379,19 @@ public class BgpTopologyProvider extends AbstractProvider implements DeviceProvi
             BgpDpid deviceUri = new BgpDpid(nodeNlri);
             DeviceId deviceId = deviceId(uri(deviceUri.toString()));
 
-            if (labelResourceAdminService != null) {
-                //Destroy local device label pool reserved for that device
-                labelResourceAdminService.destroyDevicePool(deviceId);
-            }
-
-            deviceProviderService.deviceDisconnected(deviceId);
-        }
-
-        private List<PortDescription> buildPortDescriptions(DeviceId deviceId,
-                                                            PortNumber portNumber) {
-
-            List<PortDescription> portList;
-
-            if (portMap.containsKey(deviceId)) {
-                portList = portMap.get(deviceId);
-            } else {
-                portList = new ArrayList<>();
-            }
-            if (portNumber != null) {
-                PortDescription portDescriptions = new DefaultPortDescription(portNumber, true);
-                portList.add(portDescriptions);
-            }
-
-            portMap.put(deviceId, portList);
-            return portList;
+            submit(LinkStateUpdate.deviceRemoved(deviceId));
         }
 
         @Override
         public void addLink(BgpLinkLsNlriVer4 linkNlri, PathAttrNlriDetails details) throws BgpParseException {
             log.debug("Addlink {}", linkNlri.toString());
 
-            LinkDescription linkDes = buildLinkDes(linkNlri, details, true);
-
-            //If already link exists, return
-            if (linkService.getLink(linkDes.src(), linkDes.dst()) != null || linkProviderService == null) {
+            if (linkProviderService == null) {
                 return;
             }
 
-            /*
-             * Update link ports and configure bandwidth on source and destination port using networkConfig service
-             * Only master of source link registers for bandwidth
-             */
-            if (mastershipService.isLocalMaster(linkDes.src().deviceId())) {
-                registerBandwidth(linkDes, details);
-            }
-
-            //Updating ports of the link
-            deviceProviderService.updatePorts(linkDes.src().deviceId(), buildPortDescriptions(linkDes.src().deviceId(),
-                    linkDes.src().port()));
-
-            deviceProviderService.updatePorts(linkDes.dst().deviceId(), buildPortDescriptions(linkDes.dst().deviceId(),
-                    linkDes.dst().port()));
-
-            linkProviderService.linkDetected(linkDes);
+            LinkDescription linkDes = buildLinkDes(linkNlri, details, true);
+            submit(LinkStateUpdate.linkAdded(linkDes, details));
         }
 
         //Build link description.
@@ -452,21 +507,192 @@ public class BgpTopologyProvider extends AbstractProvider implements DeviceProvi
             }
 
             LinkDescription linkDes = buildLinkDes(linkNlri, null, false);
+            submit(LinkStateUpdate.linkRemoved(linkDes));
+        }
+    }
+
+    // Hands the update to the accumulator or, with batching disabled, applies it right away.
+    private void submit(LinkStateUpdate update) {
+        LinkStateAccumulator batcher = accumulator;
+        if (batcher != null) {
+            batcher.add(update);
+        } else {
+            applyUpdates(ImmutableList.of(update));
+        }
+    }
+
+    /**
+     * Applies a batch of link-state updates to the core. Consecutive additions
+     * are merged: each device is connected once, ports are pushed once per
+     * device and links already known to the core are looked up only once.
+     * Removals act as barriers so that the original update order is kept.
+     *
+     * @param updates link-state updates in arrival order
+     */
+    synchronized void applyUpdates(List<LinkStateUpdate> updates) {
+        Map<DeviceId, DeviceDescription> devices = new LinkedHashMap<>();
+        Map<LinkKey, LinkStateUpdate> links = new LinkedHashMap<>();
+
+        for (LinkStateUpdate update : updates) {
+            switch (update.type) {
+                case DEVICE_ADDED:
+                    devices.put(update.deviceId, update.deviceDescription);
+                    break;
+                case LINK_ADDED:
+                    links.putIfAbsent(linkKey(update.linkDescription.src(), update.linkDescription.dst()), update);
+                    break;
+                case DEVICE_REMOVED:
+                    flushAdditions(devices, links);
+                    removeDevice(update.deviceId);
+                    break;
+                case LINK_REMOVED:
+                    flushAdditions(devices, links);
+                    removeLink(update.linkDescription);
+                    break;
+                default:
+                    break;
+            }
+        }
+        flushAdditions(devices, links);
+    }
+
+    // Pushes the accumulated device and link additions to the core in bulk.
+    private void flushAdditions(Map<DeviceId, DeviceDescription> devices, Map<LinkKey, LinkStateUpdate> links) {
+        if (deviceProviderService == null || linkProviderService == null) {
+            devices.clear();
+            links.clear();
+            return;
+        }
+
+        devices.forEach(deviceProviderService::deviceConnected);
+        devices.clear();
+
+        List<LinkDescription> detected = new ArrayList<>(links.size());
+        Set<DeviceId> updatedPorts = new LinkedHashSet<>();
+        for (LinkStateUpdate update : links.values()) {
+            LinkDescription linkDes = update.linkDescription;
+
+            //If already link exists, skip it
+            if (linkService.getLink(linkDes.src(), linkDes.dst()) != null) {
+                continue;
+            }
 
             /*
-             * Only master for the link src will release the bandwidth resource.
+             * Update link ports and configure bandwidth on source and destination port using networkConfig service
+             * Only master of source link registers for bandwidth
              */
-            if (networkConfigService != null && mastershipService.isLocalMaster(linkDes.src().deviceId())) {
-                // Releases registered resource for this link
-                networkConfigService.removeConfig(linkDes.src(), BandwidthCapacity.class);
-                networkConfigService.removeConfig(linkDes.dst(), BandwidthCapacity.class);
+            if (mastershipService.isLocalMaster(linkDes.src().deviceId())) {
+                registerBandwidth(linkDes, update.details);
             }
 
-            linkProviderService.linkVanished(linkDes);
+            addPortDescription(linkDes.src());
+            addPortDescription(linkDes.dst());
+            updatedPorts.add(linkDes.src().deviceId());
+            updatedPorts.add(linkDes.dst().deviceId());
+            detected.add(linkDes);
+        }
+        links.clear();
+
+        //Updating ports of the links, once per device
+        for (DeviceId deviceId : updatedPorts) {
+            deviceProviderService.updatePorts(deviceId, portMap.get(deviceId));
+        }
+
+        detected.forEach(linkProviderService::linkDetected);
+    }
+
+    private void addPortDescription(ConnectPoint connectPoint) {
+        List<PortDescription> portList = portMap.computeIfAbsent(connectPoint.deviceId(), k -> new ArrayList<>());
+        if (connectPoint.port() != null
+                && portList.stream().noneMatch(port -> port.portNumber().equals(connectPoint.port()))) {
+            portList.add(new DefaultPortDescription(connectPoint.port(), true));
+        }
+    }
+
+    private void removeDevice(DeviceId deviceId) {
+        if (deviceProviderService == null) {
+            return;
+        }
+
+        if (labelResourceAdminService != null) {
+            //Destroy local device label pool reserved for that device
+            labelResourceAdminService.destroyDevicePool(deviceId);
+        }
+
+        deviceProviderService.deviceDisconnected(deviceId);
+    }
+
+    private void removeLink(LinkDescription linkDes) {
+        if (linkProviderService == null) {
+            return;
+        }
+
+        /*
+         * Only master for the link src will release the bandwidth resource.
+         */
+        if (networkConfigService != null && mastershipService.isLocalMaster(linkDes.src().deviceId())) {
+            // Releases registered resource for this link
+            networkConfigService.removeConfig(linkDes.src(), BandwidthCapacity.class);
+            networkConfigService.removeConfig(linkDes.dst(), BandwidthCapacity.class);
+        }
+
+        linkProviderService.linkVanished(linkDes);
+
+        linkDes = new DefaultLinkDescription(linkDes.dst(), linkDes.src(), Link.Type.DIRECT,
+                false, linkDes.annotations());
+        linkProviderService.linkVanished(linkDes);
+    }
+
+    // Accumulates link-state updates so that initial sync is pushed to the core in bulk.
+    private class LinkStateAccumulator extends AbstractAccumulator<LinkStateUpdate> {
+        LinkStateAccumulator() {
+            super(TIMER, maxEvents, maxBatchMs, maxIdleMs);
+        }
+
+        @Override
+        public void processItems(List<LinkStateUpdate> items) {
+            applyUpdates(items);
+        }
+    }
+
+    /**
+     * Single device or link change learnt from BGP-LS, pending submission to the core.
+     */
+    static final class LinkStateUpdate {
+
+        enum Type {
+            DEVICE_ADDED, DEVICE_REMOVED, LINK_ADDED, LINK_REMOVED
+        }
+
+        private final Type type;
+        private final DeviceId deviceId;
+        private final DeviceDescription deviceDescription;
+        private final LinkDescription linkDescription;
+        private final PathAttrNlriDetails details;
+
+        private LinkStateUpdate(Type type, DeviceId deviceId, DeviceDescription deviceDescription,
+                                LinkDescription linkDescription, PathAttrNlriDetails details) {
+            this.type = type;
+            this.deviceId = deviceId;
+            this.deviceDescription = deviceDescription;
+            this.linkDescription = linkDescription;
+            this.details = details;
+        }
+
+        static LinkStateUpdate deviceAdded(DeviceId deviceId, DeviceDescription description) {
+            return new LinkStateUpdate(Type.DEVICE_ADDED, deviceId, description, null, null);
+        }
+
+        static LinkStateUpdate deviceRemoved(DeviceId deviceId) {
+            return new LinkStateUpdate(Type.DEVICE_REMOVED, deviceId, null, null, null);
+        }
+
+        static LinkStateUpdate linkAdded(LinkDescription description, PathAttrNlriDetails details) {
+            return new LinkStateUpdate(Type.LINK_ADDED, null, null, description, details);
+        }
 
-            linkDes = new DefaultLinkDescription(linkDes.dst(), linkDes.src(), Link.Type.DIRECT,
-                    false, linkDes.annotations());
-            linkProviderService.linkVanished(linkDes);
+        static LinkStateUpdate linkRemoved(LinkDescription description) {
+            return new LinkStateUpdate(Type.LINK_REMOVED, null, null, description, null);
         }
     }
 
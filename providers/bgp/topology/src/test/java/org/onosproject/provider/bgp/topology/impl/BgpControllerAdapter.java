@@ -23,10 +23,13 @@ import org.onosproject.bgp.controller.BgpLocalRib;
 import org.onosproject.bgp.controller.BgpNodeListener;
 import org.onosproject.bgp.controller.BgpPeer;
 import org.onosproject.bgp.controller.BgpPeerManager;
+import org.onosproject.bgp.controller.BgpPeerMetrics;
 import org.onosproject.bgp.controller.BgpRouteListener;
+import org.onosproject.bgp.controller.BgpUnicastRouteListener;
 import org.onosproject.bgpio.exceptions.BgpParseException;
 import org.onosproject.bgpio.protocol.BgpMessage;
 
+import java.util.Collection;
 import java.util.Map;
 import java.util.Set;
 
@@ -144,4 +147,22 @@ public class BgpControllerAdapter implements BgpController {
         // TODO Auto-generated method stub
         return null;
     }
+
+    @Override
+    public void addUnicastRouteListener(BgpUnicastRouteListener listener) {
+    }
+
+    @Override
+    public void removeUnicastRouteListener(BgpUnicastRouteListener listener) {
+    }
+
+    @Override
+    public Collection<BgpPeerMetrics> peerMetrics() {
+        return null;
+    }
+
+    @Override
+    public BgpPeerMetrics peerMetrics(String peerAddr) {
+        return null;
+    }
 }
@@ -20,8 +20,10 @@ import static org.onosproject.net.MastershipRole.MASTER;
 import static org.hamcrest.Matchers.nullValue;
 
 import java.util.Collection;
+import java.util.Dictionary;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Hashtable;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -33,6 +35,7 @@ import org.junit.Before;
 import org.junit.Test;
 import org.onlab.junit.TestUtils;
 import org.onlab.junit.TestUtils.TestUtilsException;
+import org.onlab.osgi.ComponentContextAdapter;
 import org.onlab.packet.ChassisId;
 import org.onlab.packet.Ip4Address;
 import org.onlab.util.Bandwidth;
@@ -64,6 +67,7 @@ import org.onosproject.bgpio.types.attr.BgpLinkAttrIgpMetric;
 import org.onosproject.bgpio.types.attr.BgpLinkAttrMaxLinkBandwidth;
 import org.onosproject.bgpio.types.attr.BgpLinkAttrTeDefaultMetric;
 import org.onosproject.bgpio.util.Constants;
+import org.onosproject.cfg.ComponentConfigAdapter;
 import org.onosproject.cluster.NodeId;
 import org.onosproject.net.ConnectPoint;
 import org.onosproject.net.DefaultAnnotations;
@@ -78,6 +82,7 @@ import org.onosproject.net.config.Config;
 import org.onosproject.net.config.ConfigApplyDelegate;
 import org.onosproject.net.config.ConfigFactory;
 import org.onosproject.net.config.NetworkConfigRegistryAdapter;
+import org.onosproject.net.device.DefaultDeviceDescription;
 import org.onosproject.net.device.DeviceDescription;
 import org.onosproject.net.device.DeviceEvent;
 import org.onosproject.net.device.DeviceListener;
@@ -87,6 +92,7 @@ import org.onosproject.net.device.DeviceProviderService;
 import org.onosproject.net.device.DeviceServiceAdapter;
 import org.onosproject.net.device.PortDescription;
 import org.onosproject.net.device.PortStatistics;
+import org.onosproject.net.link.DefaultLinkDescription;
 import org.onosproject.net.link.LinkDescription;
 import org.onosproject.net.link.LinkProvider;
 import org.onosproject.net.link.LinkProviderRegistry;
@@ -133,8 +139,11 @@ public class BgpTopologyProviderTest {
         provider.labelResourceAdminService = labelResourceAdminService;
         provider.mastershipService = mastershipService;
         provider.networkConfigService = networkConfigService;
+        provider.cfgService = new ComponentConfigAdapter();
         listener = TestUtils.getField(provider, "deviceListener");
-        provider.activate();
+        // Apply link-state updates synchronously so that results can be asserted right away
+        TestUtils.setField(provider, "maxEvents", 1);
+        provider.activate(null);
         assertThat("device provider should be registered", not(nodeRegistry.provider));
         assertThat("link provider should be registered", not(linkRegistry.linkProvider));
         assertThat("node listener should be registered", not(controller.nodeListener));
@@ -318,6 +327,7 @@ public class BgpTopologyProviderTest {
 
         Set<DeviceId> connected = new HashSet<>();
         Map<DeviceId, List<PortDescription>> portUpdated = new HashMap<>();
+        int portUpdateCount = 0;
 
         @Override
         public DeviceProviderService register(DeviceProvider provider) {
@@ -362,6 +372,7 @@ public class BgpTopologyProviderTest {
             @Override
             public void updatePorts(DeviceId deviceId, List<PortDescription> portDescriptions) {
                 portUpdated.put(deviceId, portDescriptions);
+                portUpdateCount++;
             }
 
             @Override
@@ -1056,4 +1067,136 @@ public class BgpTopologyProviderTest {
             assertThat(bandwidth, is(nullValue()));
         }
     }
+
+    /**
+     * Applies a batch of link-state updates and verifies devices, ports and links are merged.
+     */
+    @Test
+    public void bgpTopologyProviderTestBatchedUpdates() {
+        DeviceId did1 = DeviceId.deviceId("l3:rd=0::routinguniverse=0:asn=10:isoid=1414.1414.0014");
+        DeviceId did3 = DeviceId.deviceId("l3:rd=0::routinguniverse=0:asn=10:isoid=1e1e.1e1e.001e");
+        DeviceDescription description = new DefaultDeviceDescription(did1.uri(), Device.Type.ROUTER, UNKNOWN,
+                UNKNOWN, UNKNOWN, UNKNOWN, new ChassisId());
+        DeviceDescription remDescription = new DefaultDeviceDescription(did3.uri(), Device.Type.ROUTER, UNKNOWN,
+                UNKNOWN, UNKNOWN, UNKNOWN, new ChassisId());
+
+        ConnectPoint src1 = new ConnectPoint(did1, PortNumber.portNumber(1));
+        ConnectPoint dst1 = new ConnectPoint(did3, PortNumber.portNumber(1));
+        ConnectPoint src2 = new ConnectPoint(did1, PortNumber.portNumber(2));
+        ConnectPoint dst2 = new ConnectPoint(did3, PortNumber.portNumber(2));
+
+        List<BgpTopologyProvider.LinkStateUpdate> updates = new LinkedList<>();
+        updates.add(BgpTopologyProvider.LinkStateUpdate.deviceAdded(did1, description));
+        updates.add(BgpTopologyProvider.LinkStateUpdate.deviceAdded(did3, remDescription));
+        updates.add(BgpTopologyProvider.LinkStateUpdate.deviceAdded(did1, description));
+        updates.add(BgpTopologyProvider.LinkStateUpdate.linkAdded(
+                new DefaultLinkDescription(src1, dst1, Link.Type.DIRECT, false), null));
+        updates.add(BgpTopologyProvider.LinkStateUpdate.linkAdded(
+                new DefaultLinkDescription(src2, dst2, Link.Type.DIRECT, false), null));
+        updates.add(BgpTopologyProvider.LinkStateUpdate.linkAdded(
+                new DefaultLinkDescription(src1, dst1, Link.Type.DIRECT, false), null));
+        provider.applyUpdates(updates);
+
+        assertThat(nodeRegistry.connected.size(), is(2));
+        assertThat(linkRegistry.links.size(), is(2));
+        assertThat(nodeRegistry.portUpdateCount, is(2));
+        assertThat(nodeRegistry.portUpdated.get(did1).size(), is(2));
+        assertThat(nodeRegistry.portUpdated.get(did3).size(), is(2));
+
+        updates.clear();
+        updates.add(BgpTopologyProvider.LinkStateUpdate.linkRemoved(
+                new DefaultLinkDescription(src2, dst2, Link.Type.DIRECT, false)));
+        updates.add(BgpTopologyProvider.LinkStateUpdate.linkAdded(
+                new DefaultLinkDescription(src2, dst2, Link.Type.DIRECT, false), null));
+        provider.applyUpdates(updates);
+
+        assertThat(linkRegistry.links.size(), is(2));
+        assertThat(nodeRegistry.portUpdateCount, is(4));
+    }
+
+    /**
+     * Checks that with batching enabled, link-state updates are held until
+     * the batch is flushed, then pushed in bulk with the ports of each device
+     * merged, and that the pending updates are flushed when the accumulator
+     * is replaced or the provider deactivated.
+     *
+     * @throws BgpParseException while adding or removing links
+     */
+    @Test
+    public void bgpTopologyProviderTestAccumulatedUpdates() throws BgpParseException {
+        provider.modified(context(100));
+
+        LinkedList<BgpValueType> localTlvs = new LinkedList<>();
+        LinkedList<BgpValueType> remoteTlvs = new LinkedList<>();
+        BgpValueType tlv = new AutonomousSystemTlv(10);
+        short deslength = AutonomousSystemTlv.LENGTH;
+        short desType = AutonomousSystemTlv.TYPE;
+
+        localTlvs.add(tlv);
+        remoteTlvs.add(tlv);
+        localTlvs.add(IsIsNonPseudonode.of(new byte[] {20, 20, 20, 20, 00, 20}));
+        remoteTlvs.add(IsIsNonPseudonode.of(new byte[] {30, 30, 30, 30, 00, 30}));
+        NodeDescriptors localNode = new NodeDescriptors(localTlvs, deslength, desType);
+        NodeDescriptors remoteNode = new NodeDescriptors(remoteTlvs, deslength, desType);
+        BgpNodeLSNlriVer4 nodeNlri = new BgpNodeLSNlriVer4(0, (byte) Constants.DIRECT,
+                new BgpNodeLSIdentifier(localNode), false, new RouteDistinguisher());
+        BgpNodeLSNlriVer4 remNodeNlri = new BgpNodeLSNlriVer4(0, (byte) Constants.DIRECT,
+                new BgpNodeLSIdentifier(remoteNode), false, new RouteDistinguisher());
+
+        PathAttrNlriDetails details = new PathAttrNlriDetails();
+        details.setIdentifier(0);
+        details.setProtocolID(ProtocolType.DIRECT);
+        details.setPathAttribute(new LinkedList<>());
+
+        List<BgpLinkLsNlriVer4> linkNlris = new LinkedList<>();
+        for (int port : new int[] {99, 101}) {
+            LinkedList<BgpValueType> linkdes = new LinkedList<>();
+            linkdes.add(LinkLocalRemoteIdentifiersTlv.of(port, port + 1));
+            linkNlris.add(new BgpLinkLsNlriVer4((byte) Constants.DIRECT, 0,
+                    new BgpLinkLSIdentifier(localNode, remoteNode, linkdes), new RouteDistinguisher(), false));
+        }
+
+        for (BgpNodeListener l : controller.nodeListener) {
+            l.addNode(nodeNlri, details);
+            l.addNode(remNodeNlri, details);
+        }
+        for (BgpLinkListener l : controller.linkListener) {
+            for (BgpLinkLsNlriVer4 linkNlri : linkNlris) {
+                l.addLink(linkNlri, details);
+            }
+        }
+        assertThat(nodeRegistry.connected.size(), is(0));
+        assertThat(linkRegistry.links.size(), is(0));
+
+        // Reconfiguring flushes the updates held so far, in one batch
+        provider.modified(context(200));
+        assertThat(nodeRegistry.connected.size(), is(2));
+        assertThat(linkRegistry.links.size(), is(2));
+        assertThat(nodeRegistry.portUpdateCount, is(2));
+        for (List<PortDescription> ports : nodeRegistry.portUpdated.values()) {
+            assertThat(ports.size(), is(2));
+        }
+
+        for (BgpLinkListener l : controller.linkListener) {
+            l.deleteLink(linkNlris.get(0));
+        }
+        assertThat(linkRegistry.links.size(), is(2));
+
+        // Deactivating flushes the pending updates before unregistering
+        provider.deactivate();
+        assertThat(linkRegistry.links.size(), is(1));
+    }
+
+    private static ComponentContextAdapter context(int maxEvents) {
+        return new ComponentContextAdapter() {
+            @Override
+            public Dictionary getProperties() {
+                Hashtable<String, Integer> props = new Hashtable<>();
+                props.put("maxEvents", maxEvents);
+                props.put("maxBatchMs", 60000);
+                props.put("maxIdleMs", 60000);
+                return props;
+            }
+        };
+    }
 }
@@ -20,21 +20,65 @@ import org.apache.felix.scr.annotations.Component;
 import org.apache.felix.scr.annotations.Deactivate;
 import org.apache.felix.scr.annotations.Reference;
 import org.apache.felix.scr.annotations.ReferenceCardinality;
+import org.onlab.packet.Ethernet;
+import org.onlab.packet.IpAddress;
+import org.onlab.packet.IpPrefix;
+import org.onosproject.bgp.controller.BgpController;
+import org.onosproject.bgp.controller.BgpId;
+import org.onosproject.bgp.controller.BgpPeer;
+import org.onosproject.bgp.controller.BgpPeer.OperationType;
+import org.onosproject.bgpio.protocol.flowspec.BgpFlowSpecNlri;
+import org.onosproject.bgpio.protocol.flowspec.BgpFlowSpecRouteKey;
+import org.onosproject.bgpio.types.BgpFsActionTrafficRate;
+import org.onosproject.bgpio.types.BgpFsDestinationPortNum;
+import org.onosproject.bgpio.types.BgpFsDestinationPrefix;
+import org.onosproject.bgpio.types.BgpFsDscpValue;
+import org.onosproject.bgpio.types.BgpFsIpProtocol;
+import org.onosproject.bgpio.types.BgpFsOperatorValue;
+import org.onosproject.bgpio.types.BgpFsSourcePortNum;
+import org.onosproject.bgpio.types.BgpFsSourcePrefix;
+import org.onosproject.bgpio.types.BgpValueType;
 import org.onosproject.core.ApplicationId;
+import org.onosproject.net.Device;
+import org.onosproject.net.DeviceId;
+import org.onosproject.net.device.DeviceService;
+import org.onosproject.net.flow.CompletedBatchOperation;
 import org.onosproject.net.flow.FlowRule;
+import org.onosproject.net.flow.FlowRuleBatchEntry;
 import org.onosproject.net.flow.FlowRuleBatchOperation;
 import org.onosproject.net.flow.FlowRuleProvider;
 import org.onosproject.net.flow.FlowRuleProviderRegistry;
 import org.onosproject.net.flow.FlowRuleProviderService;
+import org.onosproject.net.flow.criteria.Criterion;
+import org.onosproject.net.flow.criteria.EthTypeCriterion;
+import org.onosproject.net.flow.criteria.IPCriterion;
+import org.onosproject.net.flow.criteria.IPDscpCriterion;
+import org.onosproject.net.flow.criteria.IPProtocolCriterion;
+import org.onosproject.net.flow.criteria.TcpPortCriterion;
+import org.onosproject.net.flow.criteria.UdpPortCriterion;
+import org.onosproject.net.flow.instructions.Instruction;
 import org.onosproject.net.provider.AbstractProvider;
 import org.onosproject.net.provider.ProviderId;
 import org.osgi.service.component.ComponentContext;
 import org.slf4j.Logger;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
 import static org.slf4j.LoggerFactory.getLogger;
 
 /**
- * Implementation of BGP-PCEP flow provider.
+ * Implementation of BGP-PCEP flow provider. Flow rules are advertised to
+ * the connected BGP peer backing their device as flow specification rules,
+ * many per UPDATE.
  */
 @Component(immediate = true)
 public class BgpcepFlowRuleProvider extends AbstractProvider
@@ -42,9 +86,21 @@ public class BgpcepFlowRuleProvider extends AbstractProvider
 
     private final Logger log = getLogger(getClass());
 
+    // Operator byte: end of list, one or two octet value, equal
+    private static final byte EQUAL_ONE_OCTET = (byte) 0x81;
+    private static final byte EQUAL_TWO_OCTETS = (byte) 0x91;
+
+    private static final String LSRID = "lsrId";
+
     @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
     protected FlowRuleProviderRegistry providerRegistry;
 
+    @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
+    protected BgpController bgpController;
+
+    @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
+    protected DeviceService deviceService;
+
     private FlowRuleProviderService providerService;
 
     /**
@@ -69,25 +125,217 @@ public class BgpcepFlowRuleProvider extends AbstractProvider
 
     @Override
     public void applyFlowRule(FlowRule... flowRules) {
-        // TODO Auto-generated method stub
-
+        advertiseToDevices(OperationType.ADD, Arrays.asList(flowRules));
     }
 
     @Override
     public void removeFlowRule(FlowRule... flowRules) {
-        // TODO Auto-generated method stub
-
+        advertiseToDevices(OperationType.DELETE, Arrays.asList(flowRules));
     }
 
     @Override
     public void removeRulesById(ApplicationId id, FlowRule... flowRules) {
-        // TODO Auto-generated method stub
-
+        removeFlowRule(flowRules);
     }
 
     @Override
     public void executeBatch(FlowRuleBatchOperation batch) {
-        // TODO Auto-generated method stub
+        List<FlowRule> toAdd = new LinkedList<>();
+        List<FlowRule> toRemove = new LinkedList<>();
+        Set<FlowRule> failures = new HashSet<>();
+        for (FlowRuleBatchEntry fbe : batch.getOperations()) {
+            switch (fbe.operator()) {
+                case ADD:
+                case MODIFY:
+                    toAdd.add(fbe.target());
+                    break;
+                case REMOVE:
+                    toRemove.add(fbe.target());
+                    break;
+                default:
+                    log.error("Unsupported batch operation {}; skipping flowmod {}",
+                              fbe.operator(), fbe);
+                    failures.add(fbe.target());
+                    break;
+            }
+        }
+
+        BgpPeer peer = peer(batch.deviceId());
+        if (peer == null) {
+            log.warn("No connected BGP peer for device {}", batch.deviceId());
+            failures.addAll(toRemove);
+            failures.addAll(toAdd);
+        } else {
+            failures.addAll(advertise(peer, OperationType.DELETE, toRemove));
+            failures.addAll(advertise(peer, OperationType.ADD, toAdd));
+        }
+
+        if (providerService != null) {
+            providerService.batchOperationCompleted(batch.id(),
+                    new CompletedBatchOperation(failures.isEmpty(), failures, batch.deviceId()));
+        }
+    }
+
+    // Advertises rules to the peers backing their devices.
+    private void advertiseToDevices(OperationType operType, List<FlowRule> flowRules) {
+        Map<DeviceId, List<FlowRule>> byDevice = new LinkedHashMap<>();
+        for (FlowRule flowRule : flowRules) {
+            byDevice.computeIfAbsent(flowRule.deviceId(), k -> new LinkedList<>()).add(flowRule);
+        }
+        byDevice.forEach((deviceId, rules) -> {
+            BgpPeer peer = peer(deviceId);
+            Set<FlowRule> failures = peer == null ? new HashSet<>(rules) : advertise(peer, operType, rules);
+            if (!failures.isEmpty()) {
+                log.warn("Flow rules {} not advertised for device {}", failures, deviceId);
+            }
+        });
+    }
+
+    /**
+     * Returns the connected peer backing the given device: the peer whose
+     * address is that of the device identifier, or else that of the LSR
+     * identifier of the device.
+     *
+     * @param deviceId device identifier
+     * @return connected peer, or null if none
+     */
+    private BgpPeer peer(DeviceId deviceId) {
+        IpAddress address = ipAddress(deviceId.uri().getSchemeSpecificPart());
+        if (address == null) {
+            Device device = deviceService.getDevice(deviceId);
+            String lsrId = device != null ? device.annotations().value(LSRID) : null;
+            address = lsrId != null ? ipAddress(lsrId) : null;
+        }
+        return address != null ? bgpController.connectedPeers().get(BgpId.bgpId(address)) : null;
+    }
+
+    private static IpAddress ipAddress(String value) {
+        try {
+            return IpAddress.valueOf(value);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Translates flow rules to flow specifications and sends them in bulk to
+     * the given peer.
+     *
+     * @param peer BGP peer backing the device of the rules
+     * @param operType operation type
+     * @param flowRules flow rules
+     * @return flow rules which could not be translated, or were not
+     * advertised by the peer
+     */
+    private Set<FlowRule> advertise(BgpPeer peer, OperationType operType, List<FlowRule> flowRules) {
+        if (flowRules.isEmpty()) {
+            return Collections.emptySet();
+        }
+
+        Set<FlowRule> failures = new HashSet<>();
+        Map<BgpFlowSpecRouteKey, FlowRule> rules = new HashMap<>();
+        Map<BgpFlowSpecRouteKey, BgpFlowSpecNlri> flowSpecs = new LinkedHashMap<>();
+        for (FlowRule flowRule : flowRules) {
+            BgpFlowSpecNlri flowSpec = flowSpec(flowRule);
+            if (flowSpec == null) {
+                failures.add(flowRule);
+                continue;
+            }
+            BgpFlowSpecRouteKey routeKey = new BgpFlowSpecRouteKey(flowRule.id().toString());
+            rules.put(routeKey, flowRule);
+            flowSpecs.put(routeKey, flowSpec);
+        }
+
+        if (!flowSpecs.isEmpty()) {
+            for (BgpFlowSpecRouteKey rejected : peer.updateFlowSpec(operType, flowSpecs, null)) {
+                failures.add(rules.get(rejected));
+            }
+        }
+        return failures;
+    }
+
+    /**
+     * Builds the flow specification matching the flow rule selector, with a
+     * discard action. Returns null if the rule cannot be expressed.
+     *
+     * @param flowRule flow rule
+     * @return flow specification or null
+     */
+    private BgpFlowSpecNlri flowSpec(FlowRule flowRule) {
+        for (Instruction instruction : flowRule.treatment().allInstructions()) {
+            if (instruction.type() != Instruction.Type.NOACTION) {
+                log.debug("Unsupported instruction {} in flow rule {}", instruction, flowRule.id());
+                return null;
+            }
+        }
+
+        // Components must be in increasing type order
+        Map<Short, BgpValueType> components = new TreeMap<>();
+        for (Criterion criterion : flowRule.selector().criteria()) {
+            BgpValueType component;
+            switch (criterion.type()) {
+                case IPV4_DST:
+                    IpPrefix dst = ((IPCriterion) criterion).ip();
+                    component = new BgpFsDestinationPrefix((byte) dst.prefixLength(), dst);
+                    break;
+                case IPV4_SRC:
+                    IpPrefix src = ((IPCriterion) criterion).ip();
+                    component = new BgpFsSourcePrefix((byte) src.prefixLength(), src);
+                    break;
+                case IP_PROTO:
+                    component = new BgpFsIpProtocol(equal(((IPProtocolCriterion) criterion).protocol(), false));
+                    break;
+                case TCP_DST:
+                    component = new BgpFsDestinationPortNum(
+                            equal(((TcpPortCriterion) criterion).tcpPort().toInt(), true));
+                    break;
+                case UDP_DST:
+                    component = new BgpFsDestinationPortNum(
+                            equal(((UdpPortCriterion) criterion).udpPort().toInt(), true));
+                    break;
+                case TCP_SRC:
+                    component = new BgpFsSourcePortNum(
+                            equal(((TcpPortCriterion) criterion).tcpPort().toInt(), true));
+                    break;
+                case UDP_SRC:
+                    component = new BgpFsSourcePortNum(
+                            equal(((UdpPortCriterion) criterion).udpPort().toInt(), true));
+                    break;
+                case IP_DSCP:
+                    component = new BgpFsDscpValue(equal(((IPDscpCriterion) criterion).ipDscp(), false));
+                    break;
+                case ETH_TYPE:
+                    // Flow specification is IPv4 only
+                    if (((EthTypeCriterion) criterion).ethType().toShort() != Ethernet.TYPE_IPV4) {
+                        log.debug("Unsupported ethertype {} in flow rule {}", criterion, flowRule.id());
+                        return null;
+                    }
+                    continue;
+                default:
+                    log.debug("Unsupported criterion {} in flow rule {}", criterion, flowRule.id());
+                    return null;
+            }
+            components.put(component.getType(), component);
+        }
+        if (components.isEmpty()) {
+            return null;
+        }
+
+        BgpFlowSpecNlri flowSpec = new BgpFlowSpecNlri(new LinkedList<>(components.values()));
+        List<BgpValueType> actions = new LinkedList<>();
+        actions.add(new BgpFsActionTrafficRate((short) 0, 0));
+        flowSpec.setFsActionTlv(actions);
+        return flowSpec;
+    }
 
+    private static List<BgpFsOperatorValue> equal(int value, boolean twoOctets) {
+        List<BgpFsOperatorValue> operatorValue = new LinkedList<>();
+        if (twoOctets) {
+            operatorValue.add(new BgpFsOperatorValue(EQUAL_TWO_OCTETS,
+                                                     new byte[] {(byte) (value >> 8), (byte) value}));
+        } else {
+            operatorValue.add(new BgpFsOperatorValue(EQUAL_ONE_OCTET, new byte[] {(byte) value}));
+        }
+        return operatorValue;
     }
 }
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onlab.graph;
+
+import java.util.Arrays;
+
+/**
+ * Implementation of the BFS algorithm working on the compressed sparse row
+ * form of the graph, with a primitive array queue. Graphs other than
+ * {@link CompactGraph} are compiled for each search.
+ */
+public class CompactBreadthFirstSearch<V extends Vertex, E extends Edge<V>>
+        extends AbstractGraphPathSearch<V, E> {
+
+    @Override
+    public Result<V, E> search(Graph<V, E> graph, V src, V dst,
+                               EdgeWeight<V, E> weight, int maxPaths) {
+        checkArguments(graph, src, dst);
+        CompactGraph<V, E> compact = CompactGraph.compile(graph);
+        int vertexCount = compact.vertexCount();
+        int source = compact.index(src);
+        int destination = dst == null ? -1 : compact.index(dst);
+
+        // Vertexes are visited in the order they are reached, which is the
+        // order of their distance from the source.
+        double[] costs = new double[vertexCount];
+        int[] parents = new int[vertexCount];
+        boolean[] visited = new boolean[vertexCount];
+        int[] queue = new int[vertexCount];
+        int head = 0;
+        int tail = 0;
+        Arrays.fill(parents, -1);
+        visited[source] = true;
+        queue[tail++] = source;
+
+        boolean reachedEnd = false;
+        while (!reachedEnd && head < tail) {
+            int vertex = queue[head++];
+            double cost = costs[vertex];
+
+            // Visit all egress edges of the vertex.
+            for (int e = compact.egressOffsets[vertex]; e < compact.egressOffsets[vertex + 1]; e++) {
+                int next = compact.edgeDestinations[e];
+                if (!visited[next]) {
+                    visited[next] = true;
+                    costs[next] = cost + (weight == null ? 1.0 : weight.weight(compact.edge(e)));
+                    parents[next] = e;
+                    // If we have reached our intended destination, bail.
+                    if (next == destination) {
+                        reachedEnd = true;
+                        break;
+                    }
+                    queue[tail++] = next;
+                }
+            }
+        }
+
+        // Transfer the visited vertexes into the result and build the paths.
+        DefaultResult result = new DefaultResult(src, dst, maxPaths);
+        for (int v = 0; v < vertexCount; v++) {
+            if (visited[v]) {
+                result.updateVertex(compact.vertex(v), parents[v] < 0 ? null : compact.edge(parents[v]),
+                                    costs[v], true);
+            }
+        }
+        result.buildPaths();
+        return result;
+    }
+
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onlab.graph;
+
+import java.util.Arrays;
+
+/**
+ * Dijkstra shortest-path graph search algorithm capable of finding not just
+ * one, but all shortest paths between the source and destinations, working
+ * on the compressed sparse row form of the graph. Costs and parent edges are
+ * kept in primitive arrays indexed by vertex number, with the vertexes queued
+ * in an indexed binary heap, and are only transferred into the search result
+ * once the search is over. Graphs other than {@link CompactGraph} are
+ * compiled for each search.
+ */
+public class CompactDijkstraGraphSearch<V extends Vertex, E extends Edge<V>>
+        extends AbstractGraphPathSearch<V, E> {
+
+    @Override
+    public Result<V, E> search(Graph<V, E> graph, V src, V dst,
+                               EdgeWeight<V, E> weight, int maxPaths) {
+        checkArguments(graph, src, dst);
+        CompactGraph<V, E> compact = CompactGraph.compile(graph);
+        int vertexCount = compact.vertexCount();
+        int source = compact.index(src);
+        int destination = dst == null ? -1 : compact.index(dst);
+        double threshold = samenessThreshold();
+
+        double[] costs = new double[vertexCount];
+        Arrays.fill(costs, Double.MAX_VALUE);
+        ParentEdges parents = new ParentEdges(vertexCount, compact.edgeCount(), maxPaths);
+
+        // Cost to reach the source vertex is 0 of course; other vertexes are
+        // queued as soon as they are reached.
+        costs[source] = 0.0;
+        IndexedHeap minQueue = new IndexedHeap(vertexCount);
+        minQueue.offer(source, 0.0);
+        while (!minQueue.isEmpty()) {
+            int nearest = minQueue.poll();
+            if (nearest == destination) {
+                break;
+            }
+
+            // Relax all egress edges of the nearest vertex.
+            double cost = costs[nearest];
+            for (int e = compact.egressOffsets[nearest]; e < compact.egressOffsets[nearest + 1]; e++) {
+                double hopCost = weight == null ? 1.0 : weight.weight(compact.edge(e));
+                if (hopCost < 0) {
+                    continue;
+                }
+                int v = compact.edgeDestinations[e];
+                double oldCost = costs[v];
+                double newCost = cost + hopCost;
+                boolean relaxed = newCost < oldCost;
+                boolean same = Math.abs(newCost - oldCost) <= threshold;
+                if (same || relaxed) {
+                    costs[v] = newCost;
+                    parents.add(v, e, !same);
+                    if (relaxed) {
+                        minQueue.offer(v, newCost);
+                    }
+                }
+            }
+        }
+
+        // Transfer costs and parent edges of the reached vertexes into the
+        // result and construct a set of paths from it.
+        DefaultResult result = new DefaultResult(src, dst, maxPaths);
+        for (int v = 0; v < vertexCount; v++) {
+            if (costs[v] < Double.MAX_VALUE) {
+                V vertex = compact.vertex(v);
+                result.updateVertex(vertex, null, costs[v], false);
+                for (int p = parents.heads[v]; p >= 0; p = parents.next[p]) {
+                    result.updateVertex(vertex, compact.edge(parents.edges[p]), costs[v], false);
+                }
+            }
+        }
+        result.buildPaths();
+        return result;
+    }
+
+    // Parent edges of each vertex, as linked lists of edge numbers.
+    private static final class ParentEdges {
+        private final int maxPaths;
+        private final int[] heads;
+        private final int[] counts;
+        private int[] edges;
+        private int[] next;
+        private int size;
+
+        private ParentEdges(int vertexCount, int edgeCount, int maxPaths) {
+            this.maxPaths = maxPaths;
+            heads = new int[vertexCount];
+            counts = new int[vertexCount];
+            Arrays.fill(heads, -1);
+            edges = new int[Math.max(edgeCount, 1)];
+            next = new int[edges.length];
+        }
+
+        // Adds the parent edge of the vertex, after clearing the parent
+        // edges accrued so far if requested.
+        private void add(int vertex, int edge, boolean replace) {
+            if (replace) {
+                heads[vertex] = -1;
+                counts[vertex] = 0;
+            }
+            if (maxPaths != ALL_PATHS && counts[vertex] >= maxPaths) {
+                return;
+            }
+            if (size == edges.length) {
+                edges = Arrays.copyOf(edges, size * 2);
+                next = Arrays.copyOf(next, size * 2);
+            }
+            edges[size] = edge;
+            next[size] = heads[vertex];
+            heads[vertex] = size++;
+            counts[vertex]++;
+        }
+    }
+
+}
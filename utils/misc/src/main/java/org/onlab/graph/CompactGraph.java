@@ -0,0 +1,193 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onlab.graph;
+
+import com.google.common.collect.ImmutableMap;
+
+import java.util.Set;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Immutable graph compiled into compressed sparse row form. Vertexes and
+ * edges are numbered, and the edges leading out from, or towards, each
+ * vertex occupy a contiguous range of primitive arrays, so that searches
+ * can work on array indexes rather than on hashed vertex and edge sets.
+ * The {@link Graph} queries are answered by the graph it was compiled from.
+ *
+ * @param <V> vertex type
+ * @param <E> edge type
+ */
+public final class CompactGraph<V extends Vertex, E extends Edge<V>>
+        implements Graph<V, E> {
+
+    private final Graph<V, E> graph;
+    private final ImmutableMap<V, Integer> indexes;
+    private final V[] vertexes;
+    private final E[] edges;
+
+    // Edges are numbered by source vertex, so the edges leading out from
+    // vertex v are those from egressOffsets[v] up to egressOffsets[v + 1].
+    final int[] egressOffsets;
+    final int[] edgeSources;
+    final int[] edgeDestinations;
+
+    // Edges leading towards vertex v are the ingressEdges from
+    // ingressOffsets[v] up to ingressOffsets[v + 1].
+    final int[] ingressOffsets;
+    final int[] ingressEdges;
+
+    /**
+     * Returns the compressed sparse row form of the specified graph.
+     *
+     * @param graph graph to compile
+     * @param <V>   vertex type
+     * @param <E>   edge type
+     * @return compact graph; the given graph if already compact
+     */
+    public static <V extends Vertex, E extends Edge<V>> CompactGraph<V, E> compile(Graph<V, E> graph) {
+        checkNotNull(graph, "Graph cannot be null");
+        return graph instanceof CompactGraph ? (CompactGraph<V, E>) graph : new CompactGraph<>(graph);
+    }
+
+    @SuppressWarnings("unchecked")
+    private CompactGraph(Graph<V, E> graph) {
+        this.graph = graph;
+        Set<V> vertexSet = graph.getVertexes();
+        int vertexCount = vertexSet.size();
+        int edgeCount = graph.getEdges().size();
+
+        vertexes = (V[]) new Vertex[vertexCount];
+        ImmutableMap.Builder<V, Integer> indexBuilder = ImmutableMap.builder();
+        int v = 0;
+        for (V vertex : vertexSet) {
+            vertexes[v] = vertex;
+            indexBuilder.put(vertex, v++);
+        }
+        indexes = indexBuilder.build();
+
+        edges = (E[]) new Edge[edgeCount];
+        egressOffsets = new int[vertexCount + 1];
+        edgeSources = new int[edgeCount];
+        edgeDestinations = new int[edgeCount];
+        int[] ingressCounts = new int[vertexCount + 1];
+        int e = 0;
+        for (v = 0; v < vertexCount; v++) {
+            egressOffsets[v] = e;
+            for (E edge : graph.getEdgesFrom(vertexes[v])) {
+                Integer dst = indexes.get(edge.dst());
+                checkArgument(dst != null, "Edge destination not in graph");
+                edges[e] = edge;
+                edgeSources[e] = v;
+                edgeDestinations[e] = dst;
+                ingressCounts[dst + 1]++;
+                e++;
+            }
+        }
+        egressOffsets[vertexCount] = e;
+        checkArgument(e == edgeCount, "Edge source not in graph");
+
+        // Count ingress edges per vertex to find the ranges and fill them.
+        ingressOffsets = new int[vertexCount + 1];
+        for (v = 0; v < vertexCount; v++) {
+            ingressOffsets[v + 1] = ingressOffsets[v] + ingressCounts[v + 1];
+        }
+        ingressEdges = new int[edgeCount];
+        int[] next = ingressOffsets.clone();
+        for (e = 0; e < edgeCount; e++) {
+            ingressEdges[next[edgeDestinations[e]]++] = e;
+        }
+    }
+
+    /**
+     * Returns the number of vertexes.
+     *
+     * @return vertex count
+     */
+    public int vertexCount() {
+        return vertexes.length;
+    }
+
+    /**
+     * Returns the number of edges.
+     *
+     * @return edge count
+     */
+    public int edgeCount() {
+        return edges.length;
+    }
+
+    /**
+     * Returns the number of the specified vertex.
+     *
+     * @param vertex vertex
+     * @return vertex number; -1 if the vertex is not in the graph
+     */
+    public int index(V vertex) {
+        Integer index = indexes.get(vertex);
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * Returns the vertex with the specified number.
+     *
+     * @param index vertex number
+     * @return vertex
+     */
+    public V vertex(int index) {
+        return vertexes[index];
+    }
+
+    /**
+     * Returns the edge with the specified number.
+     *
+     * @param index edge number
+     * @return edge
+     */
+    public E edge(int index) {
+        return edges[index];
+    }
+
+    @Override
+    public Set<V> getVertexes() {
+        return graph.getVertexes();
+    }
+
+    @Override
+    public Set<E> getEdges() {
+        return graph.getEdges();
+    }
+
+    @Override
+    public Set<E> getEdgesFrom(V src) {
+        return graph.getEdgesFrom(src);
+    }
+
+    @Override
+    public Set<E> getEdgesTo(V dst) {
+        return graph.getEdgesTo(dst);
+    }
+
+    @Override
+    public String toString() {
+        return toStringHelper(this)
+                .add("vertexCount", vertexCount())
+                .add("edgeCount", edgeCount())
+                .toString();
+    }
+}
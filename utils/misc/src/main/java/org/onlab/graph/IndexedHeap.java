@@ -0,0 +1,139 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onlab.graph;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Binary min-heap of vertex numbers keyed by primitive costs. The position
+ * of each vertex in the heap is tracked, so that the cost of a queued vertex
+ * can be lowered in logarithmic time.
+ */
+final class IndexedHeap {
+
+    private final double[] keys;
+    private final int[] heap;
+    private final int[] positions;
+    private int size;
+
+    /**
+     * Creates an empty heap for vertexes numbered from 0 up to the capacity.
+     *
+     * @param capacity number of vertexes
+     */
+    IndexedHeap(int capacity) {
+        keys = new double[capacity];
+        heap = new int[capacity];
+        positions = new int[capacity];
+        Arrays.fill(positions, -1);
+    }
+
+    /**
+     * Indicates whether the heap is empty.
+     *
+     * @return true if no vertexes are queued
+     */
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Indicates whether the vertex is queued.
+     *
+     * @param vertex vertex number
+     * @return true if queued
+     */
+    boolean contains(int vertex) {
+        return positions[vertex] >= 0;
+    }
+
+    /**
+     * Queues the vertex with the specified cost, or lowers the cost of the
+     * vertex if already queued with a higher one.
+     *
+     * @param vertex vertex number
+     * @param key    vertex cost
+     */
+    void offer(int vertex, double key) {
+        int position = positions[vertex];
+        if (position < 0) {
+            position = size++;
+            heap[position] = vertex;
+            positions[vertex] = position;
+        } else if (key >= keys[vertex]) {
+            return;
+        }
+        keys[vertex] = key;
+        siftUp(position);
+    }
+
+    /**
+     * Removes the vertex with the lowest cost.
+     *
+     * @return vertex number
+     */
+    int poll() {
+        if (size == 0) {
+            throw new NoSuchElementException("Heap is empty");
+        }
+        int top = heap[0];
+        positions[top] = -1;
+        if (--size > 0) {
+            heap[0] = heap[size];
+            positions[heap[0]] = 0;
+            siftDown(0);
+        }
+        return top;
+    }
+
+    private void siftUp(int position) {
+        int vertex = heap[position];
+        double key = keys[vertex];
+        while (position > 0) {
+            int parent = (position - 1) >>> 1;
+            if (keys[heap[parent]] <= key) {
+                break;
+            }
+            move(heap[parent], position);
+            position = parent;
+        }
+        move(vertex, position);
+    }
+
+    private void siftDown(int position) {
+        int vertex = heap[position];
+        double key = keys[vertex];
+        int half = size >>> 1;
+        while (position < half) {
+            int child = 2 * position + 1;
+            if (child + 1 < size && keys[heap[child + 1]] < keys[heap[child]]) {
+                child++;
+            }
+            if (key <= keys[heap[child]]) {
+                break;
+            }
+            move(heap[child], position);
+            position = child;
+        }
+        move(vertex, position);
+    }
+
+    private void move(int vertex, int position) {
+        heap[position] = vertex;
+        positions[vertex] = position;
+    }
+}
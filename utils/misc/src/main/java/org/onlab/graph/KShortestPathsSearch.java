@@ -39,6 +39,27 @@ public class KShortestPathsSearch<V extends Vertex, E extends Edge<V>> extends A
 
     private final Logger log = getLogger(getClass());
 
+    private final GraphPathSearch<V, E> shortestPathSearch;
+
+    /**
+     * Creates a K shortest paths search which finds each shortest path with
+     * {@link DijkstraGraphSearch}.
+     */
+    public KShortestPathsSearch() {
+        this(new DijkstraGraphSearch<>());
+    }
+
+    /**
+     * Creates a K shortest paths search which finds each shortest path with
+     * the specified search. With {@link CompactDijkstraGraphSearch}, the
+     * graph is compiled once for all the searches.
+     *
+     * @param shortestPathSearch shortest path search
+     */
+    public KShortestPathsSearch(GraphPathSearch<V, E> shortestPathSearch) {
+        this.shortestPathSearch = checkNotNull(shortestPathSearch);
+    }
+
     @Override
     public Result<V, E> search(Graph<V, E> graph, V src, V dst, EdgeWeight<V, E> weight, int maxPaths) {
         checkNotNull(src);
@@ -46,13 +67,14 @@ public class KShortestPathsSearch<V extends Vertex, E extends Edge<V>> extends A
         //The modified edge weight removes any need to modify the original graph
         InnerEdgeWeighter modifiedWeighter = new InnerEdgeWeighter(checkNotNull(weight));
         checkArgument(maxPaths > 0);
-        Graph<V, E> originalGraph = checkNotNull(graph);
+        Graph<V, E> originalGraph = shortestPathSearch instanceof CompactDijkstraGraphSearch ?
+                CompactGraph.compile(graph) : checkNotNull(graph);
         //the result contains the set of eventual results
         InnerOrderedResult result = new InnerOrderedResult(src, dst, maxPaths);
         ArrayList<Path<V, E>> resultPaths = new ArrayList<>(maxPaths);
         ArrayList<Path<V, E>> potentialPaths = Lists.newArrayList();
 
-        DijkstraGraphSearch<V, E> dijkstraSearch = new DijkstraGraphSearch<>();
+        GraphPathSearch<V, E> dijkstraSearch = shortestPathSearch;
         Set<Path<V, E>> dijkstraResults = dijkstraSearch.search(originalGraph, src, dst, modifiedWeighter, 1).paths();
         //Checks if the dst was reachable
         if (dijkstraResults.size() == 0) {
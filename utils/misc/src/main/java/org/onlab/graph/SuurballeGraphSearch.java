@@ -33,6 +33,27 @@ import java.util.stream.Collectors;
  */
 public class SuurballeGraphSearch<V extends Vertex, E extends Edge<V>> extends DijkstraGraphSearch<V, E> {
 
+    private final GraphPathSearch<V, E> shortestPathSearch;
+
+    /**
+     * Creates a Suurballe search which finds shortest paths with
+     * {@link DijkstraGraphSearch}.
+     */
+    public SuurballeGraphSearch() {
+        this.shortestPathSearch = null;
+    }
+
+    /**
+     * Creates a Suurballe search which finds shortest paths with the
+     * specified search, such as {@link CompactDijkstraGraphSearch}. The
+     * search must produce results holding the costs to all vertexes reached.
+     *
+     * @param shortestPathSearch shortest path search
+     */
+    public SuurballeGraphSearch(GraphPathSearch<V, E> shortestPathSearch) {
+        this.shortestPathSearch = shortestPathSearch;
+    }
+
     @Override
     public Result<V, E> search(Graph<V, E> graph, V src, V dst,
                                EdgeWeight<V, E> weight, int maxPaths) {
@@ -51,8 +72,8 @@ public class SuurballeGraphSearch<V extends Vertex, E extends Edge<V>> extends D
         }
 
         final EdgeWeight weightf = weight;
-        DefaultResult firstDijkstraS = (DefaultResult) super.search(graph, src, dst, weight, ALL_PATHS);
-        DefaultResult firstDijkstra = (DefaultResult) super.search(graph, src, null, weight, ALL_PATHS);
+        DefaultResult firstDijkstraS = (DefaultResult) shortestPaths(graph, src, dst, weight);
+        DefaultResult firstDijkstra = (DefaultResult) shortestPaths(graph, src, null, weight);
 
         //choose an arbitrary shortest path to run Suurballe on
         Path<V, E> shortPath = null;
@@ -84,8 +105,9 @@ public class SuurballeGraphSearch<V extends Vertex, E extends Edge<V>> extends D
             }
 
             //rerun dijkstra on the temporary graph to get a second path
-            Result<V, E> secondDijkstra = new DijkstraGraphSearch<V, E>()
-                    .search(gt, src, dst, modified, ALL_PATHS);
+            GraphPathSearch<V, E> residualSearch = shortestPathSearch == null ?
+                    new DijkstraGraphSearch<>() : shortestPathSearch;
+            Result<V, E> secondDijkstra = residualSearch.search(gt, src, dst, modified, ALL_PATHS);
 
             Path<V, E> residualShortPath = null;
             if (secondDijkstra.paths().size() == 0) {
@@ -114,11 +136,11 @@ public class SuurballeGraphSearch<V extends Vertex, E extends Edge<V>> extends D
                     }
                 }
                 //Actually build the final result
-                DefaultResult lastSearch = (DefaultResult) super.search(roundTrip, src, dst, weight, ALL_PATHS);
+                DefaultResult lastSearch = (DefaultResult) shortestPaths(roundTrip, src, dst, weight);
                 Path<V, E> primary = lastSearch.paths().iterator().next();
                 primary.edges().forEach(roundTrip::removeEdge);
 
-                Set<Path<V, E>> backups = super.search(roundTrip, src, dst, weight, ALL_PATHS).paths();
+                Set<Path<V, E>> backups = shortestPaths(roundTrip, src, dst, weight).paths();
 
                 // Find first backup path that does not share any nodes with the primary
                 for (Path<V, E> backup : backups) {
@@ -140,6 +162,12 @@ public class SuurballeGraphSearch<V extends Vertex, E extends Edge<V>> extends D
         return result;
     }
 
+    // Finds all shortest paths using the configured search.
+    private Result<V, E> shortestPaths(Graph<V, E> graph, V src, V dst, EdgeWeight<V, E> weight) {
+        return shortestPathSearch == null ? super.search(graph, src, dst, weight, ALL_PATHS) :
+                shortestPathSearch.search(graph, src, dst, weight, ALL_PATHS);
+    }
+
     private boolean isDisjoint(Path<V, E> a, Path<V, E> b) {
         return Sets.intersection(vertices(a), vertices(b)).isEmpty();
     }
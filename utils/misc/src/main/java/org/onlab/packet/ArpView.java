@@ -0,0 +1,120 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onlab.packet;
+
+import java.nio.ByteBuffer;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+
+/**
+ * Read-only view of an ARP packet for IPv4 over Ethernet, over the buffer
+ * of the frame holding it. See {@link EthernetView}.
+ */
+public final class ArpView {
+
+    private static final int LENGTH = 28;
+    private static final int SENDER_HARDWARE_OFFSET = 8;
+    private static final int SENDER_PROTOCOL_OFFSET = 14;
+    private static final int TARGET_HARDWARE_OFFSET = 18;
+    private static final int TARGET_PROTOCOL_OFFSET = 24;
+
+    private final ByteBuffer buffer;
+    private final int offset;
+
+    private ArpView(ByteBuffer buffer, int offset) {
+        this.buffer = buffer;
+        this.offset = offset;
+    }
+
+    /**
+     * Creates the view of the ARP packet in the given range of a buffer.
+     *
+     * @param buffer buffer
+     * @param offset index of the first byte of the packet
+     * @param end    index after the last byte of the frame
+     * @return ARP view, or null if the packet is truncated or is not for
+     * IPv4 over Ethernet
+     */
+    static ArpView wrap(ByteBuffer buffer, int offset, int end) {
+        if (end - offset < LENGTH ||
+                buffer.getShort(offset) != ARP.HW_TYPE_ETHERNET ||
+                buffer.getShort(offset + 2) != ARP.PROTO_TYPE_IP ||
+                buffer.get(offset + 4) != MacAddress.MAC_ADDRESS_LENGTH ||
+                buffer.get(offset + 5) != Ip4Address.BYTE_LENGTH) {
+            return null;
+        }
+        return new ArpView(buffer, offset);
+    }
+
+    /**
+     * Returns the operation code.
+     *
+     * @return operation code, such as {@link ARP#OP_REQUEST}
+     */
+    public short opCode() {
+        return buffer.getShort(offset + 6);
+    }
+
+    /**
+     * Returns the sender hardware address.
+     *
+     * @return sender MAC address
+     */
+    public MacAddress senderHardwareAddress() {
+        return macAt(offset + SENDER_HARDWARE_OFFSET);
+    }
+
+    /**
+     * Returns the sender protocol address.
+     *
+     * @return sender IPv4 address
+     */
+    public Ip4Address senderProtocolAddress() {
+        return Ip4Address.valueOf(buffer.getInt(offset + SENDER_PROTOCOL_OFFSET));
+    }
+
+    /**
+     * Returns the target hardware address.
+     *
+     * @return target MAC address
+     */
+    public MacAddress targetHardwareAddress() {
+        return macAt(offset + TARGET_HARDWARE_OFFSET);
+    }
+
+    /**
+     * Returns the target protocol address.
+     *
+     * @return target IPv4 address
+     */
+    public Ip4Address targetProtocolAddress() {
+        return Ip4Address.valueOf(buffer.getInt(offset + TARGET_PROTOCOL_OFFSET));
+    }
+
+    private MacAddress macAt(int index) {
+        return MacAddress.valueOf(((buffer.getInt(index) & 0xffffffffL) << 16) |
+                                          (buffer.getShort(index + 4) & 0xffffL));
+    }
+
+    @Override
+    public String toString() {
+        return toStringHelper(getClass())
+                .add("opCode", opCode())
+                .add("senderProtocolAddress", senderProtocolAddress())
+                .add("targetProtocolAddress", targetProtocolAddress())
+                .toString();
+    }
+}
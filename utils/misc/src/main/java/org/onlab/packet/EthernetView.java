@@ -0,0 +1,221 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onlab.packet;
+
+import java.nio.ByteBuffer;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+
+/**
+ * Read-only view of an Ethernet frame, over the buffer holding its raw
+ * bytes. Fields are read from the buffer when asked for, and the views of
+ * the encapsulated packets are only created when first asked for; unlike
+ * {@link Ethernet#deserializer()}, nothing is copied.
+ * <p>
+ * The buffer must not be modified while the view is in use.
+ * </p>
+ */
+public final class EthernetView {
+
+    private static final int ETHERTYPE_OFFSET = 12;
+
+    private final ByteBuffer buffer;
+    private final int offset;
+    private final int length;
+    private final short etherType;
+    private final short vlanId;
+    private final int payloadOffset;
+
+    // Views of the payload, created when first asked for
+    private IPv4View ipv4;
+    private ArpView arp;
+
+    private EthernetView(ByteBuffer buffer, int offset, int length) {
+        this.buffer = buffer;
+        this.offset = offset;
+        this.length = length;
+        short type = buffer.getShort(offset + ETHERTYPE_OFFSET);
+        if (type == Ethernet.TYPE_VLAN) {
+            vlanId = (short) (buffer.getShort(offset + Ethernet.ETHERNET_HEADER_LENGTH) & 0x0fff);
+            etherType = buffer.getShort(offset + Ethernet.ETHERNET_HEADER_LENGTH + 2);
+            payloadOffset = offset + Ethernet.ETHERNET_HEADER_LENGTH + Ethernet.VLAN_HEADER_LENGTH;
+        } else {
+            vlanId = Ethernet.VLAN_UNTAGGED;
+            etherType = type;
+            payloadOffset = offset + Ethernet.ETHERNET_HEADER_LENGTH;
+        }
+    }
+
+    /**
+     * Creates a view of the frame held by the remaining bytes of the given
+     * buffer. The position of the buffer is left unchanged.
+     *
+     * @param buffer buffer holding the frame
+     * @return frame view, or null if the frame is too short
+     */
+    public static EthernetView wrap(ByteBuffer buffer) {
+        int length = buffer.remaining();
+        if (length < Ethernet.ETHERNET_HEADER_LENGTH ||
+                (buffer.getShort(buffer.position() + ETHERTYPE_OFFSET) == Ethernet.TYPE_VLAN &&
+                        length < Ethernet.ETHERNET_HEADER_LENGTH + Ethernet.VLAN_HEADER_LENGTH)) {
+            return null;
+        }
+        return new EthernetView(buffer, buffer.position(), length);
+    }
+
+    /**
+     * Creates a view of the frame held by the given bytes.
+     *
+     * @param data frame bytes
+     * @return frame view, or null if the frame is too short
+     */
+    public static EthernetView wrap(byte[] data) {
+        return wrap(ByteBuffer.wrap(data));
+    }
+
+    /**
+     * Returns the destination MAC address.
+     *
+     * @return destination MAC address
+     */
+    public MacAddress destinationMac() {
+        return MacAddress.valueOf(macAt(offset));
+    }
+
+    /**
+     * Returns the source MAC address.
+     *
+     * @return source MAC address
+     */
+    public MacAddress sourceMac() {
+        return MacAddress.valueOf(macAt(offset + MacAddress.MAC_ADDRESS_LENGTH));
+    }
+
+    /**
+     * Indicates whether the destination MAC address is the broadcast address.
+     *
+     * @return true if the frame is broadcast
+     */
+    public boolean isBroadcast() {
+        return buffer.getInt(offset) == -1 && buffer.getShort(offset + 4) == -1;
+    }
+
+    /**
+     * Indicates whether the destination MAC address is a multicast address,
+     * other than the broadcast address.
+     *
+     * @return true if the frame is multicast
+     */
+    public boolean isMulticast() {
+        return (buffer.get(offset) & 0x01) != 0 && !isBroadcast();
+    }
+
+    /**
+     * Returns the ethertype of the payload, after any VLAN tag.
+     *
+     * @return ethertype
+     */
+    public short etherType() {
+        return etherType;
+    }
+
+    /**
+     * Returns the VLAN identifier.
+     *
+     * @return VLAN identifier, or {@link Ethernet#VLAN_UNTAGGED}
+     */
+    public short vlanId() {
+        return vlanId;
+    }
+
+    /**
+     * Returns the view of the IPv4 payload.
+     *
+     * @return IPv4 view, or null if the payload is not a well-formed IPv4
+     * packet header
+     */
+    public IPv4View ipv4() {
+        if (ipv4 == null && etherType == Ethernet.TYPE_IPV4) {
+            ipv4 = IPv4View.wrap(buffer, payloadOffset, offset + length);
+        }
+        return ipv4;
+    }
+
+    /**
+     * Returns the view of the ARP payload.
+     *
+     * @return ARP view, or null if the payload is not an ARP packet for IPv4
+     * over Ethernet
+     */
+    public ArpView arp() {
+        if (arp == null && etherType == Ethernet.TYPE_ARP) {
+            arp = ArpView.wrap(buffer, payloadOffset, offset + length);
+        }
+        return arp;
+    }
+
+    /**
+     * Returns the payload of the frame, sharing the bytes of the frame.
+     *
+     * @return read-only payload buffer
+     */
+    public ByteBuffer payload() {
+        return slice(buffer, payloadOffset, offset + length);
+    }
+
+    /**
+     * Parses the whole frame into its mutable form.
+     *
+     * @return parsed Ethernet frame
+     * @throws DeserializationException if the frame is malformed
+     */
+    public Ethernet parse() throws DeserializationException {
+        if (buffer.hasArray()) {
+            return Ethernet.deserializer().deserialize(buffer.array(), buffer.arrayOffset() + offset, length);
+        }
+        byte[] data = new byte[length];
+        ((ByteBuffer) buffer.duplicate().position(offset)).get(data);
+        return Ethernet.deserializer().deserialize(data, 0, length);
+    }
+
+    private long macAt(int index) {
+        return ((buffer.getInt(index) & 0xffffffffL) << 16) | (buffer.getShort(index + 4) & 0xffffL);
+    }
+
+    /**
+     * Returns a read-only buffer over the given range of a buffer.
+     *
+     * @param buffer buffer
+     * @param from   index of the first byte
+     * @param to     index after the last byte
+     * @return read-only buffer
+     */
+    static ByteBuffer slice(ByteBuffer buffer, int from, int to) {
+        ByteBuffer slice = buffer.asReadOnlyBuffer();
+        slice.limit(to).position(from);
+        return slice.slice();
+    }
+
+    @Override
+    public String toString() {
+        return toStringHelper(getClass())
+                .add("destinationMac", destinationMac())
+                .add("sourceMac", sourceMac())
+                .add("etherType", String.format("0x%04x", etherType))
+                .add("vlanId", vlanId)
+                .toString();
+    }
+}
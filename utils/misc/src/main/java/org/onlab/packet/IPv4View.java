@@ -0,0 +1,172 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onlab.packet;
+
+import java.nio.ByteBuffer;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+
+/**
+ * Read-only view of an IPv4 packet, over the buffer of the frame holding
+ * it. See {@link EthernetView}.
+ */
+public final class IPv4View {
+
+    private static final int MIN_HEADER_LENGTH = 20;
+
+    private final ByteBuffer buffer;
+    private final int offset;
+    private final int end;
+    private final int payloadOffset;
+
+    // View of the payload, created when first asked for
+    private TransportView transport;
+
+    private IPv4View(ByteBuffer buffer, int offset, int end, int headerLength) {
+        this.buffer = buffer;
+        this.offset = offset;
+        this.end = end;
+        this.payloadOffset = offset + headerLength;
+    }
+
+    /**
+     * Creates the view of the IPv4 packet in the given range of a buffer.
+     *
+     * @param buffer buffer
+     * @param offset index of the first byte of the packet
+     * @param end    index after the last byte of the frame
+     * @return IPv4 view, or null if the header is truncated or malformed
+     */
+    static IPv4View wrap(ByteBuffer buffer, int offset, int end) {
+        if (end - offset < MIN_HEADER_LENGTH || (buffer.get(offset) >> 4 & 0xf) != 4) {
+            return null;
+        }
+        int headerLength = (buffer.get(offset) & 0xf) * 4;
+        if (headerLength < MIN_HEADER_LENGTH || end - offset < headerLength) {
+            return null;
+        }
+        return new IPv4View(buffer, offset, end, headerLength);
+    }
+
+    /**
+     * Returns the protocol of the payload.
+     *
+     * @return IP protocol number
+     */
+    public byte protocol() {
+        return buffer.get(offset + 9);
+    }
+
+    /**
+     * Returns the time to live.
+     *
+     * @return time to live
+     */
+    public byte ttl() {
+        return buffer.get(offset + 8);
+    }
+
+    /**
+     * Returns the source address.
+     *
+     * @return source address
+     */
+    public Ip4Address sourceAddress() {
+        return Ip4Address.valueOf(sourceAddressAsInt());
+    }
+
+    /**
+     * Returns the source address as an integer.
+     *
+     * @return source address
+     */
+    public int sourceAddressAsInt() {
+        return buffer.getInt(offset + 12);
+    }
+
+    /**
+     * Returns the destination address.
+     *
+     * @return destination address
+     */
+    public Ip4Address destinationAddress() {
+        return Ip4Address.valueOf(destinationAddressAsInt());
+    }
+
+    /**
+     * Returns the destination address as an integer.
+     *
+     * @return destination address
+     */
+    public int destinationAddressAsInt() {
+        return buffer.getInt(offset + 16);
+    }
+
+    /**
+     * Indicates whether this packet is a fragment other than the first one,
+     * and therefore holds no transport header.
+     *
+     * @return true for non-initial fragments
+     */
+    public boolean isLaterFragment() {
+        return (buffer.getShort(offset + 6) & 0x1fff) != 0;
+    }
+
+    /**
+     * Returns the view of the UDP payload.
+     *
+     * @return UDP view, or null if the payload is not a UDP datagram with a
+     * complete header
+     */
+    public TransportView udp() {
+        return transport(IPv4.PROTOCOL_UDP);
+    }
+
+    /**
+     * Returns the view of the TCP payload.
+     *
+     * @return TCP view, or null if the payload is not a TCP segment with a
+     * complete header
+     */
+    public TransportView tcp() {
+        return transport(IPv4.PROTOCOL_TCP);
+    }
+
+    private TransportView transport(byte proto) {
+        if (transport == null && protocol() == proto && !isLaterFragment()) {
+            transport = TransportView.wrap(buffer, payloadOffset, end, proto);
+        }
+        return protocol() == proto ? transport : null;
+    }
+
+    /**
+     * Returns the payload of the packet, sharing the bytes of the frame.
+     *
+     * @return read-only payload buffer
+     */
+    public ByteBuffer payload() {
+        return EthernetView.slice(buffer, payloadOffset, end);
+    }
+
+    @Override
+    public String toString() {
+        return toStringHelper(getClass())
+                .add("sourceAddress", sourceAddress())
+                .add("destinationAddress", destinationAddress())
+                .add("protocol", protocol())
+                .toString();
+    }
+}
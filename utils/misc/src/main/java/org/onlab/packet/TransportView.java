@@ -0,0 +1,101 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onlab.packet;
+
+import java.nio.ByteBuffer;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+
+/**
+ * Read-only view of a UDP datagram or TCP segment, over the buffer of the
+ * frame holding it. See {@link EthernetView}.
+ */
+public final class TransportView {
+
+    private static final int UDP_HEADER_LENGTH = 8;
+    private static final int TCP_MIN_HEADER_LENGTH = 20;
+
+    private final ByteBuffer buffer;
+    private final int offset;
+    private final int end;
+    private final int payloadOffset;
+
+    private TransportView(ByteBuffer buffer, int offset, int end, int headerLength) {
+        this.buffer = buffer;
+        this.offset = offset;
+        this.end = end;
+        this.payloadOffset = offset + headerLength;
+    }
+
+    /**
+     * Creates the view of the UDP or TCP header in the given range of a
+     * buffer.
+     *
+     * @param buffer buffer
+     * @param offset index of the first byte of the header
+     * @param end    index after the last byte of the frame
+     * @param proto  {@link IPv4#PROTOCOL_UDP} or {@link IPv4#PROTOCOL_TCP}
+     * @return transport view, or null if the header is truncated
+     */
+    static TransportView wrap(ByteBuffer buffer, int offset, int end, byte proto) {
+        int headerLength = UDP_HEADER_LENGTH;
+        if (proto == IPv4.PROTOCOL_TCP) {
+            if (end - offset < TCP_MIN_HEADER_LENGTH) {
+                return null;
+            }
+            headerLength = (buffer.get(offset + 12) >> 4 & 0xf) * 4;
+        }
+        if (headerLength < UDP_HEADER_LENGTH || end - offset < headerLength) {
+            return null;
+        }
+        return new TransportView(buffer, offset, end, headerLength);
+    }
+
+    /**
+     * Returns the source port.
+     *
+     * @return source port
+     */
+    public int sourcePort() {
+        return buffer.getShort(offset) & 0xffff;
+    }
+
+    /**
+     * Returns the destination port.
+     *
+     * @return destination port
+     */
+    public int destinationPort() {
+        return buffer.getShort(offset + 2) & 0xffff;
+    }
+
+    /**
+     * Returns the payload, sharing the bytes of the frame.
+     *
+     * @return read-only payload buffer
+     */
+    public ByteBuffer payload() {
+        return EthernetView.slice(buffer, payloadOffset, end);
+    }
+
+    @Override
+    public String toString() {
+        return toStringHelper(getClass())
+                .add("sourcePort", sourcePort())
+                .add("destinationPort", destinationPort())
+                .toString();
+    }
+}
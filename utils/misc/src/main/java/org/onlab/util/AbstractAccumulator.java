@@ -172,6 +172,22 @@ public abstract class AbstractAccumulator<T> implements Accumulator<T> {
         return true;
     }
 
+    /**
+     * Processes the items accumulated so far right away, on the calling
+     * thread, regardless of readiness; used when retiring the accumulator.
+     */
+    public void flush() {
+        List<T> batch;
+        synchronized (this) {
+            idleTask = cancelIfActive(idleTask);
+            maxTask = cancelIfActive(maxTask);
+            batch = finalizeCurrentBatch();
+        }
+        if (!batch.isEmpty()) {
+            processItems(batch);
+        }
+    }
+
     /**
      * Returns the backing timer.
      *
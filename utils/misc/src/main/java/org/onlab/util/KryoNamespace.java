@@ -27,6 +27,7 @@ import com.esotericsoftware.kryo.pool.KryoFactory;
 import com.esotericsoftware.kryo.pool.KryoPool;
 import com.google.common.base.MoreObjects;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 import org.apache.commons.lang3.tuple.Pair;
 import org.objenesis.strategy.StdInstantiatorStrategy;
 import org.slf4j.Logger;
@@ -37,6 +38,10 @@ import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.ObjIntConsumer;
+import java.util.stream.Collectors;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 import static org.slf4j.LoggerFactory.getLogger;
@@ -55,6 +60,14 @@ public final class KryoNamespace implements KryoFactory, KryoPool {
     public static final int DEFAULT_BUFFER_SIZE = 4096;
     public static final int MAX_BUFFER_SIZE = 100 * 1000 * 1000;
 
+    /**
+     * Largest buffer kept by a thread for reuse across serializations.
+     * Registered types which serialize to more have their size estimated, so
+     * that their buffer is sized once up front rather than grown while
+     * writing; the thread buffer is trimmed back once they are written.
+     */
+    public static final int MAX_POOLED_BUFFER_SIZE = 1024 * 1024;
+
     /**
      * ID to use if this KryoNamespace does not define registration id.
      */
@@ -71,10 +84,18 @@ public final class KryoNamespace implements KryoFactory, KryoPool {
 
 
 
+    // Serialization buffers reused by each thread, shared by all namespaces
+    private static final ThreadLocal<PooledOutput> OUTPUTS = ThreadLocal.withInitial(PooledOutput::new);
+
     private final KryoPool pool = new KryoPool.Builder(this)
                                         .softReferences()
                                         .build();
 
+    // Serialized size of the registered types too large for the pooled
+    // buffers, decaying towards the size of their latest instances
+    private final ConcurrentMap<Class<?>, Integer> sizeEstimates = new ConcurrentHashMap<>();
+    private final ImmutableSet<Class<?>> registeredTypes;
+
     private final ImmutableList<RegistrationBlock> registeredBlocks;
 
     private final boolean registrationRequired;
@@ -234,6 +255,10 @@ public final class KryoNamespace implements KryoFactory, KryoPool {
                           boolean registrationRequired,
                           String friendlyName) {
         this.registeredBlocks = ImmutableList.copyOf(registeredTypes);
+        this.registeredTypes = registeredBlocks.stream()
+                .flatMap(block -> block.types().stream())
+                .map(Pair::getLeft)
+                .collect(Collectors.collectingAndThen(Collectors.toSet(), ImmutableSet::copyOf));
         this.registrationRequired = registrationRequired;
         this.friendlyName =  checkNotNull(friendlyName);
     }
@@ -255,13 +280,40 @@ public final class KryoNamespace implements KryoFactory, KryoPool {
     /**
      * Serializes given object to byte array using Kryo instance in pool.
      * <p>
+     * The object is written to a buffer reused by the calling thread, so the
+     * only allocation is the returned array.
      * Note: Serialized bytes must be smaller than {@link #MAX_BUFFER_SIZE}.
      *
      * @param obj Object to serialize
      * @return serialized bytes
      */
     public byte[] serialize(final Object obj) {
-        return serialize(obj, DEFAULT_BUFFER_SIZE);
+        PooledOutput pooled = acquire(obj);
+        try {
+            Output out = write(obj, pooled.output);
+            return out.toBytes();
+        } finally {
+            pooled.release();
+        }
+    }
+
+    /**
+     * Serializes given object using Kryo instance in pool, and passes the
+     * serialized bytes to the consumer along with their length. The bytes
+     * are held in a buffer reused by the calling thread and are only valid
+     * for the duration of the call; nothing is copied or allocated.
+     *
+     * @param obj Object to serialize
+     * @param consumer consumer of the serialized bytes and their length
+     */
+    public void serialize(final Object obj, final ObjIntConsumer<byte[]> consumer) {
+        PooledOutput pooled = acquire(obj);
+        try {
+            Output out = write(obj, pooled.output);
+            consumer.accept(out.getBuffer(), out.position());
+        } finally {
+            pooled.release();
+        }
     }
 
     /**
@@ -280,6 +332,50 @@ public final class KryoNamespace implements KryoFactory, KryoPool {
         });
     }
 
+    // Takes the buffer of the calling thread, sized up front for objects of
+    // a type known to be large, or a dedicated one if the buffer is already
+    // in use by a serializer calling back into the namespace.
+    private PooledOutput acquire(Object obj) {
+        Integer estimate = obj == null ? null : sizeEstimates.get(obj.getClass());
+        PooledOutput pooled = OUTPUTS.get();
+        if (!pooled.inUse) {
+            pooled.inUse = true;
+            if (estimate != null && pooled.output.getBuffer().length < estimate) {
+                pooled.output.setBuffer(new byte[estimate], MAX_BUFFER_SIZE);
+            }
+            return pooled;
+        }
+        return new PooledOutput(estimate == null ? DEFAULT_BUFFER_SIZE : estimate);
+    }
+
+    private Output write(Object obj, Output out) {
+        out.clear();
+        Kryo kryo = borrow();
+        try {
+            kryo.writeClassAndObject(out, obj);
+            out.flush();
+        } finally {
+            release(kryo);
+        }
+        if (obj != null && registeredTypes.contains(obj.getClass())) {
+            estimate(obj.getClass(), out.position());
+        }
+        return out;
+    }
+
+    // Grows the estimate of a type at once to the size written, and lets it
+    // decay by half the difference otherwise, dropping it once small enough
+    // for the pooled buffers.
+    private void estimate(Class<?> type, int size) {
+        if (size <= MAX_POOLED_BUFFER_SIZE && !sizeEstimates.containsKey(type)) {
+            return;
+        }
+        sizeEstimates.compute(type, (t, estimate) -> {
+            int next = estimate == null || size >= estimate ? size : estimate - (estimate - size) / 2;
+            return next > MAX_POOLED_BUFFER_SIZE ? Math.min(next, MAX_BUFFER_SIZE) : null;
+        });
+    }
+
     /**
      * Serializes given object to byte buffer using Kryo instance in pool.
      *
@@ -501,6 +597,31 @@ public final class KryoNamespace implements KryoFactory, KryoPool {
                     .toString();
     }
 
+    // Serialization buffer, flagged while a thread is writing to it
+    private static final class PooledOutput {
+        private final Output output;
+        private boolean inUse;
+
+        private PooledOutput() {
+            this(DEFAULT_BUFFER_SIZE);
+        }
+
+        private PooledOutput(int bufferSize) {
+            this.output = new Output(Math.min(bufferSize, MAX_BUFFER_SIZE), MAX_BUFFER_SIZE);
+        }
+
+        private void release() {
+            if (!inUse) {
+                return;
+            }
+            if (output.getBuffer().length > MAX_POOLED_BUFFER_SIZE) {
+                // do not hold on to the buffer of an exceptionally large object
+                output.setBuffer(new byte[DEFAULT_BUFFER_SIZE], MAX_BUFFER_SIZE);
+            }
+            inUse = false;
+        }
+    }
+
     static final class RegistrationBlock {
         private final int begin;
         private final ImmutableList<Pair<Class<?>, Serializer<?>>> types;
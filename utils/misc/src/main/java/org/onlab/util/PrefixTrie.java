@@ -0,0 +1,386 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onlab.util;
+
+import com.google.common.base.MoreObjects;
+import org.onlab.packet.IpAddress;
+import org.onlab.packet.IpPrefix;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Path-compressed binary trie of IP prefixes of a single IP version.
+ * <p>
+ * Prefix bits are held in primitive fields of the trie nodes, so no prefix
+ * or address objects are retained, and one structure answers both exact and
+ * longest prefix match lookups. Nodes are only created where prefixes
+ * diverge, so a trie of n prefixes has at most 2n - 1 nodes.
+ * </p>
+ * <p>
+ * This class is not thread safe; concurrent access must be synchronized
+ * externally.
+ * </p>
+ *
+ * @param <V> type of values
+ */
+public final class PrefixTrie<V> {
+
+    private final IpAddress.Version version;
+    private Node<V> root;
+    private int size;
+
+    /**
+     * Creates an empty trie.
+     *
+     * @param version IP version of the prefixes
+     */
+    public PrefixTrie(IpAddress.Version version) {
+        this.version = checkNotNull(version);
+    }
+
+    /**
+     * Returns the IP version of the prefixes.
+     *
+     * @return IP version
+     */
+    public IpAddress.Version version() {
+        return version;
+    }
+
+    /**
+     * Returns the number of prefixes.
+     *
+     * @return number of prefixes
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns whether the trie holds no prefix.
+     *
+     * @return true if empty
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Removes all prefixes.
+     */
+    public void clear() {
+        root = null;
+        size = 0;
+    }
+
+    /**
+     * Associates a value with a prefix.
+     *
+     * @param prefix IP prefix
+     * @param value value, not null
+     * @return previous value, or null if the prefix was absent
+     */
+    public V put(IpPrefix prefix, V value) {
+        checkNotNull(value);
+        Key key = key(prefix);
+        Node<V> parent = null;
+        Node<V> node = root;
+        while (node != null) {
+            int common = node.commonLength(key.hi, key.lo, key.length);
+            if (common == node.length) {
+                if (common == key.length) {
+                    V previous = node.value;
+                    node.value = value;
+                    if (previous == null) {
+                        size++;
+                    }
+                    return previous;
+                }
+                // Node covers the prefix: descend
+                Node<V> child = node.child(key.bit(node.length));
+                if (child == null) {
+                    node.setChild(key.bit(node.length), new Node<>(key.hi, key.lo, key.length, value));
+                    size++;
+                    return null;
+                }
+                parent = node;
+                node = child;
+                continue;
+            }
+
+            Node<V> replacement;
+            if (common == key.length) {
+                // Prefix covers the node: insert above it
+                replacement = new Node<>(key.hi, key.lo, key.length, value);
+                replacement.setChild(node.bit(common), node);
+            } else {
+                // Prefix and node diverge: join them below a glue node
+                replacement = new Node<>(key.hi, key.lo, common, null);
+                replacement.setChild(node.bit(common), node);
+                replacement.setChild(key.bit(common), new Node<>(key.hi, key.lo, key.length, value));
+            }
+            replace(parent, node, replacement);
+            size++;
+            return null;
+        }
+        root = new Node<>(key.hi, key.lo, key.length, value);
+        size++;
+        return null;
+    }
+
+    /**
+     * Returns the value associated with a prefix.
+     *
+     * @param prefix IP prefix
+     * @return value, or null if the prefix is absent
+     */
+    public V get(IpPrefix prefix) {
+        Key key = key(prefix);
+        Node<V> node = root;
+        while (node != null && node.commonLength(key.hi, key.lo, key.length) == node.length) {
+            if (node.length == key.length) {
+                return node.value;
+            }
+            node = node.child(key.bit(node.length));
+        }
+        return null;
+    }
+
+    /**
+     * Removes a prefix.
+     *
+     * @param prefix IP prefix
+     * @return removed value, or null if the prefix was absent
+     */
+    public V remove(IpPrefix prefix) {
+        Key key = key(prefix);
+        Node<V> grandParent = null;
+        Node<V> parent = null;
+        Node<V> node = root;
+        while (node != null && node.commonLength(key.hi, key.lo, key.length) == node.length
+                && node.length != key.length) {
+            grandParent = parent;
+            parent = node;
+            node = node.child(key.bit(node.length));
+        }
+        if (node == null || node.commonLength(key.hi, key.lo, key.length) != key.length
+                || node.length != key.length || node.value == null) {
+            return null;
+        }
+
+        V previous = node.value;
+        node.value = null;
+        size--;
+        if (node.left != null && node.right != null) {
+            // Still needed to join both subtrees
+            return previous;
+        }
+        Node<V> child = node.left != null ? node.left : node.right;
+        replace(parent, node, child);
+        if (child == null && parent != null && parent.value == null) {
+            // Glue node left with a single child
+            replace(grandParent, parent, parent.left != null ? parent.left : parent.right);
+        }
+        return previous;
+    }
+
+    /**
+     * Returns the value of the most specific prefix containing an address.
+     *
+     * @param address IP address
+     * @return value, or null if no prefix contains the address
+     */
+    public V longestPrefixMatch(IpAddress address) {
+        Key key = key(address.toIpPrefix());
+        V match = null;
+        Node<V> node = root;
+        while (node != null && node.commonLength(key.hi, key.lo, key.length) == node.length) {
+            if (node.value != null) {
+                match = node.value;
+            }
+            if (node.length == key.length) {
+                break;
+            }
+            node = node.child(key.bit(node.length));
+        }
+        return match;
+    }
+
+    /**
+     * Returns all values, ordered by prefix.
+     *
+     * @return list of values
+     */
+    public List<V> values() {
+        List<V> values = new ArrayList<>(size);
+        forEachNode(node -> values.add(node.value));
+        return values;
+    }
+
+    /**
+     * Performs an action for each prefix and its value, ordered by prefix.
+     *
+     * @param action action to perform
+     */
+    public void forEach(BiConsumer<IpPrefix, V> action) {
+        forEachNode(node -> action.accept(node.prefix(version), node.value));
+    }
+
+    private void forEachNode(Consumer<Node<V>> action) {
+        if (root == null) {
+            return;
+        }
+        Deque<Node<V>> stack = new ArrayDeque<>();
+        stack.push(root);
+        while (!stack.isEmpty()) {
+            Node<V> node = stack.pop();
+            if (node.value != null) {
+                action.accept(node);
+            }
+            if (node.right != null) {
+                stack.push(node.right);
+            }
+            if (node.left != null) {
+                stack.push(node.left);
+            }
+        }
+    }
+
+    private void replace(Node<V> parent, Node<V> node, Node<V> replacement) {
+        if (parent == null) {
+            root = replacement;
+        } else if (parent.left == node) {
+            parent.left = replacement;
+        } else {
+            parent.right = replacement;
+        }
+    }
+
+    private Key key(IpPrefix prefix) {
+        checkArgument(prefix.version() == version, "Prefix %s is not %s", prefix, version);
+        byte[] octets = prefix.address().toOctets();
+        long hi = 0;
+        long lo = 0;
+        for (int i = 0; i < octets.length; i++) {
+            long octet = octets[i] & 0xffL;
+            if (i < Long.BYTES) {
+                hi |= octet << (Long.SIZE - Byte.SIZE * (i + 1));
+            } else {
+                lo |= octet << (Long.SIZE - Byte.SIZE * (i + 1 - Long.BYTES));
+            }
+        }
+        return new Key(hi, lo, prefix.prefixLength());
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(getClass())
+                .add("version", version)
+                .add("size", size)
+                .toString();
+    }
+
+    /**
+     * Returns bit i of a 128 bit value, counting from the most significant.
+     */
+    private static boolean bit(long hi, long lo, int i) {
+        return i < Long.SIZE ? (hi << i) < 0 : (lo << (i - Long.SIZE)) < 0;
+    }
+
+    /**
+     * Prefix bits, left aligned in 128 bits.
+     */
+    private static final class Key {
+        private final long hi;
+        private final long lo;
+        private final int length;
+
+        private Key(long hi, long lo, int length) {
+            this.hi = hi;
+            this.lo = lo;
+            this.length = length;
+        }
+
+        private boolean bit(int i) {
+            return PrefixTrie.bit(hi, lo, i);
+        }
+    }
+
+    /**
+     * Trie node; value is null for nodes only joining two subtrees.
+     */
+    private static final class Node<V> {
+        private final long hi;
+        private final long lo;
+        private final int length;
+        private Node<V> left;
+        private Node<V> right;
+        private V value;
+
+        private Node(long hi, long lo, int length, V value) {
+            // Clear the bits past the prefix length
+            this.hi = length >= Long.SIZE ? hi : length == 0 ? 0 : hi & (-1L << (Long.SIZE - length));
+            this.lo = length <= Long.SIZE ? 0
+                    : length == 2 * Long.SIZE ? lo : lo & (-1L << (2 * Long.SIZE - length));
+            this.length = length;
+            this.value = value;
+        }
+
+        private int commonLength(long otherHi, long otherLo, int otherLength) {
+            int common;
+            long diff = hi ^ otherHi;
+            if (diff != 0) {
+                common = Long.numberOfLeadingZeros(diff);
+            } else {
+                common = Long.SIZE + Long.numberOfLeadingZeros(lo ^ otherLo);
+            }
+            return Math.min(common, Math.min(length, otherLength));
+        }
+
+        private boolean bit(int i) {
+            return PrefixTrie.bit(hi, lo, i);
+        }
+
+        private Node<V> child(boolean bit) {
+            return bit ? right : left;
+        }
+
+        private void setChild(boolean bit, Node<V> child) {
+            if (bit) {
+                right = child;
+            } else {
+                left = child;
+            }
+        }
+
+        private IpPrefix prefix(IpAddress.Version version) {
+            byte[] octets = new byte[IpAddress.byteLength(version)];
+            for (int i = 0; i < octets.length; i++) {
+                octets[i] = (byte) (i < Long.BYTES ? hi >>> (Long.SIZE - Byte.SIZE * (i + 1))
+                        : lo >>> (Long.SIZE - Byte.SIZE * (i + 1 - Long.BYTES)));
+            }
+            return IpPrefix.valueOf(IpAddress.valueOf(version, octets), length);
+        }
+    }
+}
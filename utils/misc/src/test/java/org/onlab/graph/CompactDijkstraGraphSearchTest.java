@@ -0,0 +1,174 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onlab.graph;
+
+import com.google.common.collect.ImmutableSet;
+import org.junit.Ignore;
+import org.junit.Test;
+import org.onlab.graph.GraphPathSearch.Result;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.onlab.graph.GraphPathSearch.ALL_PATHS;
+
+/**
+ * Test of the Dijkstra algorithm over compact graphs.
+ */
+public class CompactDijkstraGraphSearchTest extends DijkstraGraphSearchTest {
+
+    @Override
+    protected AbstractGraphPathSearch<TestVertex, TestEdge> graphSearch() {
+        return new CompactDijkstraGraphSearch<>();
+    }
+
+    @Test
+    public void sameAsDijkstra() {
+        compareWithDijkstra(fatTree(4));
+        compareWithDijkstra(spineLeaf(4, 8));
+    }
+
+    @Test
+    public void sameKShortestPaths() {
+        Graph<TestVertex, TestEdge> spineLeaf = spineLeaf(4, 8);
+        TestVertex src = new TestVertex("leaf-0");
+        TestVertex dst = new TestVertex("leaf-7");
+        Set<Path<TestVertex, TestEdge>> expected =
+                new KShortestPathsSearch<TestVertex, TestEdge>().search(spineLeaf, src, dst, weight, 4).paths();
+        Set<Path<TestVertex, TestEdge>> actual =
+                new KShortestPathsSearch<>(new CompactDijkstraGraphSearch<TestVertex, TestEdge>())
+                        .search(spineLeaf, src, dst, weight, 4).paths();
+        assertEquals("incorrect paths", expected, actual);
+    }
+
+    // Compares the paths and costs found from each vertex.
+    private void compareWithDijkstra(Graph<TestVertex, TestEdge> graph) {
+        GraphPathSearch<TestVertex, TestEdge> dijkstra = new DijkstraGraphSearch<>();
+        GraphPathSearch<TestVertex, TestEdge> compact = graphSearch();
+        CompactGraph<TestVertex, TestEdge> compiled = CompactGraph.compile(graph);
+        for (TestVertex src : graph.getVertexes()) {
+            Result<TestVertex, TestEdge> expected = dijkstra.search(graph, src, null, weight, ALL_PATHS);
+            Result<TestVertex, TestEdge> actual = compact.search(compiled, src, null, weight, ALL_PATHS);
+            assertEquals("incorrect costs", expected.costs(), actual.costs());
+            assertEquals("incorrect paths", expected.paths(), actual.paths());
+        }
+    }
+
+    /**
+     * Compares the time taken to find the shortest paths between random
+     * pairs of vertexes, and from each vertex to all others.
+     */
+    @Test
+    @Ignore("Benchmark")
+    public void searchTime() {
+        benchmark("fat-tree k=16", fatTree(16));
+        benchmark("spine-leaf 32x512", spineLeaf(32, 512));
+    }
+
+    private void benchmark(String name, Graph<TestVertex, TestEdge> graph) {
+        List<TestVertex> vertexes = new ArrayList<>(graph.getVertexes());
+        Random random = new Random(1);
+        int pairs = 1_000;
+        TestVertex[] sources = new TestVertex[pairs];
+        TestVertex[] destinations = new TestVertex[pairs];
+        for (int i = 0; i < pairs; i++) {
+            sources[i] = vertexes.get(random.nextInt(vertexes.size()));
+            destinations[i] = vertexes.get(random.nextInt(vertexes.size()));
+        }
+
+        long start = System.nanoTime();
+        CompactGraph<TestVertex, TestEdge> compact = CompactGraph.compile(graph);
+        long compileNanos = System.nanoTime() - start;
+        for (int round = 0; round < 3; round++) {
+            long dijkstraNanos = time(new DijkstraGraphSearch<>(), graph, sources, destinations);
+            long compactNanos = time(new CompactDijkstraGraphSearch<>(), compact, sources, destinations);
+            long treeNanos = time(new DijkstraGraphSearch<>(), graph, sources, new TestVertex[pairs]);
+            long compactTreeNanos = time(new CompactDijkstraGraphSearch<>(), compact, sources, new TestVertex[pairs]);
+            System.out.println(String.format("%s: %d vertexes, %d edges, compile %.1f ms; " +
+                                                     "pairs %.3f vs %.3f ms, trees %.3f vs %.3f ms per search",
+                                             name, compact.vertexCount(), compact.edgeCount(), compileNanos / 1e6,
+                                             dijkstraNanos / 1e6 / pairs, compactNanos / 1e6 / pairs,
+                                             treeNanos / 1e6 / pairs, compactTreeNanos / 1e6 / pairs));
+        }
+    }
+
+    private long time(GraphPathSearch<TestVertex, TestEdge> search, Graph<TestVertex, TestEdge> graph,
+                      TestVertex[] sources, TestVertex[] destinations) {
+        long start = System.nanoTime();
+        for (int i = 0; i < sources.length; i++) {
+            search.search(graph, sources[i], destinations[i], weight, ALL_PATHS);
+        }
+        return System.nanoTime() - start;
+    }
+
+    // Builds a k-ary fat-tree of core, aggregation and edge switches, linked
+    // in both directions.
+    static Graph<TestVertex, TestEdge> fatTree(int k) {
+        ImmutableSet.Builder<TestVertex> vertexes = ImmutableSet.builder();
+        ImmutableSet.Builder<TestEdge> edges = ImmutableSet.builder();
+        int half = k / 2;
+        TestVertex[] cores = new TestVertex[half * half];
+        for (int c = 0; c < cores.length; c++) {
+            cores[c] = new TestVertex("core-" + c);
+            vertexes.add(cores[c]);
+        }
+        for (int pod = 0; pod < k; pod++) {
+            TestVertex[] aggs = new TestVertex[half];
+            for (int a = 0; a < half; a++) {
+                aggs[a] = new TestVertex("agg-" + pod + "-" + a);
+                vertexes.add(aggs[a]);
+                for (int c = a * half; c < (a + 1) * half; c++) {
+                    link(edges, aggs[a], cores[c]);
+                }
+            }
+            for (int e = 0; e < half; e++) {
+                TestVertex edge = new TestVertex("edge-" + pod + "-" + e);
+                vertexes.add(edge);
+                for (TestVertex agg : aggs) {
+                    link(edges, edge, agg);
+                }
+            }
+        }
+        return new AdjacencyListsGraph<>(vertexes.build(), edges.build());
+    }
+
+    // Builds a two tier spine-leaf fabric, linked in both directions.
+    static Graph<TestVertex, TestEdge> spineLeaf(int spineCount, int leafCount) {
+        ImmutableSet.Builder<TestVertex> vertexes = ImmutableSet.builder();
+        ImmutableSet.Builder<TestEdge> edges = ImmutableSet.builder();
+        List<TestVertex> spines = new ArrayList<>();
+        for (int s = 0; s < spineCount; s++) {
+            TestVertex spine = new TestVertex("spine-" + s);
+            spines.add(spine);
+            vertexes.add(spine);
+        }
+        for (int l = 0; l < leafCount; l++) {
+            TestVertex leaf = new TestVertex("leaf-" + l);
+            vertexes.add(leaf);
+            spines.forEach(spine -> link(edges, leaf, spine));
+        }
+        return new AdjacencyListsGraph<>(vertexes.build(), edges.build());
+    }
+
+    private static void link(ImmutableSet.Builder<TestEdge> edges, TestVertex a, TestVertex b) {
+        edges.add(new TestEdge(a, b, 1));
+        edges.add(new TestEdge(b, a, 1));
+    }
+
+}
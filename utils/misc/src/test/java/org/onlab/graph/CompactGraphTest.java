@@ -0,0 +1,83 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onlab.graph;
+
+import org.junit.Test;
+
+import static com.google.common.collect.ImmutableSet.of;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test of the compressed sparse row graph form.
+ */
+public class CompactGraphTest extends GraphTest {
+
+    @Test
+    public void compile() {
+        Graph<TestVertex, TestEdge> source = new AdjacencyListsGraph<>(vertexes(), edges());
+        CompactGraph<TestVertex, TestEdge> compact = CompactGraph.compile(source);
+        assertSame("compact graph should not be compiled again", compact, CompactGraph.compile(compact));
+        assertEquals("incorrect vertex count", source.getVertexes().size(), compact.vertexCount());
+        assertEquals("incorrect edge count", source.getEdges().size(), compact.edgeCount());
+        assertEquals("incorrect vertexes", source.getVertexes(), compact.getVertexes());
+        assertEquals("no such vertex expected", -1, compact.index(Z));
+
+        for (TestVertex vertex : source.getVertexes()) {
+            int v = compact.index(vertex);
+            assertEquals("incorrect vertex", vertex, compact.vertex(v));
+            for (int e = compact.egressOffsets[v]; e < compact.egressOffsets[v + 1]; e++) {
+                assertTrue("incorrect egress edge", source.getEdgesFrom(vertex).contains(compact.edge(e)));
+                assertEquals("incorrect edge source", v, compact.edgeSources[e]);
+            }
+            assertEquals("incorrect egress count", source.getEdgesFrom(vertex).size(),
+                         compact.egressOffsets[v + 1] - compact.egressOffsets[v]);
+            for (int i = compact.ingressOffsets[v]; i < compact.ingressOffsets[v + 1]; i++) {
+                TestEdge edge = compact.edge(compact.ingressEdges[i]);
+                assertTrue("incorrect ingress edge", source.getEdgesTo(vertex).contains(edge));
+            }
+            assertEquals("incorrect ingress count", source.getEdgesTo(vertex).size(),
+                         compact.ingressOffsets[v + 1] - compact.ingressOffsets[v]);
+        }
+    }
+
+    @Test
+    public void emptyGraph() {
+        CompactGraph<TestVertex, TestEdge> compact = CompactGraph.compile(new AdjacencyListsGraph<>(of(A), of()));
+        assertEquals("incorrect vertex count", 1, compact.vertexCount());
+        assertEquals("incorrect edge count", 0, compact.edgeCount());
+    }
+
+    @Test
+    public void heap() {
+        IndexedHeap heap = new IndexedHeap(5);
+        heap.offer(0, 4.0);
+        heap.offer(1, 2.0);
+        heap.offer(2, 3.0);
+        heap.offer(3, 5.0);
+        heap.offer(3, 1.0);
+        heap.offer(1, 6.0);
+        assertTrue("vertex should be queued", heap.contains(2));
+        assertEquals("incorrect vertex", 3, heap.poll());
+        assertEquals("incorrect vertex", 1, heap.poll());
+        assertEquals("incorrect vertex", 2, heap.poll());
+        assertEquals("incorrect vertex", 0, heap.poll());
+        assertTrue("heap should be empty", heap.isEmpty());
+        assertTrue("vertex should not be queued", !heap.contains(2));
+    }
+
+}
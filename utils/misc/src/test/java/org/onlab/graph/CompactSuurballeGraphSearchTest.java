@@ -0,0 +1,62 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onlab.graph;
+
+import org.junit.Test;
+
+import java.util.Set;
+
+import static com.google.common.collect.ImmutableSet.of;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test of the Suurballe backup path algorithm finding shortest paths over
+ * compact graphs.
+ */
+public class CompactSuurballeGraphSearchTest extends SuurballeGraphSearchTest {
+
+    @Override
+    protected AbstractGraphPathSearch<TestVertex, TestEdge> graphSearch() {
+        return new SuurballeGraphSearch<>(new CompactDijkstraGraphSearch<>());
+    }
+
+    // Unlike DijkstraGraphSearch, which stops short of some of the equal
+    // cost parents reached through the zero cost edges of the residual graph,
+    // the compact search finds all of them and so yields more pairs.
+    @Override
+    @Test
+    public void multiplePathsMultiplePairs() {
+        setWeights();
+        Graph<TestVertex, TestEdge> graph = new AdjacencyListsGraph<>(of(A, B, C, D, E),
+                                                                      of(new TestEdge(A, B, 1),
+                                                                         new TestEdge(B, E, 1),
+                                                                         new TestEdge(A, C, 1),
+                                                                         new TestEdge(C, E, 1),
+                                                                         new TestEdge(A, D, 1),
+                                                                         new TestEdge(D, E, 1),
+                                                                         new TestEdge(A, E, 2)));
+        Set<Path<TestVertex, TestEdge>> paths =
+                graphSearch().search(graph, A, E, weight, GraphPathSearch.ALL_PATHS).paths();
+        assertTrue("too few paths", paths.size() >= 3);
+        for (Path<TestVertex, TestEdge> path : paths) {
+            DisjointPathPair<TestVertex, TestEdge> dpp = (DisjointPathPair<TestVertex, TestEdge>) path;
+            assertEquals("incorrect disjoint paths per path", 2, dpp.size());
+            assertEquals("incorrect path cost", 4.0, dpp.cost(), 0.0);
+        }
+    }
+
+}
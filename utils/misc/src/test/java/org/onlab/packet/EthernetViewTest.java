@@ -0,0 +1,148 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onlab.packet;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for class {@link EthernetView}.
+ */
+public class EthernetViewTest {
+
+    private static final MacAddress SRC_MAC = MacAddress.valueOf("00:00:00:00:00:01");
+    private static final MacAddress DST_MAC = MacAddress.valueOf("01:00:5e:00:00:02");
+    private static final Ip4Address SRC_IP = Ip4Address.valueOf("10.0.0.1");
+    private static final Ip4Address DST_IP = Ip4Address.valueOf("10.0.0.2");
+    private static final int SRC_PORT = 5000;
+    private static final int DST_PORT = 6000;
+
+    private static byte[] udpFrame(short vlanId) {
+        UDP udp = new UDP();
+        udp.setSourcePort(SRC_PORT);
+        udp.setDestinationPort(DST_PORT);
+        udp.setPayload(new Data(new byte[] {1, 2, 3}));
+        IPv4 ipv4 = new IPv4();
+        ipv4.setSourceAddress(SRC_IP.toInt());
+        ipv4.setDestinationAddress(DST_IP.toInt());
+        ipv4.setProtocol(IPv4.PROTOCOL_UDP);
+        ipv4.setTtl((byte) 64);
+        ipv4.setPayload(udp);
+        Ethernet eth = new Ethernet();
+        eth.setSourceMACAddress(SRC_MAC);
+        eth.setDestinationMACAddress(DST_MAC);
+        eth.setVlanID(vlanId);
+        eth.setEtherType(Ethernet.TYPE_IPV4);
+        eth.setPayload(ipv4);
+        return eth.serialize();
+    }
+
+    /**
+     * Tests the views of a VLAN tagged UDP over IPv4 frame.
+     */
+    @Test
+    public void testUdp() throws Exception {
+        EthernetView view = EthernetView.wrap(udpFrame((short) 10));
+
+        assertThat(view.sourceMac(), is(SRC_MAC));
+        assertThat(view.destinationMac(), is(DST_MAC));
+        assertThat(view.etherType(), is(Ethernet.TYPE_IPV4));
+        assertThat(view.vlanId(), is((short) 10));
+        assertTrue(view.isMulticast());
+        assertFalse(view.isBroadcast());
+        assertThat(view.arp(), nullValue());
+
+        IPv4View ipv4 = view.ipv4();
+        assertThat(ipv4.sourceAddress(), is(SRC_IP));
+        assertThat(ipv4.destinationAddress(), is(DST_IP));
+        assertThat(ipv4.protocol(), is(IPv4.PROTOCOL_UDP));
+        assertThat(ipv4.ttl(), is((byte) 64));
+        assertThat(ipv4.tcp(), nullValue());
+
+        TransportView udp = ipv4.udp();
+        assertThat(udp.sourcePort(), is(SRC_PORT));
+        assertThat(udp.destinationPort(), is(DST_PORT));
+        ByteBuffer payload = udp.payload();
+        assertThat(payload.remaining(), is(3));
+        assertThat(payload.get(2), is((byte) 3));
+        assertTrue(payload.isReadOnly());
+
+        Ethernet parsed = view.parse();
+        assertThat(parsed.getVlanID(), is((short) 10));
+        assertThat(parsed.getSourceMAC(), is(SRC_MAC));
+    }
+
+    /**
+     * Tests the view of an ARP request, at an offset in its buffer.
+     */
+    @Test
+    public void testArp() {
+        ARP request = new ARP();
+        request.setHardwareType(ARP.HW_TYPE_ETHERNET)
+                .setProtocolType(ARP.PROTO_TYPE_IP)
+                .setHardwareAddressLength((byte) MacAddress.MAC_ADDRESS_LENGTH)
+                .setProtocolAddressLength((byte) Ip4Address.BYTE_LENGTH)
+                .setOpCode(ARP.OP_REQUEST)
+                .setSenderHardwareAddress(SRC_MAC.toBytes())
+                .setSenderProtocolAddress(SRC_IP.toOctets())
+                .setTargetHardwareAddress(MacAddress.ZERO.toBytes())
+                .setTargetProtocolAddress(DST_IP.toOctets());
+        Ethernet eth = new Ethernet();
+        eth.setSourceMACAddress(SRC_MAC);
+        eth.setDestinationMACAddress(MacAddress.BROADCAST);
+        eth.setEtherType(Ethernet.TYPE_ARP);
+        eth.setPayload(request);
+        byte[] frame = eth.serialize();
+        byte[] data = new byte[frame.length + 4];
+        System.arraycopy(frame, 0, data, 4, frame.length);
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        buffer.position(4);
+
+        EthernetView view = EthernetView.wrap(buffer);
+        assertThat(buffer.position(), is(4));
+        assertThat(view.etherType(), is(Ethernet.TYPE_ARP));
+        assertThat(view.vlanId(), is(Ethernet.VLAN_UNTAGGED));
+        assertTrue(view.isBroadcast());
+        assertFalse(view.isMulticast());
+        assertThat(view.ipv4(), nullValue());
+
+        ArpView arp = view.arp();
+        assertThat(arp.opCode(), is(ARP.OP_REQUEST));
+        assertThat(arp.senderHardwareAddress(), is(SRC_MAC));
+        assertThat(arp.senderProtocolAddress(), is(SRC_IP));
+        assertThat(arp.targetProtocolAddress(), is(DST_IP));
+    }
+
+    /**
+     * Tests that truncated headers have no view.
+     */
+    @Test
+    public void testTruncated() {
+        byte[] frame = udpFrame(Ethernet.VLAN_UNTAGGED);
+
+        assertThat(EthernetView.wrap(Arrays.copyOf(frame, 13)), nullValue());
+        assertThat(EthernetView.wrap(Arrays.copyOf(frame, 14 + 19)).ipv4(), nullValue());
+        assertThat(EthernetView.wrap(Arrays.copyOf(frame, 14 + 20 + 7)).ipv4().udp(), nullValue());
+    }
+}
@@ -60,6 +60,20 @@ public class AbstractAccumulatorTest {
         assertEquals("incorrect batch", "abcde", accumulator.batch);
     }
 
+    @Test
+    public void flush() {
+        TestAccumulator accumulator = new TestAccumulator();
+        accumulator.ready = false;
+        accumulator.add(new TestItem("a"));
+        accumulator.add(new TestItem("b"));
+        accumulator.flush();
+        assertEquals("incorrect batch", "ab", accumulator.batch);
+        accumulator.flush();
+        assertEquals("incorrect batch count", 1, accumulator.batchCount);
+        timer.advanceTimeMillis(120, LONG_REAL_TIME_DELAY);
+        assertEquals("incorrect batch count", 1, accumulator.batchCount);
+    }
+
     @Test
     public void timeTrigger() {
         TestAccumulator accumulator = new TestAccumulator();
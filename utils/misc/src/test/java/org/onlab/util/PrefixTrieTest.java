@@ -0,0 +1,212 @@
+/*
+ * Copyright 2016-present Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onlab.util;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.Ignore;
+import org.junit.Test;
+import org.onlab.packet.IpAddress;
+import org.onlab.packet.IpPrefix;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Unit tests for the prefix trie.
+ */
+public class PrefixTrieTest {
+
+    private static final IpPrefix P0 = IpPrefix.valueOf("0.0.0.0/0");
+    private static final IpPrefix P8 = IpPrefix.valueOf("10.0.0.0/8");
+    private static final IpPrefix P16 = IpPrefix.valueOf("10.1.0.0/16");
+    private static final IpPrefix P24 = IpPrefix.valueOf("10.1.2.0/24");
+    private static final IpPrefix OTHER = IpPrefix.valueOf("10.128.0.0/9");
+
+    @Test
+    public void basics() {
+        PrefixTrie<String> trie = new PrefixTrie<>(IpAddress.Version.INET);
+        assertThat(trie.isEmpty(), is(true));
+
+        assertThat(trie.put(P24, "24"), nullValue());
+        assertThat(trie.put(P8, "8"), nullValue());
+        assertThat(trie.put(OTHER, "other"), nullValue());
+        assertThat(trie.put(P24, "24b"), is("24"));
+        assertThat(trie.size(), is(3));
+
+        assertThat(trie.get(P24), is("24b"));
+        assertThat(trie.get(P8), is("8"));
+        assertThat(trie.get(P16), nullValue());
+        assertThat(trie.get(P0), nullValue());
+
+        assertThat(trie.longestPrefixMatch(IpAddress.valueOf("10.1.2.3")), is("24b"));
+        assertThat(trie.longestPrefixMatch(IpAddress.valueOf("10.1.3.3")), is("8"));
+        assertThat(trie.longestPrefixMatch(IpAddress.valueOf("10.200.0.1")), is("other"));
+        assertThat(trie.longestPrefixMatch(IpAddress.valueOf("11.0.0.1")), nullValue());
+
+        trie.put(P0, "0");
+        assertThat(trie.longestPrefixMatch(IpAddress.valueOf("11.0.0.1")), is("0"));
+        assertThat(trie.values(), is(ImmutableList.of("0", "8", "24b", "other")));
+
+        assertThat(trie.remove(P16), nullValue());
+        assertThat(trie.remove(P8), is("8"));
+        assertThat(trie.remove(P8), nullValue());
+        assertThat(trie.longestPrefixMatch(IpAddress.valueOf("10.1.3.3")), is("0"));
+        assertThat(trie.size(), is(3));
+
+        Map<IpPrefix, String> entries = new HashMap<>();
+        trie.forEach(entries::put);
+        assertThat(entries.size(), is(3));
+        assertThat(entries.get(P24), is("24b"));
+
+        trie.clear();
+        assertThat(trie.isEmpty(), is(true));
+        assertThat(trie.get(P24), nullValue());
+    }
+
+    @Test
+    public void ipv6() {
+        PrefixTrie<Integer> trie = new PrefixTrie<>(IpAddress.Version.INET6);
+        trie.put(IpPrefix.valueOf("2001:db8::/32"), 32);
+        trie.put(IpPrefix.valueOf("2001:db8:0:0:8000::/65"), 65);
+        trie.put(IpPrefix.valueOf("2001:db8::1/128"), 128);
+
+        assertThat(trie.longestPrefixMatch(IpAddress.valueOf("2001:db8::1")), is(128));
+        assertThat(trie.longestPrefixMatch(IpAddress.valueOf("2001:db8::2")), is(32));
+        assertThat(trie.longestPrefixMatch(IpAddress.valueOf("2001:db8::8000:0:0:1")), is(65));
+        assertThat(trie.get(IpPrefix.valueOf("2001:db8:0:0:8000::/65")), is(65));
+
+        List<IpPrefix> prefixes = new ArrayList<>();
+        trie.forEach((prefix, value) -> prefixes.add(prefix));
+        assertThat(prefixes, is(ImmutableList.of(IpPrefix.valueOf("2001:db8::/32"),
+                                                 IpPrefix.valueOf("2001:db8::1/128"),
+                                                 IpPrefix.valueOf("2001:db8:0:0:8000::/65"))));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void versionMismatch() {
+        new PrefixTrie<String>(IpAddress.Version.INET).put(IpPrefix.valueOf("2001:db8::/32"), "x");
+    }
+
+    /**
+     * Checks random operations against a hash map and a linear longest
+     * prefix match.
+     */
+    @Test
+    public void randomized() {
+        Random random = new Random(7);
+        PrefixTrie<IpPrefix> trie = new PrefixTrie<>(IpAddress.Version.INET);
+        Map<IpPrefix, IpPrefix> reference = new HashMap<>();
+
+        for (int i = 0; i < 20_000; i++) {
+            // Few distinct high bits so that prefixes nest and collide
+            IpPrefix prefix = IpPrefix.valueOf(IpAddress.valueOf(random.nextInt() & 0xf0f0f000),
+                                               random.nextInt(33));
+            if (random.nextInt(3) == 0) {
+                assertEquals(reference.remove(prefix), trie.remove(prefix));
+            } else {
+                assertEquals(reference.put(prefix, prefix), trie.put(prefix, prefix));
+            }
+        }
+        assertThat(trie.size(), is(reference.size()));
+        reference.forEach((prefix, value) -> assertThat(trie.get(prefix), is(value)));
+
+        for (int i = 0; i < 2_000; i++) {
+            IpAddress address = IpAddress.valueOf(random.nextInt() & 0xf0f0f0f0);
+            IpPrefix match = null;
+            for (IpPrefix prefix : reference.keySet()) {
+                if (prefix.contains(address)
+                        && (match == null || prefix.prefixLength() > match.prefixLength())) {
+                    match = prefix;
+                }
+            }
+            assertEquals(match, trie.longestPrefixMatch(address));
+        }
+    }
+
+    /**
+     * Measures memory and insertion rate for a full Internet table of 700k
+     * IPv4 and 100k IPv6 routes, against a concurrent hash map keyed by prefix.
+     */
+    @Test
+    @Ignore
+    public void fullTablePerf() {
+        List<IpPrefix> prefixes4 = randomPrefixes(IpAddress.Version.INET, 700_000, 16, 24);
+        List<IpPrefix> prefixes6 = randomPrefixes(IpAddress.Version.INET6, 100_000, 29, 48);
+        Object value = new Object();
+
+        long base = usedMemory();
+        long start = System.nanoTime();
+        PrefixTrie<Object> trie4 = new PrefixTrie<>(IpAddress.Version.INET);
+        PrefixTrie<Object> trie6 = new PrefixTrie<>(IpAddress.Version.INET6);
+        prefixes4.forEach(prefix -> trie4.put(prefix, value));
+        prefixes6.forEach(prefix -> trie6.put(prefix, value));
+        long elapsed = System.nanoTime() - start;
+        report("trie", trie4.size() + trie6.size(), usedMemory() - base, elapsed);
+
+        // Keys are copied so that the map retains its own prefix objects
+        base = usedMemory();
+        start = System.nanoTime();
+        Map<IpPrefix, Object> map = new ConcurrentHashMap<>();
+        prefixes4.forEach(prefix -> map.put(IpPrefix.valueOf(prefix.address(), prefix.prefixLength()), value));
+        prefixes6.forEach(prefix -> map.put(IpPrefix.valueOf(prefix.address(), prefix.prefixLength()), value));
+        elapsed = System.nanoTime() - start;
+        report("hash map", map.size(), usedMemory() - base, elapsed);
+
+        assertThat(trie4.size() + trie6.size(), is(map.size()));
+    }
+
+    private static List<IpPrefix> randomPrefixes(IpAddress.Version version, int count,
+                                                 int minLength, int maxLength) {
+        Random random = new Random(42);
+        List<IpPrefix> prefixes = new ArrayList<>(count);
+        byte[] octets = new byte[IpAddress.byteLength(version)];
+        for (int i = 0; i < count; i++) {
+            random.nextBytes(octets);
+            if (version == IpAddress.Version.INET6) {
+                // Global unicast space
+                octets[0] = (byte) (0x20 | (octets[0] & 0x0f));
+            }
+            // Most routes of a full table are of the longest announced length
+            int length = random.nextInt(2) == 0 ? maxLength
+                    : minLength + random.nextInt(maxLength - minLength);
+            prefixes.add(IpPrefix.valueOf(IpAddress.valueOf(version, octets), length));
+        }
+        return prefixes;
+    }
+
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static void report(String name, int routes, long bytes, long nanos) {
+        System.out.println(String.format("%s: %d routes, %.1f bytes/route, %.0f routes/s",
+                                         name, routes, (double) bytes / routes,
+                                         routes / (nanos / 1e9)));
+    }
+}